@@ -0,0 +1,15 @@
+package su.softcom.cldt.common.process;
+
+import java.util.List;
+
+/**
+ * Outcome of a finished command. The output holds the captured stdout lines
+ * followed by the stderr lines prefixed with {@code ERROR: }; it is empty for
+ * streams passed to a handler or consumer instead of being captured.
+ */
+public record ProcessResult(List<String> command, int exitCode, String output) {
+
+	public boolean isSuccess() {
+		return exitCode == 0;
+	}
+}
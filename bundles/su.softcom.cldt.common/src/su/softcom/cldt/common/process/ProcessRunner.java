@@ -0,0 +1,382 @@
+package su.softcom.cldt.common.process;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+
+/**
+ * Runs external tools asynchronously. At most {@link #getMaxProcesses()}
+ * commands of a runner are alive at a time; further commands wait in a queue,
+ * so the shared {@link #getDefault() default runner} bounds the processes of
+ * every bundle that uses it.
+ * <p>
+ * The returned futures complete when the process has exited. Completing a
+ * future before that, by canceling it or when its timeout expires, kills the
+ * process together with the processes it spawned. A timeout counts from the
+ * start of the process, not from the time the command was queued. Handlers and
+ * consumers run on the threads of the runner and must not wait for other
+ * commands of it.
+ * <p>
+ * Captured output is bounded: lines beyond the capture limit of a stream are
+ * written to a temporary file, which is named at the end of the captured text.
+ */
+public final class ProcessRunner {
+	public static final int DEFAULT_CAPTURE_LIMIT = 1024 * 1024;
+	private static final long WAIT_POLL_MILLIS = 100;
+	private static final String ERROR_PREFIX = "ERROR: ";
+	private static final ProcessRunner DEFAULT = new ProcessRunner(Runtime.getRuntime().availableProcessors());
+	private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "ProcessRunner timer");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private final int maxProcesses;
+	private final ExecutorService executor;
+
+	public ProcessRunner(int maxProcesses) {
+		if (maxProcesses < 1) {
+			throw new IllegalArgumentException("maxProcesses must be positive: " + maxProcesses);
+		}
+		AtomicInteger threadCount = new AtomicInteger();
+		this.maxProcesses = maxProcesses;
+		this.executor = Executors.newFixedThreadPool(maxProcesses, runnable -> {
+			Thread thread = new Thread(runnable, "ProcessRunner " + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Returns the runner shared by all bundles, limited to one process per
+	 * available processor.
+	 */
+	public static ProcessRunner getDefault() {
+		return DEFAULT;
+	}
+
+	public int getMaxProcesses() {
+		return maxProcesses;
+	}
+
+	/**
+	 * Runs a command and captures its output.
+	 */
+	public CompletableFuture<ProcessResult> execute(List<String> command, Map<String, String> env) {
+		return execute(command, env, (Duration) null);
+	}
+
+	/**
+	 * Runs a command and captures its output. If the process is still running
+	 * when the timeout expires, it is killed and the future fails with a
+	 * {@link TimeoutException}. A {@code null} or zero timeout waits forever.
+	 */
+	public CompletableFuture<ProcessResult> execute(List<String> command, Map<String, String> env,
+			Duration timeout) {
+		return execute(command, env, timeout, DEFAULT_CAPTURE_LIMIT);
+	}
+
+	/**
+	 * Runs a command and captures at most {@code captureLimit} characters per
+	 * stream of its output in memory.
+	 */
+	public CompletableFuture<ProcessResult> execute(List<String> command, Map<String, String> env,
+			Duration timeout, int captureLimit) {
+		return submit(command, env, timeout, process -> {
+			BoundedOutput output = new BoundedOutput("", captureLimit);
+			BoundedOutput errors = new BoundedOutput(ERROR_PREFIX, captureLimit);
+			try {
+				drain(process, output, errors);
+			} finally {
+				output.close();
+				errors.close();
+			}
+			return output.toString() + errors;
+		});
+	}
+
+	/**
+	 * Runs a command and passes every line it writes to the handler as soon as
+	 * the line is read. Calls for stdout and stderr lines are serialized.
+	 */
+	public CompletableFuture<ProcessResult> execute(List<String> command, Map<String, String> env,
+			LineHandler lineHandler) {
+		return execute(command, env, null, lineHandler);
+	}
+
+	public CompletableFuture<ProcessResult> execute(List<String> command, Map<String, String> env,
+			Duration timeout, LineHandler lineHandler) {
+		LineHandler serializedHandler = (line, error) -> {
+			synchronized (lineHandler) {
+				lineHandler.handle(line, error);
+			}
+		};
+		return submit(command, env, timeout, process -> {
+			drain(process, serializedHandler, serializedHandler);
+			return "";
+		});
+	}
+
+	/**
+	 * Runs a command and passes its stdout to the consumer while the command is
+	 * writing it, so the output can be parsed or fed to another process without
+	 * a temporary file. Whatever the consumer leaves unread is discarded; stderr
+	 * is captured.
+	 */
+	public CompletableFuture<ProcessResult> pipe(List<String> command, Map<String, String> env,
+			OutputConsumer consumer) {
+		return pipe(command, env, null, DEFAULT_CAPTURE_LIMIT, consumer);
+	}
+
+	public CompletableFuture<ProcessResult> pipe(List<String> command, Map<String, String> env, Duration timeout,
+			int captureLimit, OutputConsumer consumer) {
+		return submit(command, env, timeout, process -> {
+			BoundedOutput errors = new BoundedOutput(ERROR_PREFIX, captureLimit);
+			Pump errorPump = Pump.start(process.getErrorStream(), errors, true);
+			try (InputStream stdout = process.getInputStream()) {
+				consumer.accept(stdout);
+				stdout.transferTo(OutputStream.nullOutputStream());
+			} catch (IOException | RuntimeException e) {
+				destroyTree(process);
+				throw e;
+			} finally {
+				errorPump.finish();
+				errors.close();
+			}
+			return errors.toString();
+		});
+	}
+
+	/**
+	 * Waits for a future and cancels it once the monitor is canceled, which
+	 * kills its process, then throws {@link OperationCanceledException}. A
+	 * failure of the future is rethrown as it is when it is an I/O or runtime
+	 * exception.
+	 */
+	public static <T> T join(CompletableFuture<T> future, IProgressMonitor monitor)
+			throws IOException, InterruptedException {
+		while (true) {
+			try {
+				return future.get(WAIT_POLL_MILLIS, TimeUnit.MILLISECONDS);
+			} catch (TimeoutException e) {
+				if (monitor != null && monitor.isCanceled()) {
+					future.cancel(true);
+					throw new OperationCanceledException();
+				}
+			} catch (CancellationException e) {
+				throw new OperationCanceledException();
+			} catch (InterruptedException e) {
+				future.cancel(true);
+				throw e;
+			} catch (ExecutionException e) {
+				Throwable cause = e.getCause();
+				if (cause instanceof IOException ioException) {
+					throw ioException;
+				}
+				if (cause instanceof TimeoutException) {
+					throw new IOException("Command timed out", cause);
+				}
+				if (cause instanceof RuntimeException runtimeException) {
+					throw runtimeException;
+				}
+				throw new IOException(cause);
+			}
+		}
+	}
+
+	private CompletableFuture<ProcessResult> submit(List<String> command, Map<String, String> env, Duration timeout,
+			OutputReader outputReader) {
+		List<String> commandLine = List.copyOf(command);
+		CompletableFuture<ProcessResult> future = new CompletableFuture<>();
+		executor.execute(() -> {
+			if (future.isDone()) {
+				return;
+			}
+			try {
+				ProcessBuilder pb = new ProcessBuilder(commandLine);
+				if (env != null) {
+					pb.environment().putAll(env);
+				}
+				Process process = pb.start();
+				ScheduledFuture<?> timer = timeout == null || timeout.isZero() ? null
+						: TIMER.schedule(() -> future.completeExceptionally(new TimeoutException()),
+								timeout.toMillis(), TimeUnit.MILLISECONDS);
+				future.whenComplete((result, failure) -> {
+					if (timer != null) {
+						timer.cancel(false);
+					}
+					if (failure != null) {
+						destroyTree(process);
+					}
+				});
+				String output = outputReader.read(process);
+				future.complete(new ProcessResult(commandLine, process.waitFor(), output));
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				future.completeExceptionally(e);
+			} catch (IOException | RuntimeException e) {
+				future.completeExceptionally(e);
+			}
+		});
+		return future;
+	}
+
+	private static void destroyTree(Process process) {
+		process.descendants().forEach(ProcessHandle::destroyForcibly);
+		process.destroyForcibly();
+	}
+
+	/**
+	 * Drains stdout and stderr of the process concurrently, so a command that
+	 * fills one pipe while the other one is read cannot block.
+	 */
+	private static void drain(Process process, LineHandler outputHandler, LineHandler errorHandler)
+			throws IOException, InterruptedException {
+		Pump errorPump = Pump.start(process.getErrorStream(), errorHandler, true);
+		try {
+			readLines(new BufferedReader(new InputStreamReader(process.getInputStream())), outputHandler, false);
+		} catch (IOException | RuntimeException e) {
+			destroyTree(process);
+			throw e;
+		} finally {
+			errorPump.finish();
+		}
+	}
+
+	private static void readLines(BufferedReader reader, LineHandler handler, boolean error) throws IOException {
+		try (reader) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				handler.handle(line, error);
+			}
+		}
+	}
+
+	@FunctionalInterface
+	public interface LineHandler {
+		void handle(String line, boolean error) throws IOException;
+	}
+
+	@FunctionalInterface
+	public interface OutputConsumer {
+		void accept(InputStream stdout) throws IOException;
+	}
+
+	@FunctionalInterface
+	private interface OutputReader {
+		String read(Process process) throws IOException, InterruptedException;
+	}
+
+	/**
+	 * Reads the lines of a stream on a daemon thread. If the handler fails, the
+	 * rest of the stream is still drained so the process cannot block on it.
+	 */
+	private static final class Pump extends Thread {
+		private final BufferedReader reader;
+		private final LineHandler handler;
+		private final boolean error;
+		private IOException failure;
+
+		private Pump(InputStream in, LineHandler handler, boolean error) {
+			super(error ? "ProcessRunner stderr" : "ProcessRunner stdout");
+			this.reader = new BufferedReader(new InputStreamReader(in));
+			this.handler = handler;
+			this.error = error;
+			setDaemon(true);
+		}
+
+		static Pump start(InputStream in, LineHandler handler, boolean error) {
+			Pump pump = new Pump(in, handler, error);
+			pump.start();
+			return pump;
+		}
+
+		@Override
+		public void run() {
+			try {
+				readLines(reader, handler, error);
+			} catch (IOException | RuntimeException e) {
+				failure = e instanceof IOException ioException ? ioException : new IOException(e);
+				try {
+					reader.transferTo(Writer.nullWriter());
+				} catch (IOException ignored) {
+					// The stream is closed, so there is nothing left to drain.
+				}
+			}
+		}
+
+		void finish() throws IOException, InterruptedException {
+			join();
+			if (failure != null) {
+				throw failure;
+			}
+		}
+	}
+
+	/**
+	 * Keeps the first lines of a stream in memory up to a character limit and
+	 * writes the remaining lines to a temporary file.
+	 */
+	private static final class BoundedOutput implements LineHandler {
+		private final StringBuilder text = new StringBuilder();
+		private final String prefix;
+		private final int limit;
+		private Path spillFile;
+		private Writer spill;
+		private int spilledLines;
+
+		BoundedOutput(String prefix, int limit) {
+			this.prefix = prefix;
+			this.limit = limit;
+		}
+
+		@Override
+		public void handle(String line, boolean error) throws IOException {
+			if (spill == null && text.length() + prefix.length() + line.length() + 1 <= limit) {
+				text.append(prefix).append(line).append('\n');
+				return;
+			}
+			if (spill == null) {
+				spillFile = Files.createTempFile("cldt-command-", ".log");
+				spillFile.toFile().deleteOnExit();
+				spill = Files.newBufferedWriter(spillFile, StandardCharsets.UTF_8);
+			}
+			spill.write(line);
+			spill.write('\n');
+			spilledLines++;
+		}
+
+		void close() throws IOException {
+			if (spill != null) {
+				spill.close();
+			}
+		}
+
+		@Override
+		public String toString() {
+			return spill == null ? text.toString()
+					: text + prefix + "... " + spilledLines + " more lines in " + spillFile + "\n";
+		}
+	}
+}
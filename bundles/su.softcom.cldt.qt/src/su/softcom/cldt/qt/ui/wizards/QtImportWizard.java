@@ -12,7 +12,9 @@ import java.nio.file.StandardCopyOption;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.net.URL;
 
 import org.eclipse.swt.widgets.Display;
@@ -37,6 +39,7 @@ import org.eclipse.ui.wizards.datatransfer.FileSystemStructureProvider;
 import org.eclipse.ui.wizards.datatransfer.ImportOperation;
 import org.osgi.framework.Bundle;
 
+import su.softcom.cldt.common.process.ProcessRunner;
 import su.softcom.cldt.core.cmake.CMakeParser;
 import su.softcom.cldt.core.cmake.CMakeParser.UnexpectedTokenException;
 import su.softcom.cldt.core.cmake.CMakeRoot;
@@ -480,172 +483,164 @@ public class QtImportWizard extends Wizard implements IImportWizard {
 
     /**
      * Processes subdirectories for .pro and .pri files, running BuildMigrator and handling CMakeLists.txt.
+     * A directory is converted after the conversion of its parent directory has completed, because qmake reads the
+     * whole subtree and the conversion writes CMake files into it; only disjoint subtrees are converted concurrently.
+     * Files that share an output directory are converted one after another.
      */
     private void processSubdirectories(File rootDir, String buildMigratorPath, File outputDir) {
+        CompletableFuture<Void> done = CompletableFuture.completedFuture(null);
+        Map<Path, CompletableFuture<Void>> directoryConversions = new HashMap<>();
+        Map<File, CompletableFuture<Void>> outputConversions = new HashMap<>();
         try {
             String mainProFilePath = page.getQmakeProFilePath();
             Path mainProFile = mainProFilePath != null ? Paths.get(mainProFilePath) : null;
+            // Files.walk visits a directory before its subdirectories, so the parent conversion is always known.
             Files.walk(rootDir.toPath())
                 .filter(Files::isDirectory)
                 .forEach(dir -> {
+                    File subOutputDir = new File(outputDir, dir.toFile().getName());
+                    CompletableFuture<Void> conversion = CompletableFuture.allOf(
+                            directoryConversions.getOrDefault(dir.getParent(), done),
+                            outputConversions.getOrDefault(subOutputDir, done));
                     try {
-                        Files.list(dir).filter(path -> {
+                        for (Path file : Files.list(dir).filter(path -> {
                             String fileName = path.getFileName().toString();
                             // Exclude the main .pro file
                             return (fileName.endsWith(".pro") || fileName.endsWith(".pri"))
                                     && (mainProFile == null || !path.equals(mainProFile));
-                        }).forEach(file -> {
-                            try {
-                                 String fileName = file.getFileName().toString();
-                                 boolean isPriFile = fileName.endsWith(".pri");
-                                 Path proFile = file;
-                                 if (isPriFile) {
-                                     String proFileName = fileName.replace(".pri", ".pro");
-                                     proFile = dir.resolve(proFileName);
-                                     Files.copy(file, proFile, StandardCopyOption.REPLACE_EXISTING);
-                                     consoleView.logMessage(Messages.QtImportWizard_85 + proFile);
-                                 }
-                                 File subOutputDir = new File(outputDir, dir.toFile().getName());
-                                 if (!subOutputDir.exists() && !subOutputDir.mkdirs()) {
-                                     consoleView.logError(Messages.QtImportWizard_86 + subOutputDir.getAbsolutePath());
-                                     return;
-                                 }
-                                 consoleView.logMessage(Messages.QtImportWizard_138 + fileName + Messages.QtImportWizard_139 + dir);
-                                 if (!executeCommand(buildMigratorPath, "--commands", "build", "--source_dir", dir.toFile().getAbsolutePath(),
-                                         "--out_dir", subOutputDir.getAbsolutePath(), "--build_command", "qmake -d " + proFile,
-                                         "--log_provider", "CONSOLE")) {
-                                     consoleView.logError(Messages.QtImportWizard_97 + proFile);
-                                     if (isPriFile) {
-                                         Files.deleteIfExists(proFile);
-                                     }
-                                     return;
-                                 }
-                                 File subLogFile = new File(subOutputDir, "build_command_1.log");
-                                 if (!executeCommand(buildMigratorPath, "--commands", "parse", "--logs", subLogFile.getAbsolutePath(),
-                                         "--log_type", "qmake", "--build_dirs", subOutputDir.getAbsolutePath(),
-                                         "--working_dir", dir.toFile().getAbsolutePath(), "--platform", "linux",
-                                         "--out_dir", subOutputDir.getAbsolutePath())) {
-                                     consoleView.logError(Messages.QtImportWizard_112 + proFile);
-                                     if (isPriFile) {
-                                         Files.deleteIfExists(proFile);
-                                     }
-                                     return;
-                                 }
-                                 if (!executeCommand(buildMigratorPath, "--commands", "optimize", "generate", "--generator", "cmake",
-                                         "--out_dir", subOutputDir.getAbsolutePath())) {
-                                     consoleView.logError(Messages.QtImportWizard_121 + proFile);
-                                     if (isPriFile) {
-                                         Files.deleteIfExists(proFile);
-                                     }
-                                     return;
-                                 }
-                                 Path cmakeLists = subOutputDir.toPath().resolve("CMakeLists.txt");
-                                if (Files.exists(cmakeLists)) {
-                                    String targetCmakeName = isPriFile ? fileName.replace(".pri", ".cmake") : "CMakeLists.txt";
-                                    Path targetCmakePath = dir.resolve(targetCmakeName);
-                                    Files.copy(cmakeLists, targetCmakePath, StandardCopyOption.REPLACE_EXISTING);
-                                    consoleView.logMessage(Messages.QtImportWizard_126 + targetCmakePath);
-                                }
-                                Path extensionsCmake = subOutputDir.toPath().resolve("extensions.cmake");
-                                if (Files.exists(extensionsCmake)) {
-                                    Path targetExtensionsPath = dir.resolve("extensions.cmake");
-                                    Files.copy(extensionsCmake, targetExtensionsPath, StandardCopyOption.REPLACE_EXISTING);
-                                    consoleView.logMessage(Messages.QtImportWizard_129 + targetExtensionsPath);
-                                }
-                                 if (isPriFile) {
-                                     Files.deleteIfExists(proFile);
-                                     consoleView.logMessage(Messages.QtImportWizard_130 + proFile);
-                                 }
-                             } catch (IOException e) {
-                                 consoleView.logError(Messages.QtImportWizard_131 + file + ": " + e.getMessage());
-                             }
-                         });
-                     } catch (IOException e) {
-                         consoleView.logError(Messages.QtImportWizard_133 + dir + ": " + e.getMessage());
-                     }
-                 });
+                        }).toList()) {
+                            conversion = conversion.thenCompose(
+                                    ignored -> processSubproject(dir, file, buildMigratorPath, subOutputDir));
+                        }
+                    } catch (IOException e) {
+                        consoleView.logError(Messages.QtImportWizard_133 + dir + ": " + e.getMessage());
+                    }
+                    directoryConversions.put(dir, conversion);
+                    outputConversions.put(subOutputDir, conversion);
+                });
         } catch (IOException e) {
             consoleView.logError(Messages.QtImportWizard_135 + e.getMessage());
         }
+        CompletableFuture.allOf(directoryConversions.values().toArray(new CompletableFuture<?>[0])).join();
     }
 
     /**
-     * Executes a command and logs its output.
+     * Runs BuildMigrator for a .pro or .pri file of a subdirectory and copies the generated CMake files next to it.
      */
-    private boolean executeCommand(String... command) {
+    private CompletableFuture<Void> processSubproject(Path dir, Path file, String buildMigratorPath,
+            File subOutputDir) {
+        String fileName = file.getFileName().toString();
+        boolean isPriFile = fileName.endsWith(".pri");
+        Path proFile = isPriFile ? dir.resolve(fileName.replace(".pri", ".pro")) : file;
         try {
-            ProcessBuilder processBuilder = new ProcessBuilder(command);
-            consoleView.logMessage(Messages.QtImportWizard_111 + String.join(" ", command));
-            Process process = processBuilder.start();
-
-            Thread stdoutThread = new Thread(() -> {
-                try (BufferedReader stdoutReader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
-                    String line;
-                    while ((line = stdoutReader.readLine()) != null) {
-                        String finalLine = line;
-                        Display.getDefault().asyncExec(() -> {
-                            consoleView.logMessage(finalLine);
-                        });
-                    }
-                } catch (IOException e) {
-                    String errorMessage = Messages.QtImportWizard_147 + e.getMessage();
-                    Display.getDefault().asyncExec(() -> {
-                        consoleView.logError(errorMessage);
-                    });
+            if (isPriFile) {
+                Files.copy(file, proFile, StandardCopyOption.REPLACE_EXISTING);
+                logMessageAsync(Messages.QtImportWizard_85 + proFile);
+            }
+            if (!subOutputDir.exists() && !subOutputDir.mkdirs()) {
+                logErrorAsync(Messages.QtImportWizard_86 + subOutputDir.getAbsolutePath());
+                return CompletableFuture.completedFuture(null);
+            }
+        } catch (IOException e) {
+            logErrorAsync(Messages.QtImportWizard_131 + file + ": " + e.getMessage());
+            return CompletableFuture.completedFuture(null);
+        }
+        logMessageAsync(Messages.QtImportWizard_138 + fileName + Messages.QtImportWizard_139 + dir);
+        File subLogFile = new File(subOutputDir, "build_command_1.log");
+        CompletableFuture<String> conversion = CompletableFuture.completedFuture(null);
+        conversion = thenExecute(conversion, Messages.QtImportWizard_97, buildMigratorPath, "--commands", "build",
+                "--source_dir", dir.toFile().getAbsolutePath(), "--out_dir", subOutputDir.getAbsolutePath(),
+                "--build_command", "qmake -d " + proFile, "--log_provider", "CONSOLE");
+        conversion = thenExecute(conversion, Messages.QtImportWizard_112, buildMigratorPath, "--commands", "parse",
+                "--logs", subLogFile.getAbsolutePath(), "--log_type", "qmake", "--build_dirs",
+                subOutputDir.getAbsolutePath(), "--working_dir", dir.toFile().getAbsolutePath(), "--platform", "linux",
+                "--out_dir", subOutputDir.getAbsolutePath());
+        conversion = thenExecute(conversion, Messages.QtImportWizard_121, buildMigratorPath, "--commands", "optimize",
+                "generate", "--generator", "cmake", "--out_dir", subOutputDir.getAbsolutePath());
+        return conversion.thenAccept(failure -> {
+            try {
+                if (failure != null) {
+                    logErrorAsync(failure + proFile);
+                } else {
+                    copyGeneratedFiles(dir, subOutputDir.toPath(),
+                            isPriFile ? fileName.replace(".pri", ".cmake") : "CMakeLists.txt");
                 }
-            });
-
-            Thread stderrThread = new Thread(() -> {
-                try (BufferedReader stderrReader = new BufferedReader(new InputStreamReader(process.getErrorStream()))) {
-                    String line;
-                    while ((line = stderrReader.readLine()) != null) {
-                        String finalLine = line;
-                        Display.getDefault().asyncExec(() -> {
-                            if (finalLine.contains("INFO")) {
-                                consoleView.logMessage(finalLine);
-                            } else if (finalLine.contains("WARNING")) {
-                                consoleView.logMessage(finalLine);
-                            } else if (finalLine.contains("ERROR") || finalLine.contains("CRITICAL")) {
-                                consoleView.logError(finalLine);
-                            } else {
-                                consoleView.logMessage(finalLine);
-                            }
-                        });
+                if (isPriFile) {
+                    Files.deleteIfExists(proFile);
+                    if (failure == null) {
+                        logMessageAsync(Messages.QtImportWizard_130 + proFile);
                     }
-                } catch (IOException e) {
-                    String errorMessage = Messages.QtImportWizard_114 + e.getMessage();
-                    Display.getDefault().asyncExec(() -> {
-                        consoleView.logError(errorMessage);
-                    });
                 }
-            });
+            } catch (IOException e) {
+                logErrorAsync(Messages.QtImportWizard_131 + file + ": " + e.getMessage());
+            }
+        });
+    }
 
-            stdoutThread.start();
-            stderrThread.start();
+    /**
+     * Runs the command once the previous step has succeeded, that is completed with {@code null}. The returned
+     * future completes with the failure message of the first step that failed.
+     */
+    private CompletableFuture<String> thenExecute(CompletableFuture<String> previous, String failureMessage,
+            String... command) {
+        return previous.thenCompose(failure -> failure != null ? CompletableFuture.completedFuture(failure)
+                : executeCommandAsync(command).thenApply(succeeded -> succeeded ? null : failureMessage));
+    }
 
-            int exitCode = process.waitFor();
-            
-            stdoutThread.join();
-            stderrThread.join();
+    private void copyGeneratedFiles(Path dir, Path subOutputDir, String targetCmakeName) throws IOException {
+        Path cmakeLists = subOutputDir.resolve("CMakeLists.txt");
+        if (Files.exists(cmakeLists)) {
+            Path targetCmakePath = dir.resolve(targetCmakeName);
+            Files.copy(cmakeLists, targetCmakePath, StandardCopyOption.REPLACE_EXISTING);
+            logMessageAsync(Messages.QtImportWizard_126 + targetCmakePath);
+        }
+        Path extensionsCmake = subOutputDir.resolve("extensions.cmake");
+        if (Files.exists(extensionsCmake)) {
+            Path targetExtensionsPath = dir.resolve("extensions.cmake");
+            Files.copy(extensionsCmake, targetExtensionsPath, StandardCopyOption.REPLACE_EXISTING);
+            logMessageAsync(Messages.QtImportWizard_129 + targetExtensionsPath);
+        }
+    }
 
-            if (exitCode != 0) {
-                Display.getDefault().asyncExec(() -> {
-                    consoleView.logError(Messages.QtImportWizard_117 + exitCode);
-                });
-                return false;
+    /**
+     * Executes a command and logs its output.
+     */
+    private boolean executeCommand(String... command) {
+        return executeCommandAsync(command).join();
+    }
+
+    /**
+     * Starts a command on the shared process runner and logs its output. The returned future completes with
+     * {@code true} if the command succeeded.
+     */
+    private CompletableFuture<Boolean> executeCommandAsync(String... command) {
+        logMessageAsync(Messages.QtImportWizard_111 + String.join(" ", command));
+        return ProcessRunner.getDefault().execute(Arrays.asList(command), null, (line, error) -> {
+            if (error && (line.contains("ERROR") || line.contains("CRITICAL"))) {
+                logErrorAsync(line);
             } else {
-                Display.getDefault().asyncExec(() -> {
-                    consoleView.logMessage(Messages.QtImportWizard_118);
-                });
-                return true;
+                logMessageAsync(line);
             }
-        } catch (IOException | InterruptedException e) {
-            String errorMessage = Messages.QtImportWizard_115 + String.join(" ", command) + ": " + e.getMessage();
-            Display.getDefault().asyncExec(() -> {
-                consoleView.logError(errorMessage);
-            });
-            return false;
-        }
+        }).handle((result, failure) -> {
+            if (failure != null) {
+                logErrorAsync(Messages.QtImportWizard_115 + String.join(" ", command) + ": " + failure.getMessage());
+                return false;
+            }
+            if (!result.isSuccess()) {
+                logErrorAsync(Messages.QtImportWizard_117 + result.exitCode());
+                return false;
+            }
+            logMessageAsync(Messages.QtImportWizard_118);
+            return true;
+        });
+    }
+
+    private void logMessageAsync(String message) {
+        Display.getDefault().asyncExec(() -> consoleView.logMessage(message));
+    }
+
+    private void logErrorAsync(String error) {
+        Display.getDefault().asyncExec(() -> consoleView.logError(error));
     }
 
     /**
@@ -17,6 +17,7 @@ public class Activator extends AbstractUIPlugin {
 
 	@Override
 	public void stop(BundleContext context) throws Exception {
+		FunctionNameProcessor.shutdownDemangler();
 		plugin = null;
 		super.stop(context);
 	}
@@ -0,0 +1,42 @@
+package su.softcom.cldt.testing.core;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Hash index over analysis scope paths. A report path is in scope when it is a
+ * scope path or ends with one at a path segment boundary, which costs one set
+ * lookup per segment of the report path instead of a scan of the scope.
+ */
+public final class AnalysisScopeIndex {
+	private final Set<String> paths;
+
+	public AnalysisScopeIndex(List<String> analysisScope) {
+		this.paths = new HashSet<>();
+		for (String path : analysisScope) {
+			String normalizedPath = normalize(path);
+			if (!normalizedPath.isEmpty()) {
+				paths.add(normalizedPath);
+			}
+		}
+	}
+
+	public boolean contains(String filePath) {
+		String normalizedPath = normalize(filePath);
+		if (paths.contains(normalizedPath)) {
+			return true;
+		}
+		for (int i = normalizedPath.indexOf('/'); i >= 0; i = normalizedPath.indexOf('/', i + 1)) {
+			if (paths.contains(normalizedPath.substring(i + 1))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static String normalize(String path) {
+		String normalizedPath = path.trim().replace('\\', '/');
+		return normalizedPath.startsWith("./") ? normalizedPath.substring(2) : normalizedPath;
+	}
+}
@@ -1,56 +1,154 @@
 package su.softcom.cldt.testing.core;
 
-import java.io.BufferedReader;
+import java.io.FilterInputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 
+import su.softcom.cldt.common.process.ProcessResult;
+import su.softcom.cldt.common.process.ProcessRunner;
+
+/**
+ * Runs external tools on the shared {@link ProcessRunner} and waits for them,
+ * so the commands of a launch count against the same process limit as the
+ * commands of every other bundle. Output is captured the way the runner
+ * captures it. Executors are immutable; {@link #withTimeout(Duration)} and
+ * {@link #withCaptureLimit(int)} derive configured copies.
+ */
 public class CommandExecutor {
+	private final ProcessRunner runner;
+	private final IProgressMonitor monitor;
+	private final Duration timeout;
+	private final int captureLimit;
+
+	public CommandExecutor() {
+		this(null);
+	}
+
+	/**
+	 * Creates an executor that kills a running command, together with the
+	 * processes it spawned, as soon as the monitor is canceled. The canceled
+	 * command then throws {@link OperationCanceledException}.
+	 */
+	public CommandExecutor(IProgressMonitor monitor) {
+		this(ProcessRunner.getDefault(), monitor, null, ProcessRunner.DEFAULT_CAPTURE_LIMIT);
+	}
+
+	private CommandExecutor(ProcessRunner runner, IProgressMonitor monitor, Duration timeout, int captureLimit) {
+		this.runner = runner;
+		this.monitor = monitor;
+		this.timeout = timeout;
+		this.captureLimit = captureLimit;
+	}
+
+	/**
+	 * Returns an executor that kills every command, together with the processes
+	 * it spawned, once it has run longer than the timeout and then throws an
+	 * {@link IOException}. A {@code null} or non-positive timeout disables it.
+	 */
+	public CommandExecutor withTimeout(Duration timeout) {
+		boolean enabled = timeout != null && !timeout.isNegative() && !timeout.isZero();
+		return new CommandExecutor(runner, monitor, enabled ? timeout : null, captureLimit);
+	}
+
+	/**
+	 * Returns an executor that keeps at most the given number of characters per
+	 * stream of a command in memory.
+	 */
+	public CommandExecutor withCaptureLimit(int captureLimit) {
+		return new CommandExecutor(runner, monitor, timeout, captureLimit);
+	}
+
+	/**
+	 * Runs a command and appends its captured output to {@code output}. If an
+	 * output file is given, stdout is written to it instead of being captured.
+	 */
 	public int executeCommand(List<String> command, Map<String, String> env, String outputFile, StringBuilder output)
 			throws IOException, InterruptedException {
-		ProcessBuilder pb = new ProcessBuilder(command);
-		configureEnvironment(pb, env);
-		configureOutput(pb, outputFile);
-		Process process = pb.start();
-		captureOutput(process, output);
-		return process.waitFor();
+		ProcessResult result = ProcessRunner.join(outputFile != null
+				? runner.pipe(command, env, timeout, captureLimit,
+						stdout -> Files.copy(stdout, Paths.get(outputFile), StandardCopyOption.REPLACE_EXISTING))
+				: runner.execute(command, env, timeout, captureLimit), monitor);
+		if (output != null) {
+			output.append(result.output());
+		}
+		return result.exitCode();
 	}
 
 	public void executeCommand(List<String> command, Map<String, String> env, String outputFile)
 			throws IOException, InterruptedException {
-		executeCommand(command, env, outputFile, null);
+		executeCommand(command, env, outputFile, (StringBuilder) null);
 	}
 
-	private void configureEnvironment(ProcessBuilder pb, Map<String, String> env) {
-		if (env != null) {
-			pb.environment().putAll(env);
+	/**
+	 * Runs a command and passes its stdout to the consumer while the command is
+	 * writing it. If an output file is given, the stdout is copied to it as it is
+	 * read. The captured stderr is appended to {@code output}.
+	 */
+	public int executeCommand(List<String> command, Map<String, String> env, String outputFile,
+			ProcessRunner.OutputConsumer consumer, StringBuilder output) throws IOException, InterruptedException {
+		ProcessResult result = ProcessRunner.join(runner.pipe(command, env, timeout, captureLimit, stdout -> {
+			try (OutputStream copy = outputFile != null ? Files.newOutputStream(Paths.get(outputFile)) : null) {
+				InputStream in = copy != null ? new TeeInputStream(stdout, copy) : stdout;
+				consumer.accept(in);
+				in.transferTo(OutputStream.nullOutputStream());
+			}
+		}), monitor);
+		if (output != null) {
+			output.append(result.output());
 		}
+		return result.exitCode();
 	}
 
-	private void configureOutput(ProcessBuilder pb, String outputFile) {
-		if (outputFile != null) {
-			pb.redirectOutput(new File(outputFile));
-		}
+	/**
+	 * Runs a command and passes every line it writes to the handler as soon as
+	 * the line is read, without buffering the output. Calls for stdout and stderr
+	 * lines are serialized.
+	 */
+	public int executeCommand(List<String> command, Map<String, String> env, ProcessRunner.LineHandler lineHandler)
+			throws IOException, InterruptedException {
+		return ProcessRunner.join(runner.execute(command, env, timeout, lineHandler), monitor).exitCode();
 	}
 
-	private void captureOutput(Process process, StringBuilder output) throws IOException {
-		if (output == null) {
-			return;
+	private static final class TeeInputStream extends FilterInputStream {
+		private final OutputStream copy;
+
+		TeeInputStream(InputStream in, OutputStream copy) {
+			super(in);
+			this.copy = copy;
 		}
-		try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
-			appendLines(reader, output, "");
+
+		@Override
+		public int read() throws IOException {
+			int b = super.read();
+			if (b != -1) {
+				copy.write(b);
+			}
+			return b;
 		}
-		try (BufferedReader errorReader = new BufferedReader(new InputStreamReader(process.getErrorStream()))) {
-			appendLines(errorReader, output, "ERROR: ");
+
+		@Override
+		public int read(byte[] buffer, int offset, int length) throws IOException {
+			int count = super.read(buffer, offset, length);
+			if (count > 0) {
+				copy.write(buffer, offset, count);
+			}
+			return count;
 		}
-	}
 
-	private void appendLines(BufferedReader reader, StringBuilder output, String prefix) throws IOException {
-		String line;
-		while ((line = reader.readLine()) != null) {
-			output.append(prefix).append(line).append("\n");
+		@Override
+		public long skip(long n) throws IOException {
+			byte[] buffer = new byte[(int) Math.min(n, 8192)];
+			int count = read(buffer, 0, buffer.length);
+			return Math.max(count, 0);
 		}
 	}
-}
\ No newline at end of file
+}
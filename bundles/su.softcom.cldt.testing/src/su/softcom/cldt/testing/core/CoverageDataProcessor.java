@@ -2,8 +2,10 @@ package su.softcom.cldt.testing.core;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import org.eclipse.core.runtime.ILog;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Platform;
@@ -12,27 +14,15 @@ import org.eclipse.core.runtime.Status;
 import su.softcom.cldt.testing.ui.CoverageNode;
 import su.softcom.cldt.testing.utils.CoverageUtils;
 
+/**
+ * Builds the coverage tree of the analysis scope. Every node gets the line,
+ * branch and function counters in the same pass, so the tree does not depend
+ * on the counter shown in the view.
+ */
 public class CoverageDataProcessor {
 	private static final ILog LOGGER = Platform.getLog(CoverageDataProcessor.class);
 	private static final String PLUGIN_ID = "su.softcom.cldt.testing";
-	private static final String LINE_COUNTERS = "Lines";
-	private static final String BRANCH_COUNTERS = "Branches";
-	private static final String FUNCTION_COUNTERS = "Functions";
-	private static final String WARNING_NO_COUNTER_DATA = "No counter data for file: %s, counter: %s";
-
-	private String selectedCounter;
-
-	public CoverageDataProcessor(String selectedCounter) {
-		this.selectedCounter = selectedCounter;
-	}
-
-	public void setSelectedCounter(String selectedCounter) {
-		this.selectedCounter = selectedCounter;
-	}
-
-	public String getSelectedCounter() {
-		return selectedCounter;
-	}
+	private static final String WARNING_NO_COUNTER_DATA = "No counter data for file: %s";
 
 	public List<CoverageNode> buildCoverageTree(ReportParser.CoverageResult coverageResults,
 			List<String> analysisScope) {
@@ -42,177 +32,143 @@ public class CoverageDataProcessor {
 		}
 
 		List<CoverageNode> rootNodes = new ArrayList<>();
-		Map<String, CoverageNode> folderNodes = new HashMap<>();
-
-		processFiles(coverageResults, analysisScope, rootNodes, folderNodes);
-		aggregateFolderData(folderNodes.values());
+		processFiles(coverageResults, new HashSet<>(analysisScope), new PathTrie(rootNodes));
+		aggregateFolderData(rootNodes);
 
 		return rootNodes;
 	}
 
-	private void processFiles(ReportParser.CoverageResult coverageResults, List<String> analysisScope,
-			List<CoverageNode> rootNodes, Map<String, CoverageNode> folderNodes) {
-		for (Map.Entry<String, Map<String, Object[]>> entry : coverageResults.fileCoverage().entrySet()) {
-			String filePath = entry.getKey();
+	private void processFiles(ReportParser.CoverageResult coverageResults, Set<String> analysisScope, PathTrie root) {
+		CoverageStore store = CoverageStore.of(coverageResults);
+		for (int i = 0; i < store.fileCount(); i++) {
+			String filePath = store.path(i);
 			String filteredPath = CoverageUtils.removeFirstSegment(filePath, 4);
 			if (!analysisScope.contains(filteredPath)) {
 				continue;
 			}
 
-			Map<String, Object[]> counters = entry.getValue();
-			Object[] counterData = getCounterData(counters, filePath);
-			if (counterData == null) {
-				LOGGER.log(new Status(IStatus.WARNING, PLUGIN_ID,
-						String.format(WARNING_NO_COUNTER_DATA, filePath, selectedCounter)));
+			CoverageStore.FileView file = store.file(i);
+			if (!hasCounters(file)) {
+				LOGGER.log(new Status(IStatus.WARNING, PLUGIN_ID, String.format(WARNING_NO_COUNTER_DATA, filePath)));
 				continue;
 			}
 
-			List<ReportParser.FunctionCoverage> functions = coverageResults.functionCoverage().get(filePath);
-			List<ReportParser.LineCoverage> lines = coverageResults.lineCoverage().get(filePath);
-			List<ReportParser.BranchCoverage> branches = coverageResults.branchCoverage().get(filePath);
+			List<ReportParser.FunctionCoverage> functions = file.functions();
+			FunctionLineIndex lineIndex = file.lineIndex();
+			if (lineIndex == null && !functions.isEmpty()) {
+				lineIndex = FunctionLineIndex.build(functions, file.functionLines(), file.branches());
+			}
 
-			createFileNode(filteredPath, counterData, rootNodes, folderNodes, functions, lines, branches);
+			createFileNode(filteredPath, file, root, functions, lineIndex);
 		}
 	}
 
-	private Object[] getCounterData(Map<String, Object[]> counters, String filePath) {
-		Object[] counterData = counters.get(selectedCounter);
-		if (counterData == null) {
-			if (selectedCounter.equals("Счетчики функций") || selectedCounter.equals("Function Counters")) {
-				counterData = counters.get(FUNCTION_COUNTERS);
-			} else if (selectedCounter.equals("Счетчики строк") || selectedCounter.equals("Line Counters")) {
-				counterData = counters.get(LINE_COUNTERS);
-			} else if (selectedCounter.equals("Счетчики ветвлений") || selectedCounter.equals("Branch Counters")) {
-				counterData = counters.get(BRANCH_COUNTERS);
+	private static boolean hasCounters(CoverageStore.FileView file) {
+		for (CoverageStore.Counter counter : CoverageStore.Counter.values()) {
+			if (file.hasCounter(counter)) {
+				return true;
 			}
 		}
-		if (counterData == null) {
-			LOGGER.log(new Status(IStatus.WARNING, PLUGIN_ID,
-					String.format(WARNING_NO_COUNTER_DATA, filePath, selectedCounter)));
-		}
-		return counterData;
+		return false;
 	}
 
-	private CoverageNode createFileNode(String filteredPath, Object[] counterData, List<CoverageNode> rootNodes,
-			Map<String, CoverageNode> folderNodes, List<ReportParser.FunctionCoverage> functions,
-			List<ReportParser.LineCoverage> lines, List<ReportParser.BranchCoverage> branches) {
+	private CoverageNode createFileNode(String filteredPath, CoverageStore.FileView file, PathTrie root,
+			List<ReportParser.FunctionCoverage> functions, FunctionLineIndex lineIndex) {
 		String[] pathSegments = filteredPath.split("/");
-		CoverageNode parent = null;
-		StringBuilder currentPath = new StringBuilder();
-
+		PathTrie parent = root;
 		for (int i = 0; i < pathSegments.length - 1; i++) {
-			String segment = pathSegments[i];
-			currentPath.append(segment).append("/");
-			String folderPath = currentPath.toString();
-			CoverageNode folderNode = folderNodes.computeIfAbsent(folderPath,
-					k -> new CoverageNode(segment, CoverageNode.NodeType.FOLDER));
-			if (parent == null && !rootNodes.contains(folderNode)) {
-				rootNodes.add(folderNode);
-			} else if (parent != null && !parent.getChildren().contains(folderNode)) {
-				parent.addChild(folderNode);
-			}
-			parent = folderNode;
+			parent = parent.folder(pathSegments[i]);
 		}
 
 		String fileName = pathSegments[pathSegments.length - 1];
 		CoverageNode fileNode = new CoverageNode(fileName, CoverageNode.NodeType.FILE);
-		fileNode.setCoverageData(counterData);
+		for (CoverageStore.Counter counter : CoverageStore.Counter.values()) {
+			if (file.hasCounter(counter)) {
+				fileNode.setCounter(counter, file.covered(counter), file.total(counter));
+			}
+		}
 
 		if (functions != null) {
 			for (ReportParser.FunctionCoverage function : functions) {
-				String displayName = function.name();
-				Object[] functionData = calculateFunctionData(function, lines != null ? lines : new ArrayList<>(),
-						branches != null ? branches : new ArrayList<>(), displayName);
-				CoverageNode functionNode = new CoverageNode(displayName, CoverageNode.NodeType.FUNCTION);
-				functionNode.setCoverageData(functionData);
-				fileNode.addChild(functionNode);
+				fileNode.addChild(createFunctionNode(function, lineIndex));
 			}
 		}
 
-		if (parent != null) {
-			parent.addChild(fileNode);
-		} else {
-			rootNodes.add(fileNode);
-		}
+		parent.add(fileNode);
 		return fileNode;
 	}
 
-	private Object[] calculateFunctionData(ReportParser.FunctionCoverage function,
-			List<ReportParser.LineCoverage> functionLines, List<ReportParser.BranchCoverage> branches,
-			String simpleFunctionName) {
-		if (selectedCounter.equals(LINE_COUNTERS) || selectedCounter.equals("Счетчики строк")
-				|| selectedCounter.equals("Line Counters")) {
-			int functionCoveredLines = 0;
-			int functionTotalLines = 0;
-
-			for (ReportParser.LineCoverage line : functionLines) {
-				if (line.lineNumber() >= function.startLine() && line.lineNumber() <= function.endLine()) {
-					functionTotalLines++;
-					if (line.executionCount() > 0) {
-						functionCoveredLines++;
-					}
-				}
-			}
+	private CoverageNode createFunctionNode(ReportParser.FunctionCoverage function, FunctionLineIndex lineIndex) {
+		CoverageNode functionNode = new CoverageNode(function.name(), CoverageNode.NodeType.FUNCTION);
+		int coveredLines = lineIndex.coveredLineCount(function.startLine(), function.endLine());
+		int totalLines = lineIndex.lineCount(function.startLine(), function.endLine());
+		if (totalLines == 0 && function.executionCount() > 0) {
+			totalLines = 1;
+			coveredLines = 1;
+		}
+		functionNode.setCounter(CoverageStore.Counter.LINES, coveredLines, totalLines);
+		functionNode.setCounter(CoverageStore.Counter.BRANCHES,
+				lineIndex.coveredBranchCount(function.startLine(), function.endLine()),
+				lineIndex.branchCount(function.startLine(), function.endLine()));
+		functionNode.setCounter(CoverageStore.Counter.FUNCTIONS, function.executionCount() > 0 ? 1 : 0, 1);
+		return functionNode;
+	}
 
-			if (functionTotalLines == 0 && function.executionCount() > 0) {
-				functionTotalLines = 1;
-				functionCoveredLines = 1;
+	/**
+	 * Sums the counters of the files and folders below every folder, visiting
+	 * each folder once, after its subfolders.
+	 */
+	private void aggregateFolderData(Iterable<CoverageNode> nodes) {
+		for (CoverageNode node : nodes) {
+			if (node.getType() != CoverageNode.NodeType.FOLDER) {
+				continue;
 			}
-
-			double percentage = functionTotalLines > 0 ? (100.0 * functionCoveredLines / functionTotalLines) : 0.0;
-			return new Object[] { simpleFunctionName, String.format("%.2f%%", percentage), functionCoveredLines,
-					functionTotalLines - functionCoveredLines, functionTotalLines };
-		} else if (selectedCounter.equals(BRANCH_COUNTERS) || selectedCounter.equals("Счетчики ветвлений")
-				|| selectedCounter.equals("Branch Counters")) {
-			int functionTotalBranches = 0;
-			int coveredBranches = 0;
-
-			for (ReportParser.BranchCoverage branch : branches) {
-				if (branch.lineNumber() >= function.startLine() && branch.lineNumber() <= function.endLine()) {
-					functionTotalBranches++;
-					if (branch.covered()) {
-						coveredBranches++;
-					}
+			aggregateFolderData(node.getChildren());
+			for (CoverageNode child : node.getChildren()) {
+				if (child.getType() == CoverageNode.NodeType.FOLDER || child.getType() == CoverageNode.NodeType.FILE) {
+					node.addCounters(child);
 				}
 			}
+		}
+	}
 
-			double percentage = functionTotalBranches > 0 ? (100.0 * coveredBranches / functionTotalBranches) : 0.0;
-			return new Object[] { simpleFunctionName, String.format("%.2f%%", percentage), coveredBranches,
-					functionTotalBranches - coveredBranches, functionTotalBranches };
-		} else if (selectedCounter.equals(FUNCTION_COUNTERS) || selectedCounter.equals("Счетчики функций")
-				|| selectedCounter.equals("Function Counters")) {
-			int functionTotalFunctions = 1;
-			int functionCoveredFunctions = function.executionCount() > 0 ? 1 : 0;
-			double percentage = functionTotalFunctions > 0 ? (100.0 * functionCoveredFunctions / functionTotalFunctions)
-					: 0.0;
-			return new Object[] { simpleFunctionName, String.format("%.2f%%", percentage), functionCoveredFunctions,
-					functionTotalFunctions - functionCoveredFunctions, functionTotalFunctions };
+	/**
+	 * Folder level of the tree being built. Subfolders are looked up by name,
+	 * so adding a file costs one hash lookup per path segment. The root level
+	 * has no folder node and collects the top-level nodes in a list.
+	 */
+	private static final class PathTrie {
+		private final CoverageNode folderNode;
+		private final List<CoverageNode> rootNodes;
+		private final Map<String, PathTrie> folders = new HashMap<>();
+
+		PathTrie(List<CoverageNode> rootNodes) {
+			this.folderNode = null;
+			this.rootNodes = rootNodes;
 		}
 
-		return new Object[] { simpleFunctionName, "0.00%", 0, 0, 0 };
-	}
+		private PathTrie(CoverageNode folderNode) {
+			this.folderNode = folderNode;
+			this.rootNodes = null;
+		}
 
-	private void aggregateFolderData(Iterable<CoverageNode> folderNodes) {
-		for (CoverageNode folderNode : folderNodes) {
-			int covered = 0;
-			int total = 0;
-			for (CoverageNode child : folderNode.getChildren()) {
-				if (child.getType() == CoverageNode.NodeType.FOLDER) {
-					aggregateFolderData(List.of(child));
-				}
-				if (child.getType() == CoverageNode.NodeType.FOLDER || child.getType() == CoverageNode.NodeType.FILE) {
-					Object[] childData = child.getCoverageData();
-					if (childData != null && childData.length >= 5) {
-						covered += ((Number) childData[2]).intValue();
-						total += ((Number) childData[4]).intValue();
-					}
-				}
+		void add(CoverageNode node) {
+			if (folderNode != null) {
+				folderNode.addChild(node);
+			} else {
+				rootNodes.add(node);
 			}
-			if (total > 0) {
-				double percentage = 100.0 * covered / total;
-				folderNode.setCoverageData(new Object[] { folderNode.getName(), String.format("%.2f%%", percentage),
-						covered, total - covered, total });
+		}
+
+		PathTrie folder(String name) {
+			PathTrie folder = folders.get(name);
+			if (folder == null) {
+				CoverageNode node = new CoverageNode(name, CoverageNode.NodeType.FOLDER);
+				add(node);
+				folder = new PathTrie(node);
+				folders.put(name, folder);
 			}
+			return folder;
 		}
 	}
-}
\ No newline at end of file
+}
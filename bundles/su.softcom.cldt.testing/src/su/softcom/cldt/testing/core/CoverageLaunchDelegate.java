@@ -2,31 +2,41 @@ package su.softcom.cldt.testing.core;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import org.eclipse.core.resources.IFile;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.eclipse.core.resources.IFolder;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
-import org.eclipse.core.resources.IncrementalProjectBuilder;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.ILog;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.SubMonitor;
 import org.eclipse.debug.core.ILaunch;
 import org.eclipse.debug.core.ILaunchConfiguration;
 import org.eclipse.debug.core.model.ILaunchConfigurationDelegate2;
 import org.eclipse.ui.PlatformUI;
 import org.eclipse.ui.IWorkbenchPage;
+import su.softcom.cldt.common.process.ProcessResult;
+import su.softcom.cldt.common.process.ProcessRunner;
 import su.softcom.cldt.core.CMakeCorePlugin;
 import su.softcom.cldt.core.cmake.ICMakeProject;
 import su.softcom.cldt.core.cmake.Target;
@@ -35,26 +45,38 @@ import su.softcom.cldt.testing.ui.CoverageResultView;
 public class CoverageLaunchDelegate implements ILaunchConfigurationDelegate2, CoverageResultView.CoverageDataProvider {
 	private static final ILog LOGGER = Platform.getLog(CoverageLaunchDelegate.class);
 	private static final String PLUGIN_ID = "su.softcom.cldt.testing";
-	private static final String CMAKE_CONFIGURE_BUILDER_ID = "su.softcom.cldt.core.builder.configure";
 	private static final String PROFILE_RAW_FILE = "coverage.profraw";
 	private static final String PROFILE_DATA_FILE = "coverage.profdata";
 	private static final String REPORT_FILE = "coverage_report.lcov";
+	private static final String JSON_REPORT_FILE = "coverage_report.json";
+	private static final String PROFILE_RAW_DIR = "coverage_profraw";
+	private static final String PROFILE_PATTERN_SUFFIX = "-%p-%m.profraw";
+	private static final String SOURCES_RESPONSE_FILE = "coverage_sources.rsp";
+	private static final String PROFILES_RESPONSE_FILE = "coverage_profraw.rsp";
+	private static final int MAX_INLINE_ARGUMENTS_LENGTH = 8 * 1024;
 
-	private ReportParser.CoverageResult coverageData;
+	private volatile ReportParser.CoverageResult coverageData;
+	private String coverageDataKey;
 
 	@Override
 	public void launch(ILaunchConfiguration configuration, String mode, ILaunch launch, IProgressMonitor monitor)
 			throws CoreException {
 		IProject project = getProject(configuration);
 		ICMakeProject cmakeProject = getCMakeProject(project);
-		String targetName = getTargetName(configuration);
+		List<String> targetNames = getTargetNames(configuration);
 		List<String> analysisScope = getAnalysisScope(configuration);
-		String coverageDataDir = getCoverageDataDir(project, cmakeProject);
-		String executablePath = getExecutablePath(cmakeProject, targetName, coverageDataDir);
-		IFolder buildFolder = cmakeProject.getBuildFolder();
+		InstrumentedBuild instrumentedBuild = new InstrumentedBuild(cmakeProject);
+		String coverageDataDir = getCoverageDataDir(project, instrumentedBuild);
+		List<String> executablePaths = getExecutablePaths(cmakeProject, instrumentedBuild, targetNames,
+				coverageDataDir);
+		IFolder buildFolder = instrumentedBuild.getFolder();
 		analysisScope = CoverageSettingsManager.filterAnalysisScope(analysisScope, project);
+		int shardCount = Math.max(configuration.getAttribute("shardCount", 1), 1);
+		int mergeThreads = Math.max(configuration.getAttribute("mergeThreads", 0), 0);
+		Duration testTimeout = Duration.ofSeconds(Math.max(configuration.getAttribute("testTimeout", 0), 0));
 
-		executeLaunch(coverageDataDir, executablePath, analysisScope, project, buildFolder);
+		executeLaunch(coverageDataDir, executablePaths, analysisScope, project, buildFolder, shardCount, mergeThreads,
+				testTimeout, monitor);
 	}
 
 	private IProject getProject(ILaunchConfiguration configuration) throws CoreException {
@@ -81,14 +103,19 @@ public class CoverageLaunchDelegate implements ILaunchConfigurationDelegate2, Co
 		return targetName;
 	}
 
+	private List<String> getTargetNames(ILaunchConfiguration configuration) throws CoreException {
+		List<String> targetNames = configuration.getAttribute("targetNames", List.of());
+		return targetNames.isEmpty() ? List.of(getTargetName(configuration)) : targetNames;
+	}
+
 	private List<String> getAnalysisScope(ILaunchConfiguration configuration) throws CoreException {
 		return configuration.getAttribute("analysisScope", List.of());
 	}
 
-	private String getCoverageDataDir(IProject project, ICMakeProject cmakeProject) throws CoreException {
+	private String getCoverageDataDir(IProject project, InstrumentedBuild instrumentedBuild) throws CoreException {
 		String coverageDataDir = CoveragePropertySettings.getCoverageDataDirProperty(project);
 		if (coverageDataDir.isEmpty()) {
-			return cmakeProject.getBuildFolder().getLocation().toOSString();
+			return instrumentedBuild.getPath().toString();
 		}
 		try {
 			Path projectPath = Paths.get(project.getLocation().toOSString()).toAbsolutePath().normalize();
@@ -96,31 +123,38 @@ public class CoverageLaunchDelegate implements ILaunchConfigurationDelegate2, Co
 		} catch (Exception e) {
 			LOGGER.log(new Status(IStatus.WARNING, PLUGIN_ID,
 					"Failed to resolve coverage data directory: " + coverageDataDir, e));
-			return cmakeProject.getBuildFolder().getLocation().toOSString();
+			return instrumentedBuild.getPath().toString();
 		}
 	}
 
-	private String getExecutablePath(ICMakeProject cmakeProject, String targetName, String coverageDataDir)
-			throws CoreException {
+	private List<String> getExecutablePaths(ICMakeProject cmakeProject, InstrumentedBuild instrumentedBuild,
+			List<String> targetNames, String coverageDataDir) throws CoreException {
+		Set<String> executablePaths = new LinkedHashSet<>();
+		for (String targetName : targetNames) {
+			executablePaths.add(getExecutablePath(cmakeProject, instrumentedBuild, targetName, coverageDataDir));
+		}
+		return new ArrayList<>(executablePaths);
+	}
+
+	private String getExecutablePath(ICMakeProject cmakeProject, InstrumentedBuild instrumentedBuild,
+			String targetName, String coverageDataDir) throws CoreException {
 		Target target = cmakeProject.getTarget(targetName);
 		if (target == null) {
 			LOGGER.log(new Status(IStatus.WARNING, PLUGIN_ID, "Target not found in CMake project: " + targetName));
 		}
 
-		String executablePath = findExecutablePath(target, coverageDataDir);
+		String executablePath = findExecutablePath(target, instrumentedBuild, coverageDataDir);
 		if (executablePath == null) {
 			throw newCoreException("Executable not found for target: " + targetName, IStatus.ERROR);
 		}
 		return executablePath;
 	}
 
-	private String findExecutablePath(Target target, String coverageDataDir) {
+	private String findExecutablePath(Target target, InstrumentedBuild instrumentedBuild, String coverageDataDir) {
 		if (target != null) {
-			for (IFile file : target.getArtifacts()) {
-				File fileObj = file.getRawLocation().makeAbsolute().toFile();
-				if (fileObj.canExecute()) {
-					return fileObj.getAbsolutePath();
-				}
+			String artifactPath = instrumentedBuild.findArtifact(target);
+			if (artifactPath != null) {
+				return artifactPath;
 			}
 		}
 
@@ -130,21 +164,37 @@ public class CoverageLaunchDelegate implements ILaunchConfigurationDelegate2, Co
 		return executables != null && executables.length > 0 ? executables[0].getAbsolutePath() : null;
 	}
 
-	private void executeLaunch(String coverageDataDir, String executablePath, List<String> analysisScope,
-			IProject project, IFolder buildFolder) throws CoreException {
-		CommandExecutor commandExecutor = new CommandExecutor();
+	/**
+	 * Runs the tests, merges their profiles and exports the report as stages of
+	 * the launch monitor. Canceling the monitor kills the running tool, and the
+	 * view only receives the result once every stage has finished. The names
+	 * demangled for the report are saved afterwards.
+	 */
+	private void executeLaunch(String coverageDataDir, List<String> executablePaths, List<String> analysisScope,
+			IProject project, IFolder buildFolder, int shardCount, int mergeThreads, Duration testTimeout,
+			IProgressMonitor monitor) throws CoreException {
+		SubMonitor progress = SubMonitor.convert(monitor, Messages.CoverageLaunchDelegate_0, 100);
+		CommandExecutor commandExecutor = new CommandExecutor(progress);
 		try {
 			if (CoveragePreferenceSettings.isCleanProfileData()) {
 				CoverageSettingsManager.cleanProfileData(coverageDataDir);
 			}
-			runTests(commandExecutor, coverageDataDir, executablePath);
-			generateReport(commandExecutor, coverageDataDir, executablePath, analysisScope);
-			refreshCoverageDataDir(project, coverageDataDir);
-			if (CoveragePreferenceSettings.isOpenViewAuto()) {
-				openCoverageView();
-			}
-			updateCoverageViewData(coverageData, analysisScope, project);
-			refreshBuildFolder(buildFolder);
+			SubMonitor testProgress = progress.split(50);
+			progress.subTask(Messages.CoverageLaunchDelegate_1);
+			List<String> rawProfilePaths = executablePaths.size() == 1 && shardCount == 1
+					? runTests(commandExecutor.withTimeout(testTimeout), coverageDataDir, executablePaths.get(0))
+					: runParallelTests(coverageDataDir, executablePaths, shardCount, testTimeout, testProgress);
+			Report report = generateReport(commandExecutor, coverageDataDir, executablePaths, analysisScope, project,
+					rawProfilePaths, mergeThreads, progress.split(40));
+
+			progress.subTask(Messages.CoverageLaunchDelegate_4);
+			refreshCoverageDataDir(project, coverageDataDir, progress.split(5));
+			refreshBuildFolder(buildFolder, progress.split(5));
+			publish(report);
+			publishCoverageView(report.result(), analysisScope, project, CoveragePreferenceSettings.isOpenViewAuto());
+			FunctionNameProcessor.saveDemangleCache();
+		} catch (OperationCanceledException e) {
+			LOGGER.log(new Status(IStatus.INFO, PLUGIN_ID, "Coverage launch canceled"));
 		} catch (IOException e) {
 			LOGGER.log(new Status(IStatus.ERROR, PLUGIN_ID, "Launch failed", e));
 			throw newCoreException("Launch failed", IStatus.ERROR, e);
@@ -155,7 +205,7 @@ public class CoverageLaunchDelegate implements ILaunchConfigurationDelegate2, Co
 		}
 	}
 
-	private void runTests(CommandExecutor commandExecutor, String coverageDataDir, String executablePath)
+	private List<String> runTests(CommandExecutor commandExecutor, String coverageDataDir, String executablePath)
 			throws IOException, InterruptedException {
 		String rawProfilePath = Paths.get(coverageDataDir, PROFILE_RAW_FILE).toString();
 		List<String> testCommand = Arrays.asList(executablePath);
@@ -168,27 +218,164 @@ public class CoverageLaunchDelegate implements ILaunchConfigurationDelegate2, Co
 					"Profile raw data file was not generated: " + rawProfilePath + ", Output: " + output));
 			throw new IOException("Profile raw data file was not generated: " + rawProfilePath);
 		}
+		return List.of(rawProfilePath);
 	}
 
-	private void generateReport(CommandExecutor commandExecutor, String coverageDataDir, String executablePath,
-			List<String> analysisScope) throws IOException, InterruptedException {
-		String rawProfilePath = Paths.get(coverageDataDir, PROFILE_RAW_FILE).toString();
+	/**
+	 * Runs every test executable, split into shards, on the shared
+	 * {@link ProcessRunner}, which bounds the processes of all launches. Shards
+	 * are selected with the gtest sharding variables, and every process writes
+	 * its own raw profile named after its executable into the profile directory,
+	 * so forked helpers do not overwrite each other.
+	 */
+	private List<String> runParallelTests(String coverageDataDir, List<String> executablePaths, int shardCount,
+			Duration testTimeout, IProgressMonitor monitor) throws IOException, InterruptedException {
+		Path profileDir = Paths.get(coverageDataDir, PROFILE_RAW_DIR);
+		CoverageSettingsManager.cleanShardedProfileData(coverageDataDir);
+		Files.createDirectories(profileDir);
+
+		int runCount = executablePaths.size() * shardCount;
+		SubMonitor progress = SubMonitor.convert(monitor, runCount);
+		List<CompletableFuture<ProcessResult>> runs = new ArrayList<>(runCount);
+		for (String executablePath : executablePaths) {
+			String profilePattern = profileDir.resolve(Paths.get(executablePath).getFileName() + PROFILE_PATTERN_SUFFIX)
+					.toString();
+			for (int shard = 0; shard < shardCount; shard++) {
+				Map<String, String> env = new HashMap<>();
+				env.put("LLVM_PROFILE_FILE", profilePattern);
+				if (shardCount > 1) {
+					env.put("GTEST_TOTAL_SHARDS", Integer.toString(shardCount));
+					env.put("GTEST_SHARD_INDEX", Integer.toString(shard));
+				}
+				runs.add(ProcessRunner.getDefault().execute(List.of(executablePath), env, testTimeout));
+			}
+		}
+		StringBuilder output = new StringBuilder();
+		try {
+			for (CompletableFuture<ProcessResult> run : runs) {
+				output.append(ProcessRunner.join(run, progress).output());
+				progress.worked(1);
+			}
+		} finally {
+			runs.forEach(run -> run.cancel(true));
+		}
+
+		List<String> rawProfilePaths;
+		try (Stream<Path> files = Files.list(profileDir)) {
+			rawProfilePaths = files.filter(file -> file.getFileName().toString().endsWith(".profraw"))
+					.map(Path::toString).sorted().collect(Collectors.toList());
+		}
+		if (rawProfilePaths.isEmpty()) {
+			LOGGER.log(new Status(IStatus.ERROR, PLUGIN_ID,
+					"Profile raw data files were not generated: " + profileDir + ", Output: " + output));
+			throw new IOException("Profile raw data files were not generated: " + profileDir);
+		}
+		return rawProfilePaths;
+	}
+
+	private Report generateReport(CommandExecutor commandExecutor, String coverageDataDir,
+			List<String> executablePaths, List<String> analysisScope, IProject project, List<String> rawProfilePaths,
+			int mergeThreads, IProgressMonitor monitor) throws IOException, InterruptedException {
+		SubMonitor progress = SubMonitor.convert(monitor, 3);
 		String profileDataPath = Paths.get(coverageDataDir, PROFILE_DATA_FILE).toString();
-		generateProfileData(commandExecutor, rawProfilePath, profileDataPath);
+		if (!CoveragePreferenceSettings.isGenerateReportAfterBuild() || analysisScope.isEmpty()) {
+			progress.subTask(Messages.CoverageLaunchDelegate_2);
+			generateProfileData(commandExecutor, rawProfilePaths, profileDataPath, mergeThreads);
+			return new Report(CoverageStore.EMPTY.result(), null);
+		}
 
-		if (CoveragePreferenceSettings.isGenerateReportAfterBuild() && !analysisScope.isEmpty()) {
-			String reportPath = Paths.get(coverageDataDir, REPORT_FILE).toString();
-			generateLcovReport(commandExecutor, executablePath, profileDataPath, reportPath, analysisScope);
-		} else {
-			coverageData = new ReportParser.CoverageResult(new HashMap<>(), new HashMap<>(), new HashMap<>(),
-					new HashMap<>(), new HashMap<>(), new HashMap<>());
+		boolean jsonExport = CoveragePreferenceSettings.isJsonExport();
+		String reportPath = Paths.get(coverageDataDir, jsonExport ? JSON_REPORT_FILE : REPORT_FILE).toString();
+		Path dataDir = Paths.get(coverageDataDir);
+		String reportKey = computeReportKey(rawProfilePaths, executablePaths, analysisScope, jsonExport);
+		ReportParser.CoverageResult cachedData = reportKey != null
+				? reuseCachedReport(dataDir, reportKey, profileDataPath, reportPath)
+				: null;
+		if (cachedData != null) {
+			return new Report(cachedData, reportKey);
+		}
+
+		ReportCache.invalidate(dataDir);
+		progress.subTask(Messages.CoverageLaunchDelegate_2);
+		generateProfileData(commandExecutor, rawProfilePaths, profileDataPath, mergeThreads);
+		progress.split(1);
+		progress.subTask(Messages.CoverageLaunchDelegate_3);
+		List<String> sourceArguments = getSourceArguments(project, analysisScope, dataDir);
+		ReportParser.CoverageResult result = generateCoverageReport(commandExecutor, executablePaths,
+				profileDataPath, reportPath, analysisScope, sourceArguments, jsonExport);
+		progress.split(2);
+		if (writeSnapshot(coverageDataDir, result, analysisScope) && reportKey != null) {
+			ReportCache.store(dataDir, reportKey);
 		}
+		return new Report(result, reportKey);
 	}
 
-	private void generateProfileData(CommandExecutor commandExecutor, String rawProfilePath, String profileDataPath)
-			throws IOException, InterruptedException {
-		List<String> profdataCommand = Arrays.asList(CoverageSettingsManager.getLlvmProfdataCommand(), "merge",
-				"-sparse", rawProfilePath, "-o", profileDataPath);
+	private String computeReportKey(List<String> rawProfilePaths, List<String> executablePaths,
+			List<String> analysisScope, boolean jsonExport) {
+		try {
+			return ReportCache.computeKey(toPaths(rawProfilePaths), toPaths(executablePaths), analysisScope,
+					CoverageSettingsManager.getLlvmCovCommand() + (jsonExport ? " --format=text" : " --format=lcov"));
+		} catch (IOException e) {
+			LOGGER.log(new Status(IStatus.WARNING, PLUGIN_ID, "Failed to compute coverage report key", e));
+			return null;
+		}
+	}
+
+	private static List<Path> toPaths(List<String> paths) {
+		List<Path> result = new ArrayList<>(paths.size());
+		for (String path : paths) {
+			result.add(Paths.get(path));
+		}
+		return result;
+	}
+
+	private ReportParser.CoverageResult reuseCachedReport(Path dataDir, String reportKey, String profileDataPath,
+			String reportPath) {
+		ReportParser.CoverageResult cachedData;
+		try {
+			if (!new File(profileDataPath).exists() || !new File(reportPath).exists()
+					|| !ReportCache.matches(dataDir, reportKey)) {
+				return null;
+			}
+			cachedData = getPublishedData(reportKey);
+			if (cachedData == null) {
+				cachedData = CoverageSnapshot.read(dataDir.resolve(CoverageSnapshot.FILE_NAME)).store().result();
+			}
+		} catch (IOException e) {
+			LOGGER.log(new Status(IStatus.WARNING, PLUGIN_ID, "Failed to reuse cached coverage report: " + reportPath,
+					e));
+			return null;
+		}
+		LOGGER.log(new Status(IStatus.INFO, PLUGIN_ID,
+				"Coverage inputs unchanged, reusing cached report: " + reportPath + " (key " + reportKey + ")"));
+		return cachedData;
+	}
+
+	private synchronized ReportParser.CoverageResult getPublishedData(String reportKey) {
+		return reportKey.equals(coverageDataKey) ? coverageData : null;
+	}
+
+	/**
+	 * Replaces the published result with the finished one. The result is backed
+	 * by an immutable {@link CoverageStore}, so readers never see a report that is
+	 * still being generated.
+	 */
+	private synchronized void publish(Report report) {
+		coverageData = CoverageStore.of(report.result()).result();
+		coverageDataKey = report.key();
+	}
+
+	private void generateProfileData(CommandExecutor commandExecutor, List<String> rawProfilePaths,
+			String profileDataPath, int mergeThreads) throws IOException, InterruptedException {
+		List<String> profdataCommand = new ArrayList<>(
+				List.of(CoverageSettingsManager.getLlvmProfdataCommand(), "merge", "-sparse"));
+		if (mergeThreads > 0) {
+			profdataCommand.add("-num-threads=" + mergeThreads);
+		}
+		profdataCommand.addAll(
+				toArguments(rawProfilePaths, Paths.get(profileDataPath).resolveSibling(PROFILES_RESPONSE_FILE)));
+		profdataCommand.add("-o");
+		profdataCommand.add(profileDataPath);
 		StringBuilder output = new StringBuilder();
 		try {
 			commandExecutor.executeCommand(profdataCommand, null, null, output);
@@ -205,65 +392,124 @@ public class CoverageLaunchDelegate implements ILaunchConfigurationDelegate2, Co
 		}
 	}
 
-	private void generateLcovReport(CommandExecutor commandExecutor, String executablePath, String profileDataPath,
-			String reportPath, List<String> analysisScope) throws IOException, InterruptedException {
-		List<String> covCommand = Arrays.asList(CoverageSettingsManager.getLlvmCovCommand(), "export", executablePath,
-				"-instr-profile=" + profileDataPath, "--format=lcov");
-		StringBuilder output = new StringBuilder();
-		try {
-			commandExecutor.executeCommand(covCommand, null, reportPath, output);
-		} catch (IOException e) {
-			LOGGER.log(new Status(IStatus.ERROR, PLUGIN_ID,
-					"Failed to execute llvm-cov: " + output + ", command: " + covCommand, e));
-			throw new IOException("LCOV report generation failed", e);
+	/**
+	 * Returns the llvm-cov arguments that restrict the export to the analysis
+	 * scope.
+	 */
+	private List<String> getSourceArguments(IProject project, List<String> analysisScope, Path dataDir)
+			throws IOException {
+		Path projectPath = Paths.get(project.getLocation().toOSString()).toAbsolutePath().normalize();
+		List<String> sources = new ArrayList<>(analysisScope.size());
+		for (String scopePath : analysisScope) {
+			sources.add(projectPath.resolve(scopePath).normalize().toString());
+		}
+		return toArguments(sources, dataDir.resolve(SOURCES_RESPONSE_FILE));
+	}
+
+	/**
+	 * Passes long argument lists through an LLVM response file to stay within
+	 * command line limits.
+	 */
+	private static List<String> toArguments(List<String> arguments, Path responseFile) throws IOException {
+		int length = 0;
+		for (String argument : arguments) {
+			length += argument.length() + 1;
+		}
+		if (length <= MAX_INLINE_ARGUMENTS_LENGTH) {
+			return arguments;
+		}
+
+		List<String> lines = new ArrayList<>(arguments.size());
+		for (String argument : arguments) {
+			lines.add(quoteResponseFileArgument(argument));
+		}
+		Files.write(responseFile, lines, StandardCharsets.UTF_8);
+		return List.of("@" + responseFile);
+	}
+
+	private static String quoteResponseFileArgument(String argument) {
+		if (File.separatorChar == '\\') {
+			return '"' + argument.replace('\\', '/') + '"';
+		}
+		return '"' + argument.replace("\\", "\\\\").replace("\"", "\\\"") + '"';
+	}
+
+	private ReportParser.CoverageResult generateCoverageReport(CommandExecutor commandExecutor,
+			List<String> executablePaths, String profileDataPath, String reportPath, List<String> analysisScope,
+			List<String> sourceArguments, boolean jsonExport) throws IOException, InterruptedException {
+		List<String> covCommand = new ArrayList<>(
+				List.of(CoverageSettingsManager.getLlvmCovCommand(), "export", executablePaths.get(0)));
+		for (String objectPath : executablePaths.subList(1, executablePaths.size())) {
+			covCommand.add("-object=" + objectPath);
+		}
+		covCommand.add("-instr-profile=" + profileDataPath);
+		covCommand.add(jsonExport ? "--format=text" : "--format=lcov");
+		List<String> scopedCovCommand = new ArrayList<>(covCommand);
+		scopedCovCommand.addAll(sourceArguments);
+		AnalysisScopeIndex scopeIndex = new AnalysisScopeIndex(analysisScope);
+		ReportParser.CoverageResult result = exportCoverageReport(commandExecutor, scopedCovCommand, reportPath,
+				scopeIndex, jsonExport);
+		if (isEmpty(result) && !sourceArguments.isEmpty()) {
+			LOGGER.log(new Status(IStatus.INFO, PLUGIN_ID,
+					"No coverage found for analysis scope sources, exporting all files: " + reportPath));
+			result = exportCoverageReport(commandExecutor, covCommand, reportPath, scopeIndex, jsonExport);
 		}
 
 		File reportFile = new File(reportPath);
 		if (!reportFile.exists()) {
-			LOGGER.log(new Status(IStatus.ERROR, PLUGIN_ID, "LCOV report was not generated: " + reportPath));
-			throw new IOException("LCOV report was not generated: " + reportPath);
+			LOGGER.log(new Status(IStatus.ERROR, PLUGIN_ID, "Coverage report was not generated: " + reportPath));
+			throw new IOException("Coverage report was not generated: " + reportPath);
 		}
 
-		List<String> reportLines = Files.readAllLines(Paths.get(reportPath));
-		List<String> filteredReportLines = filterLcovReport(reportLines, analysisScope);
-		coverageData = ReportParser.parseLcovReport(filteredReportLines);
-		if (coverageData == null || coverageData.fileCoverage().isEmpty()) {
+		if (isEmpty(result)) {
 			LOGGER.log(new Status(IStatus.WARNING, PLUGIN_ID,
-					"LCOV report is empty or invalid after filtering: " + reportPath));
-			coverageData = new ReportParser.CoverageResult(new HashMap<>(), new HashMap<>(), new HashMap<>(),
-					new HashMap<>(), new HashMap<>(), new HashMap<>());
+					"Coverage report is empty or invalid after filtering: " + reportPath));
+			return CoverageStore.EMPTY.result();
 		}
+		return result;
 	}
 
-	private List<String> filterLcovReport(List<String> reportLines, List<String> analysisScope) {
-		List<String> filteredLines = new ArrayList<>();
-		boolean includeRecord = false;
+	private ReportParser.CoverageResult exportCoverageReport(CommandExecutor commandExecutor, List<String> covCommand,
+			String reportPath, AnalysisScopeIndex scopeIndex, boolean jsonExport)
+			throws IOException, InterruptedException {
+		StringBuilder output = new StringBuilder();
+		AtomicReference<ReportParser.CoverageResult> result = new AtomicReference<>();
+		try {
+			commandExecutor.executeCommand(covCommand, null, reportPath,
+					stdout -> result.set(jsonExport ? ReportParser.parseJsonExport(stdout, scopeIndex::contains)
+							: ReportParser.parseLcovReport(stdout, scopeIndex::contains,
+									CoveragePreferenceSettings.getReportParallelism())),
+					output);
+		} catch (IOException e) {
+			LOGGER.log(new Status(IStatus.ERROR, PLUGIN_ID,
+					"Failed to execute llvm-cov: " + output + ", command: " + covCommand, e));
+			throw new IOException("Coverage report generation failed", e);
+		}
+		return result.get();
+	}
 
-		for (String line : reportLines) {
-			if (line.startsWith("SF:")) {
-				final String filePath = line.substring(3).trim();
-				includeRecord = analysisScope.stream()
-						.anyMatch(scopePath -> filePath.equals(scopePath) || filePath.endsWith(scopePath));
-			} else if (line.equals("end_of_record")) {
-				if (includeRecord) {
-					filteredLines.add(line);
-				}
-				includeRecord = false;
-			}
+	private static boolean isEmpty(ReportParser.CoverageResult coverageData) {
+		return coverageData == null || coverageData.fileCoverage().isEmpty();
+	}
 
-			if (includeRecord) {
-				filteredLines.add(line);
-			}
+	private boolean writeSnapshot(String coverageDataDir, ReportParser.CoverageResult result,
+			List<String> analysisScope) {
+		Path snapshotPath = Paths.get(coverageDataDir, CoverageSnapshot.FILE_NAME);
+		try {
+			CoverageSnapshot.write(snapshotPath, CoverageStore.of(result), analysisScope);
+			return true;
+		} catch (IOException e) {
+			LOGGER.log(new Status(IStatus.WARNING, PLUGIN_ID, "Failed to write coverage snapshot: " + snapshotPath, e));
+			return false;
 		}
-
-		return filteredLines;
 	}
 
-	private void refreshBuildFolder(IFolder buildFolder) throws CoreException {
-		buildFolder.refreshLocal(IResource.DEPTH_INFINITE, null);
+	private void refreshBuildFolder(IFolder buildFolder, IProgressMonitor monitor) throws CoreException {
+		buildFolder.refreshLocal(IResource.DEPTH_INFINITE, monitor);
 	}
 
-	private void refreshCoverageDataDir(IProject project, String coverageDataDir) throws CoreException {
+	private void refreshCoverageDataDir(IProject project, String coverageDataDir, IProgressMonitor monitor)
+			throws CoreException {
 		String absoluteCoverageDir = CoveragePropertySettings.toAbsolutePath(project, coverageDataDir);
 		Path coveragePath = Paths.get(absoluteCoverageDir);
 		Path projectPath = Paths.get(project.getLocation().toOSString());
@@ -271,7 +517,7 @@ public class CoverageLaunchDelegate implements ILaunchConfigurationDelegate2, Co
 			String relativePath = projectPath.relativize(coveragePath).toString();
 			IFolder coverageFolder = project.getFolder(relativePath);
 			if (coverageFolder.exists()) {
-				coverageFolder.refreshLocal(IResource.DEPTH_INFINITE, null);
+				coverageFolder.refreshLocal(IResource.DEPTH_INFINITE, monitor);
 			} else {
 				LOGGER.log(new Status(IStatus.WARNING, PLUGIN_ID,
 						"Coverage data directory does not exist in project: " + relativePath));
@@ -282,35 +528,21 @@ public class CoverageLaunchDelegate implements ILaunchConfigurationDelegate2, Co
 		}
 	}
 
-	private void openCoverageView() {
-		PlatformUI.getWorkbench().getDisplay().syncExec(() -> {
-			try {
-				IWorkbenchPage page = PlatformUI.getWorkbench().getActiveWorkbenchWindow().getActivePage();
-				CoverageResultView view = (CoverageResultView) page.showView(CoverageResultView.ID);
-				view.setDataProvider(this);
-			} catch (Exception e) {
-				LOGGER.log(new Status(IStatus.ERROR, PLUGIN_ID, "Failed to open coverage view", e));
-			}
-		});
-	}
-
-	private void updateCoverageViewData(ReportParser.CoverageResult coverageData, List<String> analysisScope,
-			IProject project) {
+	private void publishCoverageView(ReportParser.CoverageResult coverageData, List<String> analysisScope,
+			IProject project, boolean openView) {
 		List<String> updatedAnalysisScope = CoverageSettingsManager.filterAnalysisScope(analysisScope, project);
 
 		PlatformUI.getWorkbench().getDisplay().asyncExec(() -> {
 			try {
 				IWorkbenchPage page = PlatformUI.getWorkbench().getActiveWorkbenchWindow().getActivePage();
-				CoverageResultView view = (CoverageResultView) page.findView(CoverageResultView.ID);
+				CoverageResultView view = (CoverageResultView) (openView ? page.showView(CoverageResultView.ID)
+						: page.findView(CoverageResultView.ID));
 				if (view == null) {
 					return;
 				}
 				view.setDataProvider(this);
 				view.setProject(project);
-				view.updateCoverageResults(coverageData != null ? coverageData
-						: new ReportParser.CoverageResult(new HashMap<>(), new HashMap<>(), new HashMap<>(),
-								new HashMap<>(), new HashMap<>(), new HashMap<>()),
-						updatedAnalysisScope);
+				view.updateCoverageResults(coverageData, updatedAnalysisScope);
 				view.setAnalysisScope(updatedAnalysisScope);
 			} catch (Exception e) {
 				LOGGER.log(new Status(IStatus.ERROR, PLUGIN_ID, "Failed to update coverage view data", e));
@@ -320,32 +552,34 @@ public class CoverageLaunchDelegate implements ILaunchConfigurationDelegate2, Co
 
 	@Override
 	public Map<String, Map<String, Object[]>> getCoverageData() {
-		return coverageData != null ? coverageData.fileCoverage() : null;
+		ReportParser.CoverageResult data = coverageData;
+		return data != null ? data.fileCoverage() : null;
 	}
 
 	@Override
 	public ReportParser.CoverageResult getFullCoverageData() {
-		return coverageData != null ? new ReportParser.CoverageResult(new HashMap<>(coverageData.fileCoverage()),
-				new HashMap<>(coverageData.lineCoverage()), new HashMap<>(coverageData.nonFunctionLineCoverage()),
-				new HashMap<>(coverageData.branchCoverage()), new HashMap<>(coverageData.functionCoverage()),
-				new HashMap<>(coverageData.annotationFunctionCoverage()))
-				: new ReportParser.CoverageResult(new HashMap<>(), new HashMap<>(), new HashMap<>(), new HashMap<>(),
-						new HashMap<>(), new HashMap<>());
+		return CoverageStore.of(coverageData).result();
+	}
+
+	private record Report(ReportParser.CoverageResult result, String key) {
 	}
 
 	@Override
 	public boolean buildForLaunch(ILaunchConfiguration configuration, String mode, IProgressMonitor monitor)
 			throws CoreException {
 		IProject project = getProject(configuration);
-		ICMakeProject cmakeProject = getCMakeProject(project);
-
-		Map<String, String> buildArgs = new HashMap<>(cmakeProject.getBuildArguments());
-		buildArgs.put("CMAKE_CXX_FLAGS", "-fprofile-instr-generate -fcoverage-mapping");
-		buildArgs.put("CMAKE_C_FLAGS", "-fprofile-instr-generate -fcoverage-mapping");
-		cmakeProject.setBuildArguments(buildArgs);
-
-		project.build(IncrementalProjectBuilder.FULL_BUILD, CMAKE_CONFIGURE_BUILDER_ID, null, monitor);
-		project.build(IncrementalProjectBuilder.FULL_BUILD, monitor);
+		InstrumentedBuild instrumentedBuild = new InstrumentedBuild(getCMakeProject(project));
+		try {
+			instrumentedBuild.build(new CommandExecutor(monitor), getTargetNames(configuration), monitor);
+		} catch (OperationCanceledException e) {
+			LOGGER.log(new Status(IStatus.INFO, PLUGIN_ID, "Instrumented build canceled"));
+		} catch (IOException e) {
+			LOGGER.log(new Status(IStatus.ERROR, PLUGIN_ID, "Instrumented build failed", e));
+			throw newCoreException("Instrumented build failed", IStatus.ERROR, e);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw newCoreException("Instrumented build interrupted", IStatus.ERROR, e);
+		}
 		return false;
 	}
 
@@ -0,0 +1,230 @@
+package su.softcom.cldt.testing.core;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+
+import su.softcom.cldt.testing.core.CoverageStore.Counter;
+import su.softcom.cldt.testing.ui.CoverageNode;
+
+/**
+ * Answers {@link CoverageQuery queries} over all nodes of a coverage tree.
+ * For every counter the nodes are sorted once by each {@link CoverageQuery.Key
+ * key}, so a query walks a precomputed order from its worst end, or the slice
+ * of it selected by a range, and stops after the requested number of matches
+ * instead of sorting the nodes.
+ * <p>
+ * The index does not change after it is built and may be queried from any
+ * thread.
+ */
+public final class CoverageNodeIndex {
+	private static final int CANCEL_CHECK_INTERVAL = 4096;
+	private static final int KEY_COUNT = CoverageQuery.Key.values().length;
+
+	private final CoverageNode[] nodes;
+	private final String[] lowerCaseNames;
+	private final int[][] orders;
+	private final int[][] sortedValues;
+
+	private CoverageNodeIndex(CoverageNode[] nodes, String[] lowerCaseNames, int[][] orders, int[][] sortedValues) {
+		this.nodes = nodes;
+		this.lowerCaseNames = lowerCaseNames;
+		this.orders = orders;
+		this.sortedValues = sortedValues;
+	}
+
+	public static CoverageNodeIndex build(List<CoverageNode> roots) {
+		List<CoverageNode> nodeList = new ArrayList<>();
+		Deque<CoverageNode> pending = new ArrayDeque<>();
+		for (int i = roots.size() - 1; i >= 0; i--) {
+			pending.push(roots.get(i));
+		}
+		while (!pending.isEmpty()) {
+			CoverageNode node = pending.pop();
+			nodeList.add(node);
+			List<CoverageNode> children = node.getChildren();
+			for (int i = children.size() - 1; i >= 0; i--) {
+				pending.push(children.get(i));
+			}
+		}
+
+		CoverageNode[] nodes = nodeList.toArray(new CoverageNode[0]);
+		String[] lowerCaseNames = new String[nodes.length];
+		for (int i = 0; i < nodes.length; i++) {
+			lowerCaseNames[i] = nodes[i].getName().toLowerCase(Locale.ROOT);
+		}
+
+		int[][] orders = new int[Counter.values().length * KEY_COUNT][];
+		int[][] sortedValues = new int[orders.length][];
+		for (Counter counter : Counter.values()) {
+			for (CoverageQuery.Key key : CoverageQuery.Key.values()) {
+				// Descending keys are walked from the end, so their ties are packed
+				// in reverse tree order to come out in tree order.
+				int tieMask = key.isDescending() ? Integer.MAX_VALUE : 0;
+				int slot = slot(counter, key);
+				long[] packed = new long[nodes.length];
+				int count = 0;
+				for (int i = 0; i < nodes.length; i++) {
+					if (nodes[i].hasCounter(counter)) {
+						packed[count++] = ((long) value(nodes[i], counter, key) << 32) | (i ^ tieMask);
+					}
+				}
+				Arrays.sort(packed, 0, count);
+				orders[slot] = new int[count];
+				sortedValues[slot] = new int[count];
+				for (int i = 0; i < count; i++) {
+					orders[slot][i] = (int) packed[i] ^ tieMask;
+					sortedValues[slot][i] = (int) (packed[i] >>> 32);
+				}
+			}
+		}
+		return new CoverageNodeIndex(nodes, lowerCaseNames, orders, sortedValues);
+	}
+
+	public int size() {
+		return nodes.length;
+	}
+
+	/**
+	 * Returns the nodes matching the query for the counter, in the order the
+	 * query asks for, or in tree order if it does not sort. Without a sort key
+	 * only the slice of the narrowest range is scanned, and its matches are put
+	 * back into tree order.
+	 *
+	 * @throws OperationCanceledException if the monitor is canceled
+	 */
+	public List<CoverageNode> query(CoverageQuery query, Counter counter, IProgressMonitor monitor) {
+		CoverageQuery.Key drivingKey = query.sortKey() != null ? query.sortKey() : narrowestRangeKey(query, counter);
+		List<CoverageNode> result = new ArrayList<>(Math.min(query.limit(), 1024));
+		if (drivingKey == null) {
+			for (int i = 0; i < nodes.length && result.size() < query.limit(); i++) {
+				checkCanceled(i, monitor);
+				if (matches(i, query, counter)) {
+					result.add(nodes[i]);
+				}
+			}
+			return result;
+		}
+
+		int slot = slot(counter, drivingKey);
+		int[] order = orders[slot];
+		int[] values = sortedValues[slot];
+		int from = 0;
+		int to = order.length;
+		for (CoverageQuery.Range range : query.ranges()) {
+			if (range.key() == drivingKey) {
+				from = Math.max(from, lowerBound(values, range.min()));
+				to = Math.min(to, upperBound(values, range.max()));
+			}
+		}
+		if (query.sortKey() == null) {
+			int[] matched = new int[Math.max(0, to - from)];
+			int count = 0;
+			for (int i = from; i < to; i++) {
+				checkCanceled(i - from, monitor);
+				if (matches(order[i], query, counter)) {
+					matched[count++] = order[i];
+				}
+			}
+			Arrays.sort(matched, 0, count);
+			for (int i = 0; i < count && result.size() < query.limit(); i++) {
+				result.add(nodes[matched[i]]);
+			}
+			return result;
+		}
+
+		boolean descending = drivingKey.isDescending();
+		for (int i = 0; i < to - from && result.size() < query.limit(); i++) {
+			checkCanceled(i, monitor);
+			int node = order[descending ? to - 1 - i : from + i];
+			if (matches(node, query, counter)) {
+				result.add(nodes[node]);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the key of the range that selects the fewest nodes, or
+	 * {@code null} if the query has no range.
+	 */
+	private CoverageQuery.Key narrowestRangeKey(CoverageQuery query, Counter counter) {
+		CoverageQuery.Key narrowestKey = null;
+		int narrowestSize = Integer.MAX_VALUE;
+		for (CoverageQuery.Range range : query.ranges()) {
+			int[] values = sortedValues[slot(counter, range.key())];
+			int size = Math.max(0, upperBound(values, range.max()) - lowerBound(values, range.min()));
+			if (size < narrowestSize) {
+				narrowestKey = range.key();
+				narrowestSize = size;
+			}
+		}
+		return narrowestKey;
+	}
+
+	private boolean matches(int index, CoverageQuery query, Counter counter) {
+		CoverageNode node = nodes[index];
+		if (query.type() != null && node.getType() != query.type()) {
+			return false;
+		}
+		for (String name : query.names()) {
+			if (!lowerCaseNames[index].contains(name)) {
+				return false;
+			}
+		}
+		if (!query.ranges().isEmpty() && !node.hasCounter(counter)) {
+			return false;
+		}
+		for (CoverageQuery.Range range : query.ranges()) {
+			int value = value(node, counter, range.key());
+			if (value < range.min() || value > range.max()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static int value(CoverageNode node, Counter counter, CoverageQuery.Key key) {
+		return switch (key) {
+		case MISSED -> node.getMissed(counter);
+		case TOTAL -> node.getTotal(counter);
+		case PERCENTAGE -> {
+			int total = node.getTotal(counter);
+			yield total > 0 ? (int) (node.getCovered(counter) * 10000L / total) : 0;
+		}
+		};
+	}
+
+	private static int slot(Counter counter, CoverageQuery.Key key) {
+		return counter.ordinal() * KEY_COUNT + key.ordinal();
+	}
+
+	private static void checkCanceled(int iteration, IProgressMonitor monitor) {
+		if (iteration % CANCEL_CHECK_INTERVAL == 0 && monitor != null && monitor.isCanceled()) {
+			throw new OperationCanceledException();
+		}
+	}
+
+	private static int lowerBound(int[] values, int value) {
+		int low = 0;
+		int high = values.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (values[mid] < value) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	private static int upperBound(int[] values, int value) {
+		return value == Integer.MAX_VALUE ? values.length : lowerBound(values, value + 1);
+	}
+}
@@ -12,6 +12,8 @@ public class CoveragePreferenceSettings {
 	private static final String OPEN_VIEW_AUTO = "coverage.open_view_auto";
 	private static final String GENERATE_REPORT = "coverage.generate_report";
 	private static final String CLEAN_PROFILE_DATA = "coverage.clean_profile_data";
+	private static final String JSON_EXPORT = "coverage.json_export";
+	private static final String REPORT_PARALLELISM = "coverage.report_parallelism";
 	private static final String INCLUDES = "coverage.includes";
 	private static final String EXCLUDES = "coverage.excludes";
 	private static final String LLVM_COV_PATH = "coverage.llvm_cov_path";
@@ -28,6 +30,8 @@ public class CoveragePreferenceSettings {
 	private static final boolean DEFAULT_OPEN_VIEW_AUTO = true;
 	private static final boolean DEFAULT_GENERATE_REPORT = true;
 	private static final boolean DEFAULT_CLEAN_PROFILE_DATA = false;
+	private static final boolean DEFAULT_JSON_EXPORT = false;
+	private static final int DEFAULT_REPORT_PARALLELISM = 0;
 	private static final String DEFAULT_INCLUDES = "*";
 	private static final String DEFAULT_EXCLUDES = "";
 	private static final String DEFAULT_LLVM_COV_PATH = "/usr/bin/llvm-cov";
@@ -77,6 +81,23 @@ public class CoveragePreferenceSettings {
 		getStore().setValue(CLEAN_PROFILE_DATA, value);
 	}
 
+	public static boolean isJsonExport() {
+		return getStore().getBoolean(JSON_EXPORT);
+	}
+
+	public static void setJsonExport(boolean value) {
+		getStore().setValue(JSON_EXPORT, value);
+	}
+
+	public static int getReportParallelism() {
+		int parallelism = getStore().getInt(REPORT_PARALLELISM);
+		return parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+	}
+
+	public static void setReportParallelism(int value) {
+		getStore().setValue(REPORT_PARALLELISM, value);
+	}
+
 	public static String getIncludes() {
 		return getStore().getString(INCLUDES);
 	}
@@ -178,6 +199,8 @@ public class CoveragePreferenceSettings {
 		store.setDefault(OPEN_VIEW_AUTO, DEFAULT_OPEN_VIEW_AUTO);
 		store.setDefault(GENERATE_REPORT, DEFAULT_GENERATE_REPORT);
 		store.setDefault(CLEAN_PROFILE_DATA, DEFAULT_CLEAN_PROFILE_DATA);
+		store.setDefault(JSON_EXPORT, DEFAULT_JSON_EXPORT);
+		store.setDefault(REPORT_PARALLELISM, DEFAULT_REPORT_PARALLELISM);
 		store.setDefault(INCLUDES, DEFAULT_INCLUDES);
 		store.setDefault(EXCLUDES, DEFAULT_EXCLUDES);
 		store.setDefault(LLVM_COV_PATH, DEFAULT_LLVM_COV_PATH);
@@ -19,7 +19,7 @@ public class CoveragePropertySettings {
 	private static final ILog LOGGER = Platform.getLog(CoveragePropertySettings.class);
 	private static final String PLUGIN_ID = Activator.PLUGIN_ID;
 	private static final QualifiedName COVERAGE_DATA_DIR = new QualifiedName(PLUGIN_ID, "coverage.data_dir");
-	private static final String DEFAULT_BUILD_DIR = "build";
+	private static final String DEFAULT_BUILD_DIR = "build" + InstrumentedBuild.FOLDER_SUFFIX;
 
 	private CoveragePropertySettings() {
 	}
@@ -33,10 +33,16 @@ public class CoveragePropertySettings {
 		project.setPersistentProperty(COVERAGE_DATA_DIR, coverageDataDir);
 	}
 
+	public static String getCoverageDataDir(IProject project) throws CoreException {
+		String coverageDataDir = toAbsolutePath(project, getCoverageDataDirProperty(project));
+		return Paths.get(project.getLocation().toOSString()).resolve(coverageDataDir).normalize().toString();
+	}
+
 	public static String getDefaultCoverageDataDir(IProject project) {
 		try {
 			ICMakeProject cmakeProject = CMakeCorePlugin.getDefault().getProject(project.getName());
-			String absolutePath = cmakeProject.getBuildFolder().getLocation().toOSString();
+			String absolutePath = cmakeProject.getBuildFolder().getLocation().toOSString()
+					+ InstrumentedBuild.FOLDER_SUFFIX;
 			return toRelativePath(project, absolutePath);
 		} catch (Exception e) {
 			LOGGER.log(new Status(IStatus.WARNING, PLUGIN_ID,
@@ -0,0 +1,156 @@
+package su.softcom.cldt.testing.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import su.softcom.cldt.testing.ui.CoverageNode;
+
+/**
+ * Query over the nodes of a coverage tree, parsed from the filter bar of the
+ * coverage view. A query is a list of space separated terms:
+ * <ul>
+ * <li>{@code type:folder}, {@code type:file} or {@code type:function} keeps
+ * the nodes of one type;</li>
+ * <li>{@code missed}, {@code pct} or {@code total} followed by {@code <},
+ * {@code <=}, {@code >}, {@code >=} or {@code =} and a number keeps the nodes
+ * whose missed count, percentage or total count of the shown counter is in
+ * range;</li>
+ * <li>{@code sort:missed}, {@code sort:pct} or {@code sort:total} orders the
+ * nodes worst first: most missed, lowest percentage or largest total;</li>
+ * <li>{@code top:N} keeps the first N nodes;</li>
+ * <li>any other term keeps the nodes whose name contains it, ignoring
+ * case.</li>
+ * </ul>
+ * For example {@code type:function sort:missed top:50} lists the 50 functions
+ * with the most uncovered lines and {@code type:folder pct<60} the folders
+ * below 60%.
+ */
+public record CoverageQuery(CoverageNode.NodeType type, List<String> names, List<Range> ranges, Key sortKey,
+		int limit) {
+	private static final Pattern RANGE_PATTERN = Pattern.compile("(missed|pct|total)(<=|>=|<|>|=)(\\d+(?:\\.\\d+)?)");
+
+	/**
+	 * Value of a node a query can filter and sort by. Percentages are
+	 * compared in hundredths of a percent.
+	 */
+	public enum Key {
+		MISSED("missed", true), PERCENTAGE("pct", false), TOTAL("total", true);
+
+		private final String term;
+		private final boolean descending;
+
+		Key(String term, boolean descending) {
+			this.term = term;
+			this.descending = descending;
+		}
+
+		/**
+		 * Returns whether the worst nodes have the largest values of the key.
+		 */
+		public boolean isDescending() {
+			return descending;
+		}
+
+		static Key of(String term) {
+			for (Key key : values()) {
+				if (key.term.equals(term)) {
+					return key;
+				}
+			}
+			throw new IllegalArgumentException("Unknown sort key: " + term);
+		}
+	}
+
+	/**
+	 * Inclusive range of the values of a key.
+	 */
+	public record Range(Key key, int min, int max) {
+	}
+
+	public CoverageQuery {
+		names = List.copyOf(names);
+		ranges = List.copyOf(ranges);
+	}
+
+	/**
+	 * Parses the text of the filter bar.
+	 *
+	 * @throws IllegalArgumentException if a term is malformed
+	 */
+	public static CoverageQuery parse(String text) {
+		CoverageNode.NodeType type = null;
+		List<String> names = new ArrayList<>();
+		List<Range> ranges = new ArrayList<>();
+		Key sortKey = null;
+		int limit = Integer.MAX_VALUE;
+
+		for (String term : text.trim().split("\\s+")) {
+			if (term.isEmpty()) {
+				continue;
+			}
+			String lowerTerm = term.toLowerCase(Locale.ROOT);
+			Matcher matcher = RANGE_PATTERN.matcher(lowerTerm);
+			if (lowerTerm.startsWith("type:")) {
+				type = parseType(lowerTerm.substring(5));
+			} else if (lowerTerm.startsWith("sort:")) {
+				sortKey = Key.of(lowerTerm.substring(5));
+			} else if (lowerTerm.startsWith("top:")) {
+				limit = parseLimit(lowerTerm.substring(4));
+			} else if (matcher.matches()) {
+				ranges.add(parseRange(Key.of(matcher.group(1)), matcher.group(2), matcher.group(3)));
+			} else {
+				names.add(lowerTerm);
+			}
+		}
+		return new CoverageQuery(type, names, ranges, sortKey, limit);
+	}
+
+	/**
+	 * Returns whether the query keeps every node in tree order.
+	 */
+	public boolean isEmpty() {
+		return type == null && names.isEmpty() && ranges.isEmpty() && sortKey == null && limit == Integer.MAX_VALUE;
+	}
+
+	private static CoverageNode.NodeType parseType(String value) {
+		for (CoverageNode.NodeType nodeType : CoverageNode.NodeType.values()) {
+			if (nodeType.name().equalsIgnoreCase(value)) {
+				return nodeType;
+			}
+		}
+		throw new IllegalArgumentException("Unknown node type: " + value);
+	}
+
+	private static int parseLimit(String value) {
+		try {
+			int limit = Integer.parseInt(value);
+			if (limit > 0) {
+				return limit;
+			}
+		} catch (NumberFormatException e) {
+			// Reported below together with non-positive limits.
+		}
+		throw new IllegalArgumentException("Invalid limit: " + value);
+	}
+
+	private static Range parseRange(Key key, String operator, String value) {
+		long bound;
+		try {
+			bound = key == Key.PERCENTAGE ? Math.round(Double.parseDouble(value) * 100) : Long.parseLong(value);
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid number: " + value, e);
+		}
+		bound = Math.min(bound, Integer.MAX_VALUE - 1L);
+		int clamped = (int) bound;
+		return switch (operator) {
+		case "<" -> new Range(key, Integer.MIN_VALUE, clamped - 1);
+		case "<=" -> new Range(key, Integer.MIN_VALUE, clamped);
+		case ">" -> new Range(key, clamped + 1, Integer.MAX_VALUE);
+		case ">=" -> new Range(key, clamped, Integer.MAX_VALUE);
+		default -> new Range(key, clamped, clamped);
+		};
+	}
+}
@@ -20,7 +20,9 @@ public class CoverageSettingsManager {
 	private static final ILog LOGGER = Platform.getLog(CoverageSettingsManager.class);
 	private static final String PLUGIN_ID = Activator.PLUGIN_ID;
 	private static final List<String> PROFILE_FILES = Arrays.asList("coverage.profraw", "coverage.profdata",
-			"coverage_report.lcov");
+			"coverage_report.lcov", "coverage_report.json", "coverage_sources.rsp", "coverage_profraw.rsp",
+			CoverageSnapshot.FILE_NAME, ReportCache.KEY_FILE_NAME);
+	private static final String SHARDED_PROFILE_DIR = "coverage_profraw";
 	private static final String DEFAULT_LLVM_COV = "llvm-cov";
 	private static final String DEFAULT_LLVM_PROFDATA = "llvm-profdata";
 	private static final List<Runnable> settingsChangeListeners = new ArrayList<>();
@@ -37,6 +39,21 @@ public class CoverageSettingsManager {
 						String.format("Failed to delete profile file: %s", filePath)));
 			}
 		}
+		cleanShardedProfileData(coverageDataDir);
+	}
+
+	public static void cleanShardedProfileData(String coverageDataDir) {
+		File[] rawProfiles = Paths.get(coverageDataDir, SHARDED_PROFILE_DIR).toFile()
+				.listFiles((dir, name) -> name.endsWith(".profraw"));
+		if (rawProfiles == null) {
+			return;
+		}
+		for (File file : rawProfiles) {
+			if (!file.delete()) {
+				LOGGER.log(new Status(IStatus.WARNING, PLUGIN_ID,
+						String.format("Failed to delete profile file: %s", file)));
+			}
+		}
 	}
 
 	public static String getLlvmCovCommand() {
@@ -0,0 +1,317 @@
+package su.softcom.cldt.testing.core;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary snapshot of a {@link CoverageStore} and the analysis scope it was
+ * produced for. A snapshot is read through a memory mapping: opening it only
+ * decodes the file table, and the columns of a file are copied out of the
+ * mapping the first time the file is read.
+ *
+ * <pre>
+ * header       magic, version, file count, string count,
+ *              scope offset, file index offset, string table offset
+ * file blocks  counter mask, 6 counters,
+ *              line count, function line count, line numbers, line hits,
+ *              branch count, branch lines, branch state bits,
+ *              functions, annotation functions
+ * scope        count, string ids
+ * file index   per file: path string id, block offset
+ * strings      count, count + 1 byte offsets, UTF-8 bytes
+ * </pre>
+ *
+ * All numbers are big-endian ints, so a snapshot is limited to 2 GB.
+ */
+public final class CoverageSnapshot {
+	public static final String FILE_NAME = "coverage_snapshot.bin";
+
+	private static final int FILE_MAGIC = 0x434c4353;
+	private static final int FILE_VERSION = 1;
+	private static final int HEADER_SIZE = 7 * Integer.BYTES;
+	private static final int COUNTERS = CoverageStore.Counter.values().length;
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private final ByteBuffer buffer;
+	private final int stringDataOffset;
+	private final int stringOffsetsOffset;
+	private final String[] strings;
+	private final List<String> analysisScope;
+	private final int[] blockOffsets;
+	private final CoverageStore store;
+
+	private CoverageSnapshot(ByteBuffer buffer, Path file) throws IOException {
+		this.buffer = buffer;
+		if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != FILE_MAGIC) {
+			throw new IOException("Unrecognized coverage snapshot file: " + file);
+		}
+		int version = buffer.getInt(4);
+		if (version != FILE_VERSION) {
+			throw new IOException("Unsupported coverage snapshot version " + version + ": " + file);
+		}
+		int fileCount = buffer.getInt(8);
+		int stringCount = buffer.getInt(12);
+		int scopeOffset = buffer.getInt(16);
+		int fileIndexOffset = buffer.getInt(20);
+		int stringTableOffset = buffer.getInt(24);
+		strings = new String[stringCount];
+		stringOffsetsOffset = stringTableOffset + Integer.BYTES;
+		stringDataOffset = stringOffsetsOffset + (stringCount + 1) * Integer.BYTES;
+
+		ByteBuffer scope = buffer.slice(scopeOffset, fileIndexOffset - scopeOffset);
+		List<String> scopePaths = new ArrayList<>();
+		for (int i = scope.getInt(); i > 0; i--) {
+			scopePaths.add(string(scope.getInt()));
+		}
+		analysisScope = List.copyOf(scopePaths);
+
+		ByteBuffer index = buffer.slice(fileIndexOffset, fileCount * 2 * Integer.BYTES);
+		String[] paths = new String[fileCount];
+		blockOffsets = new int[fileCount];
+		for (int i = 0; i < fileCount; i++) {
+			paths[i] = string(index.getInt());
+			blockOffsets[i] = index.getInt();
+		}
+		store = new CoverageStore(paths, this::readFile);
+	}
+
+	/**
+	 * Maps the snapshot file. The mapping stays valid after the file is closed.
+	 */
+	public static CoverageSnapshot read(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			if (channel.size() > Integer.MAX_VALUE) {
+				throw new IOException("Coverage snapshot is too large: " + file);
+			}
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			try {
+				return new CoverageSnapshot(buffer, file);
+			} catch (IndexOutOfBoundsException | IllegalArgumentException | BufferUnderflowException e) {
+				throw new IOException("Corrupted coverage snapshot file: " + file, e);
+			}
+		}
+	}
+
+	public static void write(Path file, CoverageStore store, List<String> analysisScope) throws IOException {
+		Files.createDirectories(file.toAbsolutePath().getParent());
+		Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+		Map<String, Integer> stringIds = new HashMap<>();
+		List<String> stringTable = new ArrayList<>();
+		try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			DataOutputStream out = new DataOutputStream(
+					new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE));
+			out.write(new byte[HEADER_SIZE]);
+
+			int[] blockOffsets = new int[store.fileCount()];
+			for (int i = 0; i < store.fileCount(); i++) {
+				blockOffsets[i] = offset(out);
+				writeFile(out, store.file(i), stringIds, stringTable);
+			}
+
+			int scopeOffset = offset(out);
+			out.writeInt(analysisScope.size());
+			for (String path : analysisScope) {
+				out.writeInt(stringId(path, stringIds, stringTable));
+			}
+
+			int fileIndexOffset = offset(out);
+			for (int i = 0; i < store.fileCount(); i++) {
+				out.writeInt(stringId(store.path(i), stringIds, stringTable));
+				out.writeInt(blockOffsets[i]);
+			}
+
+			int stringTableOffset = offset(out);
+			writeStrings(out, stringTable);
+			offset(out);
+			out.flush();
+
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			header.putInt(FILE_MAGIC).putInt(FILE_VERSION).putInt(store.fileCount()).putInt(stringTable.size())
+					.putInt(scopeOffset).putInt(fileIndexOffset).putInt(stringTableOffset).flip();
+			channel.write(header, 0);
+		}
+		Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	public CoverageStore store() {
+		return store;
+	}
+
+	public List<String> analysisScope() {
+		return analysisScope;
+	}
+
+	private static void writeFile(DataOutputStream out, CoverageStore.FileView file, Map<String, Integer> stringIds,
+			List<String> stringTable) throws IOException {
+		int counterMask = 0;
+		for (CoverageStore.Counter counter : CoverageStore.Counter.values()) {
+			counterMask |= file.hasCounter(counter) ? 1 << counter.ordinal() : 0;
+		}
+		out.writeInt(counterMask);
+		for (CoverageStore.Counter counter : CoverageStore.Counter.values()) {
+			out.writeInt(file.covered(counter));
+			out.writeInt(file.total(counter));
+		}
+
+		out.writeInt(file.lineCount());
+		out.writeInt(file.functionLineCount());
+		for (int i = 0; i < file.lineCount(); i++) {
+			out.writeInt(file.lineNumber(i));
+		}
+		for (int i = 0; i < file.lineCount(); i++) {
+			out.writeInt(file.lineHits(i));
+		}
+
+		out.writeInt(file.branchCount());
+		for (int i = 0; i < file.branchCount(); i++) {
+			out.writeInt(file.branchLine(i));
+		}
+		for (int i = 0; i < file.branchCount(); i += Byte.SIZE) {
+			int bits = 0;
+			for (int bit = 0; bit < Byte.SIZE && i + bit < file.branchCount(); bit++) {
+				bits |= file.branchCovered(i + bit) ? 1 << bit : 0;
+			}
+			out.writeByte(bits);
+		}
+
+		writeFunctions(out, file.functions(), stringIds, stringTable);
+		writeFunctions(out, file.annotationFunctions(), stringIds, stringTable);
+	}
+
+	private static void writeFunctions(DataOutputStream out, CoverageStore.FunctionTable functions,
+			Map<String, Integer> stringIds, List<String> stringTable) throws IOException {
+		out.writeInt(functions.size());
+		for (int i = 0; i < functions.size(); i++) {
+			out.writeInt(stringId(functions.name(i), stringIds, stringTable));
+			out.writeInt(functions.executionCount(i));
+			out.writeInt(functions.startLine(i));
+			out.writeInt(functions.endLine(i));
+			out.writeInt(functions.signatureLine(i));
+			out.writeBoolean(functions.isLambda(i));
+			out.writeInt(functions.mangledNameCount(i));
+			for (int j = 0; j < functions.mangledNameCount(i); j++) {
+				out.writeInt(stringId(functions.mangledName(i, j), stringIds, stringTable));
+			}
+		}
+	}
+
+	private static void writeStrings(DataOutputStream out, List<String> stringTable) throws IOException {
+		List<byte[]> encoded = new ArrayList<>(stringTable.size());
+		for (String string : stringTable) {
+			encoded.add(string.getBytes(StandardCharsets.UTF_8));
+		}
+		out.writeInt(encoded.size());
+		int offset = 0;
+		out.writeInt(offset);
+		for (byte[] bytes : encoded) {
+			offset += bytes.length;
+			out.writeInt(offset);
+		}
+		for (byte[] bytes : encoded) {
+			out.write(bytes);
+		}
+	}
+
+	private static int stringId(String string, Map<String, Integer> stringIds, List<String> stringTable) {
+		return stringIds.computeIfAbsent(string, k -> {
+			stringTable.add(k);
+			return stringTable.size() - 1;
+		});
+	}
+
+	private static int offset(DataOutputStream out) throws IOException {
+		if (out.size() == Integer.MAX_VALUE) {
+			throw new IOException("Coverage snapshot exceeds 2 GB");
+		}
+		return out.size();
+	}
+
+	private CoverageStore.FileView readFile(int file) {
+		ByteBuffer block = buffer.slice(blockOffsets[file], buffer.limit() - blockOffsets[file]);
+		int counterMask = block.getInt();
+		int[] counters = readInts(block, COUNTERS * 2);
+
+		int lineCount = block.getInt();
+		int functionLineCount = block.getInt();
+		int[] lineNumbers = readInts(block, lineCount);
+		int[] lineHits = readInts(block, lineCount);
+
+		int branchCount = block.getInt();
+		int[] branchLines = readInts(block, branchCount);
+		byte[] branchBits = new byte[(branchCount + Byte.SIZE - 1) / Byte.SIZE];
+		block.get(branchBits);
+
+		CoverageStore.FunctionTable functions = readFunctions(block);
+		CoverageStore.FunctionTable annotationFunctions = readFunctions(block);
+		return new CoverageStore.FileView(store.path(file), counters, counterMask, lineNumbers, lineHits,
+				functionLineCount, branchLines, BitSet.valueOf(branchBits), functions, annotationFunctions, null)
+				.withLineIndex();
+	}
+
+	private CoverageStore.FunctionTable readFunctions(ByteBuffer block) {
+		int size = block.getInt();
+		if (size == 0) {
+			return CoverageStore.FunctionTable.of(List.of());
+		}
+		String[] names = new String[size];
+		int[] mangledOffsets = new int[size + 1];
+		List<String> mangledNames = new ArrayList<>(size);
+		int[] executionCounts = new int[size];
+		int[] startLines = new int[size];
+		int[] endLines = new int[size];
+		int[] signatureLines = new int[size];
+		BitSet lambdas = new BitSet(size);
+		for (int i = 0; i < size; i++) {
+			names[i] = string(block.getInt());
+			executionCounts[i] = block.getInt();
+			startLines[i] = block.getInt();
+			endLines[i] = block.getInt();
+			signatureLines[i] = block.getInt();
+			lambdas.set(i, block.get() != 0);
+			int mangledCount = block.getInt();
+			for (int j = 0; j < mangledCount; j++) {
+				mangledNames.add(string(block.getInt()));
+			}
+			mangledOffsets[i + 1] = mangledNames.size();
+		}
+		return new CoverageStore.FunctionTable(names, mangledOffsets, mangledNames.toArray(new String[0]),
+				executionCounts, startLines, endLines, signatureLines, lambdas);
+	}
+
+	private static int[] readInts(ByteBuffer block, int count) {
+		int[] values = new int[count];
+		block.asIntBuffer().get(values);
+		block.position(block.position() + count * Integer.BYTES);
+		return values;
+	}
+
+	private String string(int id) {
+		String string = strings[id];
+		if (string == null) {
+			int start = buffer.getInt(stringOffsetsOffset + id * Integer.BYTES);
+			int end = buffer.getInt(stringOffsetsOffset + (id + 1) * Integer.BYTES);
+			byte[] bytes = new byte[end - start];
+			buffer.get(stringDataOffset + start, bytes);
+			string = new String(bytes, StandardCharsets.UTF_8);
+			strings[id] = string;
+		}
+		return string;
+	}
+}
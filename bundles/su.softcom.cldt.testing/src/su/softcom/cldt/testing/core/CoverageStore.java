@@ -0,0 +1,632 @@
+package su.softcom.cldt.testing.core;
+
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * Read-only columnar coverage model. File paths are kept in one table and
+ * every file stores its lines, branches and functions as primitive columns.
+ * The maps of {@link ReportParser.CoverageResult} are views over the store and
+ * create records only when an element is read.
+ */
+public final class CoverageStore {
+	private static final String PERCENTAGE_FORMAT = "%.2f%%";
+	private static final int[] NO_INTS = new int[0];
+	private static final String[] NO_STRINGS = new String[0];
+	private static final int[] NO_OFFSETS = new int[1];
+	private static final FunctionTable NO_FUNCTIONS = new FunctionTable(NO_STRINGS, NO_OFFSETS, NO_STRINGS, NO_INTS,
+			NO_INTS, NO_INTS, NO_INTS, new BitSet());
+
+	public static final CoverageStore EMPTY = new CoverageStore(List.of());
+
+	public enum Counter {
+		LINES("Lines"), BRANCHES("Branches"), FUNCTIONS("Functions");
+
+		private final String key;
+
+		Counter(String key) {
+			this.key = key;
+		}
+
+		public String key() {
+			return key;
+		}
+	}
+
+	private final String[] paths;
+	private final FileView[] files;
+	private final IntFunction<FileView> loader;
+	private final Map<String, Integer> fileIndex;
+	private final ReportParser.CoverageResult result;
+
+	CoverageStore(Collection<FileView> fileViews) {
+		this(fileViews.toArray(new FileView[0]), null);
+	}
+
+	/**
+	 * Creates a store whose files are produced by {@code loader} the first time
+	 * they are read.
+	 */
+	CoverageStore(String[] paths, IntFunction<FileView> loader) {
+		this(new FileView[paths.length], paths, loader);
+	}
+
+	private CoverageStore(FileView[] files, IntFunction<FileView> loader) {
+		this(files, Arrays.stream(files).map(FileView::path).toArray(String[]::new), loader);
+	}
+
+	private CoverageStore(FileView[] files, String[] paths, IntFunction<FileView> loader) {
+		this.files = files;
+		this.paths = paths;
+		this.loader = loader;
+		fileIndex = new HashMap<>(Math.max(16, paths.length * 4 / 3 + 1));
+		for (int i = 0; i < paths.length; i++) {
+			fileIndex.put(paths[i], i);
+		}
+		result = new ReportParser.CoverageResult(new FileMap<>(FileView::counterRows, false),
+				new FileMap<>(FileView::functionLines, false), new FileMap<>(FileView::nonFunctionLines, false),
+				new FileMap<>(FileView::branches, false), new FileMap<>(FileView::functions, false),
+				new FileMap<>(FileView::annotationFunctions, false), new FileMap<>(FileView::lineIndex, true));
+	}
+
+	/**
+	 * Returns the store behind a result produced by the report parsers, or
+	 * copies a result assembled from plain maps into a new store.
+	 */
+	public static CoverageStore of(ReportParser.CoverageResult result) {
+		if (result == null) {
+			return EMPTY;
+		}
+		if (result.lineCoverage() instanceof CoverageStore.FileMap<?> view) {
+			return view.store();
+		}
+		Set<String> paths = new LinkedHashSet<>(result.fileCoverage().keySet());
+		paths.addAll(result.lineCoverage().keySet());
+		paths.addAll(result.nonFunctionLineCoverage().keySet());
+		paths.addAll(result.branchCoverage().keySet());
+		paths.addAll(result.functionCoverage().keySet());
+		paths.addAll(result.annotationFunctionCoverage().keySet());
+		List<FileView> fileViews = new ArrayList<>(paths.size());
+		for (String path : paths) {
+			int[] counters = new int[Counter.values().length * 2];
+			int counterMask = 0;
+			Map<String, Object[]> rows = result.fileCoverage().getOrDefault(path, Map.of());
+			for (Counter counter : Counter.values()) {
+				Object[] row = rows.get(counter.key());
+				if (row != null && row.length >= 5) {
+					counters[counter.ordinal() * 2] = ((Number) row[2]).intValue();
+					counters[counter.ordinal() * 2 + 1] = ((Number) row[4]).intValue();
+					counterMask |= 1 << counter.ordinal();
+				}
+			}
+			fileViews.add(FileView.of(path, counters, counterMask, result.lineCoverage().getOrDefault(path, List.of()),
+					result.nonFunctionLineCoverage().getOrDefault(path, List.of()),
+					result.branchCoverage().getOrDefault(path, List.of()),
+					result.functionCoverage().getOrDefault(path, List.of()),
+					result.annotationFunctionCoverage().getOrDefault(path, List.of()),
+					result.functionLineIndex().get(path)));
+		}
+		return new CoverageStore(fileViews);
+	}
+
+	public ReportParser.CoverageResult result() {
+		return result;
+	}
+
+	public int fileCount() {
+		return paths.length;
+	}
+
+	public String path(int file) {
+		return paths[file];
+	}
+
+	public FileView file(int file) {
+		FileView view = files[file];
+		if (view == null) {
+			view = loader.apply(file);
+			files[file] = view;
+		}
+		return view;
+	}
+
+	/**
+	 * Looks a file up by its exact path first and then by path suffix, the same
+	 * way editors resolve workspace paths against report paths.
+	 */
+	public FileView findFile(String path) {
+		Integer file = fileIndex.get(path);
+		if (file != null) {
+			return file(file);
+		}
+		for (int i = 0; i < paths.length; i++) {
+			if (paths[i].endsWith(path)) {
+				return file(i);
+			}
+		}
+		return null;
+	}
+
+	public static final class FileView {
+		private final String path;
+		private final int[] counters;
+		private final int counterMask;
+		private final int[] lineNumbers;
+		private final int[] lineHits;
+		private final int functionLineCount;
+		private final int[] branchLines;
+		private final BitSet branchStates;
+		private final int[] branchLineNumbers;
+		private final BitSet anyBranchCovered;
+		private final BitSet allBranchesCovered;
+		private final BitSet partiallyCoveredLines;
+		private final FunctionTable functions;
+		private final FunctionTable annotationFunctions;
+		private final FunctionLineIndex lineIndex;
+
+		FileView(String path, int[] counters, int counterMask, int[] lineNumbers, int[] lineHits,
+				int functionLineCount, int[] branchLines, BitSet branchStates, FunctionTable functions,
+				FunctionTable annotationFunctions, FunctionLineIndex lineIndex) {
+			this.path = path;
+			this.counters = counters;
+			this.counterMask = counterMask;
+			this.lineNumbers = lineNumbers;
+			this.lineHits = lineHits;
+			this.functionLineCount = functionLineCount;
+			this.branchLines = branchLines;
+			this.branchStates = branchStates;
+			this.functions = functions;
+			this.annotationFunctions = annotationFunctions;
+			this.lineIndex = lineIndex;
+
+			long[] sortedBranches = new long[branchLines.length];
+			for (int i = 0; i < sortedBranches.length; i++) {
+				sortedBranches[i] = ((long) branchLines[i] << 1) | (branchStates.get(i) ? 1 : 0);
+			}
+			Arrays.sort(sortedBranches);
+			int[] distinctLines = new int[sortedBranches.length];
+			this.anyBranchCovered = new BitSet();
+			this.allBranchesCovered = new BitSet();
+			int count = 0;
+			for (long branch : sortedBranches) {
+				int line = (int) (branch >> 1);
+				if (count == 0 || distinctLines[count - 1] != line) {
+					distinctLines[count] = line;
+					allBranchesCovered.set(count);
+					count++;
+				}
+				if ((branch & 1) != 0) {
+					anyBranchCovered.set(count - 1);
+				} else {
+					allBranchesCovered.clear(count - 1);
+				}
+			}
+			this.branchLineNumbers = count > 0 ? Arrays.copyOf(distinctLines, count) : NO_INTS;
+
+			this.partiallyCoveredLines = new BitSet();
+			for (int i = 0; i < lineNumbers.length && count > 0; i++) {
+				int branchLine = Arrays.binarySearch(branchLineNumbers, lineNumbers[i]);
+				if (branchLine >= 0 && anyBranchCovered.get(branchLine) && !allBranchesCovered.get(branchLine)) {
+					partiallyCoveredLines.set(i);
+				}
+			}
+		}
+
+		private FileView(FileView source, FunctionLineIndex lineIndex) {
+			this.path = source.path;
+			this.counters = source.counters;
+			this.counterMask = source.counterMask;
+			this.lineNumbers = source.lineNumbers;
+			this.lineHits = source.lineHits;
+			this.functionLineCount = source.functionLineCount;
+			this.branchLines = source.branchLines;
+			this.branchStates = source.branchStates;
+			this.branchLineNumbers = source.branchLineNumbers;
+			this.anyBranchCovered = source.anyBranchCovered;
+			this.allBranchesCovered = source.allBranchesCovered;
+			this.partiallyCoveredLines = source.partiallyCoveredLines;
+			this.functions = source.functions;
+			this.annotationFunctions = source.annotationFunctions;
+			this.lineIndex = lineIndex;
+		}
+
+		static FileView of(String path, int[] counters, int counterMask, List<ReportParser.LineCoverage> functionLines,
+				List<ReportParser.LineCoverage> nonFunctionLines, List<ReportParser.BranchCoverage> branches,
+				List<ReportParser.FunctionCoverage> functions, List<ReportParser.FunctionCoverage> annotationFunctions,
+				FunctionLineIndex lineIndex) {
+			int lineCount = functionLines.size() + nonFunctionLines.size();
+			int[] lineNumbers = lineCount > 0 ? new int[lineCount] : NO_INTS;
+			int[] lineHits = lineCount > 0 ? new int[lineCount] : NO_INTS;
+			for (int i = 0; i < lineCount; i++) {
+				ReportParser.LineCoverage line = i < functionLines.size() ? functionLines.get(i)
+						: nonFunctionLines.get(i - functionLines.size());
+				lineNumbers[i] = line.lineNumber();
+				lineHits[i] = line.executionCount();
+			}
+			int[] branchLines = branches.isEmpty() ? NO_INTS : new int[branches.size()];
+			BitSet branchStates = new BitSet(branchLines.length);
+			for (int i = 0; i < branchLines.length; i++) {
+				ReportParser.BranchCoverage branch = branches.get(i);
+				branchLines[i] = branch.lineNumber();
+				branchStates.set(i, branch.covered());
+			}
+			return new FileView(path, counters, counterMask, lineNumbers, lineHits, functionLines.size(), branchLines,
+					branchStates, FunctionTable.of(functions), FunctionTable.of(annotationFunctions), lineIndex);
+		}
+
+		public String path() {
+			return path;
+		}
+
+		public boolean hasCounter(Counter counter) {
+			return (counterMask & (1 << counter.ordinal())) != 0;
+		}
+
+		public int covered(Counter counter) {
+			return counters[counter.ordinal() * 2];
+		}
+
+		public int total(Counter counter) {
+			return counters[counter.ordinal() * 2 + 1];
+		}
+
+		/**
+		 * Returns the summary rows in the {@code [name, percentage, covered,
+		 * missed, total]} layout of {@link ReportParser.CoverageResult#fileCoverage()}.
+		 */
+		public Map<String, Object[]> counterRows() {
+			Map<String, Object[]> rows = new HashMap<>();
+			for (Counter counter : Counter.values()) {
+				if (hasCounter(counter)) {
+					int covered = covered(counter);
+					int total = total(counter);
+					double percentage = total > 0 ? (100.0 * covered / total) : 0.0;
+					rows.put(counter.key(), new Object[] { path, String.format(PERCENTAGE_FORMAT, percentage), covered,
+							total - covered, total });
+				}
+			}
+			return rows;
+		}
+
+		/**
+		 * Number of lines. The first {@link #functionLineCount()} of them lie
+		 * inside a function.
+		 */
+		public int lineCount() {
+			return lineNumbers.length;
+		}
+
+		public int functionLineCount() {
+			return functionLineCount;
+		}
+
+		public int lineNumber(int line) {
+			return lineNumbers[line];
+		}
+
+		public int lineHits(int line) {
+			return lineHits[line];
+		}
+
+		public int branchCount() {
+			return branchLines.length;
+		}
+
+		public int branchLine(int branch) {
+			return branchLines[branch];
+		}
+
+		public boolean branchCovered(int branch) {
+			if (branch < 0 || branch >= branchLines.length) {
+				throw new IndexOutOfBoundsException(branch);
+			}
+			return branchStates.get(branch);
+		}
+
+		/**
+		 * Number of distinct lines with branches. The branch lines are
+		 * numbered in ascending order of their line numbers.
+		 */
+		public int branchLineCount() {
+			return branchLineNumbers.length;
+		}
+
+		public int branchLineNumber(int branchLine) {
+			return branchLineNumbers[branchLine];
+		}
+
+		public boolean anyBranchCovered(int branchLine) {
+			return anyBranchCovered.get(branchLine);
+		}
+
+		public boolean allBranchesCovered(int branchLine) {
+			return allBranchesCovered.get(branchLine);
+		}
+
+		/**
+		 * Returns whether some but not all branches on the line are covered.
+		 */
+		public boolean isPartiallyCovered(int line) {
+			return partiallyCoveredLines.get(line);
+		}
+
+		public List<ReportParser.LineCoverage> functionLines() {
+			return new LineView(0, functionLineCount);
+		}
+
+		public List<ReportParser.LineCoverage> nonFunctionLines() {
+			return new LineView(functionLineCount, lineNumbers.length);
+		}
+
+		public List<ReportParser.BranchCoverage> branches() {
+			return new BranchView();
+		}
+
+		public FunctionTable functions() {
+			return functions;
+		}
+
+		public FunctionTable annotationFunctions() {
+			return annotationFunctions;
+		}
+
+		public FunctionLineIndex lineIndex() {
+			return lineIndex;
+		}
+
+		FileView withLineIndex() {
+			if (lineIndex != null || functions.isEmpty()) {
+				return this;
+			}
+			return new FileView(this, FunctionLineIndex.build(functions, functionLines(), branches()));
+		}
+
+		private final class LineView extends AbstractList<ReportParser.LineCoverage> implements RandomAccess {
+			private final int from;
+			private final int to;
+
+			LineView(int from, int to) {
+				this.from = from;
+				this.to = to;
+			}
+
+			@Override
+			public ReportParser.LineCoverage get(int index) {
+				if (index < 0 || index >= to - from) {
+					throw new IndexOutOfBoundsException(index);
+				}
+				return new ReportParser.LineCoverage(lineNumbers[from + index], lineHits[from + index]);
+			}
+
+			@Override
+			public int size() {
+				return to - from;
+			}
+		}
+
+		private final class BranchView extends AbstractList<ReportParser.BranchCoverage> implements RandomAccess {
+			@Override
+			public ReportParser.BranchCoverage get(int index) {
+				return new ReportParser.BranchCoverage(branchLine(index), branchCovered(index));
+			}
+
+			@Override
+			public int size() {
+				return branchLines.length;
+			}
+		}
+	}
+
+	/**
+	 * Function columns of one file. Reading an element through the
+	 * {@link List} interface creates a {@link ReportParser.FunctionCoverage}.
+	 */
+	public static final class FunctionTable extends AbstractList<ReportParser.FunctionCoverage>
+			implements RandomAccess {
+		private final String[] names;
+		private final int[] mangledOffsets;
+		private final String[] mangledNames;
+		private final int[] executionCounts;
+		private final int[] startLines;
+		private final int[] endLines;
+		private final int[] signatureLines;
+		private final BitSet lambdas;
+
+		FunctionTable(String[] names, int[] mangledOffsets, String[] mangledNames, int[] executionCounts,
+				int[] startLines, int[] endLines, int[] signatureLines, BitSet lambdas) {
+			this.names = names;
+			this.mangledOffsets = mangledOffsets;
+			this.mangledNames = mangledNames;
+			this.executionCounts = executionCounts;
+			this.startLines = startLines;
+			this.endLines = endLines;
+			this.signatureLines = signatureLines;
+			this.lambdas = lambdas;
+		}
+
+		static FunctionTable of(List<ReportParser.FunctionCoverage> functions) {
+			if (functions.isEmpty()) {
+				return NO_FUNCTIONS;
+			}
+			int size = functions.size();
+			String[] names = new String[size];
+			int[] mangledOffsets = new int[size + 1];
+			int[] executionCounts = new int[size];
+			int[] startLines = new int[size];
+			int[] endLines = new int[size];
+			int[] signatureLines = new int[size];
+			BitSet lambdas = new BitSet(size);
+			for (int i = 0; i < size; i++) {
+				mangledOffsets[i + 1] = mangledOffsets[i] + functions.get(i).mangledNames().size();
+			}
+			String[] mangledNames = new String[mangledOffsets[size]];
+			for (int i = 0; i < size; i++) {
+				ReportParser.FunctionCoverage function = functions.get(i);
+				names[i] = function.name();
+				executionCounts[i] = function.executionCount();
+				startLines[i] = function.startLine();
+				endLines[i] = function.endLine();
+				signatureLines[i] = function.signatureLine();
+				lambdas.set(i, function.isLambda());
+				int offset = mangledOffsets[i];
+				for (String mangledName : function.mangledNames()) {
+					mangledNames[offset++] = mangledName;
+				}
+			}
+			return new FunctionTable(names, mangledOffsets, mangledNames, executionCounts, startLines, endLines,
+					signatureLines, lambdas);
+		}
+
+		public String name(int function) {
+			return names[function];
+		}
+
+		public int mangledNameCount(int function) {
+			return mangledOffsets[function + 1] - mangledOffsets[function];
+		}
+
+		public String mangledName(int function, int index) {
+			if (index < 0 || index >= mangledNameCount(function)) {
+				throw new IndexOutOfBoundsException(index);
+			}
+			return mangledNames[mangledOffsets[function] + index];
+		}
+
+		public List<String> mangledNames(int function) {
+			return List.of(Arrays.copyOfRange(mangledNames, mangledOffsets[function], mangledOffsets[function + 1]));
+		}
+
+		public int executionCount(int function) {
+			return executionCounts[function];
+		}
+
+		public int startLine(int function) {
+			return startLines[function];
+		}
+
+		public int endLine(int function) {
+			return endLines[function];
+		}
+
+		public int signatureLine(int function) {
+			return signatureLines[function];
+		}
+
+		public boolean isLambda(int function) {
+			if (function < 0 || function >= names.length) {
+				throw new IndexOutOfBoundsException(function);
+			}
+			return lambdas.get(function);
+		}
+
+		@Override
+		public ReportParser.FunctionCoverage get(int index) {
+			return new ReportParser.FunctionCoverage(name(index), mangledNames(index), executionCount(index),
+					startLine(index), endLine(index), signatureLine(index), isLambda(index));
+		}
+
+		@Override
+		public int size() {
+			return names.length;
+		}
+	}
+
+	/**
+	 * Map view of one value of every file. Unless the map is sparse every file
+	 * has a value, so its size is known without loading the files.
+	 */
+	private final class FileMap<V> extends AbstractMap<String, V> {
+		private final Function<FileView, V> values;
+		private final boolean sparse;
+		private int size = -1;
+
+		FileMap(Function<FileView, V> values, boolean sparse) {
+			this.values = values;
+			this.sparse = sparse;
+			if (!sparse) {
+				size = paths.length;
+			}
+		}
+
+		CoverageStore store() {
+			return CoverageStore.this;
+		}
+
+		@Override
+		public V get(Object key) {
+			Integer file = fileIndex.get(key);
+			return file != null ? values.apply(file(file)) : null;
+		}
+
+		@Override
+		public boolean containsKey(Object key) {
+			return get(key) != null;
+		}
+
+		@Override
+		public int size() {
+			if (size < 0) {
+				int count = 0;
+				for (int i = 0; i < paths.length; i++) {
+					count += values.apply(file(i)) != null ? 1 : 0;
+				}
+				size = count;
+			}
+			return size;
+		}
+
+		@Override
+		public Set<Entry<String, V>> entrySet() {
+			return new AbstractSet<>() {
+				@Override
+				public Iterator<Entry<String, V>> iterator() {
+					return new Iterator<>() {
+						private int next = advance(0);
+
+						private int advance(int from) {
+							while (from < paths.length && values.apply(file(from)) == null) {
+								from++;
+							}
+							return from;
+						}
+
+						@Override
+						public boolean hasNext() {
+							return next < paths.length;
+						}
+
+						@Override
+						public Entry<String, V> next() {
+							if (next >= paths.length) {
+								throw new NoSuchElementException();
+							}
+							Entry<String, V> entry = new SimpleImmutableEntry<>(paths[next], values.apply(file(next)));
+							next = advance(next + 1);
+							return entry;
+						}
+					};
+				}
+
+				@Override
+				public int size() {
+					return FileMap.this.size();
+				}
+			};
+		}
+	}
+}
@@ -0,0 +1,190 @@
+package su.softcom.cldt.testing.core;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Bounded cache of demangled names that can be read and written from any
+ * thread without locking. Every entry remembers the tick of its last access;
+ * once the cache grows past its bound, one thread at a time evicts the least
+ * recently used eighth of the entries, so eviction is amortized over many
+ * insertions and the size is only approximately bounded while it runs.
+ */
+public final class DemangleCache {
+	private static final int FILE_MAGIC = 0x444d4331;
+	private static final int MAX_PERSISTED_LENGTH = 16 * 1024;
+
+	private final int maxEntries;
+	private final int evictedSize;
+	private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+	private final AtomicLong clock = new AtomicLong();
+	private final AtomicBoolean evicting = new AtomicBoolean();
+	private final LongAdder hitCount = new LongAdder();
+	private final LongAdder missCount = new LongAdder();
+	private volatile boolean modified;
+
+	public DemangleCache(int maxEntries) {
+		if (maxEntries <= 0) {
+			throw new IllegalArgumentException("Cache size must be positive: " + maxEntries);
+		}
+		this.maxEntries = maxEntries;
+		this.evictedSize = maxEntries - maxEntries / 8;
+	}
+
+	public String get(String mangledName) {
+		Entry entry = entries.get(mangledName);
+		if (entry == null) {
+			missCount.increment();
+			return null;
+		}
+		hitCount.increment();
+		entry.lastAccess = clock.incrementAndGet();
+		return entry.demangledName;
+	}
+
+	public void put(String mangledName, String demangledName) {
+		Entry previous = entries.put(mangledName, new Entry(demangledName, clock.incrementAndGet()));
+		if (previous == null || !demangledName.equals(previous.demangledName)) {
+			modified = true;
+		}
+		evictIfFull();
+	}
+
+	public void clear() {
+		entries.clear();
+		hitCount.reset();
+		missCount.reset();
+		modified = false;
+	}
+
+	public int size() {
+		return entries.size();
+	}
+
+	public int getMaxEntries() {
+		return maxEntries;
+	}
+
+	public long getHitCount() {
+		return hitCount.sum();
+	}
+
+	public long getMissCount() {
+		return missCount.sum();
+	}
+
+	public synchronized int load(Path file) throws IOException {
+		int loaded = 0;
+		try (DataInputStream in = new DataInputStream(
+				new GZIPInputStream(new BufferedInputStream(Files.newInputStream(file))))) {
+			if (in.readInt() != FILE_MAGIC) {
+				throw new IOException("Unrecognized demangle cache file: " + file);
+			}
+			int count = in.readInt();
+			for (int i = 0; i < count; i++) {
+				String mangledName = in.readUTF();
+				String demangledName = in.readUTF();
+				entries.putIfAbsent(mangledName, new Entry(demangledName, clock.incrementAndGet()));
+				loaded++;
+			}
+		} catch (NoSuchFileException e) {
+			return 0;
+		}
+		evictIfFull();
+		return loaded;
+	}
+
+	/**
+	 * Writes the entries, least recently used first, if any changed since the
+	 * cache was last loaded or saved. Entries put while the cache is being
+	 * written are saved the next time.
+	 */
+	public synchronized boolean save(Path file) throws IOException {
+		if (!modified) {
+			return false;
+		}
+		modified = false;
+		List<Map.Entry<String, Entry>> persisted = new ArrayList<>(entries.size());
+		for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+			if (entry.getKey().length() <= MAX_PERSISTED_LENGTH
+					&& entry.getValue().demangledName.length() <= MAX_PERSISTED_LENGTH) {
+				persisted.add(entry);
+			}
+		}
+		persisted.sort(Comparator.comparingLong(entry -> entry.getValue().lastAccess));
+		try {
+			Files.createDirectories(file.toAbsolutePath().getParent());
+			Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+			try (DataOutputStream out = new DataOutputStream(
+					new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile))))) {
+				out.writeInt(FILE_MAGIC);
+				out.writeInt(persisted.size());
+				for (Map.Entry<String, Entry> entry : persisted) {
+					out.writeUTF(entry.getKey());
+					out.writeUTF(entry.getValue().demangledName);
+				}
+			}
+			Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException | RuntimeException e) {
+			modified = true;
+			throw e;
+		}
+		return true;
+	}
+
+	/**
+	 * Evicts the least recently used entries down to seven eighths of the
+	 * bound. A thread that finds another one evicting leaves it to that thread,
+	 * which checks the size again once it is done.
+	 */
+	private void evictIfFull() {
+		while (entries.size() > maxEntries && evicting.compareAndSet(false, true)) {
+			try {
+				long[] ticks = new long[entries.size()];
+				int count = 0;
+				for (Entry entry : entries.values()) {
+					if (count == ticks.length) {
+						break;
+					}
+					ticks[count++] = entry.lastAccess;
+				}
+				int excess = count - evictedSize;
+				if (excess > 0) {
+					Arrays.sort(ticks, 0, count);
+					long threshold = ticks[excess - 1];
+					entries.values().removeIf(entry -> entry.lastAccess <= threshold);
+				}
+			} finally {
+				evicting.set(false);
+			}
+		}
+	}
+
+	private static final class Entry {
+		final String demangledName;
+		volatile long lastAccess;
+
+		Entry(String demangledName, long lastAccess) {
+			this.demangledName = demangledName;
+			this.lastAccess = lastAccess;
+		}
+	}
+}
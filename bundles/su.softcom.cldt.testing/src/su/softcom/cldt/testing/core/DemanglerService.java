@@ -0,0 +1,154 @@
+package su.softcom.cldt.testing.core;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+final class DemanglerService {
+	private static final String DEMANGLER_COMMAND = "llvm-cxxfilt";
+	private static final long RESPONSE_TIMEOUT_SECONDS = 10;
+	private static final int MAX_RESTARTS = 1;
+
+	private DemanglerProcess current;
+
+	synchronized List<String> demangle(List<String> mangledNames) throws IOException, InterruptedException {
+		List<String> demangledNames = new ArrayList<>(mangledNames.size());
+		int restarts = 0;
+		while (demangledNames.size() < mangledNames.size()) {
+			try {
+				if (current == null || !current.isAlive()) {
+					stop();
+					current = DemanglerProcess.start();
+				}
+				current.demangle(mangledNames.subList(demangledNames.size(), mangledNames.size()), demangledNames);
+			} catch (IOException e) {
+				stop();
+				if (restarts++ >= MAX_RESTARTS) {
+					throw e;
+				}
+			} catch (InterruptedException e) {
+				stop();
+				throw e;
+			}
+		}
+		return demangledNames;
+	}
+
+	static String describeToolchain() {
+		String searchPath = System.getenv("PATH");
+		if (searchPath == null) {
+			return DEMANGLER_COMMAND + ":unresolved";
+		}
+		for (String directory : searchPath.split(File.pathSeparator)) {
+			for (String executable : new String[] { DEMANGLER_COMMAND, DEMANGLER_COMMAND + ".exe" }) {
+				try {
+					Path candidate = Paths.get(directory, executable);
+					if (Files.isExecutable(candidate)) {
+						Path resolved = candidate.toRealPath();
+						return String.format("%s:%d:%d", resolved, Files.size(resolved),
+								Files.getLastModifiedTime(resolved).toMillis());
+					}
+				} catch (IOException | RuntimeException e) {
+					// unusable PATH entry, keep looking
+				}
+			}
+		}
+		return DEMANGLER_COMMAND + ":unresolved";
+	}
+
+	synchronized void stop() {
+		if (current != null) {
+			current.destroy();
+			current = null;
+		}
+	}
+
+	private static final class DemanglerProcess {
+		private static final String END_OF_OUTPUT = new String("<end of output>");
+
+		private final Process process;
+		private final Writer input;
+		private final BlockingQueue<String> output = new LinkedBlockingQueue<>();
+		private boolean outputClosed;
+
+		private DemanglerProcess(Process process) {
+			this.process = process;
+			this.input = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8));
+		}
+
+		static DemanglerProcess start() throws IOException {
+			ProcessBuilder pb = new ProcessBuilder(DEMANGLER_COMMAND);
+			pb.redirectError(ProcessBuilder.Redirect.DISCARD);
+			DemanglerProcess demangler = new DemanglerProcess(pb.start());
+			demangler.startOutputPump();
+			return demangler;
+		}
+
+		boolean isAlive() {
+			return !outputClosed && process.isAlive();
+		}
+
+		void demangle(List<String> mangledNames, List<String> demangledNames)
+				throws IOException, InterruptedException {
+			for (String mangledName : mangledNames) {
+				input.write(mangledName);
+				input.write('\n');
+			}
+			input.flush();
+
+			for (String mangledName : mangledNames) {
+				String line = output.poll(RESPONSE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+				if (line == null) {
+					throw new IOException(String.format("%s did not respond within %d seconds", DEMANGLER_COMMAND,
+							RESPONSE_TIMEOUT_SECONDS));
+				}
+				if (line == END_OF_OUTPUT) {
+					outputClosed = true;
+					throw new IOException(DEMANGLER_COMMAND + " terminated unexpectedly");
+				}
+				String demangled = line.trim();
+				demangledNames.add(demangled.isEmpty() ? mangledName : demangled);
+			}
+		}
+
+		void destroy() {
+			try {
+				input.close();
+			} catch (IOException e) {
+				// the process is being destroyed anyway
+			}
+			process.destroy();
+		}
+
+		private void startOutputPump() {
+			Thread pump = new Thread(() -> {
+				try (BufferedReader reader = new BufferedReader(
+						new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+					String line;
+					while ((line = reader.readLine()) != null) {
+						output.add(line);
+					}
+				} catch (IOException e) {
+					// reported to the caller as end of output
+				} finally {
+					output.add(END_OF_OUTPUT);
+				}
+			}, DEMANGLER_COMMAND + " output");
+			pump.setDaemon(true);
+			pump.start();
+		}
+	}
+}
@@ -0,0 +1,159 @@
+package su.softcom.cldt.testing.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Sorted line index of one source file. Resolves the innermost function that
+ * owns a line and counts the lines and branches inside a line range, both by
+ * binary search.
+ */
+public final class FunctionLineIndex {
+	private final int[] segmentStarts;
+	private final int[] segmentOwners;
+	private final int[] lineNumbers;
+	private final int[] coveredLinePrefix;
+	private final int[] branchLines;
+	private final int[] coveredBranchPrefix;
+
+	private FunctionLineIndex(int[] segmentStarts, int[] segmentOwners, int[] lineNumbers, int[] coveredLinePrefix,
+			int[] branchLines, int[] coveredBranchPrefix) {
+		this.segmentStarts = segmentStarts;
+		this.segmentOwners = segmentOwners;
+		this.lineNumbers = lineNumbers;
+		this.coveredLinePrefix = coveredLinePrefix;
+		this.branchLines = branchLines;
+		this.coveredBranchPrefix = coveredBranchPrefix;
+	}
+
+	public static FunctionLineIndex build(List<ReportParser.FunctionCoverage> functions,
+			List<ReportParser.LineCoverage> lines, List<ReportParser.BranchCoverage> branches) {
+		IntList starts = new IntList();
+		IntList owners = new IntList();
+		buildOwnership(functions, starts, owners);
+
+		long[] sortedLines = new long[lines.size()];
+		for (int i = 0; i < sortedLines.length; i++) {
+			ReportParser.LineCoverage line = lines.get(i);
+			sortedLines[i] = pack(line.lineNumber(), line.executionCount() > 0);
+		}
+		long[] sortedBranches = new long[branches.size()];
+		for (int i = 0; i < sortedBranches.length; i++) {
+			ReportParser.BranchCoverage branch = branches.get(i);
+			sortedBranches[i] = pack(branch.lineNumber(), branch.covered());
+		}
+
+		int[] lineNumbers = new int[sortedLines.length];
+		int[] coveredLinePrefix = new int[sortedLines.length + 1];
+		unpack(sortedLines, lineNumbers, coveredLinePrefix);
+		int[] branchLines = new int[sortedBranches.length];
+		int[] coveredBranchPrefix = new int[sortedBranches.length + 1];
+		unpack(sortedBranches, branchLines, coveredBranchPrefix);
+
+		return new FunctionLineIndex(starts.toArray(), owners.toArray(), lineNumbers, coveredLinePrefix, branchLines,
+				coveredBranchPrefix);
+	}
+
+	/**
+	 * Returns the position in the function list given to {@link #build} of the
+	 * innermost function whose range contains the line, or -1 if no function
+	 * does. Overlapping ranges resolve to the one that starts last.
+	 */
+	public int ownerOf(int lineNumber) {
+		int segment = Arrays.binarySearch(segmentStarts, lineNumber);
+		if (segment < 0) {
+			segment = -segment - 2;
+		}
+		return segment >= 0 ? segmentOwners[segment] : -1;
+	}
+
+	public int lineCount(int startLine, int endLine) {
+		return endLine < startLine ? 0 : lowerBound(lineNumbers, endLine + 1) - lowerBound(lineNumbers, startLine);
+	}
+
+	public int coveredLineCount(int startLine, int endLine) {
+		return endLine < startLine ? 0
+				: coveredLinePrefix[lowerBound(lineNumbers, endLine + 1)]
+						- coveredLinePrefix[lowerBound(lineNumbers, startLine)];
+	}
+
+	public int branchCount(int startLine, int endLine) {
+		return endLine < startLine ? 0 : lowerBound(branchLines, endLine + 1) - lowerBound(branchLines, startLine);
+	}
+
+	public int coveredBranchCount(int startLine, int endLine) {
+		return endLine < startLine ? 0
+				: coveredBranchPrefix[lowerBound(branchLines, endLine + 1)]
+						- coveredBranchPrefix[lowerBound(branchLines, startLine)];
+	}
+
+	private static void buildOwnership(List<ReportParser.FunctionCoverage> functions, IntList starts,
+			IntList owners) {
+		List<Integer> order = new ArrayList<>(functions.size());
+		IntList points = new IntList(functions.size() * 2);
+		for (int i = 0; i < functions.size(); i++) {
+			ReportParser.FunctionCoverage function = functions.get(i);
+			if (function.endLine() >= function.startLine()) {
+				order.add(i);
+				points.add(function.startLine());
+				points.add(function.endLine() + 1);
+			}
+		}
+		order.sort((a, b) -> Integer.compare(functions.get(a).startLine(), functions.get(b).startLine()));
+		int[] boundaries = points.toArray();
+		Arrays.sort(boundaries);
+
+		PriorityQueue<Integer> active = new PriorityQueue<>((a, b) -> {
+			ReportParser.FunctionCoverage first = functions.get(a);
+			ReportParser.FunctionCoverage second = functions.get(b);
+			int byStart = Integer.compare(second.startLine(), first.startLine());
+			return byStart != 0 ? byStart : Integer.compare(first.endLine(), second.endLine());
+		});
+		int next = 0;
+		for (int i = 0; i < boundaries.length; i++) {
+			int point = boundaries[i];
+			if (i > 0 && boundaries[i - 1] == point) {
+				continue;
+			}
+			while (next < order.size() && functions.get(order.get(next)).startLine() <= point) {
+				active.add(order.get(next++));
+			}
+			while (!active.isEmpty() && functions.get(active.peek()).endLine() < point) {
+				active.poll();
+			}
+			int owner = active.isEmpty() ? -1 : active.peek();
+			if (owners.isEmpty() ? owner >= 0 : owners.get(owners.size() - 1) != owner) {
+				starts.add(point);
+				owners.add(owner);
+			}
+		}
+	}
+
+	private static long pack(int lineNumber, boolean covered) {
+		return ((long) lineNumber << 1) | (covered ? 1 : 0);
+	}
+
+	private static void unpack(long[] packed, int[] lineNumbers, int[] coveredPrefix) {
+		Arrays.sort(packed);
+		for (int i = 0; i < packed.length; i++) {
+			lineNumbers[i] = (int) (packed[i] >> 1);
+			coveredPrefix[i + 1] = coveredPrefix[i] + (int) (packed[i] & 1);
+		}
+	}
+
+	private static int lowerBound(int[] values, int key) {
+		int low = 0;
+		int high = values.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (values[mid] < key) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+}
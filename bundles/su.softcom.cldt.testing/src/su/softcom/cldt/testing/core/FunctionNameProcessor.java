@@ -1,14 +1,15 @@
 package su.softcom.cldt.testing.core;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import org.eclipse.core.runtime.ILog;
@@ -19,7 +20,14 @@ import org.eclipse.core.runtime.Status;
 public class FunctionNameProcessor {
 	private static final ILog LOGGER = Platform.getLog(FunctionNameProcessor.class);
 	private static final String PLUGIN_ID = "su.softcom.cldt.testing";
-	private static final Map<String, String> DEMANGLE_CACHE = new HashMap<>();
+	private static final int MAX_CACHE_ENTRIES = 200_000;
+	private static final String CACHE_FILE_PREFIX = "demangle-cache-";
+	private static final DemangleCache DEMANGLE_CACHE = new DemangleCache(MAX_CACHE_ENTRIES);
+	private static final DemanglerService DEMANGLER = new DemanglerService();
+	private static volatile Path persistentCacheFile;
+	private static volatile boolean persistentCacheLoaded;
+	private static final Pattern SECTION_PREFIX_PATTERN = Pattern.compile("^[\\w.-]+:");
+	private static final Pattern PLAIN_SYMBOL_PATTERN = Pattern.compile("(?!_[A-Z_])[A-Za-z_][\\w$]*");
 	private static final Pattern MODIFIER_PATTERN = Pattern.compile(
 			"\\s*(const|volatile|noexcept|__attribute__\\(.*\\)|__cdecl|__stdcall|__fastcall|inline|&|\\*|\\s*\\)\\s*)\\s*(?=$|\\))");
 	private static final Pattern ANONYMOUS_NS_PATTERN = Pattern.compile("\\(anonymous\\s*(namespace)?\\)");
@@ -32,16 +40,136 @@ public class FunctionNameProcessor {
 			return mangledName;
 		}
 
-		String cleanMangledName = mangledName.replaceAll("^[\\w.-]+:", "");
-		if (DEMANGLE_CACHE.containsKey(cleanMangledName)) {
-			return DEMANGLE_CACHE.get(cleanMangledName);
+		loadPersistentCache();
+		String cleanMangledName = cleanMangledName(mangledName);
+		String cached = DEMANGLE_CACHE.get(cleanMangledName);
+		if (cached != null) {
+			return cached;
 		}
 
-		String demangled = executeDemangler(cleanMangledName);
+		String demangled = demangleInProcess(cleanMangledName);
+		if (demangled == null) {
+			List<String> demangledNames = executeDemangler(List.of(cleanMangledName));
+			if (demangledNames == null) {
+				return cleanMangledName;
+			}
+			demangled = demangledNames.get(0);
+		}
 		DEMANGLE_CACHE.put(cleanMangledName, demangled);
 		return demangled;
 	}
 
+	public static Map<String, String> demangleAll(Collection<String> mangledNames) {
+		loadPersistentCache();
+		Map<String, String> result = new HashMap<>();
+		Map<String, List<String>> pending = new LinkedHashMap<>();
+		for (String mangledName : mangledNames) {
+			if (mangledName == null || mangledName.isEmpty() || result.containsKey(mangledName)) {
+				continue;
+			}
+			String cleanMangledName = cleanMangledName(mangledName);
+			List<String> waiting = pending.get(cleanMangledName);
+			if (waiting != null) {
+				waiting.add(mangledName);
+				continue;
+			}
+			String demangled = DEMANGLE_CACHE.get(cleanMangledName);
+			if (demangled == null) {
+				demangled = demangleInProcess(cleanMangledName);
+				if (demangled != null) {
+					DEMANGLE_CACHE.put(cleanMangledName, demangled);
+				}
+			}
+			if (demangled != null) {
+				result.put(mangledName, demangled);
+			} else {
+				pending.computeIfAbsent(cleanMangledName, name -> new ArrayList<>()).add(mangledName);
+			}
+		}
+
+		if (!pending.isEmpty()) {
+			List<String> pendingNames = new ArrayList<>(pending.keySet());
+			List<String> demangledNames = executeDemangler(pendingNames);
+			for (int i = 0; i < pendingNames.size(); i++) {
+				String demangled = demangledNames != null ? demangledNames.get(i) : pendingNames.get(i);
+				if (demangledNames != null) {
+					DEMANGLE_CACHE.put(pendingNames.get(i), demangled);
+				}
+				for (String mangledName : pending.get(pendingNames.get(i))) {
+					result.put(mangledName, demangled);
+				}
+			}
+		}
+		return result;
+	}
+
+	public static DemangleCache getDemangleCache() {
+		return DEMANGLE_CACHE;
+	}
+
+	public static void shutdownDemangler() {
+		DEMANGLER.stop();
+		synchronized (FunctionNameProcessor.class) {
+			saveDemangleCache();
+			persistentCacheFile = null;
+			persistentCacheLoaded = false;
+		}
+	}
+
+	/**
+	 * Writes the demangle cache to the plugin state location if it changed, so
+	 * the names demangled so far survive a crash of the IDE.
+	 */
+	public static void saveDemangleCache() {
+		Path cacheFile = persistentCacheFile;
+		if (cacheFile == null) {
+			return;
+		}
+		try {
+			DEMANGLE_CACHE.save(cacheFile);
+		} catch (IOException e) {
+			LOGGER.log(new Status(IStatus.WARNING, PLUGIN_ID,
+					"Failed to save demangle cache to " + cacheFile + ": " + e.getMessage(), e));
+		}
+	}
+
+	private static void loadPersistentCache() {
+		if (persistentCacheLoaded) {
+			return;
+		}
+		synchronized (FunctionNameProcessor.class) {
+			if (persistentCacheLoaded) {
+				return;
+			}
+			Activator activator = Activator.getDefault();
+			if (activator != null) {
+				String toolchain = activator.getBundle().getVersion() + "|" + DemanglerService.describeToolchain();
+				Path cacheFile = activator.getStateLocation().toFile().toPath()
+						.resolve(CACHE_FILE_PREFIX + Integer.toHexString(toolchain.hashCode()) + ".bin");
+				try {
+					DEMANGLE_CACHE.load(cacheFile);
+				} catch (IOException e) {
+					LOGGER.log(new Status(IStatus.WARNING, PLUGIN_ID,
+							"Failed to load demangle cache from " + cacheFile + ": " + e.getMessage(), e));
+				}
+				persistentCacheFile = cacheFile;
+			}
+			persistentCacheLoaded = true;
+		}
+	}
+
+	private static String demangleInProcess(String mangledName) {
+		String demangled = ItaniumDemangler.demangle(mangledName);
+		if (demangled == null && PLAIN_SYMBOL_PATTERN.matcher(mangledName).matches()) {
+			return mangledName;
+		}
+		return demangled;
+	}
+
+	private static String cleanMangledName(String mangledName) {
+		return SECTION_PREFIX_PATTERN.matcher(mangledName).replaceFirst("");
+	}
+
 	public static String extractCleanFunctionName(String demangledName) {
 		if (demangledName == null || demangledName.isEmpty()) {
 			LOGGER.log(new Status(IStatus.WARNING, PLUGIN_ID, "Demangled name is null or empty"));
@@ -96,36 +224,27 @@ public class FunctionNameProcessor {
 				|| functionName.matches(".*operator\\s*\\(\\)\\s*.*");
 	}
 
-	private static String executeDemangler(String mangledName) {
+	/**
+	 * Returns {@code null} if llvm-cxxfilt failed, so that callers do not cache
+	 * the mangled names they fall back to.
+	 */
+	private static List<String> executeDemangler(List<String> mangledNames) {
 		try {
-			ProcessBuilder pb = new ProcessBuilder("llvm-cxxfilt", mangledName);
-			pb.redirectErrorStream(true);
-			Process process = pb.start();
-			try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
-				String demangled = String.join("", reader.lines().toList()).trim();
-				if (process.waitFor(10, TimeUnit.SECONDS)) {
-					if (process.exitValue() == 0 && !demangled.isEmpty() && !demangled.equals(mangledName)) {
-						return demangled;
-					} else {
-						LOGGER.log(new Status(IStatus.WARNING, PLUGIN_ID,
-								String.format("Failed to demangle name: %s, exit code: %d, output: %s", mangledName,
-										process.exitValue(), demangled)));
-					}
-				} else {
-					LOGGER.log(new Status(IStatus.WARNING, PLUGIN_ID,
-							String.format("Demangling timed out for name: %s", mangledName)));
-					process.destroy();
-				}
-			}
+			return DEMANGLER.demangle(mangledNames);
 		} catch (IOException e) {
-			LOGGER.log(new Status(IStatus.ERROR, PLUGIN_ID,
-					String.format("IO error while demangling name: %s, error: %s", mangledName, e.getMessage()), e));
+			LOGGER.log(new Status(IStatus.ERROR, PLUGIN_ID, String.format(
+					"IO error while demangling names: %s, error: %s", formatNames(mangledNames), e.getMessage()), e));
 		} catch (InterruptedException e) {
-			LOGGER.log(new Status(IStatus.ERROR, PLUGIN_ID,
-					String.format("Interrupted while demangling name: %s, error: %s", mangledName, e.getMessage()), e));
+			LOGGER.log(new Status(IStatus.ERROR, PLUGIN_ID, String.format(
+					"Interrupted while demangling names: %s, error: %s", formatNames(mangledNames), e.getMessage()),
+					e));
 			Thread.currentThread().interrupt();
 		}
-		return mangledName;
+		return null;
+	}
+
+	private static String formatNames(List<String> names) {
+		return names.size() == 1 ? names.get(0) : String.format("%s and %d more", names.get(0), names.size() - 1);
 	}
 
 	private static String cleanSignature(String demangledName) {
@@ -0,0 +1,179 @@
+package su.softcom.cldt.testing.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IFolder;
+import org.eclipse.core.runtime.ILog;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.core.runtime.Status;
+import su.softcom.cldt.core.cmake.ICMakeProject;
+import su.softcom.cldt.core.cmake.Target;
+
+/**
+ * Coverage build tree kept next to the regular build folder of a CMake project.
+ * It is configured with the instrumentation flags once and then rebuilt
+ * incrementally for the launched targets, so coverage launches neither change
+ * the build arguments of the project nor force a full rebuild of its regular
+ * build folder.
+ */
+final class InstrumentedBuild {
+	static final String FOLDER_SUFFIX = "-coverage";
+	static final String STAMP_FILE = "cldt_coverage_configure.stamp";
+
+	private static final ILog LOGGER = Platform.getLog(InstrumentedBuild.class);
+	private static final String PLUGIN_ID = "su.softcom.cldt.testing";
+	private static final String CMAKE_COMMAND = "cmake";
+	private static final String CACHE_FILE = "CMakeCache.txt";
+	private static final String INSTRUMENTATION_FLAGS = "-fprofile-instr-generate -fcoverage-mapping";
+	private static final int LOG_TAIL_LINES = 200;
+
+	private final ICMakeProject cmakeProject;
+	private final IFolder folder;
+	private final Path buildPath;
+	private final Path regularBuildPath;
+
+	InstrumentedBuild(ICMakeProject cmakeProject) {
+		IFolder buildFolder = cmakeProject.getBuildFolder();
+		this.cmakeProject = cmakeProject;
+		this.folder = cmakeProject.getProject().getFolder(buildFolder.getProjectRelativePath() + FOLDER_SUFFIX);
+		this.buildPath = Paths.get(folder.getLocation().toOSString()).toAbsolutePath().normalize();
+		this.regularBuildPath = Paths.get(buildFolder.getLocation().toOSString()).toAbsolutePath().normalize();
+	}
+
+	IFolder getFolder() {
+		return folder;
+	}
+
+	Path getPath() {
+		return buildPath;
+	}
+
+	/**
+	 * Configures the coverage build tree when it has no cache yet or its
+	 * configure arguments changed, then builds the given targets in it.
+	 */
+	void build(CommandExecutor executor, List<String> targetNames, IProgressMonitor monitor)
+			throws IOException, InterruptedException {
+		Files.createDirectories(buildPath);
+		List<String> configureCommand = getConfigureCommand();
+		String stamp = String.join("\n", configureCommand);
+		Path stampFile = buildPath.resolve(STAMP_FILE);
+		if (!Files.exists(buildPath.resolve(CACHE_FILE)) || !stamp.equals(readStamp(stampFile))) {
+			run(executor, configureCommand, "configure", monitor);
+			Files.writeString(stampFile, stamp, StandardCharsets.UTF_8);
+		}
+
+		List<String> buildCommand = new ArrayList<>(List.of(CMAKE_COMMAND, "--build", buildPath.toString()));
+		buildCommand.add("--target");
+		buildCommand.addAll(targetNames);
+		buildCommand.add("--parallel");
+		run(executor, buildCommand, "build", monitor);
+	}
+
+	List<String> getConfigureCommand() throws IOException {
+		Map<String, String> regularCache = readCache(regularBuildPath.resolve(CACHE_FILE));
+		String sourceDir = regularCache.getOrDefault("CMAKE_HOME_DIRECTORY",
+				cmakeProject.getProject().getLocation().toOSString());
+
+		List<String> command = new ArrayList<>(List.of(CMAKE_COMMAND, "-S", sourceDir, "-B", buildPath.toString()));
+		String generator = regularCache.get("CMAKE_GENERATOR");
+		if (generator != null && !generator.isEmpty()) {
+			command.add("-G");
+			command.add(generator);
+		}
+		Map<String, String> arguments = new TreeMap<>(cmakeProject.getBuildArguments());
+		arguments.merge("CMAKE_C_FLAGS", INSTRUMENTATION_FLAGS, InstrumentedBuild::appendFlags);
+		arguments.merge("CMAKE_CXX_FLAGS", INSTRUMENTATION_FLAGS, InstrumentedBuild::appendFlags);
+		for (Map.Entry<String, String> argument : arguments.entrySet()) {
+			command.add("-D" + argument.getKey() + "=" + argument.getValue());
+		}
+		return command;
+	}
+
+	/**
+	 * Returns the instrumented counterpart of an artifact of the target, that is
+	 * the file at the same path relative to the coverage build tree, or
+	 * {@code null} if none of the artifacts has been built there.
+	 */
+	String findArtifact(Target target) {
+		for (IFile file : target.getArtifacts()) {
+			Path artifact = Paths.get(file.getRawLocation().makeAbsolute().toOSString()).normalize();
+			if (!artifact.startsWith(regularBuildPath)) {
+				continue;
+			}
+			File instrumented = buildPath.resolve(regularBuildPath.relativize(artifact)).toFile();
+			if (instrumented.isFile() && instrumented.canExecute()) {
+				return instrumented.getAbsolutePath();
+			}
+		}
+		return null;
+	}
+
+	private static String appendFlags(String userFlags, String flags) {
+		return userFlags.contains(flags) ? userFlags : (userFlags + " " + flags).trim();
+	}
+
+	private static String readStamp(Path stampFile) throws IOException {
+		try {
+			return Files.readString(stampFile, StandardCharsets.UTF_8);
+		} catch (NoSuchFileException e) {
+			return null;
+		}
+	}
+
+	static Map<String, String> readCache(Path cacheFile) throws IOException {
+		Map<String, String> entries = new HashMap<>();
+		if (!Files.isRegularFile(cacheFile)) {
+			return entries;
+		}
+		for (String line : Files.readAllLines(cacheFile, StandardCharsets.UTF_8)) {
+			if (line.isEmpty() || line.startsWith("#") || line.startsWith("//")) {
+				continue;
+			}
+			int type = line.indexOf(':');
+			int value = line.indexOf('=', type + 1);
+			if (type > 0 && value > type) {
+				entries.put(line.substring(0, type), line.substring(value + 1));
+			}
+		}
+		return entries;
+	}
+
+	/**
+	 * Runs a CMake step, showing its output lines as sub-tasks of the monitor and
+	 * logging the last of them if the step fails.
+	 */
+	private static void run(CommandExecutor executor, List<String> command, String step, IProgressMonitor monitor)
+			throws IOException, InterruptedException {
+		Deque<String> tail = new ArrayDeque<>(LOG_TAIL_LINES);
+		int exitCode = executor.executeCommand(command, null, (line, error) -> {
+			if (tail.size() == LOG_TAIL_LINES) {
+				tail.removeFirst();
+			}
+			tail.addLast(error ? "ERROR: " + line : line);
+			if (!error && monitor != null) {
+				monitor.subTask(line);
+			}
+		});
+		if (exitCode != 0) {
+			LOGGER.log(new Status(IStatus.ERROR, PLUGIN_ID,
+					"Instrumented " + step + " failed: " + String.join(" ", command) + "\n" + String.join("\n", tail)));
+			throw new IOException("Instrumented " + step + " failed with exit code " + exitCode);
+		}
+	}
+}
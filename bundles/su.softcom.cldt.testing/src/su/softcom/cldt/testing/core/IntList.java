@@ -0,0 +1,48 @@
+package su.softcom.cldt.testing.core;
+
+import java.util.Arrays;
+
+final class IntList {
+	private static final int DEFAULT_CAPACITY = 16;
+
+	private int[] values;
+	private int size;
+
+	IntList() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	IntList(int initialCapacity) {
+		values = new int[Math.max(initialCapacity, 1)];
+	}
+
+	void add(int value) {
+		if (size == values.length) {
+			values = Arrays.copyOf(values, size + (size >> 1) + 1);
+		}
+		values[size++] = value;
+	}
+
+	int get(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException(index);
+		}
+		return values[index];
+	}
+
+	int size() {
+		return size;
+	}
+
+	boolean isEmpty() {
+		return size == 0;
+	}
+
+	void clear() {
+		size = 0;
+	}
+
+	int[] toArray() {
+		return Arrays.copyOf(values, size);
+	}
+}
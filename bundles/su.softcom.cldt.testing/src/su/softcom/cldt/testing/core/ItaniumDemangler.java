@@ -0,0 +1,1341 @@
+package su.softcom.cldt.testing.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public final class ItaniumDemangler {
+	private static final String MANGLED_PREFIX = "_Z";
+	private static final int MAX_DEPTH = 256;
+	private static final Node STD = new NameNode("std");
+	private static final Map<Character, String> BUILTIN_TYPES = Map.ofEntries(Map.entry('v', "void"),
+			Map.entry('w', "wchar_t"), Map.entry('b', "bool"), Map.entry('c', "char"), Map.entry('a', "signed char"),
+			Map.entry('h', "unsigned char"), Map.entry('s', "short"), Map.entry('t', "unsigned short"),
+			Map.entry('i', "int"), Map.entry('j', "unsigned int"), Map.entry('l', "long"),
+			Map.entry('m', "unsigned long"), Map.entry('x', "long long"), Map.entry('y', "unsigned long long"),
+			Map.entry('n', "__int128"), Map.entry('o', "unsigned __int128"), Map.entry('f', "float"),
+			Map.entry('d', "double"), Map.entry('e', "long double"), Map.entry('g', "__float128"),
+			Map.entry('z', "..."));
+	private static final Map<Character, String> EXTENDED_BUILTIN_TYPES = Map.of('d', "decimal64", 'e', "decimal128",
+			'f', "decimal32", 'h', "half", 'i', "char32_t", 's', "char16_t", 'u', "char8_t", 'a', "auto", 'c',
+			"decltype(auto)", 'n', "std::nullptr_t");
+	private static final Map<Character, String> INTEGER_LITERAL_SUFFIXES = Map.of('i', "", 'j', "u", 'l', "l", 'm',
+			"ul", 'x', "ll", 'y', "ull");
+	private static final Map<Character, String> INTEGER_LITERAL_CASTS = Map.of('s', "short", 't', "unsigned short",
+			'c', "char", 'a', "signed char", 'h', "unsigned char", 'w', "wchar_t", 'n', "__int128", 'o',
+			"unsigned __int128");
+	private static final Map<String, String> OPERATORS = Map.ofEntries(Map.entry("nw", "new"),
+			Map.entry("na", "new[]"), Map.entry("dl", "delete"), Map.entry("da", "delete[]"),
+			Map.entry("aw", "co_await"), Map.entry("ps", "+"), Map.entry("ng", "-"), Map.entry("ad", "&"),
+			Map.entry("de", "*"), Map.entry("co", "~"), Map.entry("pl", "+"), Map.entry("mi", "-"),
+			Map.entry("ml", "*"), Map.entry("dv", "/"), Map.entry("rm", "%"), Map.entry("an", "&"),
+			Map.entry("or", "|"), Map.entry("eo", "^"), Map.entry("aS", "="), Map.entry("pL", "+="),
+			Map.entry("mI", "-="), Map.entry("mL", "*="), Map.entry("dV", "/="), Map.entry("rM", "%="),
+			Map.entry("aN", "&="), Map.entry("oR", "|="), Map.entry("eO", "^="), Map.entry("ls", "<<"),
+			Map.entry("rs", ">>"), Map.entry("lS", "<<="), Map.entry("rS", ">>="), Map.entry("eq", "=="),
+			Map.entry("ne", "!="), Map.entry("lt", "<"), Map.entry("gt", ">"), Map.entry("le", "<="),
+			Map.entry("ge", ">="), Map.entry("ss", "<=>"), Map.entry("nt", "!"), Map.entry("aa", "&&"),
+			Map.entry("oo", "||"), Map.entry("pp", "++"), Map.entry("mm", "--"), Map.entry("cm", ","),
+			Map.entry("pm", "->*"), Map.entry("pt", "->"), Map.entry("cl", "()"), Map.entry("ix", "[]"),
+			Map.entry("qu", "?"));
+
+	private final String input;
+	private int pos;
+	private int depth;
+	private boolean inLambdaSignature;
+	private final List<Node> substitutions = new ArrayList<>();
+	private List<Node> templateParams = new ArrayList<>();
+
+	private ItaniumDemangler(String input) {
+		this.input = input;
+	}
+
+	public static String demangle(String mangledName) {
+		if (mangledName == null || !mangledName.startsWith(MANGLED_PREFIX)) {
+			return null;
+		}
+		ItaniumDemangler demangler = new ItaniumDemangler(mangledName);
+		demangler.pos = MANGLED_PREFIX.length();
+		try {
+			Node encoding = demangler.parseEncoding();
+			if (demangler.pos != mangledName.length()) {
+				return null;
+			}
+			Printer printer = new Printer();
+			encoding.print(printer);
+			return printer.toString();
+		} catch (UnsupportedSymbolException e) {
+			return null;
+		}
+	}
+
+	private Node parseEncoding() {
+		enter();
+		try {
+			if (look(0) == 'G' || look(0) == 'T') {
+				return parseSpecialName();
+			}
+			NameState state = new NameState();
+			Node name = parseName(state);
+			if (isEndOfEncoding()) {
+				return name;
+			}
+			Node returnType = null;
+			if (!state.ctorDtorConversion && state.endsWithTemplateArgs) {
+				returnType = parseType();
+			}
+			List<Node> params = new ArrayList<>();
+			if (!consume('v')) {
+				do {
+					params.add(parseType());
+				} while (!isEndOfEncoding());
+			}
+			return new FunctionEncodingNode(returnType, name, params, state.qualifiers, state.refQualifier);
+		} finally {
+			depth--;
+		}
+	}
+
+	private boolean isEndOfEncoding() {
+		return pos >= input.length() || look(0) == 'E' || look(0) == '.';
+	}
+
+	private Node parseSpecialName() {
+		if (consume("TV")) {
+			return new PrefixNode("vtable for ", parseType());
+		} else if (consume("TT")) {
+			return new PrefixNode("VTT for ", parseType());
+		} else if (consume("TI")) {
+			return new PrefixNode("typeinfo for ", parseType());
+		} else if (consume("TS")) {
+			return new PrefixNode("typeinfo name for ", parseType());
+		} else if (consume("Th")) {
+			parseCallOffset();
+			return new PrefixNode("non-virtual thunk to ", parseEncoding());
+		} else if (consume("Tv")) {
+			parseCallOffset();
+			parseCallOffset();
+			return new PrefixNode("virtual thunk to ", parseEncoding());
+		} else if (consume("GV")) {
+			return new PrefixNode("guard variable for ", parseName(null));
+		}
+		throw new UnsupportedSymbolException();
+	}
+
+	private void parseCallOffset() {
+		consume('n');
+		parseNumber();
+		expect('_');
+	}
+
+	private Node parseName(NameState state) {
+		enter();
+		try {
+			consume('L');
+			if (look(0) == 'N') {
+				return parseNestedName(state);
+			}
+			if (look(0) == 'Z') {
+				return parseLocalName(state);
+			}
+
+			Node result;
+			boolean isSubstitution = false;
+			if (look(0) == 'S' && look(1) != 't') {
+				result = parseSubstitution();
+				isSubstitution = true;
+			} else if (consume("St")) {
+				result = new NestedNameNode(STD, parseUnqualifiedName(state, null));
+			} else {
+				result = parseUnqualifiedName(state, null);
+			}
+
+			if (look(0) == 'I') {
+				if (!isSubstitution) {
+					substitutions.add(result);
+				}
+				result = new TemplateNameNode(result, parseTemplateArgs(state != null));
+				if (state != null) {
+					state.endsWithTemplateArgs = true;
+				}
+			} else if (isSubstitution) {
+				throw new UnsupportedSymbolException();
+			}
+			return result;
+		} finally {
+			depth--;
+		}
+	}
+
+	private Node parseNestedName(NameState state) {
+		expect('N');
+		String qualifiers = parseCvQualifiers();
+		String refQualifier = "";
+		if (consume('O')) {
+			refQualifier = " &&";
+		} else if (consume('R')) {
+			refQualifier = " &";
+		}
+		if (state != null) {
+			state.qualifiers = qualifiers;
+			state.refQualifier = refQualifier;
+		}
+
+		Node soFar = null;
+		while (!consume('E')) {
+			if (state != null) {
+				state.endsWithTemplateArgs = false;
+			}
+			char c = look(0);
+			if (c == 'T') {
+				if (soFar != null) {
+					throw new UnsupportedSymbolException();
+				}
+				soFar = parseTemplateParam();
+			} else if (c == 'I') {
+				if (soFar == null) {
+					throw new UnsupportedSymbolException();
+				}
+				soFar = new TemplateNameNode(soFar, parseTemplateArgs(state != null));
+				if (state != null) {
+					state.endsWithTemplateArgs = true;
+				}
+			} else if (c == 'S') {
+				if (soFar != null) {
+					throw new UnsupportedSymbolException();
+				}
+				soFar = consume("St") ? STD : parseSubstitution();
+				continue;
+			} else {
+				soFar = parseUnqualifiedName(state, soFar);
+			}
+			substitutions.add(soFar);
+			consume('M');
+		}
+		if (soFar == null || substitutions.isEmpty()) {
+			throw new UnsupportedSymbolException();
+		}
+		substitutions.remove(substitutions.size() - 1);
+		return soFar;
+	}
+
+	private Node parseLocalName(NameState state) {
+		expect('Z');
+		Node encoding = parseEncoding();
+		expect('E');
+		if (consume('s')) {
+			parseDiscriminator();
+			return new NestedNameNode(encoding, new NameNode("string literal"));
+		}
+		Node entity = parseName(state);
+		parseDiscriminator();
+		return new NestedNameNode(encoding, entity);
+	}
+
+	private void parseDiscriminator() {
+		if (look(0) == '_') {
+			if (Character.isDigit(look(1))) {
+				pos += 2;
+			} else if (look(1) == '_') {
+				int end = pos + 2;
+				while (Character.isDigit(charAt(end))) {
+					end++;
+				}
+				if (charAt(end) == '_') {
+					pos = end + 1;
+				}
+			}
+		}
+	}
+
+	private Node parseUnqualifiedName(NameState state, Node scope) {
+		if (look(0) == 'L' && Character.isDigit(look(1))) {
+			pos++;
+		}
+		char c = look(0);
+		Node name;
+		if (Character.isDigit(c)) {
+			name = parseSourceName();
+		} else if (c == 'U') {
+			name = parseUnnamedTypeName();
+		} else if (c == 'C' || c == 'D') {
+			name = parseCtorDtorName(state, scope);
+		} else if (Character.isLowerCase(c)) {
+			name = parseOperatorName(state);
+		} else {
+			throw new UnsupportedSymbolException();
+		}
+		while (consume('B')) {
+			name = new AbiTagNode(name, parseIdentifier());
+		}
+		return scope != null ? new NestedNameNode(scope, name) : name;
+	}
+
+	private Node parseSourceName() {
+		String identifier = parseIdentifier();
+		if (identifier.startsWith("_GLOBAL_") && identifier.length() > 9 && ".$_".indexOf(identifier.charAt(8)) >= 0
+				&& identifier.charAt(9) == 'N') {
+			return new NameNode("(anonymous namespace)");
+		}
+		return new NameNode(identifier);
+	}
+
+	private String parseIdentifier() {
+		int length = parseNumber();
+		if (length <= 0 || length > input.length() - pos) {
+			throw new UnsupportedSymbolException();
+		}
+		String identifier = input.substring(pos, pos + length);
+		pos += length;
+		return identifier;
+	}
+
+	private Node parseUnnamedTypeName() {
+		if (consume("Ut")) {
+			int number = Character.isDigit(look(0)) ? parseNumber() + 2 : 1;
+			expect('_');
+			return new NameNode("{unnamed type#" + number + "}");
+		}
+		if (consume("Ul")) {
+			List<Node> params = new ArrayList<>();
+			boolean outerLambdaSignature = inLambdaSignature;
+			inLambdaSignature = true;
+			try {
+				if (!consume('v')) {
+					while (look(0) != 'E') {
+						params.add(parseType());
+					}
+				}
+			} finally {
+				inLambdaSignature = outerLambdaSignature;
+			}
+			expect('E');
+			int number = Character.isDigit(look(0)) ? parseNumber() + 2 : 1;
+			expect('_');
+			return new LambdaNode(params, number);
+		}
+		throw new UnsupportedSymbolException();
+	}
+
+	private Node parseCtorDtorName(NameState state, Node scope) {
+		if (scope == null) {
+			throw new UnsupportedSymbolException();
+		}
+		char kind = look(0);
+		char variant = look(1);
+		boolean valid = kind == 'C' ? variant >= '1' && variant <= '5'
+				: variant == '0' || variant == '1' || variant == '2' || variant == '4' || variant == '5';
+		if (!valid) {
+			throw new UnsupportedSymbolException();
+		}
+		pos += 2;
+		if (state != null) {
+			state.ctorDtorConversion = true;
+		}
+		String baseName = scope.baseName();
+		return new NameNode(kind == 'C' ? baseName : "~" + baseName);
+	}
+
+	private Node parseOperatorName(NameState state) {
+		if (consume("cv")) {
+			if (state != null) {
+				state.ctorDtorConversion = true;
+			}
+			return new PrefixNode("operator ", parseType());
+		}
+		if (consume("li")) {
+			return new NameNode("operator\"\" " + parseIdentifier());
+		}
+		String operator = OPERATORS.get(input.substring(pos, Math.min(pos + 2, input.length())));
+		if (operator == null) {
+			throw new UnsupportedSymbolException();
+		}
+		pos += 2;
+		if (operator.startsWith("<") && look(0) == 'I') {
+			throw new UnsupportedSymbolException();
+		}
+		boolean isWord = Character.isLetter(operator.charAt(0));
+		return new OperatorNode((isWord ? "operator " : "operator") + operator,
+				isWord ? operator.replace("[]", "") : operator);
+	}
+
+	private Node parseSubstitution() {
+		expect('S');
+		char c = look(0);
+		if (Character.isLowerCase(c)) {
+			pos++;
+			switch (c) {
+			case 'a':
+				return new SpecialSubstitutionNode("std::allocator", "allocator");
+			case 'b':
+				return new SpecialSubstitutionNode("std::basic_string", "basic_string");
+			case 's':
+				return new SpecialSubstitutionNode("std::string", null);
+			case 'i':
+				return new SpecialSubstitutionNode("std::istream", null);
+			case 'o':
+				return new SpecialSubstitutionNode("std::ostream", null);
+			case 'd':
+				return new SpecialSubstitutionNode("std::iostream", null);
+			default:
+				throw new UnsupportedSymbolException();
+			}
+		}
+		int index = 0;
+		if (!consume('_')) {
+			int seqId = 0;
+			while (look(0) != '_') {
+				int digit = Character.digit(look(0), 36);
+				if (digit < 0 || Character.isLowerCase(look(0)) || seqId > substitutions.size()) {
+					throw new UnsupportedSymbolException();
+				}
+				seqId = seqId * 36 + digit;
+				pos++;
+			}
+			pos++;
+			index = seqId + 1;
+		}
+		if (index >= substitutions.size()) {
+			throw new UnsupportedSymbolException();
+		}
+		return substitutions.get(index);
+	}
+
+	private Node parseTemplateParam() {
+		expect('T');
+		if (inLambdaSignature) {
+			throw new UnsupportedSymbolException();
+		}
+		int index = 0;
+		if (!consume('_')) {
+			index = parseNumber() + 1;
+			expect('_');
+		}
+		if (index >= templateParams.size()) {
+			throw new UnsupportedSymbolException();
+		}
+		return templateParams.get(index);
+	}
+
+	private TemplateArgsNode parseTemplateArgs(boolean tagTemplates) {
+		expect('I');
+		List<Node> args = new ArrayList<>();
+		if (tagTemplates) {
+			templateParams = new ArrayList<>();
+		}
+		while (!consume('E')) {
+			Node arg = parseTemplateArg();
+			args.add(arg);
+			if (tagTemplates) {
+				templateParams.add(arg);
+			}
+		}
+		return new TemplateArgsNode(args);
+	}
+
+	private Node parseTemplateArg() {
+		char c = look(0);
+		if (c == 'J') {
+			pos++;
+			List<Node> elements = new ArrayList<>();
+			while (!consume('E')) {
+				elements.add(parseTemplateArg());
+			}
+			return new ArgPackNode(elements);
+		}
+		if (c == 'L') {
+			if (look(1) == 'Z') {
+				pos += 2;
+				Node encoding = parseEncoding();
+				expect('E');
+				return encoding;
+			}
+			return parseExprPrimary();
+		}
+		if (c == 'X') {
+			pos++;
+			Node param = parseTemplateParam();
+			expect('E');
+			return param;
+		}
+		return parseType();
+	}
+
+	private Node parseExprPrimary() {
+		expect('L');
+		if (consume("_Z")) {
+			Node encoding = parseEncoding();
+			expect('E');
+			return encoding;
+		}
+		char type = look(0);
+		if (type == 'b') {
+			pos++;
+			String value = parseLiteralValue();
+			if (!value.equals("0") && !value.equals("1")) {
+				throw new UnsupportedSymbolException();
+			}
+			return new NameNode(value.equals("1") ? "true" : "false");
+		}
+		if (INTEGER_LITERAL_SUFFIXES.containsKey(type)) {
+			pos++;
+			return new NameNode(parseLiteralValue() + INTEGER_LITERAL_SUFFIXES.get(type));
+		}
+		if (INTEGER_LITERAL_CASTS.containsKey(type)) {
+			pos++;
+			return new NameNode("(" + INTEGER_LITERAL_CASTS.get(type) + ")" + parseLiteralValue());
+		}
+		if (Character.isDigit(type) || type == 'N') {
+			Node enumType = parseType();
+			return new CastLiteralNode(enumType, parseLiteralValue());
+		}
+		throw new UnsupportedSymbolException();
+	}
+
+	private String parseLiteralValue() {
+		boolean negative = consume('n');
+		int start = pos;
+		while (Character.isDigit(look(0))) {
+			pos++;
+		}
+		if (start == pos) {
+			throw new UnsupportedSymbolException();
+		}
+		String value = input.substring(start, pos);
+		expect('E');
+		return negative ? "-" + value : value;
+	}
+
+	private Node parseType() {
+		enter();
+		try {
+			char c = look(0);
+			Node result;
+			switch (c) {
+			case 'r':
+			case 'V':
+			case 'K': {
+				String qualifiers = parseCvQualifiers();
+				Node child = parseType();
+				result = child instanceof FunctionTypeNode function ? function.withQualifiers(qualifiers)
+						: new QualifiedNode(child, qualifiers);
+				break;
+			}
+			case 'u':
+				pos++;
+				result = new NameNode(parseIdentifier());
+				break;
+			case 'D':
+				if (look(1) == 'p') {
+					pos += 2;
+					result = new PackExpansionNode(parseType());
+					break;
+				}
+				return parseExtendedBuiltinType();
+			case 'F':
+				result = parseFunctionType();
+				break;
+			case 'A':
+				result = parseArrayType();
+				break;
+			case 'M':
+				pos++;
+				Node classType = parseType();
+				result = new PointerToMemberNode(classType, parseType());
+				break;
+			case 'T':
+				result = parseTemplateParam();
+				if (look(0) == 'I') {
+					substitutions.add(result);
+					result = new TemplateNameNode(result, parseTemplateArgs(false));
+				}
+				break;
+			case 'P':
+				pos++;
+				result = new PointerNode(parseType(), "*");
+				break;
+			case 'R':
+				pos++;
+				result = new PointerNode(parseType(), "&");
+				break;
+			case 'O':
+				pos++;
+				result = new PointerNode(parseType(), "&&");
+				break;
+			case 'S':
+				if (look(1) != 't') {
+					Node substitution = parseSubstitution();
+					if (look(0) != 'I') {
+						return substitution;
+					}
+					result = new TemplateNameNode(substitution, parseTemplateArgs(false));
+					break;
+				}
+				result = parseName(null);
+				break;
+			default:
+				if (BUILTIN_TYPES.containsKey(c)) {
+					pos++;
+					return new NameNode(BUILTIN_TYPES.get(c));
+				}
+				if (!Character.isDigit(c) && c != 'N' && c != 'Z') {
+					throw new UnsupportedSymbolException();
+				}
+				result = parseName(null);
+				break;
+			}
+			substitutions.add(result);
+			return result;
+		} finally {
+			depth--;
+		}
+	}
+
+	private Node parseExtendedBuiltinType() {
+		expect('D');
+		char c = look(0);
+		if (EXTENDED_BUILTIN_TYPES.containsKey(c)) {
+			pos++;
+			return new NameNode(EXTENDED_BUILTIN_TYPES.get(c));
+		}
+		if (consume('F')) {
+			int bits = parseNumber();
+			expect('_');
+			return new NameNode("_Float" + bits);
+		}
+		throw new UnsupportedSymbolException();
+	}
+
+	private Node parseFunctionType() {
+		expect('F');
+		consume('Y');
+		Node returnType = parseType();
+		List<Node> params = new ArrayList<>();
+		String refQualifier = "";
+		while (!consume('E')) {
+			if (consume('v')) {
+				continue;
+			}
+			if (consume("RE")) {
+				refQualifier = " &";
+				break;
+			}
+			if (consume("OE")) {
+				refQualifier = " &&";
+				break;
+			}
+			params.add(parseType());
+		}
+		return new FunctionTypeNode(returnType, params, "", refQualifier);
+	}
+
+	private Node parseArrayType() {
+		expect('A');
+		String dimension = "";
+		if (Character.isDigit(look(0))) {
+			dimension = Integer.toString(parseNumber());
+		} else if (look(0) == 'T') {
+			Printer printer = new Printer();
+			parseTemplateParam().print(printer);
+			dimension = printer.toString();
+		} else if (look(0) != '_') {
+			throw new UnsupportedSymbolException();
+		}
+		expect('_');
+		return new ArrayNode(parseType(), dimension);
+	}
+
+	private String parseCvQualifiers() {
+		boolean isRestrict = consume('r');
+		boolean isVolatile = consume('V');
+		boolean isConst = consume('K');
+		return (isConst ? " const" : "") + (isVolatile ? " volatile" : "") + (isRestrict ? " restrict" : "");
+	}
+
+	private int parseNumber() {
+		int start = pos;
+		long value = 0;
+		while (Character.isDigit(look(0))) {
+			value = value * 10 + (look(0) - '0');
+			if (value > Integer.MAX_VALUE) {
+				throw new UnsupportedSymbolException();
+			}
+			pos++;
+		}
+		if (start == pos) {
+			throw new UnsupportedSymbolException();
+		}
+		return (int) value;
+	}
+
+	private void enter() {
+		if (++depth > MAX_DEPTH) {
+			throw new UnsupportedSymbolException();
+		}
+	}
+
+	private char look(int offset) {
+		return charAt(pos + offset);
+	}
+
+	private char charAt(int index) {
+		return index < input.length() ? input.charAt(index) : '\0';
+	}
+
+	private boolean consume(char c) {
+		if (look(0) == c) {
+			pos++;
+			return true;
+		}
+		return false;
+	}
+
+	private boolean consume(String prefix) {
+		if (input.startsWith(prefix, pos)) {
+			pos += prefix.length();
+			return true;
+		}
+		return false;
+	}
+
+	private void expect(char c) {
+		if (!consume(c)) {
+			throw new UnsupportedSymbolException();
+		}
+	}
+
+	private static final class NameState {
+		private boolean endsWithTemplateArgs;
+		private boolean ctorDtorConversion;
+		private String qualifiers = "";
+		private String refQualifier = "";
+	}
+
+	private static final class UnsupportedSymbolException extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+
+		UnsupportedSymbolException() {
+			super(null, null, false, false);
+		}
+	}
+
+	private static final class Printer {
+		private final StringBuilder text = new StringBuilder();
+		private int packIndex = -1;
+
+		Printer append(String value) {
+			text.append(value);
+			return this;
+		}
+
+		char last() {
+			return text.length() > 0 ? text.charAt(text.length() - 1) : '\0';
+		}
+
+		String render(Node node, int index) {
+			Printer printer = new Printer();
+			printer.packIndex = index;
+			node.print(printer);
+			return printer.toString();
+		}
+
+		void printList(List<Node> nodes) {
+			boolean first = true;
+			for (Node node : nodes) {
+				String rendered = render(node, packIndex);
+				if (rendered.isEmpty()) {
+					continue;
+				}
+				if (!first) {
+					text.append(", ");
+				}
+				text.append(rendered);
+				first = false;
+			}
+		}
+
+		@Override
+		public String toString() {
+			return text.toString();
+		}
+	}
+
+	private abstract static class Node {
+		abstract void printLeft(Printer out);
+
+		void printRight(Printer out) {
+		}
+
+		boolean hasRightPart() {
+			return false;
+		}
+
+		boolean isArray() {
+			return false;
+		}
+
+		boolean isFunction() {
+			return false;
+		}
+
+		String baseName() {
+			throw new UnsupportedSymbolException();
+		}
+
+		ArgPackNode findPack() {
+			return null;
+		}
+
+		Node resolve(Printer out) {
+			return this;
+		}
+
+		final void print(Printer out) {
+			printLeft(out);
+			printRight(out);
+		}
+
+		static ArgPackNode findPack(List<Node> nodes) {
+			for (Node node : nodes) {
+				ArgPackNode pack = node.findPack();
+				if (pack != null) {
+					return pack;
+				}
+			}
+			return null;
+		}
+	}
+
+	private static final class NameNode extends Node {
+		private final String name;
+
+		NameNode(String name) {
+			this.name = name;
+		}
+
+		@Override
+		void printLeft(Printer out) {
+			out.append(name);
+		}
+
+		@Override
+		String baseName() {
+			return name;
+		}
+	}
+
+	private static final class OperatorNode extends Node {
+		private final String name;
+		private final String baseName;
+
+		OperatorNode(String name, String baseName) {
+			this.name = name;
+			this.baseName = baseName;
+		}
+
+		@Override
+		void printLeft(Printer out) {
+			out.append(name);
+		}
+
+		@Override
+		String baseName() {
+			return baseName;
+		}
+	}
+
+	private static final class SpecialSubstitutionNode extends Node {
+		private final String name;
+		private final String baseName;
+
+		SpecialSubstitutionNode(String name, String baseName) {
+			this.name = name;
+			this.baseName = baseName;
+		}
+
+		@Override
+		void printLeft(Printer out) {
+			out.append(name);
+		}
+
+		@Override
+		String baseName() {
+			if (baseName == null) {
+				throw new UnsupportedSymbolException();
+			}
+			return baseName;
+		}
+	}
+
+	private static final class PrefixNode extends Node {
+		private final String prefix;
+		private final Node child;
+
+		PrefixNode(String prefix, Node child) {
+			this.prefix = prefix;
+			this.child = child;
+		}
+
+		@Override
+		void printLeft(Printer out) {
+			out.append(prefix);
+			child.print(out);
+		}
+
+		@Override
+		ArgPackNode findPack() {
+			return child.findPack();
+		}
+	}
+
+	private static final class NestedNameNode extends Node {
+		private final Node scope;
+		private final Node name;
+
+		NestedNameNode(Node scope, Node name) {
+			this.scope = scope;
+			this.name = name;
+		}
+
+		@Override
+		void printLeft(Printer out) {
+			scope.print(out);
+			out.append("::");
+			name.print(out);
+		}
+
+		@Override
+		String baseName() {
+			return name.baseName();
+		}
+
+		@Override
+		ArgPackNode findPack() {
+			ArgPackNode pack = scope.findPack();
+			return pack != null ? pack : name.findPack();
+		}
+	}
+
+	private static final class AbiTagNode extends Node {
+		private final Node base;
+		private final String tag;
+
+		AbiTagNode(Node base, String tag) {
+			this.base = base;
+			this.tag = tag;
+		}
+
+		@Override
+		void printLeft(Printer out) {
+			base.print(out);
+			out.append("[abi:").append(tag).append("]");
+		}
+
+		@Override
+		String baseName() {
+			return base.baseName();
+		}
+	}
+
+	private static final class LambdaNode extends Node {
+		private final List<Node> params;
+		private final int number;
+
+		LambdaNode(List<Node> params, int number) {
+			this.params = params;
+			this.number = number;
+		}
+
+		@Override
+		void printLeft(Printer out) {
+			out.append("{lambda(");
+			out.printList(params);
+			out.append(")#").append(Integer.toString(number)).append("}");
+		}
+	}
+
+	private static final class TemplateNameNode extends Node {
+		private final Node name;
+		private final TemplateArgsNode args;
+
+		TemplateNameNode(Node name, TemplateArgsNode args) {
+			this.name = name;
+			this.args = args;
+		}
+
+		@Override
+		void printLeft(Printer out) {
+			name.print(out);
+			args.print(out);
+		}
+
+		@Override
+		String baseName() {
+			return name.baseName();
+		}
+
+		@Override
+		ArgPackNode findPack() {
+			ArgPackNode pack = name.findPack();
+			return pack != null ? pack : args.findPack();
+		}
+	}
+
+	private static final class TemplateArgsNode extends Node {
+		private final List<Node> args;
+
+		TemplateArgsNode(List<Node> args) {
+			this.args = args;
+		}
+
+		@Override
+		void printLeft(Printer out) {
+			out.append("<");
+			out.printList(args);
+			out.append(">");
+		}
+
+		@Override
+		ArgPackNode findPack() {
+			return findPack(args);
+		}
+	}
+
+	private static final class ArgPackNode extends Node {
+		private final List<Node> elements;
+
+		ArgPackNode(List<Node> elements) {
+			this.elements = elements;
+		}
+
+		@Override
+		void printLeft(Printer out) {
+			if (out.packIndex >= 0 && out.packIndex < elements.size()) {
+				out.append(out.render(elements.get(out.packIndex), -1));
+			} else {
+				out.printList(elements);
+			}
+		}
+
+		@Override
+		ArgPackNode findPack() {
+			return this;
+		}
+
+		@Override
+		Node resolve(Printer out) {
+			if (out.packIndex >= 0 && out.packIndex < elements.size()) {
+				return elements.get(out.packIndex).resolve(out);
+			}
+			return elements.size() == 1 ? elements.get(0).resolve(out) : this;
+		}
+	}
+
+	private static final class PackExpansionNode extends Node {
+		private final Node child;
+
+		PackExpansionNode(Node child) {
+			this.child = child;
+		}
+
+		@Override
+		void printLeft(Printer out) {
+			ArgPackNode pack = child.findPack();
+			if (pack == null) {
+				child.print(out);
+				out.append("...");
+				return;
+			}
+			for (int i = 0; i < pack.elements.size(); i++) {
+				if (i > 0) {
+					out.append(", ");
+				}
+				out.append(out.render(child, i));
+			}
+		}
+	}
+
+	private static final class CastLiteralNode extends Node {
+		private final Node type;
+		private final String value;
+
+		CastLiteralNode(Node type, String value) {
+			this.type = type;
+			this.value = value;
+		}
+
+		@Override
+		void printLeft(Printer out) {
+			out.append("(");
+			type.print(out);
+			out.append(")").append(value);
+		}
+	}
+
+	private static final class QualifiedNode extends Node {
+		private final Node child;
+		private final String qualifiers;
+
+		QualifiedNode(Node child, String qualifiers) {
+			this.child = child;
+			this.qualifiers = qualifiers;
+		}
+
+		@Override
+		void printLeft(Printer out) {
+			child.printLeft(out);
+			out.append(qualifiers);
+		}
+
+		@Override
+		void printRight(Printer out) {
+			child.printRight(out);
+		}
+
+		@Override
+		boolean hasRightPart() {
+			return child.hasRightPart();
+		}
+
+		@Override
+		boolean isArray() {
+			return child.isArray();
+		}
+
+		@Override
+		boolean isFunction() {
+			return child.isFunction();
+		}
+
+		@Override
+		ArgPackNode findPack() {
+			return child.findPack();
+		}
+	}
+
+	private static final class PointerNode extends Node {
+		private final Node pointee;
+		private final String symbol;
+
+		PointerNode(Node pointee, String symbol) {
+			this.pointee = pointee;
+			this.symbol = symbol;
+		}
+
+		@Override
+		void printLeft(Printer out) {
+			PointerNode collapsed = collapse(out);
+			Node target = collapsed.pointee;
+			target.printLeft(out);
+			if (target.isArray()) {
+				out.append(" ");
+			}
+			if (target.isArray() || target.isFunction()) {
+				out.append("(");
+			}
+			out.append(collapsed.symbol);
+		}
+
+		@Override
+		void printRight(Printer out) {
+			Node target = collapse(out).pointee;
+			if (target.isArray() || target.isFunction()) {
+				out.append(")");
+			}
+			target.printRight(out);
+		}
+
+		private PointerNode collapse(Printer out) {
+			if (symbol.equals("*")) {
+				return this;
+			}
+			String collapsedSymbol = symbol;
+			Node target = pointee.resolve(out);
+			while (target instanceof PointerNode reference && !reference.symbol.equals("*")) {
+				if (reference.symbol.equals("&")) {
+					collapsedSymbol = "&";
+				}
+				target = reference.pointee.resolve(out);
+			}
+			return target == pointee ? this : new PointerNode(target, collapsedSymbol);
+		}
+
+		@Override
+		boolean hasRightPart() {
+			return pointee.hasRightPart();
+		}
+
+		@Override
+		ArgPackNode findPack() {
+			return pointee.findPack();
+		}
+	}
+
+	private static final class FunctionTypeNode extends Node {
+		private final Node returnType;
+		private final List<Node> params;
+		private final String qualifiers;
+		private final String refQualifier;
+
+		FunctionTypeNode(Node returnType, List<Node> params, String qualifiers, String refQualifier) {
+			this.returnType = returnType;
+			this.params = params;
+			this.qualifiers = qualifiers;
+			this.refQualifier = refQualifier;
+		}
+
+		FunctionTypeNode withQualifiers(String extraQualifiers) {
+			return new FunctionTypeNode(returnType, params, qualifiers + extraQualifiers, refQualifier);
+		}
+
+		@Override
+		void printLeft(Printer out) {
+			returnType.printLeft(out);
+			out.append(" ");
+		}
+
+		@Override
+		void printRight(Printer out) {
+			out.append("(");
+			out.printList(params);
+			out.append(")");
+			returnType.printRight(out);
+			out.append(qualifiers).append(refQualifier);
+		}
+
+		@Override
+		boolean hasRightPart() {
+			return true;
+		}
+
+		@Override
+		boolean isFunction() {
+			return true;
+		}
+
+		@Override
+		ArgPackNode findPack() {
+			ArgPackNode pack = returnType.findPack();
+			return pack != null ? pack : findPack(params);
+		}
+	}
+
+	private static final class ArrayNode extends Node {
+		private final Node element;
+		private final String dimension;
+
+		ArrayNode(Node element, String dimension) {
+			this.element = element;
+			this.dimension = dimension;
+		}
+
+		@Override
+		void printLeft(Printer out) {
+			element.printLeft(out);
+		}
+
+		@Override
+		void printRight(Printer out) {
+			if (out.last() != ']') {
+				out.append(" ");
+			}
+			out.append("[").append(dimension).append("]");
+			element.printRight(out);
+		}
+
+		@Override
+		boolean hasRightPart() {
+			return true;
+		}
+
+		@Override
+		boolean isArray() {
+			return true;
+		}
+
+		@Override
+		ArgPackNode findPack() {
+			return element.findPack();
+		}
+	}
+
+	private static final class PointerToMemberNode extends Node {
+		private final Node classType;
+		private final Node memberType;
+
+		PointerToMemberNode(Node classType, Node memberType) {
+			this.classType = classType;
+			this.memberType = memberType;
+		}
+
+		@Override
+		void printLeft(Printer out) {
+			memberType.printLeft(out);
+			out.append(memberType.isArray() || memberType.isFunction() ? "(" : " ");
+			classType.print(out);
+			out.append("::*");
+		}
+
+		@Override
+		void printRight(Printer out) {
+			if (memberType.isArray() || memberType.isFunction()) {
+				out.append(")");
+			}
+			memberType.printRight(out);
+		}
+
+		@Override
+		boolean hasRightPart() {
+			return memberType.hasRightPart();
+		}
+
+		@Override
+		ArgPackNode findPack() {
+			ArgPackNode pack = classType.findPack();
+			return pack != null ? pack : memberType.findPack();
+		}
+	}
+
+	private static final class FunctionEncodingNode extends Node {
+		private final Node returnType;
+		private final Node name;
+		private final List<Node> params;
+		private final String qualifiers;
+		private final String refQualifier;
+
+		FunctionEncodingNode(Node returnType, Node name, List<Node> params, String qualifiers, String refQualifier) {
+			this.returnType = returnType;
+			this.name = name;
+			this.params = params;
+			this.qualifiers = qualifiers;
+			this.refQualifier = refQualifier;
+		}
+
+		@Override
+		void printLeft(Printer out) {
+			if (returnType != null) {
+				returnType.printLeft(out);
+				if (!returnType.hasRightPart()) {
+					out.append(" ");
+				}
+			}
+			name.print(out);
+		}
+
+		@Override
+		void printRight(Printer out) {
+			out.append("(");
+			out.printList(params);
+			out.append(")");
+			if (returnType != null) {
+				returnType.printRight(out);
+			}
+			out.append(qualifiers).append(refQualifier);
+		}
+
+		@Override
+		String baseName() {
+			return name.baseName();
+		}
+	}
+}
@@ -0,0 +1,377 @@
+package su.softcom.cldt.testing.core;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Reads the output of {@code llvm-cov export --format=text}. Line counts are
+ * derived from the coverage segments the same way the LCOV exporter does it,
+ * and function boundaries come from the function regions, so no source file is
+ * read. Sections that are not needed are skipped by the tokenizer.
+ */
+final class JsonExportParser {
+	private static final int SEGMENT_FIELDS = 4;
+	private static final int REGION_LINE_START = 0;
+	private static final int REGION_LINE_END = 2;
+	private static final int REGION_FILE_ID = 5;
+	private static final int REGION_EXPANDED_FILE_ID = 6;
+	private static final int REGION_KIND = 7;
+	private static final int CODE_REGION = 0;
+	private static final int EXPANSION_REGION = 1;
+	private static final int BRANCH_TRUE_COUNT = 4;
+	private static final int BRANCH_FALSE_COUNT = 5;
+
+	private final JsonTokenizer tokenizer;
+	private final Predicate<String> fileFilter;
+	private final Map<String, ReportParser.FileContext> contexts = new LinkedHashMap<>();
+
+	JsonExportParser(JsonTokenizer tokenizer, Predicate<String> fileFilter) {
+		this.tokenizer = tokenizer;
+		this.fileFilter = fileFilter;
+	}
+
+	ReportParser.CoverageResult parse() throws IOException {
+		ReportParser.ResultBuilder results = new ReportParser.ResultBuilder();
+		tokenizer.beginObject();
+		while (tokenizer.hasNext()) {
+			if (tokenizer.nextName().equals("data")) {
+				tokenizer.beginArray();
+				while (tokenizer.hasNext()) {
+					parseExport();
+					for (ReportParser.FileContext context : contexts.values()) {
+						results.add(context);
+					}
+					contexts.clear();
+				}
+				tokenizer.endArray();
+			} else {
+				tokenizer.skipValue();
+			}
+		}
+		tokenizer.endObject();
+		return results.build();
+	}
+
+	private void parseExport() throws IOException {
+		tokenizer.beginObject();
+		while (tokenizer.hasNext()) {
+			String name = tokenizer.nextName();
+			if (name.equals("files")) {
+				tokenizer.beginArray();
+				while (tokenizer.hasNext()) {
+					parseFile();
+				}
+				tokenizer.endArray();
+			} else if (name.equals("functions")) {
+				tokenizer.beginArray();
+				while (tokenizer.hasNext()) {
+					parseFunction();
+				}
+				tokenizer.endArray();
+			} else {
+				tokenizer.skipValue();
+			}
+		}
+		tokenizer.endObject();
+	}
+
+	private void parseFile() throws IOException {
+		String fileName = null;
+		boolean accepted = true;
+		IntList segments = new IntList(256);
+		IntList branchLines = new IntList(64);
+		IntList branchFlags = new IntList(64);
+		int[] summary = null;
+
+		tokenizer.beginObject();
+		while (tokenizer.hasNext()) {
+			String name = tokenizer.nextName();
+			if (!accepted) {
+				tokenizer.skipValue();
+			} else if (name.equals("filename")) {
+				fileName = tokenizer.nextString();
+				accepted = fileFilter.test(fileName);
+			} else if (name.equals("segments")) {
+				readSegments(segments);
+			} else if (name.equals("branches")) {
+				readBranches(branchLines, branchFlags);
+			} else if (name.equals("expansions")) {
+				readExpansions(branchLines, branchFlags);
+			} else if (name.equals("summary")) {
+				summary = readSummary();
+			} else {
+				tokenizer.skipValue();
+			}
+		}
+		tokenizer.endObject();
+
+		if (fileName == null || !accepted) {
+			return;
+		}
+		ReportParser.FileContext context = new ReportParser.FileContext(fileName);
+		addLineCoverage(context, segments);
+		for (int i = 0; i < branchLines.size(); i++) {
+			context.addBranch(branchLines.get(i), branchFlags.get(i) != 0);
+		}
+		if (summary != null) {
+			context.setSummary(summary[0], summary[1], summary[2], summary[3], summary[4], summary[5]);
+		}
+		contexts.put(fileName, context);
+	}
+
+	private void readSegments(IntList segments) throws IOException {
+		tokenizer.beginArray();
+		while (tokenizer.hasNext()) {
+			tokenizer.beginArray();
+			int line = tokenizer.nextInt();
+			tokenizer.skipValue();
+			int count = (int) Math.min(Integer.MAX_VALUE, tokenizer.nextLong());
+			boolean hasCount = tokenizer.nextBoolean();
+			boolean isRegionEntry = tokenizer.nextBoolean();
+			boolean isGapRegion = tokenizer.hasNext() && tokenizer.nextBoolean();
+			while (tokenizer.hasNext()) {
+				tokenizer.skipValue();
+			}
+			tokenizer.endArray();
+			segments.add(line);
+			segments.add(count);
+			segments.add(hasCount ? 1 : 0);
+			segments.add((isRegionEntry ? 1 : 0) | (isGapRegion ? 2 : 0));
+		}
+		tokenizer.endArray();
+	}
+
+	/**
+	 * Mirrors LLVM's LineCoverageStats: a line is reported when a counted region
+	 * starts on it or a counted region wraps into it, and its count is the
+	 * maximum of the wrapped count and the counts of the regions starting there.
+	 */
+	private static void addLineCoverage(ReportParser.FileContext context, IntList segments) {
+		int segmentCount = segments.size() / SEGMENT_FIELDS;
+		if (segmentCount == 0) {
+			return;
+		}
+		int wrapped = -1;
+		int next = 0;
+		int line = segments.get(0);
+		while (next < segmentCount) {
+			int first = next;
+			while (next < segmentCount && segments.get(next * SEGMENT_FIELDS) == line) {
+				next++;
+			}
+
+			int regionStarts = 0;
+			int maxStartCount = 0;
+			boolean countedEntry = false;
+			for (int i = first; i < next; i++) {
+				int base = i * SEGMENT_FIELDS;
+				boolean hasCount = segments.get(base + 2) != 0;
+				boolean isRegionEntry = (segments.get(base + 3) & 1) != 0;
+				boolean isGapRegion = (segments.get(base + 3) & 2) != 0;
+				if (hasCount && isRegionEntry) {
+					countedEntry = true;
+					if (!isGapRegion) {
+						regionStarts++;
+						maxStartCount = Math.max(maxStartCount, segments.get(base + 1));
+					}
+				}
+			}
+			boolean startOfSkippedRegion = next > first && segments.get(first * SEGMENT_FIELDS + 2) == 0
+					&& (segments.get(first * SEGMENT_FIELDS + 3) & 1) != 0;
+			boolean wrappedHasCount = wrapped >= 0 && segments.get(wrapped * SEGMENT_FIELDS + 2) != 0;
+			boolean mapped = (!startOfSkippedRegion && (wrappedHasCount || regionStarts > 0)) || countedEntry;
+			if (mapped) {
+				int count = wrapped >= 0 ? segments.get(wrapped * SEGMENT_FIELDS + 1) : 0;
+				if (regionStarts > 0) {
+					count = Math.max(count, maxStartCount);
+				}
+				context.addLine(line, count);
+			}
+
+			if (next > first) {
+				wrapped = next - 1;
+			}
+			line++;
+		}
+	}
+
+	private void readBranches(IntList branchLines, IntList branchFlags) throws IOException {
+		tokenizer.beginArray();
+		while (tokenizer.hasNext()) {
+			tokenizer.beginArray();
+			int field = 0;
+			int line = 0;
+			long trueCount = 0;
+			long falseCount = 0;
+			while (tokenizer.hasNext()) {
+				if (field == 0) {
+					line = tokenizer.nextInt();
+				} else if (field == BRANCH_TRUE_COUNT) {
+					trueCount = tokenizer.nextLong();
+				} else if (field == BRANCH_FALSE_COUNT) {
+					falseCount = tokenizer.nextLong();
+				} else {
+					tokenizer.skipValue();
+				}
+				field++;
+			}
+			tokenizer.endArray();
+			branchLines.add(line);
+			branchFlags.add(trueCount > 0 ? 1 : 0);
+			branchLines.add(line);
+			branchFlags.add(falseCount > 0 ? 1 : 0);
+		}
+		tokenizer.endArray();
+	}
+
+	private void readExpansions(IntList branchLines, IntList branchFlags) throws IOException {
+		tokenizer.beginArray();
+		while (tokenizer.hasNext()) {
+			IntList expansionLines = new IntList();
+			IntList expansionFlags = new IntList();
+			int sourceLine = 0;
+			tokenizer.beginObject();
+			while (tokenizer.hasNext()) {
+				String name = tokenizer.nextName();
+				if (name.equals("branches")) {
+					readBranches(expansionLines, expansionFlags);
+				} else if (name.equals("source_region")) {
+					tokenizer.beginArray();
+					sourceLine = tokenizer.nextInt();
+					while (tokenizer.hasNext()) {
+						tokenizer.skipValue();
+					}
+					tokenizer.endArray();
+				} else {
+					tokenizer.skipValue();
+				}
+			}
+			tokenizer.endObject();
+			for (int i = 0; i < expansionLines.size(); i++) {
+				branchLines.add(sourceLine > 0 ? sourceLine : expansionLines.get(i));
+				branchFlags.add(expansionFlags.get(i));
+			}
+		}
+		tokenizer.endArray();
+	}
+
+	private int[] readSummary() throws IOException {
+		int[] summary = new int[6];
+		tokenizer.beginObject();
+		while (tokenizer.hasNext()) {
+			String name = tokenizer.nextName();
+			int offset = name.equals("lines") ? 0 : name.equals("branches") ? 2 : name.equals("functions") ? 4 : -1;
+			if (offset < 0) {
+				tokenizer.skipValue();
+				continue;
+			}
+			tokenizer.beginObject();
+			while (tokenizer.hasNext()) {
+				String field = tokenizer.nextName();
+				if (field.equals("count")) {
+					summary[offset] = tokenizer.nextInt();
+				} else if (field.equals("covered")) {
+					summary[offset + 1] = tokenizer.nextInt();
+				} else {
+					tokenizer.skipValue();
+				}
+			}
+			tokenizer.endObject();
+		}
+		tokenizer.endObject();
+		return summary;
+	}
+
+	private void parseFunction() throws IOException {
+		String name = null;
+		int executionCount = 0;
+		List<int[]> regions = new ArrayList<>();
+		List<String> fileNames = new ArrayList<>();
+
+		tokenizer.beginObject();
+		while (tokenizer.hasNext()) {
+			String field = tokenizer.nextName();
+			if (field.equals("name")) {
+				name = tokenizer.nextString();
+			} else if (field.equals("count")) {
+				executionCount = (int) Math.min(Integer.MAX_VALUE, tokenizer.nextLong());
+			} else if (field.equals("filenames")) {
+				tokenizer.beginArray();
+				while (tokenizer.hasNext()) {
+					fileNames.add(tokenizer.nextString());
+				}
+				tokenizer.endArray();
+			} else if (field.equals("regions")) {
+				readRegions(regions);
+			} else {
+				tokenizer.skipValue();
+			}
+		}
+		tokenizer.endObject();
+
+		int mainFileId = findMainFileId(regions, fileNames.size());
+		if (name == null || mainFileId < 0) {
+			return;
+		}
+		ReportParser.FileContext context = contexts.get(fileNames.get(mainFileId));
+		if (context == null) {
+			return;
+		}
+		int startLine = -1;
+		int endLine = -1;
+		for (int[] region : regions) {
+			if (region[REGION_FILE_ID] == mainFileId) {
+				if (startLine < 0 && region[REGION_KIND] == CODE_REGION) {
+					startLine = region[REGION_LINE_START];
+				}
+				endLine = Math.max(endLine, region[REGION_LINE_END]);
+			}
+		}
+		if (startLine < 0) {
+			return;
+		}
+		context.addFunction(startLine, name);
+		context.addFunctionExecution(name, executionCount);
+		context.addFunctionRegion(startLine, endLine);
+	}
+
+	private void readRegions(List<int[]> regions) throws IOException {
+		tokenizer.beginArray();
+		while (tokenizer.hasNext()) {
+			int[] region = new int[REGION_KIND + 1];
+			int field = 0;
+			tokenizer.beginArray();
+			while (tokenizer.hasNext()) {
+				if (field < region.length) {
+					region[field] = tokenizer.nextInt();
+				} else {
+					tokenizer.skipValue();
+				}
+				field++;
+			}
+			tokenizer.endArray();
+			regions.add(region);
+		}
+		tokenizer.endArray();
+	}
+
+	private static int findMainFileId(List<int[]> regions, int fileCount) {
+		boolean[] expanded = new boolean[fileCount];
+		for (int[] region : regions) {
+			int expandedFileId = region[REGION_EXPANDED_FILE_ID];
+			if (region[REGION_KIND] == EXPANSION_REGION && expandedFileId >= 0 && expandedFileId < fileCount) {
+				expanded[expandedFileId] = true;
+			}
+		}
+		for (int fileId = 0; fileId < fileCount; fileId++) {
+			if (!expanded[fileId]) {
+				return fileId;
+			}
+		}
+		return -1;
+	}
+}
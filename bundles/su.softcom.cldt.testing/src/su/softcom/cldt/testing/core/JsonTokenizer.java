@@ -0,0 +1,342 @@
+package su.softcom.cldt.testing.core;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Pull tokenizer for JSON documents. Values are read one at a time from the
+ * underlying reader, and {@link #skipValue()} passes over whole objects and
+ * arrays without materializing their strings.
+ */
+final class JsonTokenizer {
+	private static final int BUFFER_SIZE = 64 * 1024;
+	private static final int MAX_DEPTH = 256;
+
+	enum Token {
+		BEGIN_OBJECT, END_OBJECT, BEGIN_ARRAY, END_ARRAY, NAME, STRING, NUMBER, BOOLEAN, NULL, END_DOCUMENT
+	}
+
+	private final Reader reader;
+	private final char[] buffer = new char[BUFFER_SIZE];
+	private final StringBuilder text = new StringBuilder();
+	private final boolean[] objectScopes = new boolean[MAX_DEPTH];
+	private int position;
+	private int limit;
+	private int depth;
+	private boolean expectingName;
+	private Token peeked;
+
+	JsonTokenizer(Reader reader) {
+		this.reader = reader;
+	}
+
+	Token peek() throws IOException {
+		if (peeked != null) {
+			return peeked;
+		}
+		int c = nextSignificantChar();
+		switch (c) {
+		case -1:
+			peeked = Token.END_DOCUMENT;
+			break;
+		case '{':
+			peeked = Token.BEGIN_OBJECT;
+			break;
+		case '}':
+			peeked = Token.END_OBJECT;
+			break;
+		case '[':
+			peeked = Token.BEGIN_ARRAY;
+			break;
+		case ']':
+			peeked = Token.END_ARRAY;
+			break;
+		case '"':
+			peeked = depth > 0 && objectScopes[depth - 1] && expectingName ? Token.NAME : Token.STRING;
+			break;
+		case 't':
+		case 'f':
+			peeked = Token.BOOLEAN;
+			break;
+		case 'n':
+			peeked = Token.NULL;
+			break;
+		default:
+			if (c == '-' || (c >= '0' && c <= '9')) {
+				peeked = Token.NUMBER;
+			} else {
+				throw syntaxError("Unexpected character '" + (char) c + "'");
+			}
+		}
+		return peeked;
+	}
+
+	boolean hasNext() throws IOException {
+		Token token = peek();
+		return token != Token.END_OBJECT && token != Token.END_ARRAY && token != Token.END_DOCUMENT;
+	}
+
+	void beginObject() throws IOException {
+		expect(Token.BEGIN_OBJECT);
+		push(true);
+	}
+
+	void endObject() throws IOException {
+		expect(Token.END_OBJECT);
+		pop(true);
+	}
+
+	void beginArray() throws IOException {
+		expect(Token.BEGIN_ARRAY);
+		push(false);
+	}
+
+	void endArray() throws IOException {
+		expect(Token.END_ARRAY);
+		pop(false);
+	}
+
+	String nextName() throws IOException {
+		expect(Token.NAME);
+		String name = readString();
+		expectingName = false;
+		return name;
+	}
+
+	String nextString() throws IOException {
+		expect(Token.STRING);
+		String value = readString();
+		valueConsumed();
+		return value;
+	}
+
+	long nextLong() throws IOException {
+		expect(Token.NUMBER);
+		long value = readNumber();
+		valueConsumed();
+		return value;
+	}
+
+	int nextInt() throws IOException {
+		long value = nextLong();
+		return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, value));
+	}
+
+	boolean nextBoolean() throws IOException {
+		expect(Token.BOOLEAN);
+		boolean value = buffer[position] == 't';
+		readLiteral(value ? "true" : "false");
+		valueConsumed();
+		return value;
+	}
+
+	void skipValue() throws IOException {
+		Token token = peek();
+		peeked = null;
+		switch (token) {
+		case BEGIN_OBJECT:
+		case BEGIN_ARRAY:
+			position++;
+			skipContainer();
+			break;
+		case STRING:
+			position++;
+			skipString();
+			break;
+		case NUMBER:
+			readNumber();
+			break;
+		case BOOLEAN:
+			readLiteral(buffer[position] == 't' ? "true" : "false");
+			break;
+		case NULL:
+			readLiteral("null");
+			break;
+		default:
+			throw syntaxError("Expected a value but was " + token);
+		}
+		valueConsumed();
+	}
+
+	private void expect(Token expected) throws IOException {
+		Token token = peek();
+		if (token != expected) {
+			throw syntaxError("Expected " + expected + " but was " + token);
+		}
+		peeked = null;
+		if (expected != Token.NUMBER && expected != Token.BOOLEAN) {
+			position++;
+		}
+	}
+
+	private void push(boolean object) throws IOException {
+		if (depth == MAX_DEPTH) {
+			throw syntaxError("Nesting too deep");
+		}
+		objectScopes[depth++] = object;
+		expectingName = object;
+	}
+
+	private void pop(boolean object) throws IOException {
+		if (depth == 0 || objectScopes[depth - 1] != object) {
+			throw syntaxError("Mismatched " + (object ? "object" : "array") + " end");
+		}
+		depth--;
+		valueConsumed();
+	}
+
+	private void valueConsumed() {
+		expectingName = depth > 0 && objectScopes[depth - 1];
+	}
+
+	private int nextSignificantChar() throws IOException {
+		while (position < limit || fill()) {
+			char c = buffer[position];
+			if (c == ' ' || c == '\n' || c == '\r' || c == '\t' || c == ',' || c == ':') {
+				position++;
+			} else {
+				return c;
+			}
+		}
+		return -1;
+	}
+
+	private boolean fill() throws IOException {
+		position = 0;
+		limit = 0;
+		int read;
+		while ((read = reader.read(buffer, 0, buffer.length)) == 0) {
+			// keep reading
+		}
+		if (read < 0) {
+			return false;
+		}
+		limit = read;
+		return true;
+	}
+
+	private char nextChar() throws IOException {
+		if (position == limit && !fill()) {
+			throw syntaxError("Unexpected end of document");
+		}
+		return buffer[position++];
+	}
+
+	private String readString() throws IOException {
+		text.setLength(0);
+		while (true) {
+			int start = position;
+			while (position < limit) {
+				char c = buffer[position];
+				if (c == '"' || c == '\\') {
+					break;
+				}
+				position++;
+			}
+			text.append(buffer, start, position - start);
+			char c = nextChar();
+			if (c == '"') {
+				return text.toString();
+			}
+			if (c == '\\') {
+				text.append(readEscape());
+			}
+		}
+	}
+
+	private char readEscape() throws IOException {
+		char c = nextChar();
+		switch (c) {
+		case 'b':
+			return '\b';
+		case 'f':
+			return '\f';
+		case 'n':
+			return '\n';
+		case 'r':
+			return '\r';
+		case 't':
+			return '\t';
+		case 'u':
+			int value = 0;
+			for (int i = 0; i < 4; i++) {
+				int digit = Character.digit(nextChar(), 16);
+				if (digit < 0) {
+					throw syntaxError("Invalid unicode escape");
+				}
+				value = (value << 4) | digit;
+			}
+			return (char) value;
+		default:
+			return c;
+		}
+	}
+
+	private void skipString() throws IOException {
+		while (true) {
+			char c = nextChar();
+			if (c == '"') {
+				return;
+			}
+			if (c == '\\') {
+				nextChar();
+			}
+		}
+	}
+
+	private void skipContainer() throws IOException {
+		int nested = 1;
+		while (nested > 0) {
+			char c = nextChar();
+			if (c == '"') {
+				skipString();
+			} else if (c == '{' || c == '[') {
+				nested++;
+			} else if (c == '}' || c == ']') {
+				nested--;
+			}
+		}
+	}
+
+	private long readNumber() throws IOException {
+		text.setLength(0);
+		while (position < limit || fill()) {
+			char c = buffer[position];
+			if ((c >= '0' && c <= '9') || c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E') {
+				text.append(c);
+				position++;
+			} else {
+				break;
+			}
+		}
+		boolean negative = text.length() > 0 && text.charAt(0) == '-';
+		long value = 0;
+		for (int i = negative ? 1 : 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (c < '0' || c > '9') {
+				try {
+					return (long) Double.parseDouble(text.toString());
+				} catch (NumberFormatException e) {
+					throw syntaxError("Invalid number '" + text + "'");
+				}
+			}
+			value = value > (Long.MAX_VALUE - (c - '0')) / 10 ? Long.MAX_VALUE : value * 10 + (c - '0');
+		}
+		if (text.length() == (negative ? 1 : 0)) {
+			throw syntaxError("Invalid number '" + text + "'");
+		}
+		return negative ? -value : value;
+	}
+
+	private void readLiteral(String literal) throws IOException {
+		for (int i = 0; i < literal.length(); i++) {
+			if (nextChar() != literal.charAt(i)) {
+				throw syntaxError("Expected '" + literal + "'");
+			}
+		}
+	}
+
+	private IOException syntaxError(String message) {
+		return new IOException("Malformed JSON: " + message);
+	}
+}
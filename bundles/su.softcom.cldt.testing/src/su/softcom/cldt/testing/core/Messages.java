@@ -4,6 +4,11 @@ import org.eclipse.osgi.util.NLS;
 
 public class Messages extends NLS {
 	private static final String BUNDLE_NAME = Messages.class.getPackageName() + ".messages"; //$NON-NLS-1$
+	public static String CoverageLaunchDelegate_0;
+	public static String CoverageLaunchDelegate_1;
+	public static String CoverageLaunchDelegate_2;
+	public static String CoverageLaunchDelegate_3;
+	public static String CoverageLaunchDelegate_4;
 	public static String ReportParser_9;
 	public static String ReportParser_11;
 	public static String ReportParser_13;
@@ -0,0 +1,204 @@
+package su.softcom.cldt.testing.core;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Content-addressed key of the inputs a coverage report is generated from. The
+ * key of the last generated report is stored next to its snapshot, so a launch
+ * whose raw profiles, executables and analysis scope are unchanged can reuse
+ * the snapshot instead of merging and exporting again.
+ */
+public final class ReportCache {
+	public static final String KEY_FILE_NAME = "coverage_snapshot.key";
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+	private static final int ELF_MAGIC = 0x7f454c46;
+	private static final int ELF_CLASS_64 = 2;
+	private static final int ELF_DATA_BIG_ENDIAN = 2;
+	private static final int ELF64_HEADER_SIZE = 64;
+	private static final int MAX_NOTE_SECTION_SIZE = 64 * 1024;
+	private static final int SHT_NOTE = 7;
+	private static final int NT_GNU_BUILD_ID = 3;
+	private static final byte[] GNU_NOTE_NAME = { 'G', 'N', 'U', 0 };
+
+	private ReportCache() {
+	}
+
+	/**
+	 * Computes the key of a report. Executables are identified by their GNU
+	 * build-id when they have one and by their content otherwise. Neither the
+	 * names and order of the raw profiles nor the order of the analysis scope
+	 * affect the key.
+	 */
+	public static String computeKey(List<Path> rawProfiles, List<Path> executables, List<String> analysisScope,
+			String exportCommand) throws IOException {
+		MessageDigest digest = newDigest();
+		List<byte[]> profileHashes = new ArrayList<>(rawProfiles.size());
+		for (Path rawProfile : rawProfiles) {
+			profileHashes.add(hashFile(rawProfile));
+		}
+		profileHashes.sort(Arrays::compare);
+		for (byte[] profileHash : profileHashes) {
+			digest.update(profileHash);
+		}
+		for (Path executable : executables) {
+			byte[] buildId = readBuildId(executable);
+			digest.update(buildId != null ? buildId : hashFile(executable));
+		}
+		List<String> sortedScope = new ArrayList<>(analysisScope);
+		Collections.sort(sortedScope);
+		for (String path : sortedScope) {
+			digest.update(path.getBytes(StandardCharsets.UTF_8));
+			digest.update((byte) 0);
+		}
+		digest.update(exportCommand.getBytes(StandardCharsets.UTF_8));
+		return HexFormat.of().formatHex(digest.digest());
+	}
+
+	public static boolean matches(Path coverageDataDir, String key) throws IOException {
+		if (!Files.exists(coverageDataDir.resolve(CoverageSnapshot.FILE_NAME))) {
+			return false;
+		}
+		try {
+			return key.equals(Files.readString(coverageDataDir.resolve(KEY_FILE_NAME), StandardCharsets.UTF_8).trim());
+		} catch (NoSuchFileException e) {
+			return false;
+		}
+	}
+
+	public static void store(Path coverageDataDir, String key) throws IOException {
+		Path keyFile = coverageDataDir.resolve(KEY_FILE_NAME);
+		Path tempFile = keyFile.resolveSibling(KEY_FILE_NAME + ".tmp");
+		Files.writeString(tempFile, key, StandardCharsets.UTF_8);
+		Files.move(tempFile, keyFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	public static void invalidate(Path coverageDataDir) throws IOException {
+		Files.deleteIfExists(coverageDataDir.resolve(KEY_FILE_NAME));
+	}
+
+	/**
+	 * Returns the descriptor of the {@code NT_GNU_BUILD_ID} note of an ELF file,
+	 * or {@code null} if the file is not ELF or has no build-id.
+	 */
+	public static byte[] readBuildId(Path executable) throws IOException {
+		try (FileChannel channel = FileChannel.open(executable, StandardOpenOption.READ)) {
+			ByteBuffer header = read(channel, 0, ELF64_HEADER_SIZE);
+			if (header == null || header.getInt(0) != ELF_MAGIC) {
+				return null;
+			}
+			boolean elf64 = header.get(4) == ELF_CLASS_64;
+			ByteOrder order = header.get(5) == ELF_DATA_BIG_ENDIAN ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+			header.order(order);
+			long sectionTable = elf64 ? header.getLong(0x28) : Integer.toUnsignedLong(header.getInt(0x20));
+			int entrySize = Short.toUnsignedInt(header.getShort(elf64 ? 0x3a : 0x2e));
+			int sectionCount = Short.toUnsignedInt(header.getShort(elf64 ? 0x3c : 0x30));
+			ByteBuffer sections = read(channel, sectionTable, sectionCount * entrySize);
+			if (sections == null || entrySize < (elf64 ? 0x28 : 0x18)) {
+				return null;
+			}
+			sections.order(order);
+			for (int i = 0; i < sectionCount; i++) {
+				int entry = i * entrySize;
+				if (sections.getInt(entry + 4) != SHT_NOTE) {
+					continue;
+				}
+				long offset = elf64 ? sections.getLong(entry + 0x18)
+						: Integer.toUnsignedLong(sections.getInt(entry + 0x10));
+				long size = elf64 ? sections.getLong(entry + 0x20)
+						: Integer.toUnsignedLong(sections.getInt(entry + 0x14));
+				ByteBuffer notes = size <= MAX_NOTE_SECTION_SIZE ? read(channel, offset, (int) size) : null;
+				byte[] buildId = notes != null ? findBuildIdNote(notes.order(order)) : null;
+				if (buildId != null) {
+					return buildId;
+				}
+			}
+			return null;
+		}
+	}
+
+	private static ByteBuffer read(FileChannel channel, long position, int size) throws IOException {
+		if (position < 0 || size < 0 || position + size > channel.size()) {
+			return null;
+		}
+		ByteBuffer buffer = ByteBuffer.allocate(size);
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, position + buffer.position()) < 0) {
+				return null;
+			}
+		}
+		return buffer.clear();
+	}
+
+	private static byte[] findBuildIdNote(ByteBuffer notes) {
+		int offset = 0;
+		int end = notes.limit();
+		while (offset + 12 <= end) {
+			int nameSize = notes.getInt(offset);
+			int descSize = notes.getInt(offset + 4);
+			int type = notes.getInt(offset + 8);
+			int name = offset + 12;
+			int desc = name + align4(nameSize);
+			if (nameSize < 0 || descSize < 0 || desc < 0 || desc + descSize > end) {
+				return null;
+			}
+			if (type == NT_GNU_BUILD_ID && nameSize == GNU_NOTE_NAME.length && hasGnuName(notes, name)) {
+				byte[] buildId = new byte[descSize];
+				notes.get(desc, buildId);
+				return buildId;
+			}
+			offset = desc + align4(descSize);
+		}
+		return null;
+	}
+
+	private static boolean hasGnuName(ByteBuffer notes, int offset) {
+		for (int i = 0; i < GNU_NOTE_NAME.length; i++) {
+			if (notes.get(offset + i) != GNU_NOTE_NAME[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static int align4(int value) {
+		return (value + 3) & ~3;
+	}
+
+	private static byte[] hashFile(Path file) throws IOException {
+		MessageDigest digest = newDigest();
+		byte[] buffer = new byte[BUFFER_SIZE];
+		try (InputStream in = Files.newInputStream(file)) {
+			int read;
+			while ((read = in.read(buffer)) != -1) {
+				digest.update(buffer, 0, read);
+			}
+		}
+		return digest.digest();
+	}
+
+	private static MessageDigest newDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not available", e);
+		}
+	}
+}
@@ -1,9 +1,23 @@
 package su.softcom.cldt.testing.core;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Predicate;
 import org.eclipse.core.runtime.ILog;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Platform;
@@ -13,18 +27,14 @@ import su.softcom.cldt.testing.ui.CoverageDataManager;
 public class ReportParser {
 	private static final ILog LOGGER = Platform.getLog(ReportParser.class);
 	private static final String PLUGIN_ID = "su.softcom.cldt.testing";
-	private static final String PERCENTAGE_FORMAT = "%.2f%%";
-	private static final String TOTAL_LINES_KEY = "totalLines";
-	private static final String COVERED_LINES_KEY = "coveredLines";
-	private static final String TOTAL_BRANCHES_KEY = "totalBranches";
-	private static final String COVERED_BRANCHES_KEY = "coveredBranches";
-	private static final String TOTAL_FUNCTIONS_KEY = "totalFunctions";
-	private static final String COVERED_FUNCTIONS_KEY = "coveredFunctions";
 	private static final String LINE_PREFIX = "DA:";
 	private static final String BRANCH_PREFIX = "BRDA:";
 	private static final String FUNCTION_PREFIX = "FN:";
 	private static final String FILE_PREFIX = "SF:";
 	private static final String END_RECORD = "end_of_record";
+	private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+	private static final int MAX_PENDING_RECORDS = 4;
+	private static final int ALL_COUNTERS = 0b111;
 
 	public static final String FUNCTION_EXECUTION_PREFIX = "FNDA:";
 
@@ -34,7 +44,15 @@ public class ReportParser {
 	public record CoverageResult(Map<String, Map<String, Object[]>> fileCoverage,
 			Map<String, List<LineCoverage>> lineCoverage, Map<String, List<LineCoverage>> nonFunctionLineCoverage,
 			Map<String, List<BranchCoverage>> branchCoverage, Map<String, List<FunctionCoverage>> functionCoverage,
-			Map<String, List<FunctionCoverage>> annotationFunctionCoverage) {
+			Map<String, List<FunctionCoverage>> annotationFunctionCoverage,
+			Map<String, FunctionLineIndex> functionLineIndex) {
+		public CoverageResult(Map<String, Map<String, Object[]>> fileCoverage,
+				Map<String, List<LineCoverage>> lineCoverage, Map<String, List<LineCoverage>> nonFunctionLineCoverage,
+				Map<String, List<BranchCoverage>> branchCoverage, Map<String, List<FunctionCoverage>> functionCoverage,
+				Map<String, List<FunctionCoverage>> annotationFunctionCoverage) {
+			this(fileCoverage, lineCoverage, nonFunctionLineCoverage, branchCoverage, functionCoverage,
+					annotationFunctionCoverage, new HashMap<>());
+		}
 	}
 
 	public record LineCoverage(int lineNumber, int executionCount) {
@@ -54,230 +72,469 @@ public class ReportParser {
 	public record MangledDemangledPair(String mangledName, String demangledName) {
 	}
 
-	public record FileContext(String currentFile, int totalLines, int coveredLines, int totalBranches,
-			int coveredBranches, int totalFunctions, int coveredFunctions, List<LineCoverage> currentLineCoverage,
-			List<LineCoverage> currentNonFunctionLineCoverage, List<LineCoverage> tempLineCoverage,
-			List<BranchCoverage> currentBranchCoverage, List<FunctionCoverage> currentFunctionCoverage,
-			List<FunctionCoverage> annotationFunctionCoverage,
-			Map<Integer, List<MangledDemangledPair>> tempFunctionNames, List<String> fnExecutionLines,
-			int maxLineNumber) {
+	public static final class FileContext {
+		private String currentFile;
+		private int totalLines;
+		private int coveredLines;
+		private int totalBranches;
+		private int coveredBranches;
+		private int totalFunctions;
+		private int coveredFunctions;
+		private int maxLineNumber;
+		private final IntList lineNumbers = new IntList(256);
+		private final IntList lineHits = new IntList(256);
+		private final IntList branchLines = new IntList(64);
+		private final IntList branchFlags = new IntList(64);
+		private final IntList functionStartLines = new IntList();
+		private final List<String> functionMangledNames = new ArrayList<>();
+		private final List<LineCoverage> tempLineCoverage = new LineCoverageView();
+		private final List<BranchCoverage> currentBranchCoverage = new BranchCoverageView();
+		private List<LineCoverage> currentLineCoverage = new ArrayList<>();
+		private List<LineCoverage> currentNonFunctionLineCoverage = new ArrayList<>();
+		private List<FunctionCoverage> currentFunctionCoverage = new ArrayList<>();
+		private List<FunctionCoverage> annotationFunctionCoverage = new ArrayList<>();
+		private Map<Integer, List<MangledDemangledPair>> tempFunctionNames = new HashMap<>();
+		private Map<String, Integer> functionExecutionCounts = new HashMap<>();
+		private FunctionLineIndex functionLineIndex;
+		private Map<Integer, Integer> functionRegionEndLines = new HashMap<>();
+
+		public FileContext(String currentFile) {
+			this.currentFile = currentFile;
+		}
+
 		public FileContext reset(String file) {
-			return new FileContext(file, 0, 0, 0, 0, 0, 0, new ArrayList<>(), new ArrayList<>(), new ArrayList<>(),
-					new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), new HashMap<>(), new ArrayList<>(), 0);
+			currentFile = file;
+			totalLines = 0;
+			coveredLines = 0;
+			totalBranches = 0;
+			coveredBranches = 0;
+			totalFunctions = 0;
+			coveredFunctions = 0;
+			maxLineNumber = 0;
+			lineNumbers.clear();
+			lineHits.clear();
+			branchLines.clear();
+			branchFlags.clear();
+			functionStartLines.clear();
+			functionMangledNames.clear();
+			currentLineCoverage = new ArrayList<>();
+			currentNonFunctionLineCoverage = new ArrayList<>();
+			currentFunctionCoverage = new ArrayList<>();
+			annotationFunctionCoverage = new ArrayList<>();
+			tempFunctionNames = new HashMap<>();
+			functionExecutionCounts = new HashMap<>();
+			functionLineIndex = null;
+			functionRegionEndLines = new HashMap<>();
+			return this;
+		}
+
+		public String currentFile() {
+			return currentFile;
+		}
+
+		public int totalLines() {
+			return totalLines;
+		}
+
+		public int coveredLines() {
+			return coveredLines;
+		}
+
+		public int totalBranches() {
+			return totalBranches;
+		}
+
+		public int coveredBranches() {
+			return coveredBranches;
+		}
+
+		public int totalFunctions() {
+			return totalFunctions;
+		}
+
+		public int coveredFunctions() {
+			return coveredFunctions;
+		}
+
+		public int maxLineNumber() {
+			return maxLineNumber;
+		}
+
+		public List<LineCoverage> currentLineCoverage() {
+			return currentLineCoverage;
+		}
+
+		public List<LineCoverage> currentNonFunctionLineCoverage() {
+			return currentNonFunctionLineCoverage;
+		}
+
+		public List<LineCoverage> tempLineCoverage() {
+			return tempLineCoverage;
+		}
+
+		public List<BranchCoverage> currentBranchCoverage() {
+			return currentBranchCoverage;
+		}
+
+		public List<FunctionCoverage> currentFunctionCoverage() {
+			return currentFunctionCoverage;
+		}
+
+		public List<FunctionCoverage> annotationFunctionCoverage() {
+			return annotationFunctionCoverage;
+		}
+
+		public Map<Integer, List<MangledDemangledPair>> tempFunctionNames() {
+			return tempFunctionNames;
+		}
+
+		public Map<String, Integer> functionExecutionCounts() {
+			return functionExecutionCounts;
+		}
+
+		void addLine(int lineNumber, int executionCount) {
+			lineNumbers.add(lineNumber);
+			lineHits.add(executionCount);
+			if (lineNumber > maxLineNumber) {
+				maxLineNumber = lineNumber;
+			}
+		}
+
+		void addBranch(int lineNumber, boolean covered) {
+			branchLines.add(lineNumber);
+			branchFlags.add(covered ? 1 : 0);
+		}
+
+		void addFunction(int startLine, String mangledName) {
+			functionStartLines.add(startLine);
+			functionMangledNames.add(mangledName);
+		}
+
+		public FunctionLineIndex functionLineIndex() {
+			return functionLineIndex;
+		}
+
+		void setFunctionLineIndex(FunctionLineIndex functionLineIndex) {
+			this.functionLineIndex = functionLineIndex;
+		}
+
+		Map<Integer, Integer> functionRegionEndLines() {
+			return functionRegionEndLines;
+		}
+
+		void addFunctionRegion(int startLine, int endLine) {
+			functionRegionEndLines.merge(startLine, endLine, Math::max);
+		}
+
+		void setSummary(int totalLines, int coveredLines, int totalBranches, int coveredBranches, int totalFunctions,
+				int coveredFunctions) {
+			this.totalLines = totalLines;
+			this.coveredLines = coveredLines;
+			this.totalBranches = totalBranches;
+			this.coveredBranches = coveredBranches;
+			this.totalFunctions = totalFunctions;
+			this.coveredFunctions = coveredFunctions;
+		}
+
+		void addFunctionExecution(String mangledName, int executionCount) {
+			functionExecutionCounts.merge(mangledName, executionCount, Math::max);
+		}
+
+		void resolveFunctionNames() {
+			if (functionMangledNames.isEmpty()) {
+				return;
+			}
+			Map<String, String> demangledNames = FunctionNameProcessor.demangleAll(functionMangledNames);
+			for (int i = 0; i < functionMangledNames.size(); i++) {
+				String mangledName = functionMangledNames.get(i);
+				tempFunctionNames.computeIfAbsent(functionStartLines.get(i), k -> new ArrayList<>())
+						.add(new MangledDemangledPair(mangledName, demangledNames.getOrDefault(mangledName, mangledName)));
+			}
+			functionStartLines.clear();
+			functionMangledNames.clear();
+		}
+
+		private final class LineCoverageView extends AbstractList<LineCoverage> implements RandomAccess {
+			@Override
+			public LineCoverage get(int index) {
+				return new LineCoverage(lineNumbers.get(index), lineHits.get(index));
+			}
+
+			@Override
+			public int size() {
+				return lineNumbers.size();
+			}
+		}
+
+		private final class BranchCoverageView extends AbstractList<BranchCoverage> implements RandomAccess {
+			@Override
+			public BranchCoverage get(int index) {
+				return new BranchCoverage(branchLines.get(index), branchFlags.get(index) != 0);
+			}
+
+			@Override
+			public int size() {
+				return branchLines.size();
+			}
 		}
 	}
 
 	public static CoverageResult parseLcovReport(List<String> reportLines) {
-		Map<String, Map<String, Object[]>> coverageResults = new HashMap<>();
-		Map<String, List<LineCoverage>> lineCoverage = new HashMap<>();
-		Map<String, List<LineCoverage>> nonFunctionLineCoverage = new HashMap<>();
-		Map<String, List<BranchCoverage>> branchCoverage = new HashMap<>();
-		Map<String, List<FunctionCoverage>> functionCoverage = new HashMap<>();
-		Map<String, List<FunctionCoverage>> annotationFunctionCoverage = new HashMap<>();
-		FileContext context = new FileContext(null, 0, 0, 0, 0, 0, 0, new ArrayList<>(), new ArrayList<>(),
-				new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), new HashMap<>(),
-				new ArrayList<>(), 0);
-
+		LcovStreamParser parser = new LcovStreamParser(filePath -> true, null, 0);
 		for (String line : reportLines) {
+			parser.acceptLine(line);
+		}
+		return parser.finish();
+	}
+
+	public static CoverageResult parseLcovReport(InputStream input, Predicate<String> fileFilter) throws IOException {
+		return parseLcovReport(input, fileFilter, 1);
+	}
+
+	public static CoverageResult parseLcovReport(InputStream input, Predicate<String> fileFilter, int parallelism)
+			throws IOException {
+		return parseLcovReport(new InputStreamReader(input, StandardCharsets.UTF_8), fileFilter, parallelism);
+	}
+
+	public static CoverageResult parseLcovReport(Reader reader, Predicate<String> fileFilter) throws IOException {
+		return parseLcovReport(reader, fileFilter, 1);
+	}
+
+	/**
+	 * Parses the report, processing up to {@code parallelism} records at once on
+	 * a dedicated fork-join pool. Records are merged in report order, so the
+	 * result does not depend on the degree of parallelism.
+	 */
+	public static CoverageResult parseLcovReport(Reader reader, Predicate<String> fileFilter, int parallelism)
+			throws IOException {
+		ForkJoinPool pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+		try {
+			LcovStreamParser parser = new LcovStreamParser(fileFilter, pool, parallelism * MAX_PENDING_RECORDS);
+			BufferedReader bufferedReader = reader instanceof BufferedReader buffered ? buffered
+					: new BufferedReader(reader, STREAM_BUFFER_SIZE);
+			String line;
+			while ((line = bufferedReader.readLine()) != null) {
+				parser.acceptLine(line);
+			}
+			return parser.finish();
+		} finally {
+			if (pool != null) {
+				pool.shutdownNow();
+			}
+		}
+	}
+
+	public static CoverageResult parseJsonExport(InputStream input, Predicate<String> fileFilter) throws IOException {
+		return parseJsonExport(new InputStreamReader(input, StandardCharsets.UTF_8), fileFilter);
+	}
+
+	public static CoverageResult parseJsonExport(Reader reader, Predicate<String> fileFilter) throws IOException {
+		return new JsonExportParser(new JsonTokenizer(reader), fileFilter).parse();
+	}
+
+	private static final class LcovStreamParser {
+		private final Predicate<String> fileFilter;
+		private final ResultBuilder results = new ResultBuilder();
+		private final FileContext context = new FileContext(null);
+		private final ForkJoinPool pool;
+		private final int maxPendingRecords;
+		private final Deque<ForkJoinTask<CoverageStore.FileView>> pendingRecords = new ArrayDeque<>();
+		private List<String> recordLines;
+		private boolean skippingRecord;
+
+		LcovStreamParser(Predicate<String> fileFilter, ForkJoinPool pool, int maxPendingRecords) {
+			this.fileFilter = fileFilter;
+			this.pool = pool;
+			this.maxPendingRecords = maxPendingRecords;
+		}
+
+		void acceptLine(String line) {
 			String trimmedLine = line.trim();
 			if (trimmedLine.startsWith(FILE_PREFIX) || trimmedLine.startsWith(END_RECORD)) {
-				if (context.currentFile != null) {
-					processFileContext(context, coverageResults, lineCoverage, nonFunctionLineCoverage, branchCoverage,
-							functionCoverage, annotationFunctionCoverage);
-				}
+				flushRecord();
 				if (trimmedLine.startsWith(FILE_PREFIX)) {
-					context = context.reset(trimmedLine.substring(3));
+					String filePath = trimmedLine.substring(3);
+					skippingRecord = !fileFilter.test(filePath);
+					context.reset(skippingRecord ? null : filePath);
 				} else {
-					context = context.reset(null);
+					skippingRecord = false;
+					context.reset(null);
 				}
-			} else {
-				context = updateFileContext(context, trimmedLine);
+				if (pool != null && context.currentFile != null) {
+					recordLines = new ArrayList<>();
+				}
+			} else if (!skippingRecord && context.currentFile != null) {
+				if (pool != null) {
+					recordLines.add(trimmedLine);
+				} else {
+					updateFileContext(context, trimmedLine);
+				}
+			}
+		}
+
+		CoverageResult finish() {
+			flushRecord();
+			while (!pendingRecords.isEmpty()) {
+				results.put(pendingRecords.poll().join());
 			}
+			return results.build();
 		}
 
-		if (context.currentFile != null) {
-			processFileContext(context, coverageResults, lineCoverage, nonFunctionLineCoverage, branchCoverage,
-					functionCoverage, annotationFunctionCoverage);
+		private void flushRecord() {
+			if (context.currentFile == null) {
+				return;
+			}
+			if (pool != null) {
+				String filePath = context.currentFile;
+				List<String> lines = recordLines;
+				recordLines = null;
+				pendingRecords.add(pool.submit(() -> processRecord(filePath, lines)));
+				while (pendingRecords.size() > maxPendingRecords) {
+					results.put(pendingRecords.poll().join());
+				}
+			} else {
+				results.add(context);
+			}
+			context.reset(null);
 		}
 
-		CoverageResult result = new CoverageResult(coverageResults, lineCoverage, nonFunctionLineCoverage,
-				branchCoverage, functionCoverage, annotationFunctionCoverage);
-		CoverageDataManager.getInstance().setCoverageData(result, List.of());
-		return result;
+		private static CoverageStore.FileView processRecord(String filePath, List<String> lines) {
+			FileContext recordContext = new FileContext(filePath);
+			for (String line : lines) {
+				updateFileContext(recordContext, line);
+			}
+			return ResultBuilder.process(recordContext);
+		}
 	}
 
-	private static void processFileContext(FileContext context, Map<String, Map<String, Object[]>> coverageResults,
-			Map<String, List<LineCoverage>> lineCoverage, Map<String, List<LineCoverage>> nonFunctionLineCoverage,
-			Map<String, List<BranchCoverage>> branchCoverage, Map<String, List<FunctionCoverage>> functionCoverage,
-			Map<String, List<FunctionCoverage>> annotationFunctionCoverage) {
-		FunctionCoverageAnalyzer.processFunctionCoverage(context);
-
-		coverageResults.put(context.currentFile, calculateCoverageForFile(context));
-		lineCoverage.put(context.currentFile, context.currentLineCoverage);
-		nonFunctionLineCoverage.put(context.currentFile, context.currentNonFunctionLineCoverage);
-		branchCoverage.put(context.currentFile, context.currentBranchCoverage);
-		functionCoverage.put(context.currentFile, context.currentFunctionCoverage);
-		annotationFunctionCoverage.put(context.currentFile, context.annotationFunctionCoverage);
+	static final class ResultBuilder {
+		private final Map<String, CoverageStore.FileView> files = new LinkedHashMap<>();
+
+		void add(FileContext context) {
+			put(process(context));
+		}
+
+		static CoverageStore.FileView process(FileContext context) {
+			context.resolveFunctionNames();
+			FunctionCoverageAnalyzer.processFunctionCoverage(context);
+			int[] counters = { context.coveredLines, context.totalLines, context.coveredBranches,
+					context.totalBranches, context.coveredFunctions, context.totalFunctions };
+			return CoverageStore.FileView.of(context.currentFile, counters, ALL_COUNTERS, context.currentLineCoverage,
+					context.currentNonFunctionLineCoverage, context.currentBranchCoverage,
+					context.currentFunctionCoverage, context.annotationFunctionCoverage, context.functionLineIndex);
+		}
+
+		void put(CoverageStore.FileView file) {
+			files.put(file.path(), file);
+		}
+
+		CoverageResult build() {
+			CoverageResult result = new CoverageStore(files.values()).result();
+			CoverageDataManager.getInstance().setCoverageData(result, List.of());
+			return result;
+		}
 	}
 
-	private static FileContext updateFileContext(FileContext context, String line) {
-		Map<String, Integer> counters = updateCounters(line, context.totalLines, context.coveredLines,
-				context.totalBranches, context.coveredBranches, context.totalFunctions, context.coveredFunctions);
-		FileContext updatedContext = new FileContext(context.currentFile, counters.get(TOTAL_LINES_KEY),
-				counters.get(COVERED_LINES_KEY), counters.get(TOTAL_BRANCHES_KEY), counters.get(COVERED_BRANCHES_KEY),
-				counters.get(TOTAL_FUNCTIONS_KEY), counters.get(COVERED_FUNCTIONS_KEY), context.currentLineCoverage,
-				context.currentNonFunctionLineCoverage, context.tempLineCoverage, context.currentBranchCoverage,
-				context.currentFunctionCoverage, context.annotationFunctionCoverage, context.tempFunctionNames,
-				context.fnExecutionLines, context.maxLineNumber);
-
-		if (line.startsWith(LINE_PREFIX) && updatedContext.tempLineCoverage != null) {
-			return parseLineCoverage(updatedContext, line);
-		} else if (line.startsWith(BRANCH_PREFIX) && updatedContext.currentBranchCoverage != null) {
-			return parseBranchCoverage(updatedContext, line);
-		} else if (line.startsWith(FUNCTION_PREFIX) && updatedContext.currentFunctionCoverage != null) {
-			return parseFunctionCoverage(updatedContext, line);
-		} else if (line.startsWith(FUNCTION_EXECUTION_PREFIX) && updatedContext.currentFunctionCoverage != null) {
-			return parseFunctionExecution(updatedContext, line);
-		}
-		return updatedContext;
+	private static void updateFileContext(FileContext context, String line) {
+		if (line.startsWith(LINE_PREFIX)) {
+			parseLineCoverage(context, line);
+		} else if (line.startsWith(BRANCH_PREFIX)) {
+			parseBranchCoverage(context, line);
+		} else if (line.startsWith(FUNCTION_PREFIX)) {
+			parseFunctionCoverage(context, line);
+		} else if (line.startsWith(FUNCTION_EXECUTION_PREFIX)) {
+			parseFunctionExecution(context, line);
+		} else {
+			updateCounters(context, line);
+		}
 	}
 
-	private static FileContext parseLineCoverage(FileContext context, String line) {
+	private static void parseLineCoverage(FileContext context, String line) {
 		try {
-			String[] parts = line.substring(3).split(",");
-			if (parts.length == 2) {
-				int lineNumber = Integer.parseInt(parts[0]);
-				int executionCount = Integer.parseInt(parts[1]);
+			int comma = line.indexOf(',', LINE_PREFIX.length());
+			if (comma > 0 && line.indexOf(',', comma + 1) < 0) {
+				int lineNumber = Integer.parseInt(line, LINE_PREFIX.length(), comma, 10);
+				int executionCount = Integer.parseInt(line, comma + 1, line.length(), 10);
 				if (executionCount >= 0) {
-					List<LineCoverage> newTempLineCoverage = new ArrayList<>(context.tempLineCoverage);
-					newTempLineCoverage.add(new LineCoverage(lineNumber, executionCount));
-					return new FileContext(context.currentFile, context.totalLines, context.coveredLines,
-							context.totalBranches, context.coveredBranches, context.totalFunctions,
-							context.coveredFunctions, context.currentLineCoverage,
-							context.currentNonFunctionLineCoverage, newTempLineCoverage, context.currentBranchCoverage,
-							context.currentFunctionCoverage, context.annotationFunctionCoverage,
-							context.tempFunctionNames, context.fnExecutionLines,
-							Math.max(context.maxLineNumber, lineNumber));
+					context.addLine(lineNumber, executionCount);
 				}
 			}
-		} catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+		} catch (NumberFormatException e) {
 			LOGGER.log(
 					new Status(IStatus.WARNING, PLUGIN_ID, String.format("Invalid line coverage format: %s", line), e));
 		}
-		return context;
 	}
 
-	private static FileContext parseBranchCoverage(FileContext context, String line) {
+	private static void parseBranchCoverage(FileContext context, String line) {
 		try {
-			String[] parts = line.substring(5).split(",");
-			if (parts.length == 4) {
-				int lineNumber = Integer.parseInt(parts[0]);
+			int firstComma = line.indexOf(',', BRANCH_PREFIX.length());
+			int secondComma = firstComma > 0 ? line.indexOf(',', firstComma + 1) : -1;
+			int lastComma = secondComma > 0 ? line.indexOf(',', secondComma + 1) : -1;
+			if (lastComma > 0 && line.indexOf(',', lastComma + 1) < 0) {
+				int lineNumber = Integer.parseInt(line, BRANCH_PREFIX.length(), firstComma, 10);
 
-				if (parts[3].equals("-")) {
+				if (lastComma == line.length() - 2 && line.charAt(lastComma + 1) == '-') {
 					LOGGER.log(new Status(IStatus.WARNING, PLUGIN_ID,
 							String.format("Skipping branch coverage with invalid hits value: %s", line)));
-					return context;
+					return;
 				}
-				int hits = Integer.parseInt(parts[3]);
-				List<BranchCoverage> newBranchCoverage = new ArrayList<>(context.currentBranchCoverage);
-				newBranchCoverage.add(new BranchCoverage(lineNumber, hits > 0));
-				return new FileContext(context.currentFile, context.totalLines, context.coveredLines,
-						context.totalBranches, context.coveredBranches, context.totalFunctions,
-						context.coveredFunctions, context.currentLineCoverage, context.currentNonFunctionLineCoverage,
-						context.tempLineCoverage, newBranchCoverage, context.currentFunctionCoverage,
-						context.annotationFunctionCoverage, context.tempFunctionNames, context.fnExecutionLines,
-						context.maxLineNumber);
+				int hits = Integer.parseInt(line, lastComma + 1, line.length(), 10);
+				context.addBranch(lineNumber, hits > 0);
 			}
-		} catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+		} catch (NumberFormatException e) {
 			LOGGER.log(new Status(IStatus.WARNING, PLUGIN_ID, String.format("Invalid branch coverage format: %s", line),
 					e));
 		}
-		return context;
 	}
 
-	private static FileContext parseFunctionCoverage(FileContext context, String line) {
+	private static void parseFunctionCoverage(FileContext context, String line) {
 		try {
 			String[] parts = line.substring(3).split(",");
 			if (parts.length >= 2) {
-				int startLine = Integer.parseInt(parts[0]);
-				String mangledName = parts[1];
-				String demangledName = FunctionNameProcessor.demangle(mangledName);
-				Map<Integer, List<MangledDemangledPair>> newTempFunctionNames = new HashMap<>(
-						context.tempFunctionNames);
-				newTempFunctionNames.computeIfAbsent(startLine, k -> new ArrayList<>())
-						.add(new MangledDemangledPair(mangledName, demangledName));
-				return new FileContext(context.currentFile, context.totalLines, context.coveredLines,
-						context.totalBranches, context.coveredBranches, context.totalFunctions,
-						context.coveredFunctions, context.currentLineCoverage, context.currentNonFunctionLineCoverage,
-						context.tempLineCoverage, context.currentBranchCoverage, context.currentFunctionCoverage,
-						context.annotationFunctionCoverage, newTempFunctionNames, context.fnExecutionLines,
-						context.maxLineNumber);
+				context.addFunction(Integer.parseInt(parts[0]), parts[1]);
 			}
 		} catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
 			LOGGER.log(
 					new Status(IStatus.WARNING, PLUGIN_ID, String.format("Invalid function name format: %s", line), e));
 		}
-		return context;
 	}
 
-	private static FileContext parseFunctionExecution(FileContext context, String line) {
-		List<String> newFnExecutionLines = new ArrayList<>(context.fnExecutionLines);
-		newFnExecutionLines.add(line);
-		return new FileContext(context.currentFile, context.totalLines, context.coveredLines, context.totalBranches,
-				context.coveredBranches, context.totalFunctions, context.coveredFunctions, context.currentLineCoverage,
-				context.currentNonFunctionLineCoverage, context.tempLineCoverage, context.currentBranchCoverage,
-				context.currentFunctionCoverage, context.annotationFunctionCoverage, context.tempFunctionNames,
-				newFnExecutionLines, context.maxLineNumber);
+	private static void parseFunctionExecution(FileContext context, String line) {
+		try {
+			int comma = line.indexOf(',', FUNCTION_EXECUTION_PREFIX.length());
+			int nameEnd = comma > 0 ? line.indexOf(',', comma + 1) : -1;
+			if (comma > 0 && comma + 1 < (nameEnd < 0 ? line.length() : nameEnd)) {
+				int executionCount = Integer.parseInt(line, FUNCTION_EXECUTION_PREFIX.length(), comma, 10);
+				context.addFunctionExecution(line.substring(comma + 1, nameEnd < 0 ? line.length() : nameEnd),
+						executionCount);
+			}
+		} catch (NumberFormatException e) {
+			LOGGER.log(new Status(IStatus.WARNING, PLUGIN_ID,
+					String.format("Invalid function coverage format: %s", line), e));
+		}
 	}
 
-	private static Map<String, Integer> updateCounters(String line, int totalLines, int coveredLines, int totalBranches,
-			int coveredBranches, int totalFunctions, int coveredFunctions) {
-		Map<String, Integer> counters = new HashMap<>();
-		counters.put(TOTAL_LINES_KEY, totalLines);
-		counters.put(COVERED_LINES_KEY, coveredLines);
-		counters.put(TOTAL_BRANCHES_KEY, totalBranches);
-		counters.put(COVERED_BRANCHES_KEY, coveredBranches);
-		counters.put(TOTAL_FUNCTIONS_KEY, totalFunctions);
-		counters.put(COVERED_FUNCTIONS_KEY, coveredFunctions);
-
+	private static void updateCounters(FileContext context, String line) {
 		try {
 			if (line.startsWith("LF:")) {
-				counters.put(TOTAL_LINES_KEY, Integer.parseInt(line.substring(3)));
+				context.totalLines = parseCounter(line, 3);
 			} else if (line.startsWith("LH:")) {
-				counters.put(COVERED_LINES_KEY, Integer.parseInt(line.substring(3)));
+				context.coveredLines = parseCounter(line, 3);
 			} else if (line.startsWith("BRF:")) {
-				counters.put(TOTAL_BRANCHES_KEY, Integer.parseInt(line.substring(4)));
+				context.totalBranches = parseCounter(line, 4);
 			} else if (line.startsWith("BRH:")) {
-				counters.put(COVERED_BRANCHES_KEY, Integer.parseInt(line.substring(4)));
+				context.coveredBranches = parseCounter(line, 4);
 			} else if (line.startsWith("FNF:")) {
-				counters.put(TOTAL_FUNCTIONS_KEY, Integer.parseInt(line.substring(4)));
+				context.totalFunctions = parseCounter(line, 4);
 			} else if (line.startsWith("FNH:")) {
-				counters.put(COVERED_FUNCTIONS_KEY, Integer.parseInt(line.substring(4)));
+				context.coveredFunctions = parseCounter(line, 4);
 			}
-		} catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+		} catch (NumberFormatException e) {
 			LOGGER.log(new Status(IStatus.WARNING, PLUGIN_ID, "Invalid counter format: " + line, e));
 		}
-
-		return counters;
 	}
 
-	private static Map<String, Object[]> calculateCoverageForFile(FileContext context) {
-		Map<String, Object[]> result = new HashMap<>();
-		double lineCoverage = context.totalLines > 0 ? (100.0 * context.coveredLines / context.totalLines) : 0.0;
-		result.put("Lines", new Object[] { context.currentFile, String.format(PERCENTAGE_FORMAT, lineCoverage),
-				context.coveredLines, context.totalLines - context.coveredLines, context.totalLines });
-
-		double branchCoverage = context.totalBranches > 0 ? (100.0 * context.coveredBranches / context.totalBranches)
-				: 0.0;
-		result.put("Branches", new Object[] { context.currentFile, String.format(PERCENTAGE_FORMAT, branchCoverage),
-				context.coveredBranches, context.totalBranches - context.coveredBranches, context.totalBranches });
-
-		double functionCoverage = context.totalFunctions > 0
-				? (100.0 * context.coveredFunctions / context.totalFunctions)
-				: 0.0;
-		result.put("Functions", new Object[] { context.currentFile, String.format(PERCENTAGE_FORMAT, functionCoverage),
-				context.coveredFunctions, context.totalFunctions - context.coveredFunctions, context.totalFunctions });
-
-		return result;
+	private static int parseCounter(String line, int offset) {
+		return Integer.parseInt(line, offset, line.length(), 10);
 	}
 }
\ No newline at end of file
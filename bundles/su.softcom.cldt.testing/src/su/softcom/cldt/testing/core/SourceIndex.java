@@ -0,0 +1,358 @@
+package su.softcom.cldt.testing.core;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Lexical summary of one source file built in a single pass: line offsets,
+ * which lines carry code braces and parentheses outside comments and string
+ * literals, and the tree of brace blocks.
+ */
+final class SourceIndex {
+	private static final int MAPPED_THRESHOLD = 1 << 20;
+	private static final int MAX_POOLED_CAPACITY = 4 * MAPPED_THRESHOLD;
+	private static final ThreadLocal<ByteBuffer> READ_BUFFER = ThreadLocal
+			.withInitial(() -> ByteBuffer.allocate(64 * 1024));
+
+	private static final byte OPEN_BRACE = 1;
+	private static final byte CLOSE_PAREN = 2;
+
+	private static final int CODE = 0;
+	private static final int LINE_COMMENT = 1;
+	private static final int BLOCK_COMMENT = 2;
+	private static final int STRING = 3;
+	private static final int CHARACTER = 4;
+	private static final int RAW_STRING = 5;
+
+	private final int lineCount;
+	private final int[] lineOffsets;
+	private final byte[] lineFlags;
+	private final int[] nextCloseParenLine;
+	private final int blockCount;
+	private final int[] blockStartLines;
+	private final int[] blockEndLines;
+	private final int[] blockLevels;
+	private final int[] blockParents;
+	private final int[] innermostBlockByLine;
+
+	private SourceIndex(Scanner scanner) {
+		this.lineCount = scanner.lineCount;
+		this.lineOffsets = Arrays.copyOf(scanner.lineOffsets, lineCount);
+		this.lineFlags = Arrays.copyOf(scanner.lineFlags, lineCount + 2);
+		this.blockCount = scanner.blockCount;
+		this.blockStartLines = Arrays.copyOf(scanner.blockStartLines, blockCount);
+		this.blockEndLines = Arrays.copyOf(scanner.blockEndLines, blockCount);
+		this.blockLevels = Arrays.copyOf(scanner.blockLevels, blockCount);
+		this.blockParents = Arrays.copyOf(scanner.blockParents, blockCount);
+		this.innermostBlockByLine = Arrays.copyOf(scanner.innermostBlockByLine, lineCount + 1);
+
+		this.nextCloseParenLine = new int[lineCount + 2];
+		nextCloseParenLine[lineCount + 1] = -1;
+		for (int line = lineCount; line >= 1; line--) {
+			nextCloseParenLine[line] = (lineFlags[line] & CLOSE_PAREN) != 0 ? line : nextCloseParenLine[line + 1];
+		}
+	}
+
+	static SourceIndex load(String filePath) throws IOException {
+		try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size > MAPPED_THRESHOLD) {
+				return scan(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+			}
+			ByteBuffer buffer = pooledBuffer((int) size);
+			while (buffer.hasRemaining()) {
+				if (channel.read(buffer) < 0) {
+					break;
+				}
+			}
+			buffer.flip();
+			return scan(buffer);
+		}
+	}
+
+	static SourceIndex scan(ByteBuffer content) {
+		Scanner scanner = new Scanner();
+		scanner.scan(content);
+		return new SourceIndex(scanner);
+	}
+
+	int lineCount() {
+		return lineCount;
+	}
+
+	int lineOffset(int line) {
+		if (line < 1 || line > lineCount) {
+			throw new IndexOutOfBoundsException("Line " + line + " of " + lineCount);
+		}
+		return lineOffsets[line - 1];
+	}
+
+	int blockCount() {
+		return blockCount;
+	}
+
+	int blockStartLine(int block) {
+		return blockStartLines[block];
+	}
+
+	int blockEndLine(int block) {
+		return blockEndLines[block];
+	}
+
+	int blockNestingLevel(int block) {
+		return blockLevels[block];
+	}
+
+	int blockParent(int block) {
+		return blockParents[block];
+	}
+
+	/**
+	 * Returns the innermost block that spans {@code line}, preferring a block
+	 * opened on that line, or -1 when the line is outside every block.
+	 */
+	int findBlock(int line) {
+		return line >= 1 && line <= lineCount ? innermostBlockByLine[line] : -1;
+	}
+
+	/**
+	 * Returns the line that closes the signature of a function whose body or
+	 * declaration starts at {@code bodyLine}.
+	 */
+	int signatureLine(int bodyLine) {
+		if (bodyLine < 1 || bodyLine > lineCount) {
+			return bodyLine;
+		}
+		if ((lineFlags[bodyLine] & OPEN_BRACE) != 0) {
+			return (lineFlags[bodyLine] & CLOSE_PAREN) != 0 ? bodyLine : bodyLine - 1;
+		}
+		int closeParenLine = nextCloseParenLine[bodyLine];
+		return closeParenLine > 0 ? closeParenLine : bodyLine;
+	}
+
+	int blockSignatureLine(int block) {
+		return signatureLine(blockStartLines[block]);
+	}
+
+	private static ByteBuffer pooledBuffer(int size) {
+		ByteBuffer buffer = READ_BUFFER.get();
+		if (buffer.capacity() < size) {
+			buffer = ByteBuffer.allocate(Math.max(size, buffer.capacity() * 2));
+			if (buffer.capacity() <= MAX_POOLED_CAPACITY) {
+				READ_BUFFER.set(buffer);
+			}
+		}
+		buffer.clear();
+		buffer.limit(size);
+		return buffer;
+	}
+
+	private static final class Scanner {
+		private int lineCount;
+		private int[] lineOffsets = new int[256];
+		private byte[] lineFlags = new byte[258];
+		private int[] innermostBlockByLine = new int[257];
+
+		private int blockCount;
+		private int[] blockStartLines = new int[64];
+		private int[] blockEndLines = new int[64];
+		private int[] blockLevels = new int[64];
+		private int[] blockParents = new int[64];
+		private int[] blockCloseOrder = new int[64];
+		private int closedBlocks;
+
+		private int[] openBlocks = new int[32];
+		private int openCount;
+
+		void scan(ByteBuffer content) {
+			int length = content.limit();
+			int state = CODE;
+			String rawDelimiter = null;
+			int i = content.position();
+			int line = i < length ? startLine(i) : 0;
+			while (i < length) {
+				byte c = content.get(i);
+				if (c == '\n' || c == '\r') {
+					boolean continued = i > 0 && content.get(i - 1) == '\\';
+					if (c == '\r' && i + 1 < length && content.get(i + 1) == '\n') {
+						i++;
+					}
+					if (state == LINE_COMMENT || ((state == STRING || state == CHARACTER) && !continued)) {
+						state = CODE;
+					}
+					i++;
+					if (i < length) {
+						line = startLine(i);
+					}
+					continue;
+				}
+				switch (state) {
+				case CODE:
+					if (c == '/' && i + 1 < length && content.get(i + 1) == '/') {
+						state = LINE_COMMENT;
+						i++;
+					} else if (c == '/' && i + 1 < length && content.get(i + 1) == '*') {
+						state = BLOCK_COMMENT;
+						i++;
+					} else if (c == '"') {
+						rawDelimiter = rawStringDelimiter(content, i);
+						if (rawDelimiter != null) {
+							state = RAW_STRING;
+							i += rawDelimiter.length() + 1;
+						} else {
+							state = STRING;
+						}
+					} else if (c == '\'' && !isDigitSeparator(content, i)) {
+						state = CHARACTER;
+					} else if (c == '{') {
+						lineFlags[line] |= OPEN_BRACE;
+						openBlock(line);
+					} else if (c == '}') {
+						closeBlock(line);
+					} else if (c == ')') {
+						lineFlags[line] |= CLOSE_PAREN;
+					}
+					break;
+				case BLOCK_COMMENT:
+					if (c == '*' && i + 1 < length && content.get(i + 1) == '/') {
+						state = CODE;
+						i++;
+					}
+					break;
+				case STRING:
+				case CHARACTER:
+					if (c == '\\' && i + 1 < length && content.get(i + 1) != '\n' && content.get(i + 1) != '\r') {
+						i++;
+					} else if (c == (state == STRING ? '"' : '\'')) {
+						state = CODE;
+					}
+					break;
+				case RAW_STRING:
+					if (c == ')' && matchesRawTerminator(content, i, rawDelimiter)) {
+						i += rawDelimiter.length() + 1;
+						state = CODE;
+					}
+					break;
+				default:
+					break;
+				}
+				i++;
+			}
+			while (openCount > 0) {
+				int block = openBlocks[--openCount];
+				blockEndLines[block] = lineCount;
+				blockCloseOrder[block] = closedBlocks++;
+			}
+			resolveInnermostBlocks();
+		}
+
+		private int startLine(int offset) {
+			lineCount++;
+			if (lineCount > lineOffsets.length) {
+				lineOffsets = Arrays.copyOf(lineOffsets, lineOffsets.length * 2);
+				lineFlags = Arrays.copyOf(lineFlags, lineOffsets.length + 2);
+				innermostBlockByLine = Arrays.copyOf(innermostBlockByLine, lineOffsets.length + 1);
+			}
+			lineOffsets[lineCount - 1] = offset;
+			innermostBlockByLine[lineCount] = openCount > 0 ? openBlocks[openCount - 1] : -1;
+			return lineCount;
+		}
+
+		private void openBlock(int line) {
+			if (blockCount == blockStartLines.length) {
+				int capacity = blockCount * 2;
+				blockStartLines = Arrays.copyOf(blockStartLines, capacity);
+				blockEndLines = Arrays.copyOf(blockEndLines, capacity);
+				blockLevels = Arrays.copyOf(blockLevels, capacity);
+				blockParents = Arrays.copyOf(blockParents, capacity);
+				blockCloseOrder = Arrays.copyOf(blockCloseOrder, capacity);
+			}
+			if (openCount == openBlocks.length) {
+				openBlocks = Arrays.copyOf(openBlocks, openCount * 2);
+			}
+			int block = blockCount++;
+			blockStartLines[block] = line;
+			blockLevels[block] = openCount;
+			blockParents[block] = openCount > 0 ? openBlocks[openCount - 1] : -1;
+			blockCloseOrder[block] = Integer.MAX_VALUE;
+			openBlocks[openCount++] = block;
+		}
+
+		private void closeBlock(int line) {
+			if (openCount == 0) {
+				return;
+			}
+			int block = openBlocks[--openCount];
+			blockEndLines[block] = line;
+			blockCloseOrder[block] = closedBlocks++;
+		}
+
+		private void resolveInnermostBlocks() {
+			for (int block = 0; block < blockCount; block++) {
+				int line = blockStartLines[block];
+				int current = innermostBlockByLine[line];
+				if (current < 0 || blockStartLines[current] != line
+						|| blockCloseOrder[block] < blockCloseOrder[current]) {
+					innermostBlockByLine[line] = block;
+				}
+			}
+		}
+
+		private static String rawStringDelimiter(ByteBuffer content, int quote) {
+			if (quote == 0 || content.get(quote - 1) != 'R') {
+				return null;
+			}
+			int end = quote + 1;
+			while (end < content.limit() && end - quote <= 17) {
+				byte c = content.get(end);
+				if (c == '(') {
+					byte[] delimiter = new byte[end - quote - 1];
+					content.get(quote + 1, delimiter);
+					return new String(delimiter, StandardCharsets.US_ASCII);
+				}
+				if (c == ')' || c == '\\' || c == ' ' || c == '"' || c == '\n') {
+					return null;
+				}
+				end++;
+			}
+			return null;
+		}
+
+		private static boolean matchesRawTerminator(ByteBuffer content, int paren, String delimiter) {
+			int quote = paren + 1 + delimiter.length();
+			if (quote >= content.limit() || content.get(quote) != '"') {
+				return false;
+			}
+			for (int k = 0; k < delimiter.length(); k++) {
+				if (content.get(paren + 1 + k) != delimiter.charAt(k)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private static boolean isDigitSeparator(ByteBuffer content, int quote) {
+			return quote > 0 && quote + 1 < content.limit() && isHexDigit(content.get(quote - 1))
+					&& isHexDigit(content.get(quote + 1)) && precededByNumber(content, quote);
+		}
+
+		private static boolean precededByNumber(ByteBuffer content, int quote) {
+			int i = quote - 1;
+			while (i >= 0 && (isHexDigit(content.get(i)) || content.get(i) == '\'' || content.get(i) == 'x'
+					|| content.get(i) == 'X')) {
+				i--;
+			}
+			return content.get(i + 1) >= '0' && content.get(i + 1) <= '9'
+					&& (i < 0 || !Character.isJavaIdentifierPart(content.get(i)));
+		}
+
+		private static boolean isHexDigit(byte c) {
+			return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+		}
+	}
+}
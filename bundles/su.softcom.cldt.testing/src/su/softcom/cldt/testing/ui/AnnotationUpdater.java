@@ -23,8 +23,8 @@ import org.eclipse.ui.IWorkbenchWindow;
 import org.eclipse.ui.PlatformUI;
 import org.eclipse.ui.texteditor.IDocumentProvider;
 import org.eclipse.ui.texteditor.ITextEditor;
+import su.softcom.cldt.testing.core.CoverageStore;
 import su.softcom.cldt.testing.core.ReportParser;
-import su.softcom.cldt.testing.utils.CoverageUtils;
 
 public class AnnotationUpdater {
 	private static final String PLUGIN_ID = "su.softcom.cldt.testing";
@@ -110,82 +110,45 @@ public class AnnotationUpdater {
 	}
 
 	private void addLineAnnotations(IAnnotationModel model, ITextEditor editor, String filePath) {
-		List<ReportParser.LineCoverage> lines = CoverageUtils.findCoverageForFile(filePath,
-				dataManager.getCoverageData());
-		List<ReportParser.BranchCoverage> branches = CoverageUtils.findBranchCoverageForFile(filePath,
-				dataManager.getBranchCoverage());
-		if (lines != null && !lines.isEmpty()) {
-			for (ReportParser.LineCoverage line : lines) {
-				CoverageAnnotation annotation = createLineAnnotation(line, branches);
-				addAnnotationToModel(model, editor, line.lineNumber(), annotation);
+		CoverageStore.FileView file = dataManager.getFileCoverage(filePath);
+		if (file != null) {
+			for (int i = 0; i < file.functionLineCount(); i++) {
+				CoverageAnnotation annotation = createLineAnnotation(file, i);
+				addAnnotationToModel(model, editor, file.lineNumber(i), annotation);
 			}
 		}
 	}
 
-	private CoverageAnnotation createLineAnnotation(ReportParser.LineCoverage line,
-			List<ReportParser.BranchCoverage> branches) {
+	private CoverageAnnotation createLineAnnotation(CoverageStore.FileView file, int line) {
 		String type;
-		String message = "Line " + line.lineNumber() + ": ";
-		if (line.executionCount() == 0) {
+		String message = "Line " + file.lineNumber(line) + ": ";
+		if (file.lineHits(line) == 0) {
 			type = CoverageAnnotation.TYPE_NOT_COVERED_LINE;
 			message += "Not covered";
 		} else {
-			boolean hasBranches = false;
-			boolean allBranchesCovered = true;
-			boolean anyBranchCovered = false;
-			if (branches != null) {
-				for (ReportParser.BranchCoverage branch : branches) {
-					if (branch.lineNumber() == line.lineNumber()) {
-						hasBranches = true;
-						if (branch.covered()) {
-							anyBranchCovered = true;
-						} else {
-							allBranchesCovered = false;
-						}
-					}
-				}
-			}
-			type = hasBranches && anyBranchCovered && !allBranchesCovered
-					? CoverageAnnotation.TYPE_PARTIALLY_COVERED_LINE
+			boolean partiallyCovered = file.isPartiallyCovered(line);
+			type = partiallyCovered ? CoverageAnnotation.TYPE_PARTIALLY_COVERED_LINE
 					: CoverageAnnotation.TYPE_COVERED_LINE;
-			message += hasBranches && anyBranchCovered && !allBranchesCovered ? "Partially covered" : "Covered";
+			message += partiallyCovered ? "Partially covered" : "Covered";
 		}
 		return new CoverageAnnotation(type, message);
 	}
 
 	private void addBranchAnnotations(IAnnotationModel model, ITextEditor editor, String filePath) {
-		List<ReportParser.BranchCoverage> branches = CoverageUtils.findBranchCoverageForFile(filePath,
-				dataManager.getBranchCoverage());
-		if (branches != null && !branches.isEmpty()) {
-			HashMap<Integer, List<ReportParser.BranchCoverage>> branchesByLine = groupBranchesByLine(branches);
-			for (var entry : branchesByLine.entrySet()) {
-				CoverageAnnotation annotation = createBranchAnnotation(entry.getKey(), entry.getValue());
-				addAnnotationToModel(model, editor, entry.getKey(), annotation);
+		CoverageStore.FileView file = dataManager.getFileCoverage(filePath);
+		if (file != null) {
+			for (int i = 0; i < file.branchLineCount(); i++) {
+				CoverageAnnotation annotation = createBranchAnnotation(file, i);
+				addAnnotationToModel(model, editor, file.branchLineNumber(i), annotation);
 			}
 		}
 	}
 
-	private HashMap<Integer, List<ReportParser.BranchCoverage>> groupBranchesByLine(
-			List<ReportParser.BranchCoverage> branches) {
-		HashMap<Integer, List<ReportParser.BranchCoverage>> branchesByLine = new HashMap<>();
-		for (ReportParser.BranchCoverage branch : branches) {
-			branchesByLine.computeIfAbsent(branch.lineNumber(), k -> new ArrayList<>()).add(branch);
-		}
-		return branchesByLine;
-	}
-
-	private CoverageAnnotation createBranchAnnotation(int lineNumber, List<ReportParser.BranchCoverage> lineBranches) {
+	private CoverageAnnotation createBranchAnnotation(CoverageStore.FileView file, int branchLine) {
 		String type;
-		String message = "Branch at line " + lineNumber + ": ";
-		boolean anyCovered = false;
-		boolean allCovered = true;
-		for (ReportParser.BranchCoverage branch : lineBranches) {
-			if (branch.covered()) {
-				anyCovered = true;
-			} else {
-				allCovered = false;
-			}
-		}
+		String message = "Branch at line " + file.branchLineNumber(branchLine) + ": ";
+		boolean anyCovered = file.anyBranchCovered(branchLine);
+		boolean allCovered = file.allBranchesCovered(branchLine);
 		if (allCovered) {
 			type = CoverageAnnotation.TYPE_COVERED_BRANCH;
 			message += "Covered";
@@ -200,8 +163,8 @@ public class AnnotationUpdater {
 	}
 
 	private void addFunctionAnnotations(IAnnotationModel model, ITextEditor editor, String filePath) {
-		List<ReportParser.FunctionCoverage> functions = CoverageUtils.findFunctionCoverageForFile(filePath,
-				dataManager.getAnnotationFunctionCoverage());
+		CoverageStore.FileView file = dataManager.getFileCoverage(filePath);
+		List<ReportParser.FunctionCoverage> functions = file != null ? file.annotationFunctions() : null;
 		if (functions != null && !functions.isEmpty()) {
 			Map<String, List<ReportParser.FunctionCoverage>> functionsByNameAndLine = new HashMap<>();
 			for (ReportParser.FunctionCoverage function : functions) {
@@ -302,63 +265,35 @@ public class AnnotationUpdater {
 	}
 
 	private void createLineCoverageMarkers(IFile file, String filePath) throws CoreException {
-		List<ReportParser.LineCoverage> lines = CoverageUtils.findCoverageForFile(filePath,
-				dataManager.getCoverageData());
-		List<ReportParser.BranchCoverage> branches = CoverageUtils.findBranchCoverageForFile(filePath,
-				dataManager.getBranchCoverage());
-		if (lines != null && !lines.isEmpty()) {
-			for (ReportParser.LineCoverage line : lines) {
-				String message;
-				int severity;
-				if (line.executionCount() == 0) {
-					message = "Line " + line.lineNumber() + ": Not covered";
-					severity = IMarker.SEVERITY_WARNING;
-				} else {
-					boolean hasBranches = false;
-					boolean allBranchesCovered = true;
-					boolean anyBranchCovered = false;
-					if (branches != null) {
-						for (ReportParser.BranchCoverage branch : branches) {
-							if (branch.lineNumber() == line.lineNumber()) {
-								hasBranches = true;
-								if (branch.covered()) {
-									anyBranchCovered = true;
-								} else {
-									allBranchesCovered = false;
-								}
-							}
-						}
-					}
-					if (hasBranches && anyBranchCovered && !allBranchesCovered) {
-						message = "Line " + line.lineNumber() + ": Partially covered";
-						severity = IMarker.SEVERITY_WARNING;
-					} else {
-						message = "Line " + line.lineNumber() + ": Covered";
-						severity = IMarker.SEVERITY_INFO;
-					}
-				}
-				createMarker(file, line.lineNumber(), message, severity);
+		CoverageStore.FileView coverage = dataManager.getFileCoverage(filePath);
+		if (coverage == null) {
+			return;
+		}
+		for (int i = 0; i < coverage.functionLineCount(); i++) {
+			int lineNumber = coverage.lineNumber(i);
+			String message;
+			int severity;
+			if (coverage.lineHits(i) == 0) {
+				message = "Line " + lineNumber + ": Not covered";
+				severity = IMarker.SEVERITY_WARNING;
+			} else if (coverage.isPartiallyCovered(i)) {
+				message = "Line " + lineNumber + ": Partially covered";
+				severity = IMarker.SEVERITY_WARNING;
+			} else {
+				message = "Line " + lineNumber + ": Covered";
+				severity = IMarker.SEVERITY_INFO;
 			}
+			createMarker(file, lineNumber, message, severity);
 		}
 	}
 
 	private void createBranchCoverageMarkers(IFile file, String filePath) throws CoreException {
-		List<ReportParser.BranchCoverage> branches = CoverageUtils.findBranchCoverageForFile(filePath,
-				dataManager.getBranchCoverage());
-		if (branches != null && !branches.isEmpty()) {
-			HashMap<Integer, List<ReportParser.BranchCoverage>> branchesByLine = groupBranchesByLine(branches);
-			for (Map.Entry<Integer, List<ReportParser.BranchCoverage>> entry : branchesByLine.entrySet()) {
-				int lineNumber = entry.getKey();
-				List<ReportParser.BranchCoverage> lineBranches = entry.getValue();
-				boolean anyCovered = false;
-				boolean allCovered = true;
-				for (ReportParser.BranchCoverage branch : lineBranches) {
-					if (branch.covered()) {
-						anyCovered = true;
-					} else {
-						allCovered = false;
-					}
-				}
+		CoverageStore.FileView coverage = dataManager.getFileCoverage(filePath);
+		if (coverage != null) {
+			for (int i = 0; i < coverage.branchLineCount(); i++) {
+				int lineNumber = coverage.branchLineNumber(i);
+				boolean anyCovered = coverage.anyBranchCovered(i);
+				boolean allCovered = coverage.allBranchesCovered(i);
 				String message;
 				int severity;
 				if (allCovered) {
@@ -377,8 +312,8 @@ public class AnnotationUpdater {
 	}
 
 	private void createFunctionCoverageMarkers(IFile file, String filePath) throws CoreException {
-		List<ReportParser.FunctionCoverage> functions = CoverageUtils.findFunctionCoverageForFile(filePath,
-				dataManager.getAnnotationFunctionCoverage());
+		CoverageStore.FileView coverage = dataManager.getFileCoverage(filePath);
+		List<ReportParser.FunctionCoverage> functions = coverage != null ? coverage.annotationFunctions() : null;
 		if (functions != null && !functions.isEmpty()) {
 			Map<String, List<ReportParser.FunctionCoverage>> functionsByNameAndLine = new HashMap<>();
 			for (ReportParser.FunctionCoverage function : functions) {
@@ -7,6 +7,8 @@ import org.eclipse.jface.viewers.TreeViewerColumn;
 import org.eclipse.jface.viewers.ViewerCell;
 import org.eclipse.swt.SWT;
 
+import su.softcom.cldt.testing.core.CoverageStore.Counter;
+
 public class CoverageMetricAction extends Action {
 	private final CoverageResultView view;
 	private final String counter;
@@ -22,14 +24,29 @@ public class CoverageMetricAction extends Action {
 	public void run() {
 		if (!view.getSelectedCounter().equals(counter)) {
 			view.setSelectedCounter(counter);
-			view.getDataProcessor().setSelectedCounter(counter);
 			view.getAnnotationUpdater().setCurrentMetric(counter);
 			view.refreshColumns();
-			view.updateTreeWithNewMetrics();
 			view.getAnnotationUpdater().updateOpenEditors();
 		}
 	}
 
+	/**
+	 * Returns the counter of the nodes shown for a counter type of the view
+	 * menu, or {@code null} for an unknown type.
+	 */
+	public static Counter getCounter(String counterType) {
+		if (Messages.CoverageResultView_1.equals(counterType)) {
+			return Counter.LINES;
+		}
+		if (Messages.CoverageResultView_2.equals(counterType)) {
+			return Counter.BRANCHES;
+		}
+		if (Messages.CoverageResultView_3.equals(counterType)) {
+			return Counter.FUNCTIONS;
+		}
+		return null;
+	}
+
 	public static String[] getColumnNamesForCounter(String counterType) {
 		if (Messages.CoverageResultView_2.equals(counterType)) {
 			return new String[] { Messages.CoverageResultView_5, Messages.CoverageResultView_6,
@@ -46,18 +63,27 @@ public class CoverageMetricAction extends Action {
 		return new String[] {};
 	}
 
-	public static void createColumn(TreeViewer treeViewer, String title, int width, int index) {
+	public static void createColumn(TreeViewer treeViewer, String title, int width, int index, Counter counter) {
 		TreeViewerColumn column = new TreeViewerColumn(treeViewer, SWT.NONE);
 		column.getColumn().setText(title);
 		column.getColumn().setWidth(width);
 		column.setLabelProvider(new CellLabelProvider() {
 			@Override
 			public void update(ViewerCell cell) {
-				if (cell.getElement() instanceof CoverageNode node && node.getCoverageData() != null) {
-					Object[] data = node.getCoverageData();
-					cell.setText(data.length > index ? data[index].toString() : "");
+				if (cell.getElement() instanceof CoverageNode node && counter != null && node.hasCounter(counter)) {
+					cell.setText(getCounterText(node, counter, index));
 				}
 			}
 		});
 	}
-}
\ No newline at end of file
+
+	private static String getCounterText(CoverageNode node, Counter counter, int index) {
+		return switch (index) {
+		case 1 -> node.getPercentage(counter);
+		case 2 -> Integer.toString(node.getCovered(counter));
+		case 3 -> Integer.toString(node.getMissed(counter));
+		case 4 -> Integer.toString(node.getTotal(counter));
+		default -> "";
+		};
+	}
+}
@@ -3,21 +3,30 @@ package su.softcom.cldt.testing.ui;
 import java.util.ArrayList;
 import java.util.List;
 
+import su.softcom.cldt.testing.core.CoverageStore.Counter;
+
+/**
+ * Node of the coverage tree. Every node holds the covered and total counts of
+ * all counters, so switching the displayed counter only relabels the columns.
+ */
 public class CoverageNode {
 	public enum NodeType {
 		FOLDER, FILE, FUNCTION
 	}
 
+	private static final String PERCENTAGE_FORMAT = "%.2f%%";
+
 	private final String name;
 	private final NodeType type;
 	private final List<CoverageNode> children;
-	private Object[] coverageData;
+	private CoverageNode parent;
+	private final int[] counters = new int[Counter.values().length * 2];
+	private int counterMask;
 
 	public CoverageNode(String name, NodeType type) {
 		this.name = name;
 		this.type = type;
 		this.children = new ArrayList<>();
-		this.coverageData = null;
 	}
 
 	public String getName() {
@@ -32,15 +41,73 @@ public class CoverageNode {
 		return children;
 	}
 
+	/**
+	 * Returns the node this node was added to, or {@code null} for a root.
+	 */
+	public CoverageNode getParent() {
+		return parent;
+	}
+
+	/**
+	 * Returns the names of the ancestors and of this node joined with
+	 * {@code /}.
+	 */
+	public String getPath() {
+		return parent != null ? parent.getPath() + "/" + name : name;
+	}
+
 	public void addChild(CoverageNode child) {
+		child.parent = this;
 		children.add(child);
 	}
 
-	public Object[] getCoverageData() {
-		return coverageData;
+	public boolean hasCounter(Counter counter) {
+		return (counterMask & (1 << counter.ordinal())) != 0;
+	}
+
+	public int getCovered(Counter counter) {
+		return counters[counter.ordinal() * 2];
+	}
+
+	public int getTotal(Counter counter) {
+		return counters[counter.ordinal() * 2 + 1];
+	}
+
+	public int getMissed(Counter counter) {
+		return getTotal(counter) - getCovered(counter);
+	}
+
+	public String getPercentage(Counter counter) {
+		int total = getTotal(counter);
+		return String.format(PERCENTAGE_FORMAT, total > 0 ? (100.0 * getCovered(counter) / total) : 0.0);
+	}
+
+	public void setCounter(Counter counter, int covered, int total) {
+		counters[counter.ordinal() * 2] = covered;
+		counters[counter.ordinal() * 2 + 1] = total;
+		counterMask |= 1 << counter.ordinal();
+	}
+
+	/**
+	 * Adds the counters of another node, typically a child, to the counters of
+	 * this node.
+	 */
+	public void addCounters(CoverageNode node) {
+		for (int i = 0; i < counters.length; i++) {
+			counters[i] += node.counters[i];
+		}
+		counterMask |= node.counterMask;
 	}
 
-	public void setCoverageData(Object[] coverageData) {
-		this.coverageData = coverageData;
+	/**
+	 * Returns the row of a counter in the {@code [name, percentage, covered,
+	 * missed, total]} layout, or {@code null} if the node has no such counter.
+	 */
+	public Object[] getCoverageData(Counter counter) {
+		if (!hasCounter(counter)) {
+			return null;
+		}
+		return new Object[] { name, getPercentage(counter), getCovered(counter), getMissed(counter),
+				getTotal(counter) };
 	}
-}
\ No newline at end of file
+}
@@ -29,6 +29,7 @@ public class CoveragePreferencePage extends PreferencePage implements IWorkbench
 	private static final String OPEN_VIEW_AUTO = "coverage.open_view_auto";
 	private static final String GENERATE_REPORT = "coverage.generate_report";
 	private static final String CLEAN_PROFILE_DATA = "coverage.clean_profile_data";
+	private static final String JSON_EXPORT = "coverage.json_export";
 	private static final String INCLUDES = "coverage.includes";
 	private static final String EXCLUDES = "coverage.excludes";
 	private static final String LLVM_COV_PATH = "coverage.llvm_cov_path";
@@ -37,6 +38,7 @@ public class CoveragePreferencePage extends PreferencePage implements IWorkbench
 	private Button openViewAutoCheck;
 	private Button generateReportCheck;
 	private Button cleanProfileDataCheck;
+	private Button jsonExportCheck;
 	private Text includesText;
 	private Text excludesText;
 	private Text llvmCovPathText;
@@ -87,6 +89,8 @@ public class CoveragePreferencePage extends PreferencePage implements IWorkbench
 				store.getBoolean(GENERATE_REPORT));
 		cleanProfileDataCheck = createCheckbox(sessionGroup, Messages.CoveragePreferencePage_18,
 				store.getBoolean(CLEAN_PROFILE_DATA));
+		jsonExportCheck = createCheckbox(sessionGroup, Messages.CoveragePreferencePage_26,
+				store.getBoolean(JSON_EXPORT));
 	}
 
 	private void createCoverageScopeGroup(Composite parent) {
@@ -157,6 +161,7 @@ public class CoveragePreferencePage extends PreferencePage implements IWorkbench
 		openViewAutoCheck.setSelection(store.getDefaultBoolean(OPEN_VIEW_AUTO));
 		generateReportCheck.setSelection(store.getDefaultBoolean(GENERATE_REPORT));
 		cleanProfileDataCheck.setSelection(store.getDefaultBoolean(CLEAN_PROFILE_DATA));
+		jsonExportCheck.setSelection(store.getDefaultBoolean(JSON_EXPORT));
 		includesText.setText(store.getDefaultString(INCLUDES));
 		excludesText.setText(store.getDefaultString(EXCLUDES));
 		llvmCovPathText.setText(store.getDefaultString(LLVM_COV_PATH));
@@ -181,6 +186,7 @@ public class CoveragePreferencePage extends PreferencePage implements IWorkbench
 		store.setValue(OPEN_VIEW_AUTO, openViewAutoCheck.getSelection());
 		store.setValue(GENERATE_REPORT, generateReportCheck.getSelection());
 		store.setValue(CLEAN_PROFILE_DATA, cleanProfileDataCheck.getSelection());
+		store.setValue(JSON_EXPORT, jsonExportCheck.getSelection());
 		store.setValue(INCLUDES, includesText.getText());
 		store.setValue(EXCLUDES, excludesText.getText());
 		store.setValue(LLVM_COV_PATH, llvmCovPathText.getText());
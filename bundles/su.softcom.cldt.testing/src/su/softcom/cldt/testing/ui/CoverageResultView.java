@@ -1,39 +1,61 @@
 package su.softcom.cldt.testing.ui;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.ILog;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jface.action.Action;
 import org.eclipse.jface.action.IMenuManager;
 import org.eclipse.jface.action.MenuManager;
 import org.eclipse.jface.viewers.CellLabelProvider;
-import org.eclipse.jface.viewers.ITreeContentProvider;
+import org.eclipse.jface.viewers.ILazyTreeContentProvider;
 import org.eclipse.jface.viewers.TreeViewer;
 import org.eclipse.jface.viewers.TreeViewerColumn;
 import org.eclipse.jface.viewers.ViewerCell;
+import org.eclipse.osgi.util.NLS;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.dnd.Clipboard;
 import org.eclipse.swt.dnd.TextTransfer;
 import org.eclipse.swt.dnd.Transfer;
-import org.eclipse.swt.layout.FillLayout;
+import org.eclipse.swt.layout.GridData;
+import org.eclipse.swt.layout.GridLayout;
 import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Menu;
+import org.eclipse.swt.widgets.Text;
 import org.eclipse.swt.widgets.Tree;
+import org.eclipse.ui.IMemento;
+import org.eclipse.ui.IViewSite;
+import org.eclipse.ui.PartInitException;
 import org.eclipse.ui.part.ViewPart;
 import su.softcom.cldt.testing.core.CoverageDataProcessor;
+import su.softcom.cldt.testing.core.CoverageNodeIndex;
+import su.softcom.cldt.testing.core.CoveragePropertySettings;
+import su.softcom.cldt.testing.core.CoverageQuery;
 import su.softcom.cldt.testing.core.CoverageSettingsManager;
+import su.softcom.cldt.testing.core.CoverageSnapshot;
+import su.softcom.cldt.testing.core.CoverageStore.Counter;
 import su.softcom.cldt.testing.core.ReportParser;
 
 public class CoverageResultView extends ViewPart {
 	public static final String ID = "su.softcom.cldt.testing.ui.CoverageResultView";
 	private static final String PLUGIN_ID = "su.softcom.cldt.testing";
 	private static final ILog LOGGER = Platform.getLog(CoverageResultView.class);
+	private static final String MEMENTO_PROJECT = "project";
+	private static final long QUERY_DELAY_MILLIS = 150;
 
+	private Text filterText;
 	private TreeViewer treeViewer;
 	private String selectedCounter = Messages.CoverageResultView_1;
 	private CoverageDataProvider dataProvider;
@@ -41,45 +63,121 @@ public class CoverageResultView extends ViewPart {
 	private ReportParser.CoverageResult currentCoverageData;
 	private IProject project;
 	private List<CoverageNode> currentTreeNodes;
+	private CoverageNodeIndex currentIndex;
+	private List<CoverageNode> queryResults;
+	private Job queryJob;
+	private int queryGeneration;
 	private CoverageDataProcessor dataProcessor;
 	private AnnotationUpdater annotationUpdater;
+	private int treeGeneration;
+
+	@Override
+	public void init(IViewSite site, IMemento memento) throws PartInitException {
+		super.init(site, memento);
+		String projectName = memento != null ? memento.getString(MEMENTO_PROJECT) : null;
+		if (projectName != null) {
+			project = ResourcesPlugin.getWorkspace().getRoot().getProject(projectName);
+		}
+	}
+
+	@Override
+	public void saveState(IMemento memento) {
+		super.saveState(memento);
+		if (project != null) {
+			memento.putString(MEMENTO_PROJECT, project.getName());
+		}
+	}
 
 	@Override
 	public void createPartControl(Composite parent) {
-		parent.setLayout(new FillLayout());
-		dataProcessor = new CoverageDataProcessor(selectedCounter);
+		GridLayout layout = new GridLayout(1, false);
+		layout.marginWidth = 0;
+		layout.marginHeight = 0;
+		parent.setLayout(layout);
+		dataProcessor = new CoverageDataProcessor();
 		annotationUpdater = new AnnotationUpdater(CoverageDataManager.getInstance());
+		setupFilterText(parent);
 		setupTreeViewer(parent);
 		createColumns();
 		configureMenu();
 		configureContextMenu();
 		getViewSite().getPage().addPartListener(new AnnotationUpdateListener(annotationUpdater));
+		restoreSnapshot();
+	}
+
+	private void restoreSnapshot() {
+		if (project == null || !project.isAccessible() || currentCoverageData != null) {
+			return;
+		}
+		try {
+			Path snapshotPath = Paths.get(CoveragePropertySettings.getCoverageDataDir(project),
+					CoverageSnapshot.FILE_NAME);
+			if (!Files.isRegularFile(snapshotPath)) {
+				return;
+			}
+			CoverageSnapshot snapshot = CoverageSnapshot.read(snapshotPath);
+			updateCoverageResults(snapshot.store().result(), snapshot.analysisScope());
+			setAnalysisScope(snapshot.analysisScope());
+		} catch (IOException | CoreException e) {
+			LOGGER.log(new Status(IStatus.WARNING, PLUGIN_ID,
+					"Failed to restore coverage snapshot for project: " + project.getName(), e));
+		}
+	}
+
+	private void setupFilterText(Composite parent) {
+		filterText = new Text(parent, SWT.SEARCH | SWT.ICON_SEARCH | SWT.ICON_CANCEL);
+		filterText.setMessage(Messages.CoverageResultView_18);
+		filterText.setToolTipText(Messages.CoverageResultView_19);
+		filterText.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false));
+		filterText.addModifyListener(e -> scheduleQuery());
 	}
 
+	/**
+	 * Creates a virtual tree whose items are materialized only when they become
+	 * visible, so large results do not create an item for every node.
+	 */
 	private void setupTreeViewer(Composite parent) {
-		treeViewer = new TreeViewer(parent, SWT.BORDER | SWT.FULL_SELECTION);
+		treeViewer = new TreeViewer(parent, SWT.VIRTUAL | SWT.BORDER | SWT.FULL_SELECTION);
 		Tree tree = treeViewer.getTree();
 		tree.setHeaderVisible(true);
 		tree.setLinesVisible(true);
-		treeViewer.setContentProvider(new ITreeContentProvider() {
+		tree.setLayoutData(new GridData(SWT.FILL, SWT.FILL, true, true));
+		treeViewer.setUseHashlookup(true);
+		treeViewer.setContentProvider(new ILazyTreeContentProvider() {
 			@Override
-			public Object[] getElements(Object inputElement) {
-				return inputElement instanceof List<?> list ? list.toArray() : new Object[0];
+			public void updateElement(Object parentElement, int index) {
+				List<?> children = getChildren(parentElement);
+				if (index < children.size()) {
+					Object child = children.get(index);
+					treeViewer.replace(parentElement, index, child);
+					treeViewer.setChildCount(child, getChildren(child).size());
+				}
 			}
 
 			@Override
-			public Object[] getChildren(Object parentElement) {
-				return parentElement instanceof CoverageNode node ? node.getChildren().toArray() : new Object[0];
+			public void updateChildCount(Object element, int currentChildCount) {
+				int childCount = getChildren(element).size();
+				if (childCount != currentChildCount) {
+					treeViewer.setChildCount(element, childCount);
+				}
 			}
 
 			@Override
 			public Object getParent(Object element) {
+				if (queryResults != null) {
+					return queryResults;
+				}
+				if (element instanceof CoverageNode node) {
+					return node.getParent() != null ? node.getParent() : currentTreeNodes;
+				}
 				return null;
 			}
 
-			@Override
-			public boolean hasChildren(Object element) {
-				return element instanceof CoverageNode node && !node.getChildren().isEmpty();
+			private List<?> getChildren(Object element) {
+				if (element instanceof CoverageNode node) {
+					return queryResults == null ? node.getChildren() : List.of();
+				}
+				return element instanceof List<?> list ? list : List.of();
 			}
 		});
 	}
@@ -104,7 +202,7 @@ public class CoverageResultView extends ViewPart {
 			@Override
 			public void update(ViewerCell cell) {
 				if (cell.getElement() instanceof CoverageNode node) {
-					cell.setText(node.getName());
+					cell.setText(queryResults != null ? node.getPath() : node.getName());
 				}
 			}
 		});
@@ -112,9 +210,10 @@ public class CoverageResultView extends ViewPart {
 
 	private void createCounterColumns() {
 		String[] columnNames = CoverageMetricAction.getColumnNamesForCounter(selectedCounter);
+		Counter counter = CoverageMetricAction.getCounter(selectedCounter);
 		int[] columnWidths = { 250, 150, 150, 150 };
 		for (int i = 0; i < columnNames.length; i++) {
-			CoverageMetricAction.createColumn(treeViewer, columnNames[i], columnWidths[i], i + 1);
+			CoverageMetricAction.createColumn(treeViewer, columnNames[i], columnWidths[i], i + 1, counter);
 		}
 	}
 
@@ -176,6 +275,9 @@ public class CoverageResultView extends ViewPart {
 		createColumns();
 		treeViewer.getTree().setRedraw(true);
 		treeViewer.refresh();
+		if (!filterText.getText().isBlank()) {
+			scheduleQuery();
+		}
 	}
 
 	public void updateCoverageResults(ReportParser.CoverageResult coverageResults, List<String> analysisScope) {
@@ -199,12 +301,7 @@ public class CoverageResultView extends ViewPart {
 		}
 
 		CoverageDataManager.getInstance().setCoverageData(coverageResults, this.analysisScope);
-
-		Object[] expandedElements = treeViewer.getExpandedElements();
-		currentTreeNodes = dataProcessor.buildCoverageTree(coverageResults, normalizedScope);
-		treeViewer.setInput(currentTreeNodes);
-		treeViewer.setExpandedElements(expandedElements);
-		treeViewer.refresh();
+		scheduleTreeUpdate(coverageResults, normalizedScope);
 
 		annotationUpdater.setCurrentMetric(selectedCounter);
 		annotationUpdater.updateOpenEditors();
@@ -217,17 +314,90 @@ public class CoverageResultView extends ViewPart {
 		}
 	}
 
-	void updateTreeWithNewMetrics() {
-		if (treeViewer == null || treeViewer.getTree().isDisposed() || currentCoverageData == null) {
-			LOGGER.log(new Status(IStatus.WARNING, PLUGIN_ID, "Cannot update tree: treeViewer is null or disposed"));
+	/**
+	 * Builds the tree of the coverage results in a background job and shows it
+	 * once built, unless a newer tree update was scheduled in the meantime.
+	 */
+	private void scheduleTreeUpdate(ReportParser.CoverageResult coverageResults, List<String> scope) {
+		int generation = ++treeGeneration;
+		Display display = treeViewer.getTree().getDisplay();
+		Job job = Job.create(Messages.CoverageResultView_17, monitor -> {
+			List<CoverageNode> treeNodes = dataProcessor.buildCoverageTree(coverageResults, scope);
+			CoverageNodeIndex index = CoverageNodeIndex.build(treeNodes);
+			if (!display.isDisposed()) {
+				display.asyncExec(() -> showTree(generation, treeNodes, index));
+			}
+		});
+		job.setSystem(true);
+		job.schedule();
+	}
+
+	private void showTree(int generation, List<CoverageNode> treeNodes, CoverageNodeIndex index) {
+		if (generation != treeGeneration || treeViewer.getTree().isDisposed()) {
+			return;
+		}
+		currentTreeNodes = treeNodes;
+		currentIndex = index;
+		if (!filterText.getText().isBlank()) {
+			scheduleQuery();
 			return;
 		}
-
 		Object[] expandedElements = treeViewer.getExpandedElements();
-		currentTreeNodes = dataProcessor.buildCoverageTree(currentCoverageData, analysisScope);
 		treeViewer.setInput(currentTreeNodes);
 		treeViewer.setExpandedElements(expandedElements);
-		treeViewer.refresh();
+	}
+
+	/**
+	 * Runs the query of the filter bar against the node index in a background
+	 * job, shortly after the last change of the text, and shows the matching
+	 * nodes as a flat list. An empty filter shows the tree again.
+	 */
+	private void scheduleQuery() {
+		if (queryJob != null) {
+			queryJob.cancel();
+			queryJob = null;
+		}
+		int generation = ++queryGeneration;
+		CoverageQuery query;
+		try {
+			query = CoverageQuery.parse(filterText.getText());
+		} catch (IllegalArgumentException e) {
+			setContentDescription(e.getMessage());
+			return;
+		}
+		CoverageNodeIndex index = currentIndex;
+		Counter counter = CoverageMetricAction.getCounter(selectedCounter);
+		if (query.isEmpty() || index == null || counter == null) {
+			showQueryResults(generation, null);
+			return;
+		}
+
+		Display display = treeViewer.getTree().getDisplay();
+		queryJob = Job.create(Messages.CoverageResultView_20, monitor -> {
+			List<CoverageNode> results = index.query(query, counter, monitor);
+			if (!display.isDisposed()) {
+				display.asyncExec(() -> showQueryResults(generation, results));
+			}
+		});
+		queryJob.setSystem(true);
+		queryJob.schedule(QUERY_DELAY_MILLIS);
+	}
+
+	private void showQueryResults(int generation, List<CoverageNode> results) {
+		if (generation != queryGeneration || treeViewer.getTree().isDisposed()) {
+			return;
+		}
+		if (results == null) {
+			setContentDescription("");
+			if (queryResults != null) {
+				queryResults = null;
+				treeViewer.setInput(currentTreeNodes);
+			}
+			return;
+		}
+		setContentDescription(NLS.bind(Messages.CoverageResultView_21, results.size()));
+		queryResults = results;
+		treeViewer.setInput(queryResults);
 	}
 
 	public void setDataProvider(CoverageDataProvider dataProvider) {
@@ -274,6 +444,9 @@ public class CoverageResultView extends ViewPart {
 
 	@Override
 	public void dispose() {
+		if (queryJob != null) {
+			queryJob.cancel();
+		}
 		getViewSite().getPage().removePartListener(new AnnotationUpdateListener(annotationUpdater));
 		super.dispose();
 	}
@@ -21,8 +21,8 @@ import org.eclipse.core.runtime.Status;
 import org.eclipse.debug.core.ILaunchConfiguration;
 import org.eclipse.debug.core.ILaunchConfigurationWorkingCopy;
 import org.eclipse.debug.ui.AbstractLaunchConfigurationTab;
+import org.eclipse.jface.viewers.CheckboxTableViewer;
 import org.eclipse.jface.viewers.CheckboxTreeViewer;
-import org.eclipse.jface.viewers.ComboViewer;
 import org.eclipse.jface.viewers.ICheckStateListener;
 import org.eclipse.jface.viewers.ISelection;
 import org.eclipse.jface.viewers.IStructuredContentProvider;
@@ -36,10 +36,10 @@ import org.eclipse.swt.SWT;
 import org.eclipse.swt.layout.GridData;
 import org.eclipse.swt.layout.GridLayout;
 import org.eclipse.swt.widgets.Button;
-import org.eclipse.swt.widgets.Combo;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Group;
 import org.eclipse.swt.widgets.Label;
+import org.eclipse.swt.widgets.Spinner;
 import org.eclipse.swt.widgets.Text;
 import org.eclipse.swt.widgets.Tree;
 import org.eclipse.ui.IWorkbenchWindow;
@@ -55,17 +55,26 @@ public class CoverageTab extends AbstractLaunchConfigurationTab {
 	private static final String PLUGIN_ID = "su.softcom.cldt.testing";
 	private static final String PROJECT_NAME_KEY = "projectName";
 	private static final String TARGET_NAME_KEY = "targetName";
+	private static final String TARGET_NAMES_KEY = "targetNames";
 	private static final String ANALYSIS_SCOPE_KEY = "analysisScope";
 	private static final String SELECTED_FOLDERS_KEY = "selectedFolders";
+	private static final String SHARD_COUNT_KEY = "shardCount";
+	private static final String MERGE_THREADS_KEY = "mergeThreads";
+	private static final String TEST_TIMEOUT_KEY = "testTimeout";
+	private static final int MAX_SHARDS = 64;
+	private static final int MAX_MERGE_THREADS = 64;
+	private static final int MAX_TEST_TIMEOUT = 24 * 60 * 60;
 	private static final Set<String> ALLOWED_EXTENSIONS = new HashSet<>(Arrays.asList("c", "h", "cpp", "hpp", "cc",
 			"cxx", "hh", "hxx", "C", "inl", "tcc", "c++", "ipp", "cu", "cppm", "ixx", "tpp", "ihh", "cuh"));
 	private static final Set<String> EXCLUDED_FOLDERS = new HashSet<>(
 			Arrays.asList("build", "test", "tests", "unit_test", "test_suite"));
 
 	private Text projectText;
-	private ComboViewer targetComboViewer;
-	private Combo targetCombo;
+	private CheckboxTableViewer targetViewer;
 	private CheckboxTreeViewer treeViewer;
+	private Spinner shardCountSpinner;
+	private Spinner mergeThreadsSpinner;
+	private Spinner testTimeoutSpinner;
 
 	@Override
 	public void createControl(Composite parent) {
@@ -74,9 +83,26 @@ public class CoverageTab extends AbstractLaunchConfigurationTab {
 		createProjectField(composite);
 		createTargetField(composite);
 		createFileSelectionTable(composite);
+		createExecutionField(composite);
 		setControl(composite);
 	}
 
+	private void createExecutionField(Composite parent) {
+		Group executionGroup = createGroup(parent, Messages.CoverageTab_12, 2);
+		shardCountSpinner = createSpinner(executionGroup, Messages.CoverageTab_13, 1, MAX_SHARDS);
+		mergeThreadsSpinner = createSpinner(executionGroup, Messages.CoverageTab_14, 0, MAX_MERGE_THREADS);
+		testTimeoutSpinner = createSpinner(executionGroup, Messages.CoverageTab_15, 0, MAX_TEST_TIMEOUT);
+	}
+
+	private Spinner createSpinner(Group parent, String label, int minimum, int maximum) {
+		new Label(parent, SWT.NONE).setText(label);
+		Spinner spinner = new Spinner(parent, SWT.BORDER);
+		spinner.setMinimum(minimum);
+		spinner.setMaximum(maximum);
+		spinner.addModifyListener(event -> updateLaunchConfigurationDialog());
+		return spinner;
+	}
+
 	private void createProjectField(Composite parent) {
 		Group projectGroup = createGroup(parent, Messages.CoverageTab_6, 2);
 		projectText = createTextField(projectGroup);
@@ -89,11 +115,12 @@ public class CoverageTab extends AbstractLaunchConfigurationTab {
 
 	private void createTargetField(Composite parent) {
 		Group targetGroup = createGroup(parent, Messages.CoverageTab_9, 1);
-		targetComboViewer = new ComboViewer(targetGroup, SWT.READ_ONLY);
-		targetCombo = targetComboViewer.getCombo();
-		targetCombo.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false));
-		setupTargetComboViewer();
-		targetCombo.addSelectionListener(widgetSelectedAdapter(e -> updateLaunchConfigurationDialog()));
+		targetViewer = CheckboxTableViewer.newCheckList(targetGroup, SWT.BORDER | SWT.V_SCROLL);
+		GridData gridData = new GridData(SWT.FILL, SWT.FILL, true, false);
+		gridData.heightHint = 80;
+		targetViewer.getTable().setLayoutData(gridData);
+		setupTargetViewer();
+		targetViewer.addCheckStateListener(event -> updateLaunchConfigurationDialog());
 	}
 
 	private void createFileSelectionTable(Composite parent) {
@@ -305,10 +332,10 @@ public class CoverageTab extends AbstractLaunchConfigurationTab {
 		}));
 	}
 
-	private void setupTargetComboViewer() {
-		targetComboViewer.setContentProvider(
+	private void setupTargetViewer() {
+		targetViewer.setContentProvider(
 				(IStructuredContentProvider) input -> input instanceof List<?> list ? list.toArray() : new Object[0]);
-		targetComboViewer.setLabelProvider(new LabelProvider() {
+		targetViewer.setLabelProvider(new LabelProvider() {
 			@Override
 			public String getText(Object element) {
 				return element instanceof Target target ? target.getName() : super.getText(element);
@@ -319,16 +346,16 @@ public class CoverageTab extends AbstractLaunchConfigurationTab {
 	private void updateTargets() {
 		String projectName = projectText.getText();
 		if (projectName.isBlank()) {
-			targetComboViewer.setInput(null);
+			targetViewer.setInput(null);
 			treeViewer.setInput(null);
 			return;
 		}
 		ICMakeProject cmakeProject = CMakeCorePlugin.getDefault().getProject(projectName);
 		if (cmakeProject != null) {
-			targetComboViewer.setInput(cmakeProject.getTargets());
+			targetViewer.setInput(cmakeProject.getTargets());
 			treeViewer.setInput(cmakeProject.getProject());
 		} else {
-			targetComboViewer.setInput(null);
+			targetViewer.setInput(null);
 			treeViewer.setInput(null);
 		}
 	}
@@ -337,8 +364,12 @@ public class CoverageTab extends AbstractLaunchConfigurationTab {
 	public void setDefaults(ILaunchConfigurationWorkingCopy configuration) {
 		configuration.setAttribute(PROJECT_NAME_KEY, getCurrentProject());
 		configuration.setAttribute(TARGET_NAME_KEY, "");
+		configuration.setAttribute(TARGET_NAMES_KEY, new ArrayList<>());
 		configuration.setAttribute(ANALYSIS_SCOPE_KEY, new ArrayList<>());
 		configuration.setAttribute(SELECTED_FOLDERS_KEY, new ArrayList<>());
+		configuration.setAttribute(SHARD_COUNT_KEY, 1);
+		configuration.setAttribute(MERGE_THREADS_KEY, 0);
+		configuration.setAttribute(TEST_TIMEOUT_KEY, 0);
 	}
 
 	@Override
@@ -348,7 +379,18 @@ public class CoverageTab extends AbstractLaunchConfigurationTab {
 			projectText.setText(projectName);
 			updateTargets();
 			String targetName = configuration.getAttribute(TARGET_NAME_KEY, "");
-			targetCombo.setText(targetName);
+			List<String> targetNames = configuration.getAttribute(TARGET_NAMES_KEY, new ArrayList<>());
+			if (targetNames.isEmpty() && !targetName.isEmpty()) {
+				targetNames = List.of(targetName);
+			}
+			if (targetViewer.getInput() instanceof List<?> targets) {
+				for (Object target : targets) {
+					targetViewer.setChecked(target, targetNames.contains(((Target) target).getName()));
+				}
+			}
+			shardCountSpinner.setSelection(configuration.getAttribute(SHARD_COUNT_KEY, 1));
+			mergeThreadsSpinner.setSelection(configuration.getAttribute(MERGE_THREADS_KEY, 0));
+			testTimeoutSpinner.setSelection(configuration.getAttribute(TEST_TIMEOUT_KEY, 0));
 			List<String> savedFiles = configuration.getAttribute(ANALYSIS_SCOPE_KEY, new ArrayList<>());
 			List<String> savedFolders = configuration.getAttribute(SELECTED_FOLDERS_KEY, new ArrayList<>());
 			if (treeViewer.getInput() instanceof IProject project) {
@@ -412,7 +454,9 @@ public class CoverageTab extends AbstractLaunchConfigurationTab {
 	@Override
 	public void performApply(ILaunchConfigurationWorkingCopy configuration) {
 		configuration.setAttribute(PROJECT_NAME_KEY, projectText.getText());
-		configuration.setAttribute(TARGET_NAME_KEY, targetCombo.getText());
+		List<String> targetNames = getCheckedTargetNames();
+		configuration.setAttribute(TARGET_NAME_KEY, targetNames.isEmpty() ? "" : targetNames.get(0));
+		configuration.setAttribute(TARGET_NAMES_KEY, targetNames);
 		List<String> analysisScope = new ArrayList<>();
 		List<String> selectedFolders = new ArrayList<>();
 		for (Object element : treeViewer.getCheckedElements()) {
@@ -424,6 +468,17 @@ public class CoverageTab extends AbstractLaunchConfigurationTab {
 		}
 		configuration.setAttribute(ANALYSIS_SCOPE_KEY, analysisScope);
 		configuration.setAttribute(SELECTED_FOLDERS_KEY, selectedFolders);
+		configuration.setAttribute(SHARD_COUNT_KEY, shardCountSpinner.getSelection());
+		configuration.setAttribute(MERGE_THREADS_KEY, mergeThreadsSpinner.getSelection());
+		configuration.setAttribute(TEST_TIMEOUT_KEY, testTimeoutSpinner.getSelection());
+	}
+
+	private List<String> getCheckedTargetNames() {
+		List<String> targetNames = new ArrayList<>();
+		for (Object element : targetViewer.getCheckedElements()) {
+			targetNames.add(((Target) element).getName());
+		}
+		return targetNames;
 	}
 
 	@Override
@@ -451,12 +506,11 @@ public class CoverageTab extends AbstractLaunchConfigurationTab {
 	@Override
 	public boolean isValid(ILaunchConfiguration launchConfig) {
 		String projectName = projectText.getText();
-		String targetName = targetCombo.getText();
 		if (projectName.isBlank()) {
 			setErrorMessage(Messages.CoverageTab_27);
 			return false;
 		}
-		if (targetName.isBlank()) {
+		if (getCheckedTargetNames().isEmpty()) {
 			setErrorMessage(Messages.CoverageTab_28);
 			return false;
 		}
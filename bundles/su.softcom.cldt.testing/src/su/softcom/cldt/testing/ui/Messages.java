@@ -16,6 +16,7 @@ public class Messages extends NLS {
 	public static String CoveragePreferencePage_23;
 	public static String CoveragePreferencePage_24;
 	public static String CoveragePreferencePage_25;
+	public static String CoveragePreferencePage_26;
 	public static String CoveragePreferencePage_9;
 	public static String CoveragePropertyPage_10;
 	public static String CoveragePropertyPage_12;
@@ -41,12 +42,21 @@ public class Messages extends NLS {
 	public static String CoverageResultView_14;
 	public static String CoverageResultView_15;
 	public static String CoverageResultView_16;
+	public static String CoverageResultView_17;
+	public static String CoverageResultView_18;
+	public static String CoverageResultView_19;
+	public static String CoverageResultView_20;
+	public static String CoverageResultView_21;
 	public static String CoverageTab_6;
 	public static String CoverageTab_7;
 	public static String CoverageTab_8;
 	public static String CoverageTab_9;
 	public static String CoverageTab_10;
 	public static String CoverageTab_11;
+	public static String CoverageTab_12;
+	public static String CoverageTab_13;
+	public static String CoverageTab_14;
+	public static String CoverageTab_15;
 	public static String CoverageTab_25;
 	public static String CoverageTab_27;
 	public static String CoverageTab_28;
@@ -0,0 +1,131 @@
+package su.softcom.cldt.common.tests.process;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.junit.jupiter.api.Test;
+
+import su.softcom.cldt.common.process.ProcessResult;
+import su.softcom.cldt.common.process.ProcessRunner;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProcessRunnerTest {
+	private static final List<String> SLEEP_COMMAND = List.of("sleep", "30");
+
+	@Test
+	void testExecuteCapturesOutputAndExitCode() throws Exception {
+		List<String> command = List.of("sh", "-c", "echo out; echo $KEY >&2; exit 3");
+
+		ProcessResult result = new ProcessRunner(1).execute(command, Map.of("KEY", "err")).get(10, TimeUnit.SECONDS);
+
+		assertEquals(command, result.command());
+		assertEquals(3, result.exitCode());
+		assertFalse(result.isSuccess());
+		assertEquals("out\nERROR: err\n", result.output());
+	}
+
+	@Test
+	void testExecuteSpillsOutputBeyondCaptureLimit() throws Exception {
+		ProcessResult result = new ProcessRunner(1)
+				.execute(List.of("printf", "a\\nb\\nc\\nd\\n"), null, null, 4).get(10, TimeUnit.SECONDS);
+
+		String output = result.output();
+		assertTrue(output.startsWith("a\nb\n... 2 more lines in "));
+		Path spillFile = Path.of(output.substring(output.indexOf(" in ") + 4).trim());
+		assertEquals(List.of("c", "d"), Files.readAllLines(spillFile));
+	}
+
+	@Test
+	void testExecuteStreamsLines() throws Exception {
+		List<String> lines = new ArrayList<>();
+
+		ProcessResult result = new ProcessRunner(1)
+				.execute(List.of("sh", "-c", "echo first; echo second"), null, (line, error) -> lines.add(line))
+				.get(10, TimeUnit.SECONDS);
+
+		assertTrue(result.isSuccess());
+		assertEquals(List.of("first", "second"), lines);
+		assertEquals("", result.output());
+	}
+
+	@Test
+	void testPipePassesStdoutToConsumer() throws Exception {
+		AtomicReference<String> stdout = new AtomicReference<>();
+
+		ProcessResult result = new ProcessRunner(1).pipe(List.of("sh", "-c", "printf 'a\\nb\\n'; echo warning >&2"),
+				null, (InputStream in) -> stdout.set(new String(in.readAllBytes(), StandardCharsets.UTF_8)))
+				.get(10, TimeUnit.SECONDS);
+
+		assertEquals("a\nb\n", stdout.get());
+		assertEquals("ERROR: warning\n", result.output());
+	}
+
+	@Test
+	void testLimitQueuesCommandsAndCancelKillsProcess() throws Exception {
+		ProcessRunner runner = new ProcessRunner(1);
+		CompletableFuture<ProcessResult> running = runner.execute(SLEEP_COMMAND, null);
+		CompletableFuture<ProcessResult> queued = runner.execute(List.of("echo", "queued"), null);
+
+		Thread.sleep(300);
+		assertFalse(queued.isDone());
+
+		assertTrue(running.cancel(true));
+		assertEquals("queued\n", queued.get(10, TimeUnit.SECONDS).output());
+	}
+
+	@Test
+	void testTimeoutKillsProcess() {
+		CompletableFuture<ProcessResult> future = new ProcessRunner(1).execute(SLEEP_COMMAND, null,
+				Duration.ofMillis(300));
+
+		assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+			IOException thrown = assertThrows(IOException.class, () -> ProcessRunner.join(future, null));
+			assertEquals("Command timed out", thrown.getMessage());
+		});
+	}
+
+	@Test
+	void testTimeoutStartsWithProcess() throws Exception {
+		ProcessRunner runner = new ProcessRunner(1);
+		CompletableFuture<ProcessResult> running = runner.execute(List.of("sleep", "1"), null);
+		CompletableFuture<ProcessResult> queued = runner.execute(List.of("echo", "queued"), null,
+				Duration.ofMillis(500));
+
+		assertTrue(running.get(10, TimeUnit.SECONDS).isSuccess());
+		assertEquals("queued\n", queued.get(10, TimeUnit.SECONDS).output());
+	}
+
+	@Test
+	void testJoinCancelsFutureWhenMonitorIsCanceled() {
+		NullProgressMonitor monitor = new NullProgressMonitor();
+		monitor.setCanceled(true);
+		CompletableFuture<ProcessResult> future = new ProcessRunner(1).execute(SLEEP_COMMAND, null);
+
+		assertThrows(OperationCanceledException.class, () -> ProcessRunner.join(future, monitor));
+		assertTrue(future.isCancelled());
+	}
+
+	@Test
+	void testJoinReportsTimeoutAsIOException() {
+		CompletableFuture<ProcessResult> future = new ProcessRunner(1).execute(SLEEP_COMMAND, null)
+				.orTimeout(300, TimeUnit.MILLISECONDS);
+
+		assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+			IOException thrown = assertThrows(IOException.class, () -> ProcessRunner.join(future, null));
+			assertEquals("Command timed out", thrown.getMessage());
+		});
+	}
+}
@@ -1,210 +1,146 @@
 package su.softcom.cldt.testing.tests.core;
 
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.MockedConstruction;
-import org.mockito.MockitoAnnotations;
 
 import su.softcom.cldt.testing.core.CommandExecutor;
 
 import java.io.*;
-import java.lang.reflect.Method;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 public class CommandExecutorTest {
 
-	private static final List<String> TEST_COMMAND = Arrays.asList("echo", "test");
 	private static final String OUTPUT_FILE_NAME = "output.txt";
 	private static final String ENV_KEY = "KEY";
 	private static final String ENV_VALUE = "VALUE";
 
 	private CommandExecutor executor;
-	private ProcessBuilder processBuilder;
-	private Process process;
 
 	@BeforeEach
 	void setUp() {
-		MockitoAnnotations.openMocks(this);
 		executor = new CommandExecutor();
-		processBuilder = mock(ProcessBuilder.class);
-		process = mock(Process.class);
 	}
 
 	@Test
 	void testExecuteCommandWithOutputFile() throws Exception {
 		Path tempDir = Files.createTempDirectory("test");
 		String outputFile = tempDir.resolve(OUTPUT_FILE_NAME).toString();
+		StringBuilder output = new StringBuilder();
+
+		int exitCode = executor.executeCommand(List.of("sh", "-c", "echo test output; echo error output >&2"), null,
+				outputFile, output);
 
-		try (MockedConstruction<ProcessBuilder> mocked = mockConstruction(ProcessBuilder.class, (mock, context) -> {
-			when(mock.start()).thenReturn(process);
-			when(mock.redirectOutput(new File(outputFile))).thenReturn(mock);
-		})) {
-			when(process.waitFor()).thenReturn(0);
-			executor.executeCommand(TEST_COMMAND, null, outputFile);
-
-			ProcessBuilder constructed = mocked.constructed().get(0);
-			verify(constructed).redirectOutput(new File(outputFile));
-			verify(constructed).start();
-			verify(process).waitFor();
-		}
+		assertEquals(0, exitCode);
+		assertEquals(List.of("test output"), Files.readAllLines(Path.of(outputFile)));
+		assertEquals("ERROR: error output\n", output.toString());
 	}
 
 	@Test
 	void testExecuteCommandWithOutputCapture() throws Exception {
 		StringBuilder output = new StringBuilder();
-		InputStream inputStream = new ByteArrayInputStream("test output\n".getBytes());
-		InputStream errorStream = new ByteArrayInputStream("error output\n".getBytes());
-
-		try (MockedConstruction<ProcessBuilder> mocked = mockConstruction(ProcessBuilder.class, (mock, context) -> {
-			when(mock.start()).thenReturn(process);
-		})) {
-			when(process.getInputStream()).thenReturn(inputStream);
-			when(process.getErrorStream()).thenReturn(errorStream);
-			when(process.waitFor()).thenReturn(1);
-
-			int exitCode = executor.executeCommand(TEST_COMMAND, null, null, output);
-
-			assertEquals(1, exitCode);
-			assertEquals("test output\nERROR: error output\n", output.toString());
-
-			ProcessBuilder constructed = mocked.constructed().get(0);
-			verify(constructed).start();
-			verify(process).getInputStream();
-			verify(process).getErrorStream();
-			verify(process).waitFor();
-		}
+
+		int exitCode = executor.executeCommand(
+				List.of("sh", "-c", "echo test output; echo error output >&2; exit 1"), null, null, output);
+
+		assertEquals(1, exitCode);
+		assertEquals("test output\nERROR: error output\n", output.toString());
 	}
 
 	@Test
 	void testExecuteCommandWithEnvironment() throws Exception {
-		Map<String, String> env = new HashMap<>();
-		env.put(ENV_KEY, ENV_VALUE);
-		Map<String, String> pbEnv = new HashMap<>();
-
-		try (MockedConstruction<ProcessBuilder> mocked = mockConstruction(ProcessBuilder.class, (mock, context) -> {
-			when(mock.environment()).thenReturn(pbEnv);
-			when(mock.start()).thenReturn(process);
-		})) {
-			when(process.waitFor()).thenReturn(0);
-			executor.executeCommand(TEST_COMMAND, env, null, null);
-
-			assertEquals(ENV_VALUE, pbEnv.get(ENV_KEY));
-			ProcessBuilder constructed = mocked.constructed().get(0);
-			verify(constructed).environment();
-			verify(constructed).start();
-			verify(process).waitFor();
-		}
-	}
+		StringBuilder output = new StringBuilder();
 
-	@Test
-	void testExecuteCommandThrowsIOException() throws Exception {
-		try (MockedConstruction<ProcessBuilder> mocked = mockConstruction(ProcessBuilder.class, (mock, context) -> {
-			when(mock.start()).thenThrow(new IOException("Process failed"));
-		})) {
-			assertThrows(IOException.class, () -> executor.executeCommand(TEST_COMMAND, null, null, null));
-
-			ProcessBuilder constructed = mocked.constructed().get(0);
-			verify(constructed).start();
-		}
+		executor.executeCommand(List.of("sh", "-c", "echo $" + ENV_KEY), Map.of(ENV_KEY, ENV_VALUE), null, output);
+
+		assertEquals(ENV_VALUE + "\n", output.toString());
 	}
 
 	@Test
-	void testConfigureEnvironment() throws Exception {
-		Map<String, String> env = new HashMap<>();
-		env.put(ENV_KEY, ENV_VALUE);
-		Map<String, String> pbEnv = new HashMap<>();
-		when(processBuilder.environment()).thenReturn(pbEnv);
-
-		Method configureEnvironment = CommandExecutor.class.getDeclaredMethod("configureEnvironment",
-				ProcessBuilder.class, Map.class);
-		configureEnvironment.setAccessible(true);
-		configureEnvironment.invoke(executor, processBuilder, env);
-
-		assertEquals(ENV_VALUE, pbEnv.get(ENV_KEY));
-		verify(processBuilder).environment();
+	void testExecuteCommandThrowsIOException() {
+		assertThrows(IOException.class,
+				() -> executor.executeCommand(List.of("cldt-missing-command"), null, null, null));
 	}
 
 	@Test
-	void testConfigureEnvironmentWithNull() throws Exception {
-		Map<String, String> pbEnv = new HashMap<>();
-		when(processBuilder.environment()).thenReturn(pbEnv);
+	void testExecuteCommandPassesStdoutToConsumerAndFile() throws Exception {
+		String outputFile = Files.createTempDirectory("test").resolve(OUTPUT_FILE_NAME).toString();
+		StringBuilder output = new StringBuilder();
+		List<String> firstLine = new ArrayList<>();
 
-		Method configureEnvironment = CommandExecutor.class.getDeclaredMethod("configureEnvironment",
-				ProcessBuilder.class, Map.class);
-		configureEnvironment.setAccessible(true);
-		configureEnvironment.invoke(executor, processBuilder, null);
+		int exitCode = executor.executeCommand(List.of("sh", "-c", "printf 'a\\nb\\n'; echo warning >&2"), null,
+				outputFile, stdout -> firstLine.add(new BufferedReader(new InputStreamReader(stdout)).readLine()),
+				output);
 
-		assertTrue(pbEnv.isEmpty());
-		verify(processBuilder, never()).environment();
+		assertEquals(0, exitCode);
+		assertEquals(List.of("a"), firstLine);
+		assertEquals(List.of("a", "b"), Files.readAllLines(Path.of(outputFile)));
+		assertEquals("ERROR: warning\n", output.toString());
 	}
 
 	@Test
-	void testConfigureOutput() throws Exception {
-		Path tempDir = Files.createTempDirectory("test");
-		String outputFile = tempDir.resolve(OUTPUT_FILE_NAME).toString();
-
-		Method configureOutput = CommandExecutor.class.getDeclaredMethod("configureOutput", ProcessBuilder.class,
-				String.class);
-		configureOutput.setAccessible(true);
-		configureOutput.invoke(executor, processBuilder, outputFile);
-
-		verify(processBuilder).redirectOutput(new File(outputFile));
+	void testExecuteCommandKillsProcessWhenCanceled() {
+		IProgressMonitor monitor = mock(IProgressMonitor.class);
+		when(monitor.isCanceled()).thenReturn(true);
+		CommandExecutor cancelableExecutor = new CommandExecutor(monitor);
+
+		long start = System.nanoTime();
+		assertThrows(OperationCanceledException.class,
+				() -> cancelableExecutor.executeCommand(List.of("sleep", "30"), null, null, new StringBuilder()));
+		assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(10));
 	}
 
 	@Test
-	void testConfigureOutputWithNull() throws Exception {
-		Method configureOutput = CommandExecutor.class.getDeclaredMethod("configureOutput", ProcessBuilder.class,
-				String.class);
-		configureOutput.setAccessible(true);
-		configureOutput.invoke(executor, processBuilder, null);
-
-		verify(processBuilder, never()).redirectOutput(any(File.class));
+	void testExecuteCommandTimesOut() {
+		CommandExecutor timedExecutor = executor.withTimeout(Duration.ofMillis(300));
+
+		long start = System.nanoTime();
+		IOException thrown = assertThrows(IOException.class,
+				() -> timedExecutor.executeCommand(List.of("sleep", "30"), null, null, new StringBuilder()));
+		assertTrue(thrown.getMessage().startsWith("Command timed out"));
+		assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(10));
 	}
 
 	@Test
-	void testCaptureOutput() throws Exception {
+	void testExecuteCommandDrainsStderrWhileReadingStdout() {
+		List<String> command = List.of("sh", "-c", "i=0; while [ $i -lt 20000 ]; do echo error line $i >&2; "
+				+ "i=$((i+1)); done; echo done");
 		StringBuilder output = new StringBuilder();
-		InputStream inputStream = new ByteArrayInputStream("test output\n".getBytes());
-		InputStream errorStream = new ByteArrayInputStream("error output\n".getBytes());
-		when(process.getInputStream()).thenReturn(inputStream);
-		when(process.getErrorStream()).thenReturn(errorStream);
-
-		Method captureOutput = CommandExecutor.class.getDeclaredMethod("captureOutput", Process.class,
-				StringBuilder.class);
-		captureOutput.setAccessible(true);
-		captureOutput.invoke(executor, process, output);
 
-		assertEquals("test output\nERROR: error output\n", output.toString());
-		verify(process).getInputStream();
-		verify(process).getErrorStream();
+		assertTimeoutPreemptively(Duration.ofSeconds(30), () -> {
+			assertEquals(0, executor.executeCommand(command, null, null, output));
+			assertEquals(0, executor.executeCommand(command, null, null, (StringBuilder) null));
+		});
+		assertTrue(output.toString().startsWith("done\nERROR: error line 0\n"));
 	}
 
 	@Test
-	void testCaptureOutputWithNull() throws Exception {
-		Method captureOutput = CommandExecutor.class.getDeclaredMethod("captureOutput", Process.class,
-				StringBuilder.class);
-		captureOutput.setAccessible(true);
-		captureOutput.invoke(executor, process, null);
-
-		verify(process, never()).getInputStream();
-		verify(process, never()).getErrorStream();
+	void testExecuteCommandSpillsOutputBeyondCaptureLimit() throws Exception {
+		StringBuilder output = new StringBuilder();
+
+		executor.withCaptureLimit(4).executeCommand(List.of("printf", "a\\nb\\nc\\nd\\n"), null, null, output);
+
+		assertTrue(output.toString().startsWith("a\nb\n... 2 more lines in "));
+		Path spillFile = Path.of(output.substring(output.indexOf(" in ") + 4).trim());
+		assertEquals(List.of("c", "d"), Files.readAllLines(spillFile));
 	}
 
 	@Test
-	void testAppendLines() throws Exception {
-		StringBuilder output = new StringBuilder();
-		BufferedReader reader = new BufferedReader(new StringReader("line1\nline2\n"));
+	void testExecuteCommandStreamsLines() throws Exception {
+		List<String> lines = new ArrayList<>();
 
-		Method appendLines = CommandExecutor.class.getDeclaredMethod("appendLines", BufferedReader.class,
-				StringBuilder.class, String.class);
-		appendLines.setAccessible(true);
-		appendLines.invoke(executor, reader, output, "TEST: ");
+		int exitCode = executor.executeCommand(List.of("sh", "-c", "echo out; echo err >&2"), null,
+				(line, error) -> lines.add((error ? "stderr: " : "stdout: ") + line));
 
-		assertEquals("TEST: line1\nTEST: line2\n", output.toString());
+		assertEquals(0, exitCode);
+		assertEquals(Set.of("stdout: out", "stderr: err"), new HashSet<>(lines));
 	}
 }
\ No newline at end of file
@@ -10,6 +10,8 @@ import org.mockito.MockedStatic;
 import org.mockito.MockitoAnnotations;
 
 import su.softcom.cldt.testing.core.CoverageDataProcessor;
+import su.softcom.cldt.testing.core.CoverageStore.Counter;
+import su.softcom.cldt.testing.core.FunctionLineIndex;
 import su.softcom.cldt.testing.core.ReportParser;
 import su.softcom.cldt.testing.ui.CoverageNode;
 import su.softcom.cldt.testing.utils.CoverageUtils;
@@ -24,9 +26,9 @@ public class CoverageDataProcessorTest {
 
 	private static final String TEST_FILE_PATH = "test.c";
 	private static final String TEST_FUNCTION_NAME = "testFunction";
-	private static final String LINE_COUNTERS = "Line Counters";
-	private static final String BRANCH_COUNTERS = "Branch Counters";
-	private static final String FUNCTION_COUNTERS = "Function Counters";
+	private static final String LINE_COUNTERS = Counter.LINES.key();
+	private static final String BRANCH_COUNTERS = Counter.BRANCHES.key();
+	private static final String FUNCTION_COUNTERS = Counter.FUNCTIONS.key();
 
 	private CoverageDataProcessor processor;
 	@Mock
@@ -39,8 +41,7 @@ public class CoverageDataProcessorTest {
 		closeable = MockitoAnnotations.openMocks(this);
 		mockedPlatform = mockStatic(Platform.class);
 		mockedPlatform.when(() -> Platform.getLog(any(Class.class))).thenReturn(log);
-		processor = new CoverageDataProcessor(LINE_COUNTERS);
-		assertEquals(LINE_COUNTERS, processor.getSelectedCounter());
+		processor = new CoverageDataProcessor();
 	}
 
 	@AfterEach
@@ -53,12 +54,6 @@ public class CoverageDataProcessorTest {
 		}
 	}
 
-	@Test
-	void testSetAndGetSelectedCounter() {
-		processor.setSelectedCounter(BRANCH_COUNTERS);
-		assertEquals(BRANCH_COUNTERS, processor.getSelectedCounter());
-	}
-
 	@Test
 	void testBuildCoverageTreeWithEmptyScope() {
 		ReportParser.CoverageResult coverageResult = new ReportParser.CoverageResult(new HashMap<>(), new HashMap<>(),
@@ -113,162 +108,166 @@ public class CoverageDataProcessorTest {
 			assertEquals(1, result.get(0).getChildren().size());
 			assertEquals(TEST_FILE_PATH, result.get(0).getChildren().get(0).getName());
 			assertEquals(CoverageNode.NodeType.FILE, result.get(0).getChildren().get(0).getType());
+			assertEquals(5, result.get(0).getCovered(Counter.LINES));
+			assertEquals(10, result.get(0).getTotal(Counter.LINES));
 		}
 	}
 
 	@Test
-	void testGetCounterDataForLines() throws Exception {
-		processor.setSelectedCounter(LINE_COUNTERS);
-		Map<String, Object[]> counters = new HashMap<>();
-		counters.put(LINE_COUNTERS, new Object[] { TEST_FILE_PATH, "50.00%", 5, 5, 10 });
-
-		Method getCounterData = getPrivateMethod("getCounterData", Map.class, String.class);
-		Object[] result = (Object[]) getCounterData.invoke(processor, counters, TEST_FILE_PATH);
-
-		assertNotNull(result);
-		assertEquals("50.00%", result[1]);
-	}
+	void testBuildCoverageTreeSharesFolders() throws Exception {
+		try (MockedStatic<CoverageUtils> utils = mockStatic(CoverageUtils.class)) {
+			utils.when(() -> CoverageUtils.removeFirstSegment(anyString(), eq(4)))
+					.thenAnswer(invocation -> invocation.getArgument(0));
 
-	@Test
-	void testGetCounterDataWithFunctionFallback() throws Exception {
-		processor.setSelectedCounter(FUNCTION_COUNTERS);
-		Map<String, Object[]> counters = new HashMap<>();
-		counters.put(FUNCTION_COUNTERS, new Object[] { TEST_FILE_PATH, "100.00%", 1, 0, 1 });
+			Map<String, Map<String, Object[]>> fileCoverage = new HashMap<>();
+			for (String path : List.of("folder/sub/a.c", "folder/sub/b.c", "folder/c.c", "d.c")) {
+				fileCoverage.put(path, Map.of(LINE_COUNTERS, new Object[] { path, "50.00%", 1, 1, 2 }));
+			}
+			ReportParser.CoverageResult coverageResult = new ReportParser.CoverageResult(fileCoverage, new HashMap<>(),
+					new HashMap<>(), new HashMap<>(), new HashMap<>(), new HashMap<>());
+			List<String> analysisScope = List.of("folder/sub/a.c", "folder/sub/b.c", "folder/c.c", "d.c");
 
-		Method getCounterData = getPrivateMethod("getCounterData", Map.class, String.class);
-		Object[] result = (Object[]) getCounterData.invoke(processor, counters, TEST_FILE_PATH);
+			List<CoverageNode> result = processor.buildCoverageTree(coverageResult, analysisScope);
 
-		assertNotNull(result);
-		assertEquals("100.00%", result[1]);
+			assertEquals(2, result.size());
+			CoverageNode folderNode = result.stream().filter(node -> node.getName().equals("folder")).findFirst()
+					.orElseThrow();
+			assertEquals(2, folderNode.getChildren().size());
+			assertEquals(3, folderNode.getCovered(Counter.LINES));
+			assertEquals(6, folderNode.getTotal(Counter.LINES));
+			CoverageNode subfolderNode = folderNode.getChildren().stream()
+					.filter(node -> node.getType() == CoverageNode.NodeType.FOLDER).findFirst().orElseThrow();
+			assertEquals("sub", subfolderNode.getName());
+			assertEquals(2, subfolderNode.getChildren().size());
+			assertEquals(4, subfolderNode.getTotal(Counter.LINES));
+			assertNull(folderNode.getParent());
+			assertSame(folderNode, subfolderNode.getParent());
+			assertSame(subfolderNode, subfolderNode.getChildren().get(0).getParent());
+			assertEquals("folder/sub/" + subfolderNode.getChildren().get(0).getName(),
+					subfolderNode.getChildren().get(0).getPath());
+		}
 	}
 
 	@Test
-	void testGetCounterDataWithInvalidCounter() throws Exception {
-		processor.setSelectedCounter("Invalid");
-		Map<String, Object[]> counters = new HashMap<>();
+	void testBuildCoverageTreeComputesAllCounters() throws Exception {
+		try (MockedStatic<CoverageUtils> utils = mockStatic(CoverageUtils.class)) {
+			utils.when(() -> CoverageUtils.removeFirstSegment(anyString(), eq(4)))
+					.thenAnswer(invocation -> invocation.getArgument(0));
 
-		Method getCounterData = getPrivateMethod("getCounterData", Map.class, String.class);
-		Object[] result = (Object[]) getCounterData.invoke(processor, counters, TEST_FILE_PATH);
+			Map<String, Map<String, Object[]>> fileCoverage = new HashMap<>();
+			fileCoverage.put(TEST_FILE_PATH,
+					Map.of(LINE_COUNTERS, new Object[] { TEST_FILE_PATH, "50.00%", 5, 5, 10 }, BRANCH_COUNTERS,
+							new Object[] { TEST_FILE_PATH, "25.00%", 1, 3, 4 }, FUNCTION_COUNTERS,
+							new Object[] { TEST_FILE_PATH, "50.00%", 1, 1, 2 }));
+			fileCoverage.put("empty.c", Map.of());
+			ReportParser.FunctionCoverage fc = new ReportParser.FunctionCoverage(TEST_FUNCTION_NAME, List.of(), 1, 1,
+					3, 1, false);
+			ReportParser.CoverageResult coverageResult = new ReportParser.CoverageResult(fileCoverage,
+					Map.of(TEST_FILE_PATH,
+							List.of(new ReportParser.LineCoverage(2, 1), new ReportParser.LineCoverage(3, 0))),
+					new HashMap<>(), Map.of(TEST_FILE_PATH, List.of(new ReportParser.BranchCoverage(2, true))),
+					Map.of(TEST_FILE_PATH, List.of(fc)), new HashMap<>());
+
+			List<CoverageNode> result = processor.buildCoverageTree(coverageResult, List.of(TEST_FILE_PATH, "empty.c"));
 
-		assertNull(result);
+			assertEquals(1, result.size());
+			CoverageNode fileNode = result.get(0);
+			assertArrayEquals(new Object[] { TEST_FILE_PATH, "50.00%", 5, 5, 10 },
+					fileNode.getCoverageData(Counter.LINES));
+			assertArrayEquals(new Object[] { TEST_FILE_PATH, "25.00%", 1, 3, 4 },
+					fileNode.getCoverageData(Counter.BRANCHES));
+			assertArrayEquals(new Object[] { TEST_FILE_PATH, "50.00%", 1, 1, 2 },
+					fileNode.getCoverageData(Counter.FUNCTIONS));
+			CoverageNode functionNode = fileNode.getChildren().get(0);
+			assertEquals(TEST_FUNCTION_NAME, functionNode.getName());
+			assertEquals(TEST_FILE_PATH + "/" + TEST_FUNCTION_NAME, functionNode.getPath());
+			assertEquals("50.00%", functionNode.getPercentage(Counter.LINES));
+			assertEquals("100.00%", functionNode.getPercentage(Counter.BRANCHES));
+			assertEquals("100.00%", functionNode.getPercentage(Counter.FUNCTIONS));
+		}
 	}
 
 	@Test
-	void testCalculateFunctionDataForLines() throws Exception {
-		processor.setSelectedCounter(LINE_COUNTERS);
-		assertEquals(LINE_COUNTERS, processor.getSelectedCounter());
+	void testCreateFunctionNodeForLines() throws Exception {
 		ReportParser.FunctionCoverage fc = ReportParser.FunctionCoverage.create(TEST_FUNCTION_NAME, List.of(), 1, 2, 0,
 				false);
 		List<ReportParser.LineCoverage> lines = List.of(new ReportParser.LineCoverage(2, 1),
 				new ReportParser.LineCoverage(3, 0));
 
-		Method calculateFunctionData = getPrivateMethod("calculateFunctionData", ReportParser.FunctionCoverage.class,
-				List.class, List.class, String.class);
-		Object[] result = (Object[]) calculateFunctionData.invoke(processor, fc, lines, new ArrayList<>(),
-				TEST_FUNCTION_NAME);
+		CoverageNode result = createFunctionNode(fc, FunctionLineIndex.build(List.of(fc), lines, new ArrayList<>()));
 
-		assertEquals(TEST_FUNCTION_NAME, result[0]);
-		assertEquals("100.00%", result[1]);
-		assertEquals(1, result[2]);
-		assertEquals(0, result[3]);
-		assertEquals(1, result[4]);
+		assertEquals(TEST_FUNCTION_NAME, result.getName());
+		assertEquals(CoverageNode.NodeType.FUNCTION, result.getType());
+		assertArrayEquals(new Object[] { TEST_FUNCTION_NAME, "100.00%", 1, 0, 1 },
+				result.getCoverageData(Counter.LINES));
 	}
 
 	@Test
-	void testCalculateFunctionDataForLinesWithFallback() throws Exception {
-		processor.setSelectedCounter(LINE_COUNTERS);
-		assertEquals(LINE_COUNTERS, processor.getSelectedCounter());
+	void testCreateFunctionNodeForLinesWithFallback() throws Exception {
 		ReportParser.FunctionCoverage fc = ReportParser.FunctionCoverage.create(TEST_FUNCTION_NAME, List.of(), 1, 2, 0,
 				false);
 		List<ReportParser.LineCoverage> lines = List.of();
 
-		Method calculateFunctionData = getPrivateMethod("calculateFunctionData", ReportParser.FunctionCoverage.class,
-				List.class, List.class, String.class);
-		Object[] result = (Object[]) calculateFunctionData.invoke(processor, fc, lines, new ArrayList<>(),
-				TEST_FUNCTION_NAME);
+		CoverageNode result = createFunctionNode(fc, FunctionLineIndex.build(List.of(fc), lines, new ArrayList<>()));
 
-		assertEquals(TEST_FUNCTION_NAME, result[0]);
-		assertEquals("100.00%", result[1]);
-		assertEquals(1, result[2]);
-		assertEquals(0, result[3]);
-		assertEquals(1, result[4]);
+		assertArrayEquals(new Object[] { TEST_FUNCTION_NAME, "100.00%", 1, 0, 1 },
+				result.getCoverageData(Counter.LINES));
 	}
 
 	@Test
-	void testCalculateFunctionDataForBranches() throws Exception {
-		processor.setSelectedCounter(BRANCH_COUNTERS);
-		assertEquals(BRANCH_COUNTERS, processor.getSelectedCounter());
+	void testCreateFunctionNodeForBranches() throws Exception {
 		ReportParser.FunctionCoverage fc = new ReportParser.FunctionCoverage(TEST_FUNCTION_NAME, List.of(), 1, 2, 3, 0,
 				false);
 		List<ReportParser.BranchCoverage> branches = List.of(new ReportParser.BranchCoverage(2, true),
 				new ReportParser.BranchCoverage(3, false));
 
-		Method calculateFunctionData = getPrivateMethod("calculateFunctionData", ReportParser.FunctionCoverage.class,
-				List.class, List.class, String.class);
-		Object[] result = (Object[]) calculateFunctionData.invoke(processor, fc, new ArrayList<>(), branches,
-				TEST_FUNCTION_NAME);
+		CoverageNode result = createFunctionNode(fc,
+				FunctionLineIndex.build(List.of(fc), new ArrayList<>(), branches));
 
-		assertEquals(TEST_FUNCTION_NAME, result[0]);
-		assertEquals("50.00%", result[1]);
-		assertEquals(1, result[2]);
-		assertEquals(1, result[3]);
-		assertEquals(2, result[4]);
+		assertArrayEquals(new Object[] { TEST_FUNCTION_NAME, "50.00%", 1, 1, 2 },
+				result.getCoverageData(Counter.BRANCHES));
 	}
 
 	@Test
-	void testCalculateFunctionDataForFunctions() throws Exception {
-		processor.setSelectedCounter(FUNCTION_COUNTERS);
-		assertEquals(FUNCTION_COUNTERS, processor.getSelectedCounter());
+	void testCreateFunctionNodeForFunctions() throws Exception {
 		ReportParser.FunctionCoverage fc = ReportParser.FunctionCoverage.create(TEST_FUNCTION_NAME, List.of(), 1, 1, 0,
 				false);
 
-		Method calculateFunctionData = getPrivateMethod("calculateFunctionData", ReportParser.FunctionCoverage.class,
-				List.class, List.class, String.class);
-		Object[] result = (Object[]) calculateFunctionData.invoke(processor, fc, new ArrayList<>(), new ArrayList<>(),
-				TEST_FUNCTION_NAME);
+		CoverageNode result = createFunctionNode(fc,
+				FunctionLineIndex.build(List.of(fc), new ArrayList<>(), new ArrayList<>()));
 
-		assertEquals(TEST_FUNCTION_NAME, result[0]);
-		assertEquals("100.00%", result[1]);
-		assertEquals(1, result[2]);
-		assertEquals(0, result[3]);
-		assertEquals(1, result[4]);
-	}
-
-	@Test
-	void testCalculateFunctionDataWithInvalidCounter() throws Exception {
-		processor.setSelectedCounter("Invalid");
-		ReportParser.FunctionCoverage fc = ReportParser.FunctionCoverage.create(TEST_FUNCTION_NAME, List.of(), 1, 1, 0,
-				false);
-
-		Method calculateFunctionData = getPrivateMethod("calculateFunctionData", ReportParser.FunctionCoverage.class,
-				List.class, List.class, String.class);
-		Object[] result = (Object[]) calculateFunctionData.invoke(processor, fc, new ArrayList<>(), new ArrayList<>(),
-				TEST_FUNCTION_NAME);
-
-		assertEquals(TEST_FUNCTION_NAME, result[0]);
-		assertEquals("0.00%", result[1]);
-		assertEquals(0, result[2]);
-		assertEquals(0, result[3]);
-		assertEquals(0, result[4]);
+		assertArrayEquals(new Object[] { TEST_FUNCTION_NAME, "100.00%", 1, 0, 1 },
+				result.getCoverageData(Counter.FUNCTIONS));
 	}
 
 	@Test
 	void testAggregateFolderData() throws Exception {
 		CoverageNode folderNode = new CoverageNode("folder", CoverageNode.NodeType.FOLDER);
+		CoverageNode subfolderNode = new CoverageNode("subfolder", CoverageNode.NodeType.FOLDER);
 		CoverageNode fileNode = new CoverageNode(TEST_FILE_PATH, CoverageNode.NodeType.FILE);
-		fileNode.setCoverageData(new Object[] { TEST_FILE_PATH, "50.00%", 5, 5, 10 });
-		folderNode.addChild(fileNode);
+		fileNode.setCounter(Counter.LINES, 5, 10);
+		fileNode.setCounter(Counter.BRANCHES, 1, 4);
+		CoverageNode otherFileNode = new CoverageNode("other.c", CoverageNode.NodeType.FILE);
+		otherFileNode.setCounter(Counter.LINES, 3, 10);
+		subfolderNode.addChild(fileNode);
+		folderNode.addChild(subfolderNode);
+		folderNode.addChild(otherFileNode);
 
 		Method aggregateFolderData = getPrivateMethod("aggregateFolderData", Iterable.class);
 		aggregateFolderData.invoke(processor, List.of(folderNode));
 
-		Object[] result = folderNode.getCoverageData();
-		assertNotNull(result);
-		assertEquals("folder", result[0]);
-		assertEquals("50.00%", result[1]);
-		assertEquals(5, result[2]);
-		assertEquals(5, result[3]);
-		assertEquals(10, result[4]);
+		assertArrayEquals(new Object[] { "subfolder", "50.00%", 5, 5, 10 },
+				subfolderNode.getCoverageData(Counter.LINES));
+		assertArrayEquals(new Object[] { "folder", "40.00%", 8, 12, 20 }, folderNode.getCoverageData(Counter.LINES));
+		assertArrayEquals(new Object[] { "folder", "25.00%", 1, 3, 4 }, folderNode.getCoverageData(Counter.BRANCHES));
+		assertNull(folderNode.getCoverageData(Counter.FUNCTIONS));
+	}
+
+	private CoverageNode createFunctionNode(ReportParser.FunctionCoverage function, FunctionLineIndex lineIndex)
+			throws Exception {
+		Method createFunctionNode = getPrivateMethod("createFunctionNode", ReportParser.FunctionCoverage.class,
+				FunctionLineIndex.class);
+		return (CoverageNode) createFunctionNode.invoke(processor, function, lineIndex);
 	}
 
 	private Method getPrivateMethod(String methodName, Class<?>... parameterTypes) throws NoSuchMethodException {
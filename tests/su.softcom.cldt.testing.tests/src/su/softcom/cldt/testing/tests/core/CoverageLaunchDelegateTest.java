@@ -10,6 +10,8 @@ import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.MockitoAnnotations;
 
+import su.softcom.cldt.common.process.ProcessRunner;
+import su.softcom.cldt.testing.core.AnalysisScopeIndex;
 import su.softcom.cldt.testing.core.CommandExecutor;
 import su.softcom.cldt.testing.core.CoverageLaunchDelegate;
 import su.softcom.cldt.testing.core.CoverageSettingsManager;
@@ -114,9 +116,9 @@ public class CoverageLaunchDelegateTest {
 		Files.createFile(tempDir.resolve("coverage.profdata"));
 		try (MockedStatic<CoverageSettingsManager> settings = mockStatic(CoverageSettingsManager.class)) {
 			settings.when(() -> CoverageSettingsManager.getLlvmProfdataCommand()).thenReturn("llvm-profdata");
-			Method generateProfileData = getPrivateMethod("generateProfileData", CommandExecutor.class, String.class,
-					String.class);
-			generateProfileData.invoke(delegate, executor, rawProfilePath, profileDataPath);
+			Method generateProfileData = getPrivateMethod("generateProfileData", CommandExecutor.class, List.class,
+					String.class, int.class);
+			generateProfileData.invoke(delegate, executor, List.of(rawProfilePath), profileDataPath, 0);
 			verify(executor).executeCommand(
 					eq(Arrays.asList("llvm-profdata", "merge", "-sparse", rawProfilePath, "-o", profileDataPath)),
 					eq(null), eq(null), any(StringBuilder.class));
@@ -131,33 +133,69 @@ public class CoverageLaunchDelegateTest {
 		List<String> analysisScope = List.of("test.c");
 		CommandExecutor executor = mock(CommandExecutor.class);
 		Files.createFile(tempDir.resolve("coverage_report.lcov"));
-		try (MockedStatic<CoverageSettingsManager> settings = mockStatic(CoverageSettingsManager.class);
-				MockedStatic<ReportParser> parser = mockStatic(ReportParser.class)) {
+		try (MockedStatic<CoverageSettingsManager> settings = mockStatic(CoverageSettingsManager.class)) {
 			settings.when(() -> CoverageSettingsManager.getLlvmCovCommand()).thenReturn("llvm-cov");
-			parser.when(() -> ReportParser.parseLcovReport(anyList()))
-					.thenReturn(new ReportParser.CoverageResult(new HashMap<>(), new HashMap<>(), new HashMap<>(),
-							new HashMap<>(), new HashMap<>(), new HashMap<>()));
-			Method generateLcovReport = getPrivateMethod("generateLcovReport", CommandExecutor.class, String.class,
-					String.class, String.class, List.class);
-			generateLcovReport.invoke(delegate, executor, executablePath, profileDataPath, reportPath, analysisScope);
+			Method generateCoverageReport = getPrivateMethod("generateCoverageReport", CommandExecutor.class,
+					List.class, String.class, String.class, List.class, List.class, boolean.class);
+			generateCoverageReport.invoke(delegate, executor, List.of(executablePath), profileDataPath, reportPath,
+					analysisScope, List.of("/project/test.c"), false);
+			verify(executor).executeCommand(eq(Arrays.asList("llvm-cov", "export", executablePath,
+					"-instr-profile=" + profileDataPath, "--format=lcov", "/project/test.c")), eq(null),
+					eq(reportPath), any(ProcessRunner.OutputConsumer.class), any(StringBuilder.class));
 			verify(executor).executeCommand(eq(Arrays.asList("llvm-cov", "export", executablePath,
 					"-instr-profile=" + profileDataPath, "--format=lcov")), eq(null), eq(reportPath),
-					any(StringBuilder.class));
+					any(ProcessRunner.OutputConsumer.class), any(StringBuilder.class));
 		}
 	}
 
 	@Test
-	void testFilterLcovReport() throws Exception {
-		List<String> reportLines = List.of("SF:/path/test.c", "DA:1,1", "end_of_record", "SF:/path/other.c", "DA:1,0",
-				"end_of_record");
+	void testGenerateJsonReport() throws Exception {
+		String executablePath = tempDir.resolve(EXECUTABLE_PATH).toString();
+		String profileDataPath = tempDir.resolve("coverage.profdata").toString();
+		String reportPath = tempDir.resolve("coverage_report.json").toString();
 		List<String> analysisScope = List.of("test.c");
-		Method filterLcovReport = getPrivateMethod("filterLcovReport", List.class, List.class);
-		@SuppressWarnings("unchecked")
-		List<String> result = (List<String>) filterLcovReport.invoke(delegate, reportLines, analysisScope);
-		assertEquals(3, result.size());
-		assertEquals("SF:/path/test.c", result.get(0));
-		assertEquals("DA:1,1", result.get(1));
-		assertEquals("end_of_record", result.get(2));
+		CommandExecutor executor = mock(CommandExecutor.class);
+		Files.createFile(tempDir.resolve("coverage_report.json"));
+		try (MockedStatic<CoverageSettingsManager> settings = mockStatic(CoverageSettingsManager.class)) {
+			settings.when(() -> CoverageSettingsManager.getLlvmCovCommand()).thenReturn("llvm-cov");
+			Method generateCoverageReport = getPrivateMethod("generateCoverageReport", CommandExecutor.class,
+					List.class, String.class, String.class, List.class, List.class, boolean.class);
+			generateCoverageReport.invoke(delegate, executor, List.of(executablePath), profileDataPath, reportPath,
+					analysisScope, List.of(), true);
+			verify(executor).executeCommand(eq(Arrays.asList("llvm-cov", "export", executablePath,
+					"-instr-profile=" + profileDataPath, "--format=text")), eq(null), eq(reportPath),
+					any(ProcessRunner.OutputConsumer.class), any(StringBuilder.class));
+		}
+	}
+
+	@Test
+	void testGenerateReportForMultipleExecutables() throws Exception {
+		String executablePath = tempDir.resolve(EXECUTABLE_PATH).toString();
+		String otherExecutablePath = tempDir.resolve("other_test").toString();
+		String profileDataPath = tempDir.resolve("coverage.profdata").toString();
+		String reportPath = tempDir.resolve("coverage_report.lcov").toString();
+		CommandExecutor executor = mock(CommandExecutor.class);
+		Files.createFile(tempDir.resolve("coverage_report.lcov"));
+		try (MockedStatic<CoverageSettingsManager> settings = mockStatic(CoverageSettingsManager.class)) {
+			settings.when(() -> CoverageSettingsManager.getLlvmCovCommand()).thenReturn("llvm-cov");
+			Method generateCoverageReport = getPrivateMethod("generateCoverageReport", CommandExecutor.class,
+					List.class, String.class, String.class, List.class, List.class, boolean.class);
+			generateCoverageReport.invoke(delegate, executor, List.of(executablePath, otherExecutablePath),
+					profileDataPath, reportPath, List.of("test.c"), List.of(), false);
+			verify(executor).executeCommand(eq(Arrays.asList("llvm-cov", "export", executablePath,
+					"-object=" + otherExecutablePath, "-instr-profile=" + profileDataPath, "--format=lcov")),
+					eq(null), eq(reportPath), any(ProcessRunner.OutputConsumer.class), any(StringBuilder.class));
+		}
+	}
+
+	@Test
+	void testIsInAnalysisScope() {
+		AnalysisScopeIndex scopeIndex = new AnalysisScopeIndex(List.of("test.c", "src\\util.c"));
+		assertTrue(scopeIndex.contains("/path/test.c"));
+		assertTrue(scopeIndex.contains("test.c"));
+		assertFalse(scopeIndex.contains("/path/other.c"));
+		assertTrue(scopeIndex.contains("C:\\project\\src\\util.c"));
+		assertFalse(scopeIndex.contains("/path/latest.c"));
 	}
 
 	@Test
@@ -0,0 +1,106 @@
+package su.softcom.cldt.testing.tests.core;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import su.softcom.cldt.testing.core.CoverageNodeIndex;
+import su.softcom.cldt.testing.core.CoverageQuery;
+import su.softcom.cldt.testing.core.CoverageStore.Counter;
+import su.softcom.cldt.testing.ui.CoverageNode;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CoverageNodeIndexTest {
+	private CoverageNode folder;
+	private CoverageNode file;
+	private CoverageNode small;
+	private CoverageNode large;
+	private CoverageNode covered;
+	private CoverageNodeIndex index;
+
+	private static CoverageNode node(String name, CoverageNode.NodeType type, int covered, int total) {
+		CoverageNode node = new CoverageNode(name, type);
+		node.setCounter(Counter.LINES, covered, total);
+		return node;
+	}
+
+	@BeforeEach
+	void setUp() {
+		folder = node("src", CoverageNode.NodeType.FOLDER, 12, 30);
+		file = node("main.c", CoverageNode.NodeType.FILE, 12, 30);
+		small = node("parse", CoverageNode.NodeType.FUNCTION, 1, 4);
+		large = node("main", CoverageNode.NodeType.FUNCTION, 6, 20);
+		covered = node("mainHelper", CoverageNode.NodeType.FUNCTION, 5, 6);
+		file.addChild(small);
+		file.addChild(large);
+		file.addChild(covered);
+		folder.addChild(file);
+		index = CoverageNodeIndex.build(List.of(folder));
+	}
+
+	private List<CoverageNode> query(String text) {
+		return index.query(CoverageQuery.parse(text), Counter.LINES, null);
+	}
+
+	@Test
+	void testBuild_IndexesAllNodes() {
+		assertEquals(5, index.size());
+		assertEquals(List.of(folder, file, small, large, covered), query("top:9"));
+		assertEquals(List.of(folder, file), query("top:2"));
+	}
+
+	@Test
+	void testQuery_TopMissedFunctions() {
+		assertEquals(List.of(large, small), query("type:function sort:missed top:2"));
+	}
+
+	@Test
+	void testQuery_DescendingTiesKeepTreeOrder() {
+		CoverageNode first = node("first", CoverageNode.NodeType.FUNCTION, 0, 5);
+		CoverageNode second = node("second", CoverageNode.NodeType.FUNCTION, 0, 5);
+		CoverageNode third = node("third", CoverageNode.NodeType.FUNCTION, 0, 5);
+		CoverageNodeIndex ties = CoverageNodeIndex.build(List.of(first, second, third));
+
+		assertEquals(List.of(first, second), ties.query(CoverageQuery.parse("sort:missed top:2"), Counter.LINES, null));
+		assertEquals(List.of(first, second, third),
+				ties.query(CoverageQuery.parse("sort:total"), Counter.LINES, null));
+		assertEquals(List.of(first, second, third), ties.query(CoverageQuery.parse("sort:pct"), Counter.LINES, null));
+	}
+
+	@Test
+	void testQuery_LowestPercentageFirst() {
+		assertEquals(List.of(small, large, covered), query("type:function sort:pct"));
+	}
+
+	@Test
+	void testQuery_RangeWithoutSortKeepsTreeOrder() {
+		assertEquals(List.of(folder, file, small, large), query("pct<60"));
+		assertEquals(List.of(small, large), query("type:function pct<60"));
+	}
+
+	@Test
+	void testQuery_CombinesRangesAndNames() {
+		assertEquals(List.of(large), query("main total>=10 type:function"));
+		assertEquals(List.of(covered), query("HELPER"));
+		assertEquals(List.of(), query("missed>100"));
+	}
+
+	@Test
+	void testQuery_SkipsNodesWithoutCounter() {
+		assertEquals(List.of(), index.query(CoverageQuery.parse("pct<100"), Counter.BRANCHES, null));
+		assertEquals(List.of(covered), index.query(CoverageQuery.parse("helper"), Counter.BRANCHES, null));
+	}
+
+	@Test
+	void testQuery_CanceledMonitor() {
+		NullProgressMonitor monitor = new NullProgressMonitor();
+		monitor.setCanceled(true);
+
+		assertThrows(OperationCanceledException.class,
+				() -> index.query(CoverageQuery.parse("sort:missed"), Counter.LINES, monitor));
+	}
+}
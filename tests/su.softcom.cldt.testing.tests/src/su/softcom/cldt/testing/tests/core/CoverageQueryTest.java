@@ -0,0 +1,50 @@
+package su.softcom.cldt.testing.tests.core;
+
+import org.junit.jupiter.api.Test;
+
+import su.softcom.cldt.testing.core.CoverageQuery;
+import su.softcom.cldt.testing.ui.CoverageNode;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CoverageQueryTest {
+
+	@Test
+	void testParse_AllTerms() {
+		CoverageQuery query = CoverageQuery.parse("  type:Function Main sort:missed top:50 pct<60.5 missed>=3 ");
+
+		assertEquals(CoverageNode.NodeType.FUNCTION, query.type());
+		assertEquals(List.of("main"), query.names());
+		assertEquals(CoverageQuery.Key.MISSED, query.sortKey());
+		assertEquals(50, query.limit());
+		assertEquals(List.of(new CoverageQuery.Range(CoverageQuery.Key.PERCENTAGE, Integer.MIN_VALUE, 6049),
+				new CoverageQuery.Range(CoverageQuery.Key.MISSED, 3, Integer.MAX_VALUE)), query.ranges());
+		assertFalse(query.isEmpty());
+	}
+
+	@Test
+	void testParse_RangeOperators() {
+		assertEquals(new CoverageQuery.Range(CoverageQuery.Key.TOTAL, Integer.MIN_VALUE, 10),
+				CoverageQuery.parse("total<=10").ranges().get(0));
+		assertEquals(new CoverageQuery.Range(CoverageQuery.Key.TOTAL, 11, Integer.MAX_VALUE),
+				CoverageQuery.parse("total>10").ranges().get(0));
+		assertEquals(new CoverageQuery.Range(CoverageQuery.Key.MISSED, 0, 0),
+				CoverageQuery.parse("missed=0").ranges().get(0));
+	}
+
+	@Test
+	void testParse_BlankTextIsEmpty() {
+		assertTrue(CoverageQuery.parse("").isEmpty());
+		assertTrue(CoverageQuery.parse("   ").isEmpty());
+	}
+
+	@Test
+	void testParse_RejectsMalformedTerms() {
+		assertThrows(IllegalArgumentException.class, () -> CoverageQuery.parse("type:class"));
+		assertThrows(IllegalArgumentException.class, () -> CoverageQuery.parse("sort:name"));
+		assertThrows(IllegalArgumentException.class, () -> CoverageQuery.parse("top:0"));
+		assertThrows(IllegalArgumentException.class, () -> CoverageQuery.parse("top:many"));
+	}
+}
@@ -0,0 +1,86 @@
+package su.softcom.cldt.testing.tests.core;
+
+import org.junit.jupiter.api.Test;
+
+import su.softcom.cldt.testing.core.CoverageSnapshot;
+import su.softcom.cldt.testing.core.CoverageStore;
+import su.softcom.cldt.testing.core.ReportParser;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CoverageSnapshotTest {
+	private static final String FILE = "/path/to/file.cpp";
+	private static final String OTHER_FILE = "/path/to/other.cpp";
+
+	private static CoverageStore createStore() {
+		Map<String, Map<String, Object[]>> fileCoverage = new HashMap<>();
+		fileCoverage.put(FILE, Map.of("Lines", new Object[] { FILE, "75.00%", 3, 1, 4 }, "Branches",
+				new Object[] { FILE, "50.00%", 1, 1, 2 }));
+		fileCoverage.put(OTHER_FILE, Map.of("Lines", new Object[] { OTHER_FILE, "0.00%", 0, 1, 1 }));
+		Map<String, List<ReportParser.LineCoverage>> lineCoverage = new HashMap<>();
+		lineCoverage.put(FILE, List.of(new ReportParser.LineCoverage(2, 5), new ReportParser.LineCoverage(3, 5),
+				new ReportParser.LineCoverage(4, 0)));
+		Map<String, List<ReportParser.LineCoverage>> nonFunctionLineCoverage = new HashMap<>();
+		nonFunctionLineCoverage.put(FILE, List.of(new ReportParser.LineCoverage(9, 1)));
+		nonFunctionLineCoverage.put(OTHER_FILE, List.of(new ReportParser.LineCoverage(1, 0)));
+		Map<String, List<ReportParser.BranchCoverage>> branchCoverage = new HashMap<>();
+		branchCoverage.put(FILE,
+				List.of(new ReportParser.BranchCoverage(3, true), new ReportParser.BranchCoverage(3, false)));
+		ReportParser.FunctionCoverage function = new ReportParser.FunctionCoverage("ns::f(int)",
+				List.of("_ZN2ns1fEi", "_ZN2ns1fEi.cold"), 5, 2, 4, 1, false);
+		Map<String, List<ReportParser.FunctionCoverage>> functionCoverage = new HashMap<>();
+		functionCoverage.put(FILE, List.of(function));
+		Map<String, List<ReportParser.FunctionCoverage>> annotationFunctionCoverage = new HashMap<>();
+		annotationFunctionCoverage.put(FILE, List.of(function,
+				new ReportParser.FunctionCoverage("ns::f(int)::{lambda()#1}", List.of("_ZZN2ns1fEiENKUlvE_clEv"), 0,
+						3, 3, 3, true)));
+		return CoverageStore.of(new ReportParser.CoverageResult(fileCoverage, lineCoverage, nonFunctionLineCoverage,
+				branchCoverage, functionCoverage, annotationFunctionCoverage));
+	}
+
+	@Test
+	void testWriteAndRead_RoundTrip() throws IOException {
+		CoverageStore store = createStore();
+		Path snapshotFile = Files.createTempDirectory("test").resolve(CoverageSnapshot.FILE_NAME);
+
+		CoverageSnapshot.write(snapshotFile, store, List.of("to/file.cpp", "to/other.cpp"));
+		CoverageSnapshot snapshot = CoverageSnapshot.read(snapshotFile);
+		ReportParser.CoverageResult expected = store.result();
+		ReportParser.CoverageResult actual = snapshot.store().result();
+
+		assertEquals(List.of("to/file.cpp", "to/other.cpp"), snapshot.analysisScope());
+		assertEquals(2, snapshot.store().fileCount());
+		assertEquals(2, actual.lineCoverage().size());
+		assertFalse(actual.branchCoverage().isEmpty());
+		assertEquals(expected.lineCoverage(), actual.lineCoverage());
+		assertEquals(expected.nonFunctionLineCoverage(), actual.nonFunctionLineCoverage());
+		assertEquals(expected.branchCoverage(), actual.branchCoverage());
+		assertEquals(expected.functionCoverage(), actual.functionCoverage());
+		assertEquals(expected.annotationFunctionCoverage(), actual.annotationFunctionCoverage());
+		for (String file : List.of(FILE, OTHER_FILE)) {
+			assertEquals(expected.fileCoverage().get(file).keySet(), actual.fileCoverage().get(file).keySet());
+			assertArrayEquals(expected.fileCoverage().get(file).get("Lines"), actual.fileCoverage().get(file).get("Lines"));
+		}
+
+		CoverageStore.FileView file = snapshot.store().findFile("to/file.cpp");
+		assertNotNull(file.lineIndex());
+		assertEquals(1, file.lineIndex().coveredBranchCount(2, 4));
+		assertNull(snapshot.store().findFile("to/other.cpp").lineIndex());
+	}
+
+	@Test
+	void testRead_RejectsUnknownFile() throws IOException {
+		Path snapshotFile = Files.createTempFile("coverage_snapshot", ".bin");
+		Files.write(snapshotFile, new byte[] { 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19, 20,
+				21, 22, 23, 24, 25, 26, 27, 28 });
+
+		assertThrows(IOException.class, () -> CoverageSnapshot.read(snapshotFile));
+	}
+}
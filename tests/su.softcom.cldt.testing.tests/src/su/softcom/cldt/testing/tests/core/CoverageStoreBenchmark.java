@@ -0,0 +1,128 @@
+package su.softcom.cldt.testing.tests.core;
+
+import su.softcom.cldt.testing.core.CoverageSnapshot;
+import su.softcom.cldt.testing.core.CoverageStore;
+import su.softcom.cldt.testing.core.ReportParser;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares the heap held by the boxed map-of-records layout with the columnar
+ * store for a synthetic report, then times a snapshot round trip of the store.
+ * Run as a Java application with a heap large enough for both layouts, for
+ * example {@code -Xmx2g}.
+ */
+public class CoverageStoreBenchmark {
+	private static final int FILES = 20_000;
+	private static final int FUNCTIONS_PER_FILE = 10;
+	private static final int LINES_PER_FUNCTION = 12;
+	private static final int NON_FUNCTION_LINES = 30;
+	private static final int BRANCHES_PER_FUNCTION = 4;
+
+	public static void main(String[] args) throws IOException {
+		long baseline = usedMemory();
+		ReportParser.CoverageResult boxed = createBoxedResult();
+		long boxedBytes = usedMemory() - baseline;
+
+		CoverageStore store = CoverageStore.of(boxed);
+		int lines = 0;
+		for (List<ReportParser.LineCoverage> fileLines : boxed.lineCoverage().values()) {
+			lines += fileLines.size();
+		}
+		for (List<ReportParser.LineCoverage> fileLines : boxed.nonFunctionLineCoverage().values()) {
+			lines += fileLines.size();
+		}
+		boxed = null;
+		long storeBytes = usedMemory() - baseline;
+
+		System.out.printf("%d files, %d line records%n", store.fileCount(), lines);
+		report("boxed maps", boxedBytes);
+		report("columnar store", storeBytes);
+
+		Path snapshotFile = Files.createTempDirectory("coverage").resolve(CoverageSnapshot.FILE_NAME);
+		long start = System.nanoTime();
+		CoverageSnapshot.write(snapshotFile, store, List.of());
+		long writeNanos = System.nanoTime() - start;
+		start = System.nanoTime();
+		CoverageSnapshot snapshot = CoverageSnapshot.read(snapshotFile);
+		long readNanos = System.nanoTime() - start;
+		start = System.nanoTime();
+		CoverageStore.FileView file = snapshot.store().findFile("/file" + (FILES - 1) + ".cpp");
+		long fileNanos = System.nanoTime() - start;
+		System.out.printf("snapshot: %.1f MB, write %.1f ms, open %.1f ms, first file %.3f ms (%d lines)%n",
+				Files.size(snapshotFile) / (1024.0 * 1024.0), writeNanos / 1e6, readNanos / 1e6, fileNanos / 1e6,
+				file.lineCount());
+		Files.delete(snapshotFile);
+	}
+
+	private static ReportParser.CoverageResult createBoxedResult() {
+		Map<String, Map<String, Object[]>> fileCoverage = new HashMap<>();
+		Map<String, List<ReportParser.LineCoverage>> lineCoverage = new HashMap<>();
+		Map<String, List<ReportParser.LineCoverage>> nonFunctionLineCoverage = new HashMap<>();
+		Map<String, List<ReportParser.BranchCoverage>> branchCoverage = new HashMap<>();
+		Map<String, List<ReportParser.FunctionCoverage>> functionCoverage = new HashMap<>();
+		Map<String, List<ReportParser.FunctionCoverage>> annotationFunctionCoverage = new HashMap<>();
+		for (int file = 0; file < FILES; file++) {
+			String path = "/workspace/project/src/module" + (file / 100) + "/file" + file + ".cpp";
+			List<ReportParser.LineCoverage> lines = new ArrayList<>();
+			List<ReportParser.LineCoverage> nonFunctionLines = new ArrayList<>();
+			List<ReportParser.BranchCoverage> branches = new ArrayList<>();
+			List<ReportParser.FunctionCoverage> functions = new ArrayList<>();
+			List<ReportParser.FunctionCoverage> annotationFunctions = new ArrayList<>();
+			int line = 1;
+			for (int i = 0; i < NON_FUNCTION_LINES; i++) {
+				nonFunctionLines.add(new ReportParser.LineCoverage(line++, i % 3));
+			}
+			for (int function = 0; function < FUNCTIONS_PER_FILE; function++) {
+				int startLine = line;
+				for (int i = 0; i < LINES_PER_FUNCTION; i++) {
+					lines.add(new ReportParser.LineCoverage(line++, (file + function + i) % 4));
+				}
+				for (int i = 0; i < BRANCHES_PER_FUNCTION; i++) {
+					branches.add(new ReportParser.BranchCoverage(startLine + i, (function + i) % 3 != 0));
+				}
+				String name = "ns::Class" + file + "::method" + function + "(int)";
+				String mangledName = "_ZN2ns" + file + "Class7method" + function + "Ei";
+				ReportParser.FunctionCoverage coverage = new ReportParser.FunctionCoverage(name, List.of(mangledName),
+						function % 2, startLine, line - 1, startLine, false);
+				functions.add(coverage);
+				annotationFunctions.add(coverage);
+			}
+			Map<String, Object[]> counters = new HashMap<>();
+			counters.put("Lines", row(path, lines.size() / 2, lines.size() + nonFunctionLines.size()));
+			counters.put("Branches", row(path, branches.size() / 2, branches.size()));
+			counters.put("Functions", row(path, functions.size() / 2, functions.size()));
+			fileCoverage.put(path, counters);
+			lineCoverage.put(path, lines);
+			nonFunctionLineCoverage.put(path, nonFunctionLines);
+			branchCoverage.put(path, branches);
+			functionCoverage.put(path, functions);
+			annotationFunctionCoverage.put(path, annotationFunctions);
+		}
+		return new ReportParser.CoverageResult(fileCoverage, lineCoverage, nonFunctionLineCoverage, branchCoverage,
+				functionCoverage, annotationFunctionCoverage);
+	}
+
+	private static Object[] row(String path, int covered, int total) {
+		return new Object[] { path, String.format("%.2f%%", 100.0 * covered / total), covered, total - covered,
+				total };
+	}
+
+	private static long usedMemory() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 5; i++) {
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	private static void report(String label, long bytes) {
+		System.out.printf("%s: %.1f MB%n", label, bytes / (1024.0 * 1024.0));
+	}
+}
@@ -0,0 +1,122 @@
+package su.softcom.cldt.testing.tests.core;
+
+import org.junit.jupiter.api.Test;
+
+import su.softcom.cldt.testing.core.CoverageStore;
+import su.softcom.cldt.testing.core.ReportParser;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CoverageStoreTest {
+	private static final String FILE = "/path/to/file.c";
+
+	private static ReportParser.CoverageResult createResult() {
+		Map<String, Map<String, Object[]>> fileCoverage = new HashMap<>();
+		fileCoverage.put(FILE, Map.of("Lines", new Object[] { FILE, "66.67%", 2, 1, 3 }));
+		Map<String, List<ReportParser.LineCoverage>> lineCoverage = new HashMap<>();
+		lineCoverage.put(FILE, List.of(new ReportParser.LineCoverage(2, 4), new ReportParser.LineCoverage(3, 0)));
+		Map<String, List<ReportParser.LineCoverage>> nonFunctionLineCoverage = new HashMap<>();
+		nonFunctionLineCoverage.put(FILE, List.of(new ReportParser.LineCoverage(10, 1)));
+		Map<String, List<ReportParser.BranchCoverage>> branchCoverage = new HashMap<>();
+		branchCoverage.put(FILE,
+				List.of(new ReportParser.BranchCoverage(3, true), new ReportParser.BranchCoverage(3, false)));
+		Map<String, List<ReportParser.FunctionCoverage>> functionCoverage = new HashMap<>();
+		functionCoverage.put(FILE,
+				List.of(new ReportParser.FunctionCoverage("main", List.of("main"), 4, 1, 4, 1, false),
+						new ReportParser.FunctionCoverage("lambda", List.of("_ZZ4mainENK3$_0clEv", "_ZZ4mainE3$_1"), 0,
+								3, 3, 3, true)));
+		return new ReportParser.CoverageResult(fileCoverage, lineCoverage, nonFunctionLineCoverage, branchCoverage,
+				functionCoverage, new HashMap<>());
+	}
+
+	@Test
+	void testOf_CopiesMapsIntoColumns() {
+		ReportParser.CoverageResult source = createResult();
+		CoverageStore store = CoverageStore.of(source);
+
+		assertEquals(1, store.fileCount());
+		CoverageStore.FileView file = store.file(0);
+		assertEquals(FILE, file.path());
+		assertEquals(3, file.lineCount());
+		assertEquals(2, file.functionLineCount());
+		assertEquals(3, file.lineNumber(1));
+		assertEquals(0, file.lineHits(1));
+		assertEquals(10, file.lineNumber(2));
+		assertEquals(2, file.branchCount());
+		assertTrue(file.branchCovered(0));
+		assertFalse(file.branchCovered(1));
+
+		assertTrue(file.hasCounter(CoverageStore.Counter.LINES));
+		assertFalse(file.hasCounter(CoverageStore.Counter.BRANCHES));
+		assertEquals(2, file.covered(CoverageStore.Counter.LINES));
+		assertEquals(3, file.total(CoverageStore.Counter.LINES));
+		assertArrayEquals(new Object[] { FILE, String.format("%.2f%%", 200.0 / 3), 2, 1, 3 },
+				file.counterRows().get("Lines"));
+
+		CoverageStore.FunctionTable functions = file.functions();
+		assertEquals(2, functions.size());
+		assertEquals("lambda", functions.name(1));
+		assertEquals(List.of("_ZZ4mainENK3$_0clEv", "_ZZ4mainE3$_1"), functions.mangledNames(1));
+		assertTrue(functions.isLambda(1));
+		assertEquals(4, functions.executionCount(0));
+		assertTrue(file.annotationFunctions().isEmpty());
+	}
+
+	@Test
+	void testOf_SummarizesBranchesPerLine() {
+		Map<String, List<ReportParser.BranchCoverage>> branchCoverage = Map.of(FILE,
+				List.of(new ReportParser.BranchCoverage(10, true), new ReportParser.BranchCoverage(3, true),
+						new ReportParser.BranchCoverage(7, false), new ReportParser.BranchCoverage(3, false),
+						new ReportParser.BranchCoverage(10, true)));
+		Map<String, List<ReportParser.LineCoverage>> lineCoverage = Map.of(FILE, List.of(
+				new ReportParser.LineCoverage(3, 1), new ReportParser.LineCoverage(7, 1),
+				new ReportParser.LineCoverage(8, 1), new ReportParser.LineCoverage(10, 1)));
+		CoverageStore.FileView file = CoverageStore.of(new ReportParser.CoverageResult(new HashMap<>(), lineCoverage,
+				new HashMap<>(), branchCoverage, new HashMap<>(), new HashMap<>())).file(0);
+
+		assertEquals(3, file.branchLineCount());
+		assertEquals(3, file.branchLineNumber(0));
+		assertTrue(file.anyBranchCovered(0));
+		assertFalse(file.allBranchesCovered(0));
+		assertEquals(7, file.branchLineNumber(1));
+		assertFalse(file.anyBranchCovered(1));
+		assertFalse(file.allBranchesCovered(1));
+		assertEquals(10, file.branchLineNumber(2));
+		assertTrue(file.anyBranchCovered(2));
+		assertTrue(file.allBranchesCovered(2));
+
+		assertTrue(file.isPartiallyCovered(0));
+		assertFalse(file.isPartiallyCovered(1));
+		assertFalse(file.isPartiallyCovered(2));
+		assertFalse(file.isPartiallyCovered(3));
+	}
+
+	@Test
+	void testResult_ViewsMatchSourceMaps() {
+		ReportParser.CoverageResult source = createResult();
+		CoverageStore store = CoverageStore.of(source);
+		ReportParser.CoverageResult result = store.result();
+
+		assertEquals(source.lineCoverage(), result.lineCoverage());
+		assertEquals(source.nonFunctionLineCoverage(), result.nonFunctionLineCoverage());
+		assertEquals(source.branchCoverage(), result.branchCoverage());
+		assertEquals(source.functionCoverage(), result.functionCoverage());
+		assertTrue(result.functionLineIndex().isEmpty());
+		assertNull(result.lineCoverage().get("/path/to/other.c"));
+		assertSame(store, CoverageStore.of(result));
+	}
+
+	@Test
+	void testFindFile_MatchesPathSuffix() {
+		CoverageStore store = CoverageStore.of(createResult());
+
+		assertSame(store.file(0), store.findFile(FILE));
+		assertSame(store.file(0), store.findFile("to/file.c"));
+		assertNull(store.findFile("other.c"));
+		assertEquals(0, CoverageStore.of(null).fileCount());
+	}
+}
@@ -0,0 +1,122 @@
+package su.softcom.cldt.testing.tests.core;
+
+import org.junit.jupiter.api.Test;
+
+import su.softcom.cldt.testing.core.DemangleCache;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DemangleCacheTest {
+
+	@Test
+	void testGet_CountsHitsAndMisses() {
+		DemangleCache cache = new DemangleCache(10);
+		cache.put("_Z3foov", "foo()");
+
+		assertEquals("foo()", cache.get("_Z3foov"));
+		assertNull(cache.get("_Z3barv"));
+		assertEquals(1, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+	}
+
+	@Test
+	void testPut_EvictsLeastRecentlyUsed() {
+		DemangleCache cache = new DemangleCache(2);
+		cache.put("_Z1av", "a()");
+		cache.put("_Z1bv", "b()");
+		cache.get("_Z1av");
+		cache.put("_Z1cv", "c()");
+
+		assertEquals(2, cache.size());
+		assertEquals("a()", cache.get("_Z1av"));
+		assertNull(cache.get("_Z1bv"));
+		assertEquals("c()", cache.get("_Z1cv"));
+	}
+
+	@Test
+	void testPut_EvictsOldestEighthWhenFull() {
+		DemangleCache cache = new DemangleCache(80);
+		for (int i = 0; i <= 80; i++) {
+			cache.put("_Z1f" + i, "f" + i);
+		}
+
+		assertEquals(70, cache.size());
+		assertNull(cache.get("_Z1f10"));
+		assertEquals("f11", cache.get("_Z1f11"));
+		assertEquals("f80", cache.get("_Z1f80"));
+	}
+
+	@Test
+	void testConstructor_RejectsNonPositiveSize() {
+		assertThrows(IllegalArgumentException.class, () -> new DemangleCache(0));
+	}
+
+	@Test
+	void testSaveAndLoad_RoundTrip() throws IOException {
+		Path cacheFile = Files.createTempDirectory("test").resolve("cache").resolve("demangle-cache.bin");
+		DemangleCache cache = new DemangleCache(10);
+		cache.put("_Z3foov", "foo()");
+		cache.put("_Z3bari", "bar(int)");
+
+		assertTrue(cache.save(cacheFile));
+		assertFalse(cache.save(cacheFile));
+
+		DemangleCache restored = new DemangleCache(10);
+		assertEquals(2, restored.load(cacheFile));
+		assertEquals("foo()", restored.get("_Z3foov"));
+		assertEquals("bar(int)", restored.get("_Z3bari"));
+		assertFalse(restored.save(cacheFile));
+	}
+
+	@Test
+	void testLoad_MissingFile() throws IOException {
+		DemangleCache cache = new DemangleCache(10);
+
+		assertEquals(0, cache.load(Files.createTempDirectory("test").resolve("missing.bin")));
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	void testLoad_CorruptFile() throws IOException {
+		Path cacheFile = Files.createTempFile("demangle-cache", ".bin");
+		Files.writeString(cacheFile, "not a cache");
+
+		assertThrows(IOException.class, () -> new DemangleCache(10).load(cacheFile));
+	}
+
+	@Test
+	void testConcurrentAccess() throws Exception {
+		DemangleCache cache = new DemangleCache(100);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int thread = 0; thread < 4; thread++) {
+				futures.add(executor.submit(() -> {
+					for (int i = 0; i < 10_000; i++) {
+						String name = "_Z1f" + (i % 200);
+						if (cache.get(name) == null) {
+							cache.put(name, "f" + (i % 200));
+						}
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+
+		assertTrue(cache.size() <= 100);
+		assertEquals(40_000, cache.getHitCount() + cache.getMissCount());
+	}
+}
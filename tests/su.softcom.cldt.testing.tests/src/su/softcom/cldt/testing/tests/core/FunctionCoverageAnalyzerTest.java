@@ -15,6 +15,8 @@ import su.softcom.cldt.testing.core.FunctionNameProcessor;
 import su.softcom.cldt.testing.core.ReportParser;
 import su.softcom.cldt.testing.ui.CoverageDataManager;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -93,10 +95,10 @@ public class FunctionCoverageAnalyzerTest {
 	}
 
 	@Test
-	void testProcessFunctionCoverage_InvalidFunctionExecutionFormat() {
-		setupInvalidFunctionExecutionContext();
+	void testProcessFunctionCoverage_NoFunctionExecutionData() {
+		setupNoFunctionExecutionContext();
 		FunctionCoverageAnalyzer.processFunctionCoverage(context);
-		verifyInvalidFunctionExecutionCoverage();
+		verifyNoFunctionExecutionCoverage();
 	}
 
 	@Test
@@ -120,13 +122,51 @@ public class FunctionCoverageAnalyzerTest {
 		verifyMultipleFunctionsCoverage();
 	}
 
+	@Test
+	void testProcessFunctionCoverage_BoundariesFromSource() throws Exception {
+		Path source = Files.createTempDirectory("test").resolve("math.cpp");
+		Files.writeString(source, String.join("\n", "/* add() { } */", "int add(int a, int b) {",
+				"    const char* s = \"}\";", "    return a + b;", "}", "", "int twice(int x) { return add(x, x); }"));
+
+		Map<Integer, List<ReportParser.MangledDemangledPair>> tempFunctionNames = new HashMap<>();
+		tempFunctionNames.put(2, List.of(new ReportParser.MangledDemangledPair("_Z3addii", "add(int, int)")));
+		tempFunctionNames.put(7, List.of(new ReportParser.MangledDemangledPair("_Z5twicei", "twice(int)")));
+		List<ReportParser.FunctionCoverage> functions = new ArrayList<>();
+		List<ReportParser.LineCoverage> functionLines = new ArrayList<>();
+		List<ReportParser.LineCoverage> nonFunctionLines = new ArrayList<>();
+
+		when(context.currentFile()).thenReturn(source.toString());
+		when(context.tempFunctionNames()).thenReturn(tempFunctionNames);
+		when(context.functionExecutionCounts()).thenReturn(Map.of("_Z3addii", 3, "_Z5twicei", 1));
+		when(context.tempLineCoverage()).thenReturn(List.of(new ReportParser.LineCoverage(4, 3),
+				new ReportParser.LineCoverage(6, 0), new ReportParser.LineCoverage(7, 1)));
+		when(context.currentFunctionCoverage()).thenReturn(functions);
+		when(context.currentLineCoverage()).thenReturn(functionLines);
+		when(context.currentNonFunctionLineCoverage()).thenReturn(nonFunctionLines);
+		when(context.annotationFunctionCoverage()).thenReturn(new ArrayList<>());
+		functionNameProcessorMock.when(() -> FunctionNameProcessor.findCommonFunctionName(anyList()))
+				.thenAnswer(invocation -> invocation.<List<String>>getArgument(0).get(0));
+		functionNameProcessorMock.when(() -> FunctionNameProcessor.isLambdaFunction(anyString())).thenReturn(false);
+
+		FunctionCoverageAnalyzer.processFunctionCoverage(context);
+
+		assertEquals(2, functions.size());
+		assertEquals(new ReportParser.FunctionCoverage("add(int, int)", List.of("_Z3addii"), 3, 2, 5, 2, false),
+				functions.get(0));
+		assertEquals(new ReportParser.FunctionCoverage("twice(int)", List.of("_Z5twicei"), 1, 7, 7, 7, false),
+				functions.get(1));
+		assertEquals(List.of(4, 7), functionLines.stream().map(ReportParser.LineCoverage::lineNumber).toList());
+		assertEquals(List.of(6), nonFunctionLines.stream().map(ReportParser.LineCoverage::lineNumber).toList());
+		verify(logger, never()).log(any());
+	}
+
 	private void setupEmptyFunctionNamesContext() {
 		Map<Integer, List<ReportParser.MangledDemangledPair>> tempFunctionNames = new HashMap<>();
-		List<String> fnExecutionLines = List.of();
+		Map<String, Integer> functionExecutionCounts = Map.of();
 		List<ReportParser.LineCoverage> tempLineCoverage = List.of(new ReportParser.LineCoverage(1, 10));
 
 		when(context.tempFunctionNames()).thenReturn(tempFunctionNames);
-		when(context.fnExecutionLines()).thenReturn(fnExecutionLines);
+		when(context.functionExecutionCounts()).thenReturn(functionExecutionCounts);
 		when(context.tempLineCoverage()).thenReturn(tempLineCoverage);
 		when(currentFunctionCoverage.iterator()).thenReturn(List.<ReportParser.FunctionCoverage>of().iterator());
 	}
@@ -141,14 +181,14 @@ public class FunctionCoverageAnalyzerTest {
 		verify(logger, never()).log(any());
 	}
 
-	private void setupInvalidFunctionExecutionContext() {
+	private void setupNoFunctionExecutionContext() {
 		Map<Integer, List<ReportParser.MangledDemangledPair>> tempFunctionNames = new HashMap<>();
 		tempFunctionNames.put(1, List.of(new ReportParser.MangledDemangledPair("_Zmain", "main")));
-		List<String> fnExecutionLines = List.of("FNDA:invalid,_Zmain");
+		Map<String, Integer> functionExecutionCounts = Map.of();
 		List<ReportParser.LineCoverage> tempLineCoverage = List.of(new ReportParser.LineCoverage(1, 10));
 
 		when(context.tempFunctionNames()).thenReturn(tempFunctionNames);
-		when(context.fnExecutionLines()).thenReturn(fnExecutionLines);
+		when(context.functionExecutionCounts()).thenReturn(functionExecutionCounts);
 		when(context.tempLineCoverage()).thenReturn(tempLineCoverage);
 
 		functionNameProcessorMock.when(() -> FunctionNameProcessor.findCommonFunctionName(anyList()))
@@ -159,7 +199,7 @@ public class FunctionCoverageAnalyzerTest {
 				List.of(new ReportParser.FunctionCoverage("main", List.of("_Zmain"), 0, 1, -1, 1, false)));
 	}
 
-	private void verifyInvalidFunctionExecutionCoverage() {
+	private void verifyNoFunctionExecutionCoverage() {
 		ArgumentCaptor<ReportParser.FunctionCoverage> functionCaptor = ArgumentCaptor
 				.forClass(ReportParser.FunctionCoverage.class);
 		verify(currentFunctionCoverage).add(functionCaptor.capture());
@@ -182,12 +222,12 @@ public class FunctionCoverageAnalyzerTest {
 	private void setupValidFunctionContext() {
 		Map<Integer, List<ReportParser.MangledDemangledPair>> tempFunctionNames = new HashMap<>();
 		tempFunctionNames.put(1, List.of(new ReportParser.MangledDemangledPair("_Zmain", "")));
-		List<String> fnExecutionLines = List.of("FNDA:10,_Zmain");
+		Map<String, Integer> functionExecutionCounts = Map.of("_Zmain", 10);
 		List<ReportParser.LineCoverage> tempLineCoverage = List.of(new ReportParser.LineCoverage(1, 10),
 				new ReportParser.LineCoverage(2, 0));
 
 		when(context.tempFunctionNames()).thenReturn(tempFunctionNames);
-		when(context.fnExecutionLines()).thenReturn(fnExecutionLines);
+		when(context.functionExecutionCounts()).thenReturn(functionExecutionCounts);
 		when(context.tempLineCoverage()).thenReturn(tempLineCoverage);
 
 		functionNameProcessorMock.when(() -> FunctionNameProcessor.findCommonFunctionName(anyList()))
@@ -224,11 +264,11 @@ public class FunctionCoverageAnalyzerTest {
 	private void setupLambdaFunctionContext() {
 		Map<Integer, List<ReportParser.MangledDemangledPair>> tempFunctionNames = new HashMap<>();
 		tempFunctionNames.put(1, List.of(new ReportParser.MangledDemangledPair("_Zlambda", "lambda")));
-		List<String> fnExecutionLines = List.of("FNDA:5,_Zlambda");
+		Map<String, Integer> functionExecutionCounts = Map.of("_Zlambda", 5);
 		List<ReportParser.LineCoverage> tempLineCoverage = List.of(new ReportParser.LineCoverage(1, 5));
 
 		when(context.tempFunctionNames()).thenReturn(tempFunctionNames);
-		when(context.fnExecutionLines()).thenReturn(fnExecutionLines);
+		when(context.functionExecutionCounts()).thenReturn(functionExecutionCounts);
 		when(context.tempLineCoverage()).thenReturn(tempLineCoverage);
 
 		functionNameProcessorMock.when(() -> FunctionNameProcessor.findCommonFunctionName(anyList()))
@@ -263,12 +303,12 @@ public class FunctionCoverageAnalyzerTest {
 		Map<Integer, List<ReportParser.MangledDemangledPair>> tempFunctionNames = new HashMap<>();
 		tempFunctionNames.put(1, List.of(new ReportParser.MangledDemangledPair("_Zmain", "main")));
 		tempFunctionNames.put(3, List.of(new ReportParser.MangledDemangledPair("_Zfunc", "func")));
-		List<String> fnExecutionLines = List.of("FNDA:10,_Zmain", "FNDA:5,_Zfunc");
+		Map<String, Integer> functionExecutionCounts = Map.of("_Zmain", 10, "_Zfunc", 5);
 		List<ReportParser.LineCoverage> tempLineCoverage = List.of(new ReportParser.LineCoverage(1, 10),
 				new ReportParser.LineCoverage(3, 5));
 
 		when(context.tempFunctionNames()).thenReturn(tempFunctionNames);
-		when(context.fnExecutionLines()).thenReturn(fnExecutionLines);
+		when(context.functionExecutionCounts()).thenReturn(functionExecutionCounts);
 		when(context.tempLineCoverage()).thenReturn(tempLineCoverage);
 
 		functionNameProcessorMock.when(() -> FunctionNameProcessor.findCommonFunctionName(anyList()))
@@ -0,0 +1,63 @@
+package su.softcom.cldt.testing.tests.core;
+
+import org.junit.jupiter.api.Test;
+
+import su.softcom.cldt.testing.core.FunctionLineIndex;
+import su.softcom.cldt.testing.core.ReportParser;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FunctionLineIndexTest {
+
+	private static ReportParser.FunctionCoverage function(String name, int startLine, int endLine, boolean isLambda) {
+		return new ReportParser.FunctionCoverage(name, List.of(), 1, startLine, endLine, startLine, isLambda);
+	}
+
+	@Test
+	void testOwnerOf_NestedLambdaIsInnermost() {
+		List<ReportParser.FunctionCoverage> functions = List.of(function("outer", 2, 10, false),
+				function("lambda", 4, 6, true), function("other", 12, 14, false));
+		FunctionLineIndex index = FunctionLineIndex.build(functions, List.of(), List.of());
+
+		assertEquals(-1, index.ownerOf(1));
+		assertEquals(0, index.ownerOf(2));
+		assertEquals(0, index.ownerOf(3));
+		assertEquals(1, index.ownerOf(4));
+		assertEquals(1, index.ownerOf(6));
+		assertEquals(0, index.ownerOf(7));
+		assertEquals(0, index.ownerOf(10));
+		assertEquals(-1, index.ownerOf(11));
+		assertEquals(2, index.ownerOf(14));
+		assertEquals(-1, index.ownerOf(15));
+	}
+
+	@Test
+	void testOwnerOf_SkipsFunctionsWithoutEndLine() {
+		ReportParser.FunctionCoverage withoutEndLine = ReportParser.FunctionCoverage.create("f", List.of(), 0, 3, 3,
+				false);
+		FunctionLineIndex index = FunctionLineIndex.build(List.of(withoutEndLine), List.of(), List.of());
+
+		assertEquals(-1, index.ownerOf(3));
+	}
+
+	@Test
+	void testRangeCounts() {
+		List<ReportParser.LineCoverage> lines = List.of(new ReportParser.LineCoverage(5, 0),
+				new ReportParser.LineCoverage(2, 3), new ReportParser.LineCoverage(4, 1),
+				new ReportParser.LineCoverage(8, 0), new ReportParser.LineCoverage(4, 0));
+		List<ReportParser.BranchCoverage> branches = List.of(new ReportParser.BranchCoverage(4, true),
+				new ReportParser.BranchCoverage(4, false), new ReportParser.BranchCoverage(9, true));
+		FunctionLineIndex index = FunctionLineIndex.build(List.of(), lines, branches);
+
+		assertEquals(4, index.lineCount(2, 5));
+		assertEquals(2, index.coveredLineCount(2, 5));
+		assertEquals(1, index.lineCount(6, 8));
+		assertEquals(0, index.coveredLineCount(6, 8));
+		assertEquals(0, index.lineCount(5, 4));
+		assertEquals(2, index.branchCount(1, 8));
+		assertEquals(1, index.coveredBranchCount(1, 8));
+		assertEquals(2, index.coveredBranchCount(1, 9));
+	}
+}
@@ -15,14 +15,13 @@ import org.eclipse.core.runtime.Status;
 import su.softcom.cldt.testing.core.FunctionNameProcessor;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -48,15 +47,12 @@ public class FunctionNameProcessorTest {
 		platformMock = mockStatic(Platform.class);
 		platformMock.when(() -> Platform.getLog(FunctionNameProcessor.class)).thenReturn(logger);
 
-		Field cacheField = FunctionNameProcessor.class.getDeclaredField("DEMANGLE_CACHE");
-		cacheField.setAccessible(true);
-		@SuppressWarnings("unchecked")
-		Map<String, String> cache = (Map<String, String>) cacheField.get(null);
-		cache.clear();
+		FunctionNameProcessor.getDemangleCache().clear();
 	}
 
 	@AfterEach
 	void tearDown() throws Exception {
+		FunctionNameProcessor.shutdownDemangler();
 		closeable.close();
 		platformMock.close();
 	}
@@ -82,12 +78,10 @@ public class FunctionNameProcessorTest {
 
 		try (MockedConstruction<ProcessBuilder> processBuilderMock = mockConstruction(ProcessBuilder.class,
 				(mock, context) -> {
-					when(mock.redirectErrorStream(true)).thenReturn(mock);
 					when(mock.start()).thenReturn(process);
 				})) {
 			when(process.getInputStream()).thenReturn(new ByteArrayInputStream(demangledName.getBytes()));
-			when(process.waitFor(10, TimeUnit.SECONDS)).thenReturn(true);
-			when(process.exitValue()).thenReturn(0);
+			when(process.getOutputStream()).thenReturn(new ByteArrayOutputStream());
 
 			String result = FunctionNameProcessor.demangle(mangledName);
 
@@ -96,20 +90,73 @@ public class FunctionNameProcessorTest {
 		}
 	}
 
+	@Test
+	void testDemangleAll_SingleRoundTrip() throws Exception {
+		ByteArrayOutputStream demanglerInput = new ByteArrayOutputStream();
+
+		try (MockedConstruction<ProcessBuilder> processBuilderMock = mockConstruction(ProcessBuilder.class,
+				(mock, context) -> when(mock.start()).thenReturn(process))) {
+			when(process.getInputStream()).thenReturn(new ByteArrayInputStream("foo()\nbar(int)\n".getBytes()));
+			when(process.getOutputStream()).thenReturn(demanglerInput);
+			when(process.isAlive()).thenReturn(true);
+
+			Map<String, String> result = FunctionNameProcessor.demangleAll(List.of("_Zfoo", "_Zbar", "_Zfoo"));
+
+			assertEquals(2, result.size());
+			assertEquals("foo()", result.get("_Zfoo"));
+			assertEquals("bar(int)", result.get("_Zbar"));
+			assertEquals("_Zfoo\n_Zbar\n", demanglerInput.toString());
+			assertEquals(1, processBuilderMock.constructed().size());
+			assertEquals("foo()", FunctionNameProcessor.demangle("_Zfoo"));
+			verify(logger, never()).log(any());
+		}
+	}
+
+	@Test
+	void testDemangleAll_InProcessFastPath() {
+		try (MockedConstruction<ProcessBuilder> processBuilderMock = mockConstruction(ProcessBuilder.class)) {
+			Map<String, String> result = FunctionNameProcessor
+					.demangleAll(List.of("_ZN2ns7MyClass10myFunctionEi", "main.cpp:_ZL3foov", "main"));
+
+			assertEquals("ns::MyClass::myFunction(int)", result.get("_ZN2ns7MyClass10myFunctionEi"));
+			assertEquals("foo()", result.get("main.cpp:_ZL3foov"));
+			assertEquals("main", result.get("main"));
+			assertTrue(processBuilderMock.constructed().isEmpty());
+			verify(logger, never()).log(any());
+		}
+	}
+
+	@Test
+	void testDemangleAll_RestartsCrashedDemangler() throws Exception {
+		Process crashedProcess = mock(Process.class);
+		when(crashedProcess.getInputStream()).thenReturn(new ByteArrayInputStream(new byte[0]));
+		when(crashedProcess.getOutputStream()).thenReturn(new ByteArrayOutputStream());
+		when(process.getInputStream()).thenReturn(new ByteArrayInputStream("main()\n".getBytes()));
+		when(process.getOutputStream()).thenReturn(new ByteArrayOutputStream());
+
+		try (MockedConstruction<ProcessBuilder> processBuilderMock = mockConstruction(ProcessBuilder.class,
+				(mock, context) -> when(mock.start())
+						.thenReturn(context.getCount() == 1 ? crashedProcess : process))) {
+			Map<String, String> result = FunctionNameProcessor.demangleAll(List.of("_Zmain"));
+
+			assertEquals("main()", result.get("_Zmain"));
+			assertEquals(2, processBuilderMock.constructed().size());
+			verify(crashedProcess).destroy();
+			verify(logger, never()).log(any());
+		}
+	}
+
 	@Test
 	void testDemangle_CacheHit() throws Exception {
 		String mangledName = "_Zmain";
 		String demangledName = "main()";
 
-		Field cacheField = FunctionNameProcessor.class.getDeclaredField("DEMANGLE_CACHE");
-		cacheField.setAccessible(true);
-		@SuppressWarnings("unchecked")
-		Map<String, String> cache = (Map<String, String>) cacheField.get(null);
-		cache.put(mangledName, demangledName);
+		FunctionNameProcessor.getDemangleCache().put(mangledName, demangledName);
 
 		String result = FunctionNameProcessor.demangle(mangledName);
 
 		assertEquals(demangledName, result);
+		assertEquals(1, FunctionNameProcessor.getDemangleCache().getHitCount());
 		verify(logger, never()).log(any());
 	}
 
@@ -119,7 +166,6 @@ public class FunctionNameProcessorTest {
 
 		try (MockedConstruction<ProcessBuilder> processBuilderMock = mockConstruction(ProcessBuilder.class,
 				(mock, context) -> {
-					when(mock.redirectErrorStream(true)).thenReturn(mock);
 					when(mock.start()).thenThrow(new IOException("Failed to start process"));
 				})) {
 			String result = FunctionNameProcessor.demangle(mangledName);
@@ -129,6 +175,19 @@ public class FunctionNameProcessorTest {
 			verify(logger).log(statusCaptor.capture());
 			assertEquals(Status.ERROR, statusCaptor.getValue().getSeverity());
 			assertTrue(statusCaptor.getValue().getMessage().contains("IO error while demangling name"));
+			assertEquals(0, FunctionNameProcessor.getDemangleCache().size());
+		}
+	}
+
+	@Test
+	void testDemangleAll_FailureIsNotCached() throws Exception {
+		try (MockedConstruction<ProcessBuilder> processBuilderMock = mockConstruction(ProcessBuilder.class,
+				(mock, context) -> when(mock.start()).thenThrow(new IOException("Failed to start process")))) {
+			Map<String, String> result = FunctionNameProcessor.demangleAll(List.of("_Zfoo", "main.cpp:_Zbar"));
+
+			assertEquals("_Zfoo", result.get("_Zfoo"));
+			assertEquals("_Zbar", result.get("main.cpp:_Zbar"));
+			assertEquals(0, FunctionNameProcessor.getDemangleCache().size());
 		}
 	}
 
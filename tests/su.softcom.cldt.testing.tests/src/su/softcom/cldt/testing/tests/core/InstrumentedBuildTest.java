@@ -0,0 +1,112 @@
+package su.softcom.cldt.testing.tests.core;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IFolder;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.IPath;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import su.softcom.cldt.core.cmake.ICMakeProject;
+import su.softcom.cldt.core.cmake.Target;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class InstrumentedBuildTest {
+	private static final String INSTRUMENTATION_FLAGS = "-fprofile-instr-generate -fcoverage-mapping";
+
+	private Path tempDir;
+	private Path regularBuildDir;
+	private Path coverageBuildDir;
+	private ICMakeProject cmakeProject;
+	private Object instrumentedBuild;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		tempDir = Files.createTempDirectory("testInstrumentedBuild");
+		regularBuildDir = Files.createDirectories(tempDir.resolve("build"));
+		coverageBuildDir = tempDir.resolve("build-coverage");
+
+		IFolder buildFolder = mock(IFolder.class);
+		IFolder coverageFolder = mock(IFolder.class);
+		IProject project = mock(IProject.class);
+		IPath relativePath = mock(IPath.class);
+		when(relativePath.toString()).thenReturn("build");
+		when(buildFolder.getProjectRelativePath()).thenReturn(relativePath);
+		when(buildFolder.getLocation()).thenReturn(location(regularBuildDir));
+		when(coverageFolder.getLocation()).thenReturn(location(coverageBuildDir));
+		when(project.getFolder("build-coverage")).thenReturn(coverageFolder);
+		when(project.getLocation()).thenReturn(location(tempDir));
+
+		cmakeProject = mock(ICMakeProject.class);
+		when(cmakeProject.getProject()).thenReturn(project);
+		when(cmakeProject.getBuildFolder()).thenReturn(buildFolder);
+		when(cmakeProject.getBuildArguments())
+				.thenReturn(Map.of("CMAKE_BUILD_TYPE", "Debug", "CMAKE_CXX_FLAGS", "-O2"));
+
+		Constructor<?> constructor = Class.forName("su.softcom.cldt.testing.core.InstrumentedBuild")
+				.getDeclaredConstructor(ICMakeProject.class);
+		constructor.setAccessible(true);
+		instrumentedBuild = constructor.newInstance(cmakeProject);
+	}
+
+	@Test
+	void testGetConfigureCommand_UsesRegularCacheAndKeepsProjectArguments() throws Exception {
+		Files.writeString(regularBuildDir.resolve("CMakeCache.txt"), "# This is the CMakeCache file.\n"
+				+ "CMAKE_GENERATOR:INTERNAL=Ninja\nCMAKE_HOME_DIRECTORY:INTERNAL=/src/app\n");
+
+		List<?> command = (List<?>) getMethod("getConfigureCommand").invoke(instrumentedBuild);
+
+		assertEquals(List.of("cmake", "-S", "/src/app", "-B", coverageBuildDir.toString(), "-G", "Ninja",
+				"-DCMAKE_BUILD_TYPE=Debug", "-DCMAKE_CXX_FLAGS=-O2 " + INSTRUMENTATION_FLAGS,
+				"-DCMAKE_C_FLAGS=" + INSTRUMENTATION_FLAGS), command);
+		verify(cmakeProject, never()).setBuildArguments(any());
+	}
+
+	@Test
+	void testGetConfigureCommand_WithoutRegularCacheUsesProjectLocation() throws Exception {
+		List<?> command = (List<?>) getMethod("getConfigureCommand").invoke(instrumentedBuild);
+
+		assertEquals(List.of("cmake", "-S", tempDir.toString(), "-B", coverageBuildDir.toString()),
+				command.subList(0, 5));
+		assertFalse(command.contains("-G"));
+	}
+
+	@Test
+	void testFindArtifact_MapsRegularArtifactToCoverageBuild() throws Exception {
+		Path instrumented = Files.createDirectories(coverageBuildDir.resolve("bin")).resolve("app");
+		Files.writeString(instrumented, "#!/bin/sh\n");
+		assertTrue(instrumented.toFile().setExecutable(true));
+		IFile artifact = mock(IFile.class);
+		when(artifact.getRawLocation()).thenReturn(location(regularBuildDir.resolve("bin").resolve("app")));
+		Target target = mock(Target.class);
+		when(target.getArtifacts()).thenReturn(List.of(artifact));
+
+		Method findArtifact = getMethod("findArtifact", Target.class);
+		assertEquals(instrumented.toString(), findArtifact.invoke(instrumentedBuild, target));
+
+		Files.delete(instrumented);
+		assertNull(findArtifact.invoke(instrumentedBuild, target));
+	}
+
+	private static IPath location(Path path) {
+		IPath location = mock(IPath.class);
+		when(location.toOSString()).thenReturn(path.toString());
+		when(location.makeAbsolute()).thenReturn(location);
+		return location;
+	}
+
+	private Method getMethod(String name, Class<?>... parameterTypes) throws NoSuchMethodException {
+		Method method = instrumentedBuild.getClass().getDeclaredMethod(name, parameterTypes);
+		method.setAccessible(true);
+		return method;
+	}
+}
@@ -0,0 +1,89 @@
+package su.softcom.cldt.testing.tests.core;
+
+import su.softcom.cldt.testing.core.ItaniumDemangler;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares the in-process demangler with one llvm-cxxfilt round trip over the
+ * recorded corpus. Run as a Java application; the external pass is skipped when
+ * llvm-cxxfilt is not on the PATH.
+ */
+public class ItaniumDemanglerBenchmark {
+	private static final int WARMUP_ROUNDS = 20;
+	private static final int MEASURED_ROUNDS = 50;
+	private static final int REPETITIONS = 50;
+
+	public static void main(String[] args) throws Exception {
+		List<String> names = new ArrayList<>();
+		for (String[] entry : ItaniumDemanglerTest.loadCorpus()) {
+			for (int i = 0; i < REPETITIONS; i++) {
+				names.add(entry[0]);
+			}
+		}
+
+		for (int i = 0; i < WARMUP_ROUNDS; i++) {
+			demangleInProcess(names);
+		}
+		long best = Long.MAX_VALUE;
+		for (int i = 0; i < MEASURED_ROUNDS; i++) {
+			long start = System.nanoTime();
+			demangleInProcess(names);
+			best = Math.min(best, System.nanoTime() - start);
+		}
+		report("in-process", names.size(), best);
+
+		try {
+			long start = System.nanoTime();
+			demangleExternally(names);
+			report("llvm-cxxfilt", names.size(), System.nanoTime() - start);
+		} catch (IOException e) {
+			System.out.println("llvm-cxxfilt: skipped (" + e.getMessage() + ")");
+		}
+	}
+
+	private static int demangleInProcess(List<String> names) {
+		int length = 0;
+		for (String name : names) {
+			String demangled = ItaniumDemangler.demangle(name);
+			length += demangled != null ? demangled.length() : 0;
+		}
+		return length;
+	}
+
+	private static void demangleExternally(List<String> names) throws IOException, InterruptedException {
+		Process process = new ProcessBuilder("llvm-cxxfilt").redirectError(ProcessBuilder.Redirect.DISCARD).start();
+		Thread writer = new Thread(() -> {
+			try (BufferedWriter input = new BufferedWriter(
+					new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8))) {
+				for (String name : names) {
+					input.write(name);
+					input.write('\n');
+				}
+			} catch (IOException e) {
+				process.destroy();
+			}
+		});
+		writer.start();
+		try (BufferedReader output = new BufferedReader(
+				new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+			while (output.readLine() != null) {
+				// drain
+			}
+		}
+		writer.join();
+		process.waitFor();
+	}
+
+	private static void report(String label, int count, long nanos) {
+		System.out.printf("%s: %d names in %.1f ms (%.0f ns/name)%n", label, count, nanos / 1_000_000.0,
+				(double) nanos / count);
+	}
+}
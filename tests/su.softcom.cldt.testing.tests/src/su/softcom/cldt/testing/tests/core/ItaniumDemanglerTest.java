@@ -0,0 +1,76 @@
+package su.softcom.cldt.testing.tests.core;
+
+import org.junit.jupiter.api.Test;
+
+import su.softcom.cldt.testing.core.ItaniumDemangler;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ItaniumDemanglerTest {
+
+	static final String CORPUS_RESOURCE = "itanium-demangler-corpus.tsv";
+
+	@Test
+	void testDemangle_RecordedCorpus() throws IOException {
+		List<String[]> corpus = loadCorpus();
+		List<String> mismatches = new ArrayList<>();
+		for (String[] entry : corpus) {
+			String demangled = ItaniumDemangler.demangle(entry[0]);
+			if (!entry[1].equals(demangled)) {
+				mismatches.add(entry[0] + " -> " + demangled);
+			}
+		}
+
+		assertFalse(corpus.isEmpty());
+		assertEquals(List.of(), mismatches);
+	}
+
+	@Test
+	void testDemangle_CommonShapes() {
+		assertEquals("foo()", ItaniumDemangler.demangle("_Z3foov"));
+		assertEquals("foo()", ItaniumDemangler.demangle("_ZL3foov"));
+		assertEquals("ns::MyClass::myFunction(int) const", ItaniumDemangler.demangle("_ZNK2ns7MyClass10myFunctionEi"));
+		assertEquals("int max<int>(int, int)", ItaniumDemangler.demangle("_Z3maxIiET_S0_S0_"));
+		assertEquals("A<int>::~A()", ItaniumDemangler.demangle("_ZN1AIiED2Ev"));
+		assertEquals("(anonymous namespace)::helper(char const*)",
+				ItaniumDemangler.demangle("_ZN12_GLOBAL__N_16helperEPKc"));
+		assertEquals("f()::{lambda(int)#1}::operator()(int) const", ItaniumDemangler.demangle("_ZZ1fvENKUliE_clEi"));
+		assertEquals("vtable for Derived", ItaniumDemangler.demangle("_ZTV7Derived"));
+	}
+
+	@Test
+	void testDemangle_UnsupportedInput() {
+		assertNull(ItaniumDemangler.demangle(null));
+		assertNull(ItaniumDemangler.demangle(""));
+		assertNull(ItaniumDemangler.demangle("main"));
+		assertNull(ItaniumDemangler.demangle("_Zmain"));
+		assertNull(ItaniumDemangler.demangle("_Z3foovE"));
+		assertNull(ItaniumDemangler.demangle("_Z3foov.cold"));
+		assertNull(ItaniumDemangler.demangle("_Z3fooIXadL_Z3barvEEEvv"));
+		assertNull(ItaniumDemangler.demangle("_Z1fP" + "P".repeat(1000) + "i"));
+	}
+
+	static List<String[]> loadCorpus() throws IOException {
+		List<String[]> corpus = new ArrayList<>();
+		try (InputStream stream = ItaniumDemanglerTest.class.getResourceAsStream(CORPUS_RESOURCE)) {
+			assertNotNull(stream, "Missing " + CORPUS_RESOURCE);
+			BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8));
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (line.isEmpty() || line.startsWith("#")) {
+					continue;
+				}
+				corpus.add(line.split("\t", 2));
+			}
+		}
+		return corpus;
+	}
+}
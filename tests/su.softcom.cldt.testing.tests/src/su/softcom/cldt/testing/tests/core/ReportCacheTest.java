@@ -0,0 +1,102 @@
+package su.softcom.cldt.testing.tests.core;
+
+import org.junit.jupiter.api.Test;
+
+import su.softcom.cldt.testing.core.CoverageSnapshot;
+import su.softcom.cldt.testing.core.ReportCache;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReportCacheTest {
+	private static final String EXPORT_COMMAND = "llvm-cov --format=lcov";
+
+	private static byte[] createElf(byte[] buildId) {
+		int noteSize = 16 + buildId.length;
+		ByteBuffer elf = ByteBuffer.allocate(64 + noteSize + 2 * 64).order(ByteOrder.LITTLE_ENDIAN);
+		elf.put(new byte[] { 0x7f, 'E', 'L', 'F', 2, 1, 1 });
+		elf.putLong(0x28, 64 + noteSize);
+		elf.putShort(0x3a, (short) 64);
+		elf.putShort(0x3c, (short) 2);
+		elf.putInt(64, 4).putInt(68, buildId.length).putInt(72, 3);
+		elf.put(76, new byte[] { 'G', 'N', 'U', 0 });
+		elf.put(80, buildId);
+		int noteSection = 64 + noteSize + 64;
+		elf.putInt(noteSection + 4, 7);
+		elf.putLong(noteSection + 0x18, 64);
+		elf.putLong(noteSection + 0x20, noteSize);
+		return elf.array();
+	}
+
+	@Test
+	void testReadBuildId_ReturnsGnuNote() throws IOException {
+		Path dir = Files.createTempDirectory("test");
+		Path executable = Files.write(dir.resolve("app"), createElf(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 }));
+		Path script = Files.writeString(dir.resolve("app.sh"), "#!/bin/sh\n");
+
+		assertArrayEquals(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 }, ReportCache.readBuildId(executable));
+		assertNull(ReportCache.readBuildId(script));
+	}
+
+	@Test
+	void testComputeKey_DependsOnInputs() throws IOException {
+		Path dir = Files.createTempDirectory("test");
+		List<Path> rawProfiles = List.of(Files.write(dir.resolve("coverage.profraw"), new byte[] { 10, 20, 30 }));
+		Path executable = Files.write(dir.resolve("app"), createElf(new byte[] { 1, 2, 3, 4 }));
+		List<Path> executables = List.of(executable);
+		List<String> scope = List.of("a.cpp", "b.cpp");
+
+		String key = ReportCache.computeKey(rawProfiles, executables, scope, EXPORT_COMMAND);
+		assertEquals(key, ReportCache.computeKey(rawProfiles, executables, List.of("b.cpp", "a.cpp"), EXPORT_COMMAND));
+		assertNotEquals(key, ReportCache.computeKey(rawProfiles, executables, List.of("a.cpp"), EXPORT_COMMAND));
+		assertNotEquals(key, ReportCache.computeKey(rawProfiles, executables, scope, "llvm-cov --format=text"));
+
+		Files.write(rawProfiles.get(0), new byte[] { 10, 20, 31 });
+		String changedProfileKey = ReportCache.computeKey(rawProfiles, executables, scope, EXPORT_COMMAND);
+		assertNotEquals(key, changedProfileKey);
+
+		Files.write(executable, createElf(new byte[] { 1, 2, 3, 5 }));
+		String changedExecutableKey = ReportCache.computeKey(rawProfiles, executables, scope, EXPORT_COMMAND);
+		assertNotEquals(changedProfileKey, changedExecutableKey);
+
+		Path otherExecutable = Files.write(dir.resolve("other"), createElf(new byte[] { 9, 9, 9, 9 }));
+		assertNotEquals(changedExecutableKey,
+				ReportCache.computeKey(rawProfiles, List.of(executable, otherExecutable), scope, EXPORT_COMMAND));
+	}
+
+	@Test
+	void testComputeKey_IgnoresRawProfileNamesAndOrder() throws IOException {
+		Path dir = Files.createTempDirectory("test");
+		List<Path> executables = List.of(Files.write(dir.resolve("app"), createElf(new byte[] { 1, 2, 3, 4 })));
+		Path first = Files.write(dir.resolve("coverage-100-1.profraw"), new byte[] { 1 });
+		Path second = Files.write(dir.resolve("coverage-101-1.profraw"), new byte[] { 2 });
+		Path renamed = Files.write(dir.resolve("coverage-200-1.profraw"), new byte[] { 2 });
+
+		List<String> scope = List.of("a.cpp");
+
+		String key = ReportCache.computeKey(List.of(first, second), executables, scope, EXPORT_COMMAND);
+		assertEquals(key, ReportCache.computeKey(List.of(renamed, first), executables, scope, EXPORT_COMMAND));
+		assertNotEquals(key, ReportCache.computeKey(List.of(first), executables, scope, EXPORT_COMMAND));
+	}
+
+	@Test
+	void testMatches_RequiresStoredKeyAndSnapshot() throws IOException {
+		Path dir = Files.createTempDirectory("test");
+
+		ReportCache.store(dir, "abc");
+		assertFalse(ReportCache.matches(dir, "abc"));
+
+		Files.write(dir.resolve(CoverageSnapshot.FILE_NAME), new byte[0]);
+		assertTrue(ReportCache.matches(dir, "abc"));
+		assertFalse(ReportCache.matches(dir, "abd"));
+
+		ReportCache.invalidate(dir);
+		assertFalse(ReportCache.matches(dir, "abc"));
+	}
+}
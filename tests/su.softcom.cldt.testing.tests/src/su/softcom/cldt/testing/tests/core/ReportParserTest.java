@@ -9,12 +9,16 @@ import org.mockito.MockedStatic;
 import org.mockito.MockitoAnnotations;
 import org.eclipse.core.runtime.ILog;
 import org.eclipse.core.runtime.Platform;
+import org.eclipse.core.runtime.Status;
 
 import su.softcom.cldt.testing.core.FunctionCoverageAnalyzer;
 import su.softcom.cldt.testing.core.FunctionNameProcessor;
 import su.softcom.cldt.testing.core.ReportParser;
 import su.softcom.cldt.testing.ui.CoverageDataManager;
 
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -149,6 +153,29 @@ public class ReportParserTest {
 		}
 	}
 
+	@Test
+	void testParseLcovReport_FunctionExecutionCounts() {
+		List<String> reportLines = Arrays.asList("SF:/path/to/file.c", "FN:1,_Zmain", "FNDA:3,_Zmain",
+				"FNDA:7,_Zmain", "FNDA:invalid,_Zmain", "FNDA:5", "FNF:1", "FNH:1", "end_of_record");
+
+		try (MockedStatic<FunctionNameProcessor> functionNameProcessorMock = mockStatic(FunctionNameProcessor.class)) {
+			functionNameProcessorMock.when(() -> FunctionNameProcessor.demangleAll(anyList()))
+					.thenReturn(Map.of("_Zmain", "main"));
+			functionNameProcessorMock.when(() -> FunctionNameProcessor.findCommonFunctionName(anyList()))
+					.thenReturn("main");
+			ReportParser.CoverageResult result = ReportParser.parseLcovReport(reportLines);
+
+			List<ReportParser.FunctionCoverage> functions = result.functionCoverage().get("/path/to/file.c");
+			assertEquals(1, functions.size());
+			assertEquals(7, functions.get(0).executionCount());
+			assertEquals(7, result.annotationFunctionCoverage().get("/path/to/file.c").get(0).executionCount());
+			ArgumentCaptor<Status> statusCaptor = ArgumentCaptor.forClass(Status.class);
+			verify(logger, atLeastOnce()).log(statusCaptor.capture());
+			assertTrue(statusCaptor.getAllValues().stream()
+					.anyMatch(status -> status.getMessage().contains("FNDA:invalid,_Zmain")));
+		}
+	}
+
 	@Test
 	void testParseLcovReport_InvalidCounterFormat() {
 		List<String> reportLines = Arrays.asList("SF:/path/to/file.c", "LF:invalid", "LH:0", "end_of_record");
@@ -172,4 +199,152 @@ public class ReportParserTest {
 		assertNotNull(resultCaptor.getValue());
 		assertEquals(result, resultCaptor.getValue());
 	}
-}
\ No newline at end of file
+
+	@Test
+	void testParseLcovReport_StreamingReader() throws IOException {
+		String report = "SF:/path/to/file1.c\nDA:1,10\nDA:2,0\nLF:2\nLH:1\nend_of_record\n"
+				+ "SF:/path/to/file2.c\nDA:1,0\nLF:1\nLH:0\nend_of_record\n";
+
+		ReportParser.CoverageResult result = ReportParser.parseLcovReport(new StringReader(report), path -> true);
+
+		Map<String, Map<String, Object[]>> coverageResults = result.fileCoverage();
+		assertEquals(2, coverageResults.size());
+		assertEquals("50.00%", coverageResults.get("/path/to/file1.c").get("Lines")[1]);
+		assertEquals(2, result.nonFunctionLineCoverage().get("/path/to/file1.c").size());
+		assertEquals("0.00%", coverageResults.get("/path/to/file2.c").get("Lines")[1]);
+	}
+
+	@Test
+	void testParseLcovReport_StreamingReaderSkipsFilteredRecords() throws IOException {
+		String report = "SF:/path/to/file1.c\nDA:1,10\nLF:1\nLH:1\nend_of_record\n"
+				+ "SF:/usr/include/stdio.h\nDA:1,0\nLF:1\nLH:0\nend_of_record\n";
+
+		ReportParser.CoverageResult result = ReportParser.parseLcovReport(new StringReader(report),
+				path -> path.endsWith("file1.c"));
+
+		assertEquals(1, result.fileCoverage().size());
+		assertNotNull(result.fileCoverage().get("/path/to/file1.c"));
+		assertNull(result.lineCoverage().get("/usr/include/stdio.h"));
+	}
+
+	@Test
+	void testParseLcovReport_LargeRecordParsesInLinearTime() {
+		List<String> smallRecord = createLargeRecord(10_000);
+		List<String> largeRecord = createLargeRecord(100_000);
+		ReportParser.parseLcovReport(largeRecord);
+
+		long smallTime = measureBestParseTime(smallRecord);
+		long largeTime = measureBestParseTime(largeRecord);
+
+		ReportParser.CoverageResult result = ReportParser.parseLcovReport(largeRecord);
+		assertEquals(100_000, result.nonFunctionLineCoverage().get("/path/to/generated.c").size());
+		assertEquals(50_000, result.branchCoverage().get("/path/to/generated.c").size());
+		assertEquals("50.00%", result.fileCoverage().get("/path/to/generated.c").get("Lines")[1]);
+		assertTrue(largeTime < smallTime * 40,
+				String.format("10x more lines took %.1fx longer", (double) largeTime / Math.max(smallTime, 1)));
+	}
+
+	@Test
+	void testParseLcovReport_ParallelMatchesSequential() throws IOException {
+		StringBuilder report = new StringBuilder();
+		for (int file = 0; file < 40; file++) {
+			report.append("SF:/path/to/file").append(file % 30).append(".c\n");
+			report.append("FN:2,_Z3fooi\nFNDA:").append(file).append(",_Z3fooi\n");
+			for (int line = 1; line <= 50; line++) {
+				report.append("DA:").append(line).append(',').append((line + file) % 3).append('\n');
+			}
+			report.append("BRDA:3,0,0,").append(file % 2).append("\nLF:50\nLH:33\nend_of_record\n");
+		}
+
+		ReportParser.CoverageResult sequential = ReportParser.parseLcovReport(new StringReader(report.toString()),
+				path -> true);
+		ReportParser.CoverageResult parallel = ReportParser.parseLcovReport(new StringReader(report.toString()),
+				path -> true, 4);
+
+		assertEquals(30, parallel.fileCoverage().size());
+		assertEquals(sequential.lineCoverage(), parallel.lineCoverage());
+		assertEquals(sequential.nonFunctionLineCoverage(), parallel.nonFunctionLineCoverage());
+		assertEquals(sequential.branchCoverage(), parallel.branchCoverage());
+		assertEquals(sequential.functionCoverage(), parallel.functionCoverage());
+		assertEquals(sequential.annotationFunctionCoverage(), parallel.annotationFunctionCoverage());
+		for (String file : sequential.fileCoverage().keySet()) {
+			assertArrayEquals(sequential.fileCoverage().get(file).get("Lines"),
+					parallel.fileCoverage().get(file).get("Lines"));
+		}
+		assertEquals(39, parallel.functionCoverage().get("/path/to/file9.c").get(0).executionCount());
+	}
+
+	@Test
+	void testParseJsonExport_RegionsDefineFunctionBoundaries() throws IOException {
+		String export = "{\"data\":[{\"files\":["
+				+ "{\"branches\":[[2,7,2,12,1,2,0,0,4]],\"expansions\":[],\"filename\":\"/src/math.cpp\","
+				+ "\"segments\":[[1,23,3,true,true,false],[2,14,1,true,true,true],[3,5,1,true,true,false],"
+				+ "[3,14,3,true,false,false],[4,12,0,false,false,false],[6,18,0,true,true,false],"
+				+ "[6,35,0,false,false,false]],"
+				+ "\"summary\":{\"branches\":{\"count\":2,\"covered\":2,\"notcovered\":0,\"percent\":100},"
+				+ "\"functions\":{\"count\":2,\"covered\":1,\"percent\":50},"
+				+ "\"lines\":{\"count\":5,\"covered\":4,\"percent\":80}}},"
+				+ "{\"branches\":[],\"filename\":\"/usr/include/stdio.h\",\"segments\":[[1,1,5,true,true,false]]}],"
+				+ "\"functions\":["
+				+ "{\"branches\":[],\"count\":3,\"filenames\":[\"/src/math.cpp\"],\"name\":\"_Z3addii\","
+				+ "\"regions\":[[1,23,4,12,3,0,0,0],[2,14,3,5,1,0,0,3],[3,5,3,14,1,0,0,0]]},"
+				+ "{\"count\":0,\"filenames\":[\"/src/math.cpp\"],\"name\":\"_Z5twicei\","
+				+ "\"regions\":[[6,18,6,35,0,0,0,0]]}],"
+				+ "\"totals\":{\"lines\":{\"count\":5}}}],"
+				+ "\"type\":\"llvm.coverage.json.export\",\"version\":\"2.0.1\"}";
+
+		ReportParser.CoverageResult result = ReportParser.parseJsonExport(new StringReader(export),
+				path -> path.startsWith("/src/"));
+
+		assertEquals(1, result.fileCoverage().size());
+		assertEquals("80.00%", result.fileCoverage().get("/src/math.cpp").get("Lines")[1]);
+		assertEquals("50.00%", result.fileCoverage().get("/src/math.cpp").get("Functions")[1]);
+		assertEquals(List.of(new ReportParser.LineCoverage(1, 3), new ReportParser.LineCoverage(2, 3),
+				new ReportParser.LineCoverage(3, 1), new ReportParser.LineCoverage(4, 3),
+				new ReportParser.LineCoverage(6, 0)), result.lineCoverage().get("/src/math.cpp"));
+		assertTrue(result.nonFunctionLineCoverage().get("/src/math.cpp").isEmpty());
+		assertEquals(List.of(new ReportParser.BranchCoverage(2, true), new ReportParser.BranchCoverage(2, true)),
+				result.branchCoverage().get("/src/math.cpp"));
+
+		List<ReportParser.FunctionCoverage> functions = result.functionCoverage().get("/src/math.cpp");
+		assertEquals(2, functions.size());
+		assertEquals(1, functions.get(0).startLine());
+		assertEquals(4, functions.get(0).endLine());
+		assertEquals(3, functions.get(0).executionCount());
+		assertEquals(6, functions.get(1).startLine());
+		assertEquals(6, functions.get(1).endLine());
+		assertEquals(0, functions.get(1).executionCount());
+		verify(logger, never()).log(any());
+	}
+
+	@Test
+	void testParseJsonExport_MalformedDocument() {
+		assertThrows(IOException.class,
+				() -> ReportParser.parseJsonExport(new StringReader("{\"data\":[{\"files\":[}"), path -> true));
+	}
+
+	private static List<String> createLargeRecord(int lineCount) {
+		List<String> reportLines = new ArrayList<>(lineCount * 2);
+		reportLines.add("SF:/path/to/generated.c");
+		for (int line = 1; line <= lineCount; line++) {
+			reportLines.add("DA:" + line + "," + (line % 2));
+			if (line % 2 == 0) {
+				reportLines.add("BRDA:" + line + ",0,0," + (line % 4));
+			}
+		}
+		reportLines.add("LF:" + lineCount);
+		reportLines.add("LH:" + lineCount / 2);
+		reportLines.add("end_of_record");
+		return reportLines;
+	}
+
+	private static long measureBestParseTime(List<String> reportLines) {
+		long best = Long.MAX_VALUE;
+		for (int i = 0; i < 3; i++) {
+			long start = System.nanoTime();
+			ReportParser.parseLcovReport(reportLines);
+			best = Math.min(best, System.nanoTime() - start);
+		}
+		return best;
+	}
+}